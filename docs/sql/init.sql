@@ -158,7 +158,11 @@ CREATE TABLE `novel_project` (
     KEY `idx_user_id` (`user_id`),
     KEY `idx_status` (`status`),
     KEY `idx_create_time` (`create_time`),
-    KEY `idx_is_deleted` (`is_deleted`)
+    KEY `idx_is_deleted` (`is_deleted`),
+    KEY `idx_user_update_time` (`user_id`, `is_deleted`, `update_time`, `id`),
+    KEY `idx_user_create_time` (`user_id`, `is_deleted`, `create_time`, `id`),
+    KEY `idx_user_title` (`user_id`, `is_deleted`, `title`, `id`),
+    FULLTEXT KEY `ft_title_description` (`title`, `description`) WITH PARSER ngram
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='小说项目表';
 
 -- 章节表
@@ -171,7 +175,6 @@ CREATE TABLE `novel_chapter` (
     `chapter_number` INT NOT NULL COMMENT '章节序号',
     `sub_index` INT DEFAULT 0 COMMENT 'one-to-many模式下的子序号',
     `title` VARCHAR(200) NOT NULL COMMENT '章节标题',
-    `content` LONGTEXT COMMENT '章节内容',
     `summary` TEXT COMMENT '章节摘要（自动生成）',
     `word_count` INT DEFAULT 0 COMMENT '字数统计',
 
@@ -188,6 +191,7 @@ CREATE TABLE `novel_chapter` (
     -- 版本管理
     `version` INT DEFAULT 1 COMMENT '版本号',
     `previous_version_id` BIGINT COMMENT '上一版本ID',
+    `content_revision` INT NOT NULL DEFAULT 1 COMMENT '正文修订号（保存新版本与原地修改正文时都递增）',
 
     -- 审计字段
     `create_time` DATETIME DEFAULT CURRENT_TIMESTAMP,
@@ -200,9 +204,30 @@ CREATE TABLE `novel_chapter` (
     KEY `idx_outline_id` (`outline_id`),
     KEY `idx_status` (`status`),
     KEY `idx_generation_status` (`generation_status`),
-    KEY `idx_is_deleted` (`is_deleted`)
+    KEY `idx_is_deleted` (`is_deleted`),
+    FULLTEXT KEY `ft_title_summary` (`title`, `summary`) WITH PARSER ngram
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='章节表';
 
+-- 章节正文表
+-- 正文与章节元数据分表存放，列表查询只读元数据行；章节行的 version 对应此表的当前正文
+CREATE TABLE `novel_chapter_content` (
+    `id` BIGINT NOT NULL COMMENT '主键ID（雪花算法生成）',
+    `project_id` BIGINT NOT NULL COMMENT '项目ID（冗余，便于按项目清理）',
+    `chapter_id` BIGINT NOT NULL COMMENT '章节ID',
+    `version` INT NOT NULL DEFAULT 1 COMMENT '章节版本号（novel_chapter.version 指向当前版本）',
+    `storage_type` VARCHAR(10) NOT NULL DEFAULT 'full' COMMENT '存储方式：full-完整正文，delta-相对下一版本的段落差异',
+    `base_version` INT COMMENT '差异的基准版本（delta 时为 version + 1）',
+    `source` VARCHAR(20) COMMENT '版本来源：generate/regenerate/polish/denoise/edit/import',
+    `word_count` INT DEFAULT 0 COMMENT '该版本字数',
+    `content` LONGBLOB COMMENT '章节正文或段落差异JSON（MySQL COMPRESS() 格式压缩，可用 UNCOMPRESS() 读取）',
+    `create_time` DATETIME DEFAULT CURRENT_TIMESTAMP,
+    `update_time` DATETIME DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+
+    PRIMARY KEY (`id`),
+    UNIQUE KEY `uk_chapter_version` (`chapter_id`, `version`),
+    KEY `idx_project_id` (`project_id`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='章节正文表';
+
 -- 大纲表
 CREATE TABLE `novel_outline` (
     `id` BIGINT NOT NULL COMMENT '大纲ID（雪花算法生成）',
@@ -222,7 +247,8 @@ CREATE TABLE `novel_outline` (
     PRIMARY KEY (`id`),
     KEY `idx_project_id` (`project_id`),
     KEY `idx_order_index` (`order_index`),
-    KEY `idx_is_deleted` (`is_deleted`)
+    KEY `idx_is_deleted` (`is_deleted`),
+    FULLTEXT KEY `ft_title_content` (`title`, `content`) WITH PARSER ngram
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='大纲表';
 
 -- 角色/组织表
@@ -256,7 +282,8 @@ CREATE TABLE `novel_character` (
     PRIMARY KEY (`id`),
     KEY `idx_project_id` (`project_id`),
     KEY `idx_role_type` (`role_type`),
-    KEY `idx_is_deleted` (`is_deleted`)
+    KEY `idx_is_deleted` (`is_deleted`),
+    FULLTEXT KEY `ft_name_background` (`name`, `background`) WITH PARSER ngram
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='角色/组织表';
 
 -- 故事记忆表
@@ -276,13 +303,16 @@ CREATE TABLE `novel_story_memory` (
     `related_locations` JSON COMMENT '相关地点',
 
     -- 重要性与时间线
-    `importance_score` DECIMAL(3,2) DEFAULT 0.50 COMMENT '重要性分数 0.00-1.00',
-    `story_timeline` INT COMMENT '故事时间线（章节序号）',
+    `importance_score` DECIMAL(3,2) NOT NULL DEFAULT 0.50 COMMENT '重要性分数 0.00-1.00',
+    `story_timeline` INT NOT NULL DEFAULT 0 COMMENT '故事时间线（章节序号）',
 
     -- 伏笔追踪
     `is_foreshadow` TINYINT(1) DEFAULT 0 COMMENT '伏笔状态: 0-普通/1-已埋下/2-已回收',
     `foreshadow_resolved_at` BIGINT COMMENT '伏笔回收时的章节ID',
 
+    -- 近似去重
+    `simhash` BIGINT COMMENT '标题+内容的 SimHash 指纹（字符 n-gram）',
+
     -- 向量存储
     `vector_id` VARCHAR(100) COMMENT '向量数据库中的ID',
     `embedding_model` VARCHAR(50) COMMENT '使用的嵌入模型',
@@ -297,7 +327,8 @@ CREATE TABLE `novel_story_memory` (
     KEY `idx_memory_type` (`memory_type`),
     KEY `idx_project_importance` (`project_id`, `importance_score` DESC),
     KEY `idx_project_foreshadow` (`project_id`, `is_foreshadow`),
-    KEY `idx_story_timeline` (`project_id`, `story_timeline`)
+    KEY `idx_project_timeline_importance` (`project_id`, `story_timeline` DESC, `importance_score` DESC, `id` DESC),
+    FULLTEXT KEY `ft_title_content` (`title`, `content`) WITH PARSER ngram
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='故事记忆表';
 
 -- 剧情分析表
@@ -338,6 +369,8 @@ CREATE TABLE `novel_plot_analysis` (
 
     -- AI元数据
     `ai_model` VARCHAR(50) COMMENT '分析使用的AI模型',
+    `content_version` INT COMMENT '分析所基于的章节正文修订号（对应 novel_chapter.content_revision）',
+    `version` INT NOT NULL DEFAULT 0 COMMENT '乐观锁版本，每次重新分析写入时递增',
 
     -- 审计字段
     `create_time` DATETIME DEFAULT CURRENT_TIMESTAMP,
@@ -380,11 +413,191 @@ CREATE TABLE `novel_generation_task` (
 
     PRIMARY KEY (`id`),
     KEY `idx_project_id` (`project_id`),
-    KEY `idx_user_status` (`user_id`, `status`),
+    -- 覆盖进行中任务查询（二级索引包含主键，按用户+状态过滤、按创建时间排序无需回表）
+    KEY `idx_user_status_create` (`user_id`, `status`, `create_time`),
     KEY `idx_status` (`status`),
-    KEY `idx_task_type` (`task_type`)
+    KEY `idx_task_type` (`task_type`),
+    KEY `idx_completed_at` (`completed_at`)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='生成任务表';
 
+-- 生成任务归档表
+-- 已结束超过 novel.task.archive.hot-retention 的任务由定时任务移入，JSON 字段以 MySQL COMPRESS() 格式压缩存储
+CREATE TABLE `novel_generation_task_archive` (
+    `id` BIGINT NOT NULL COMMENT '任务ID（与原任务一致）',
+    `project_id` BIGINT NOT NULL COMMENT '项目ID',
+    `user_id` BIGINT NOT NULL COMMENT '用户ID',
+    `task_type` VARCHAR(30) NOT NULL COMMENT '任务类型',
+    `status` VARCHAR(20) NOT NULL COMMENT '状态: completed/failed/cancelled',
+    `params` BLOB COMMENT '任务参数（COMPRESS() 压缩的 JSON）',
+    `chapter_ids` BLOB COMMENT '关联的章节ID列表（COMPRESS() 压缩的 JSON）',
+    `progress` INT DEFAULT 0 COMMENT '进度百分比 0-100',
+    `current_step` VARCHAR(100) COMMENT '最后步骤描述',
+    `result` MEDIUMBLOB COMMENT '任务结果（COMPRESS() 压缩的 JSON）',
+    `error_message` TEXT COMMENT '错误信息',
+    `started_at` DATETIME COMMENT '开始执行时间',
+    `completed_at` DATETIME COMMENT '完成时间',
+    `create_time` DATETIME COMMENT '创建时间',
+    `update_time` DATETIME COMMENT '最后更新时间',
+    `archive_time` DATETIME DEFAULT CURRENT_TIMESTAMP COMMENT '归档时间',
+    PRIMARY KEY (`id`),
+    KEY `idx_project_id` (`project_id`),
+    KEY `idx_user_create` (`user_id`, `create_time`),
+    KEY `idx_completed_at` (`completed_at`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='生成任务归档表';
+
+-- 记忆向量同步 Outbox 表
+-- 与 novel_story_memory 的变更在同一事务中写入，由后台任务批量同步到 ChromaDB
+CREATE TABLE `novel_memory_vector_outbox` (
+    `id` BIGINT NOT NULL COMMENT '主键ID（雪花算法生成）',
+    `user_id` BIGINT NOT NULL COMMENT '用户ID（用于定位 Collection）',
+    `project_id` BIGINT NOT NULL COMMENT '项目ID',
+    `memory_id` BIGINT COMMENT '记忆ID（drop_collection 时为空）',
+
+    -- 同步操作
+    `op` VARCHAR(20) NOT NULL COMMENT '操作: upsert-写入向量/delete-删除向量/drop_collection-删除Collection',
+    `vector_id` VARCHAR(100) COMMENT '待删除的向量ID（delete 时使用）',
+
+    -- 处理状态（成功后直接删除记录）
+    `status` VARCHAR(20) NOT NULL DEFAULT 'pending' COMMENT '状态: pending-待处理/processing-处理中/failed-超过最大重试次数',
+    `claim_token` VARCHAR(36) COMMENT '领取令牌（防止多个工作线程重复处理）',
+    `retry_count` INT NOT NULL DEFAULT 0 COMMENT '已重试次数',
+    `next_retry_at` DATETIME NOT NULL COMMENT '下次可处理时间（processing 状态下为租约到期时间）',
+    `last_error` VARCHAR(500) COMMENT '最近一次失败原因',
+
+    -- 审计字段
+    `create_time` DATETIME DEFAULT CURRENT_TIMESTAMP,
+    `update_time` DATETIME DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+
+    PRIMARY KEY (`id`),
+    KEY `idx_status_next_retry` (`status`, `next_retry_at`),
+    KEY `idx_claim_token` (`claim_token`),
+    KEY `idx_project_memory` (`project_id`, `memory_id`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='记忆向量同步Outbox表';
+
+-- 记忆-角色关联表
+-- 由 novel_story_memory.related_characters 展开，按角色查询最近事件时走 (project_id, character_id, story_timeline) 索引
+CREATE TABLE `novel_memory_character` (
+    `id` BIGINT NOT NULL COMMENT '主键ID（雪花算法生成）',
+    `project_id` BIGINT NOT NULL COMMENT '项目ID',
+    `memory_id` BIGINT NOT NULL COMMENT '记忆ID',
+    `character_id` BIGINT NOT NULL COMMENT '角色ID',
+    `memory_type` VARCHAR(30) NOT NULL COMMENT '记忆类型（冗余，便于过滤）',
+    `story_timeline` INT COMMENT '故事时间线（冗余自记忆，随记忆合并更新）',
+    `create_time` DATETIME DEFAULT CURRENT_TIMESTAMP,
+
+    PRIMARY KEY (`id`),
+    UNIQUE KEY `uk_memory_character` (`memory_id`, `character_id`),
+    KEY `idx_project_character_timeline` (`project_id`, `character_id`, `story_timeline`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='记忆-角色关联表';
+
+-- 记忆-地点关联表
+CREATE TABLE `novel_memory_location` (
+    `id` BIGINT NOT NULL COMMENT '主键ID（雪花算法生成）',
+    `project_id` BIGINT NOT NULL COMMENT '项目ID',
+    `memory_id` BIGINT NOT NULL COMMENT '记忆ID',
+    `location_name` VARCHAR(100) NOT NULL COMMENT '地点名称',
+    `memory_type` VARCHAR(30) NOT NULL COMMENT '记忆类型（冗余，便于过滤）',
+    `story_timeline` INT COMMENT '故事时间线（冗余自记忆，随记忆合并更新）',
+    `create_time` DATETIME DEFAULT CURRENT_TIMESTAMP,
+
+    PRIMARY KEY (`id`),
+    UNIQUE KEY `uk_memory_location` (`memory_id`, `location_name`),
+    KEY `idx_project_location_timeline` (`project_id`, `location_name`, `story_timeline`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='记忆-地点关联表';
+
+-- 记忆-来源章节关联表
+-- 近似重复的记忆合并后一条记忆可能来自多个章节，重新生成章节时只删除没有其他来源章节的记忆
+CREATE TABLE `novel_memory_source` (
+    `id` BIGINT NOT NULL COMMENT '主键ID（雪花算法生成）',
+    `project_id` BIGINT NOT NULL COMMENT '项目ID',
+    `memory_id` BIGINT NOT NULL COMMENT '记忆ID',
+    `chapter_id` BIGINT NOT NULL COMMENT '来源章节ID',
+    `create_time` DATETIME DEFAULT CURRENT_TIMESTAMP,
+
+    PRIMARY KEY (`id`),
+    UNIQUE KEY `uk_memory_chapter` (`memory_id`, `chapter_id`),
+    KEY `idx_chapter_id` (`chapter_id`),
+    KEY `idx_project_id` (`project_id`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='记忆-来源章节关联表';
+
+-- 存量数据回填（升级时执行一次；id 使用 UUID_SHORT() 代替雪花ID，仅需唯一）
+-- INSERT IGNORE INTO novel_memory_character (id, project_id, memory_id, character_id, memory_type, story_timeline)
+-- SELECT UUID_SHORT(), m.project_id, m.id, jt.character_id, m.memory_type, m.story_timeline
+-- FROM novel_story_memory m,
+--      JSON_TABLE(m.related_characters, '$[*]' COLUMNS (character_id BIGINT PATH '$')) jt
+-- WHERE m.related_characters IS NOT NULL;
+-- INSERT IGNORE INTO novel_memory_location (id, project_id, memory_id, location_name, memory_type, story_timeline)
+-- SELECT UUID_SHORT(), m.project_id, m.id, LEFT(jt.location_name, 100), m.memory_type, m.story_timeline
+-- FROM novel_story_memory m,
+--      JSON_TABLE(m.related_locations, '$[*]' COLUMNS (location_name VARCHAR(200) PATH '$')) jt
+-- WHERE m.related_locations IS NOT NULL;
+
+-- 故事层级摘要表
+-- 每N章压缩为一条情节弧摘要，每N个情节弧再压缩为一条卷摘要，用于超长篇的由粗到细检索
+CREATE TABLE `novel_story_rollup` (
+    `id` BIGINT NOT NULL COMMENT '主键ID（雪花算法生成）',
+    `project_id` BIGINT NOT NULL COMMENT '项目ID',
+
+    -- 层级与覆盖范围
+    `level` VARCHAR(20) NOT NULL COMMENT '级别: arc-情节弧/volume-卷',
+    `seq` INT NOT NULL COMMENT '同级序号（从1开始）',
+    `start_chapter` INT NOT NULL COMMENT '起始章节号（含）',
+    `end_chapter` INT NOT NULL COMMENT '结束章节号（含）',
+
+    -- 摘要内容
+    `summary` TEXT NOT NULL COMMENT '层级摘要',
+    `source_hash` VARCHAR(32) NOT NULL COMMENT '输入内容摘要（章节/记忆/下级摘要变化时重新生成）',
+
+    -- 向量（条数很少，直接存 MySQL 在内存中计算相似度）
+    `embedding` MEDIUMBLOB COMMENT '摘要向量（float32 小端序）',
+    `embedding_model` VARCHAR(100) COMMENT '生成向量的嵌入模型（与当前模型不一致时重新计算）',
+
+    -- 审计字段
+    `create_time` DATETIME DEFAULT CURRENT_TIMESTAMP,
+    `update_time` DATETIME DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+
+    PRIMARY KEY (`id`),
+    UNIQUE KEY `uk_project_level_seq` (`project_id`, `level`, `seq`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='故事层级摘要表';
+
+-- 项目统计表
+-- 章节、角色、大纲、记忆增删时按增量维护，读取统计只需查一行；每晚从明细表重新汇总对账
+CREATE TABLE `novel_project_stats` (
+    `project_id` BIGINT NOT NULL COMMENT '项目ID',
+
+    -- 章节
+    `chapter_count` INT NOT NULL DEFAULT 0 COMMENT '章节数',
+    `word_count` INT NOT NULL DEFAULT 0 COMMENT '总字数（各章节 word_count 之和）',
+
+    -- 角色
+    `character_count` INT NOT NULL DEFAULT 0 COMMENT '角色数（不含组织）',
+    `protagonist_count` INT NOT NULL DEFAULT 0 COMMENT '主角数',
+    `supporting_count` INT NOT NULL DEFAULT 0 COMMENT '配角数',
+    `antagonist_count` INT NOT NULL DEFAULT 0 COMMENT '反派数',
+    `organization_count` INT NOT NULL DEFAULT 0 COMMENT '组织数',
+
+    -- 大纲
+    `outline_count` INT NOT NULL DEFAULT 0 COMMENT '大纲数',
+
+    -- 记忆
+    `memory_count` INT NOT NULL DEFAULT 0 COMMENT '记忆数',
+    `plot_point_count` INT NOT NULL DEFAULT 0 COMMENT '情节点记忆数',
+    `hook_count` INT NOT NULL DEFAULT 0 COMMENT '钩子记忆数',
+    `foreshadow_count` INT NOT NULL DEFAULT 0 COMMENT '伏笔类型记忆数',
+    `character_event_count` INT NOT NULL DEFAULT 0 COMMENT '角色事件记忆数',
+    `location_event_count` INT NOT NULL DEFAULT 0 COMMENT '地点事件记忆数',
+    `other_memory_count` INT NOT NULL DEFAULT 0 COMMENT '其他类型记忆数',
+    `planted_foreshadow_count` INT NOT NULL DEFAULT 0 COMMENT '已埋下未回收的伏笔数',
+    `resolved_foreshadow_count` INT NOT NULL DEFAULT 0 COMMENT '已回收的伏笔数',
+    `covered_chapter_count` INT NOT NULL DEFAULT 0 COMMENT '有记忆的章节数',
+
+    -- 审计字段
+    `reconcile_time` DATETIME COMMENT '最近一次从明细表重新汇总的时间',
+    `update_time` DATETIME DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+
+    PRIMARY KEY (`project_id`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='项目统计表';
+
 -- ==========================================
 -- 初始化数据
 -- ==========================================
@@ -0,0 +1,16 @@
+-- =====================================================
+-- 章节正文修订号迁移
+-- 原地修改正文不产生新版本，novel_chapter.version 不变，剧情分析无法据此判断是否过期。
+-- 新增 content_revision：保存新版本与原地修改正文时都递增，剧情分析改为记录并比较修订号
+--
+-- 存量章节的修订号取当前版本号，已有分析的 content_version（原为版本号）继续有效；
+-- 迁移前的原地修改无法追溯，需要时可强制重新分析
+-- =====================================================
+
+ALTER TABLE `novel_chapter`
+    ADD COLUMN `content_revision` INT NOT NULL DEFAULT 1 COMMENT '正文修订号（保存新版本与原地修改正文时都递增）' AFTER `previous_version_id`;
+
+UPDATE `novel_chapter` SET `content_revision` = COALESCE(`version`, 1);
+
+ALTER TABLE `novel_plot_analysis`
+    MODIFY COLUMN `content_version` INT COMMENT '分析所基于的章节正文修订号（对应 novel_chapter.content_revision）';
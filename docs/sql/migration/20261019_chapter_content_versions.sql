@@ -0,0 +1,30 @@
+-- =====================================================
+-- 章节版本差异存储迁移
+-- novel_chapter_content 增加存储方式、基准版本、来源、字数列
+--
+-- 存量记录都是各章节当前版本的完整正文，默认值即为 full，无需回填存储方式；
+-- 需在 20261019_compress_chapter_content.sql 之后执行
+-- =====================================================
+
+-- ---------- 1. 加列 ----------
+ALTER TABLE novel_chapter_content
+    ADD COLUMN `storage_type` VARCHAR(10) NOT NULL DEFAULT 'full' COMMENT '存储方式：full-完整正文，delta-相对下一版本的段落差异' AFTER `version`,
+    ADD COLUMN `base_version` INT COMMENT '差异的基准版本（delta 时为 version + 1）' AFTER `storage_type`,
+    ADD COLUMN `source` VARCHAR(20) COMMENT '版本来源：generate/regenerate/polish/denoise/edit' AFTER `base_version`,
+    ADD COLUMN `word_count` INT DEFAULT 0 COMMENT '该版本字数' AFTER `source`,
+    MODIFY COLUMN `content` LONGBLOB COMMENT '章节正文或段落差异JSON（MySQL COMPRESS() 格式压缩，可用 UNCOMPRESS() 读取）';
+
+-- ---------- 2. 回填字数 ----------
+UPDATE novel_chapter_content cc
+JOIN novel_chapter c ON c.id = cc.chapter_id
+SET cc.word_count = COALESCE(c.word_count, 0)
+WHERE cc.word_count = 0;
+
+-- ---------- 3. 校验：每个章节的当前版本都应存在且为完整正文（结果应为空） ----------
+SELECT c.id, c.version
+FROM novel_chapter c
+LEFT JOIN novel_chapter_content cc ON cc.chapter_id = c.id AND cc.version = COALESCE(c.version, 1)
+WHERE c.is_deleted = 0
+  AND cc.id IS NOT NULL
+  AND cc.storage_type <> 'full'
+LIMIT 20;
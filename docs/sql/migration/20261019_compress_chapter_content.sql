@@ -0,0 +1,56 @@
+-- =====================================================
+-- 章节正文压缩存储迁移
+-- novel_chapter_content.content: LONGTEXT -> LONGBLOB（MySQL COMPRESS() 格式）
+--
+-- 应用读取时兼容未压缩的旧数据，可先部署新版本再执行本脚本
+-- 需在 20261019_split_chapter_content.sql 之后执行
+-- =====================================================
+
+-- ---------- 0. 迁移前：记录表大小 ----------
+SELECT table_name, ROUND(data_length / 1024 / 1024, 1) AS data_mb, table_rows
+FROM information_schema.tables
+WHERE table_schema = DATABASE() AND table_name = 'novel_chapter_content';
+
+-- ---------- 1. 改为二进制列（utf8mb4 字节原样保留） ----------
+ALTER TABLE novel_chapter_content
+    MODIFY COLUMN `content` LONGBLOB COMMENT '章节正文（MySQL COMPRESS() 格式压缩，可用 UNCOMPRESS() 读取）';
+
+-- ---------- 2. 分批压缩存量正文（UNCOMPRESSED_LENGTH 为 NULL/异常说明尚未压缩；重复执行安全） ----------
+DROP PROCEDURE IF EXISTS compress_chapter_content;
+DELIMITER //
+CREATE PROCEDURE compress_chapter_content(IN batch_size INT)
+BEGIN
+    DECLARE last_id BIGINT DEFAULT 0;
+    DECLARE max_id BIGINT;
+    SELECT COALESCE(MAX(id), 0) INTO max_id FROM novel_chapter_content;
+    WHILE last_id < max_id DO
+        SELECT COALESCE(MAX(id), max_id) INTO @batch_end
+        FROM (SELECT id FROM novel_chapter_content WHERE id > last_id ORDER BY id LIMIT batch_size) t;
+
+        UPDATE novel_chapter_content
+        SET content = COMPRESS(content)
+        WHERE id > last_id AND id <= @batch_end
+          AND content IS NOT NULL AND LENGTH(content) > 0
+          AND UNCOMPRESS(content) IS NULL;
+
+        SET last_id = @batch_end;
+    END WHILE;
+END //
+DELIMITER ;
+
+CALL compress_chapter_content(500);
+DROP PROCEDURE compress_chapter_content;
+
+-- ---------- 3. 校验：应全部可解压 ----------
+SELECT COUNT(*) AS not_compressed
+FROM novel_chapter_content
+WHERE content IS NOT NULL AND LENGTH(content) > 0 AND UNCOMPRESS(content) IS NULL;
+
+-- ---------- 4. 回收空间并记录压缩后的表大小 ----------
+OPTIMIZE TABLE novel_chapter_content;
+SELECT table_name, ROUND(data_length / 1024 / 1024, 1) AS data_mb, table_rows
+FROM information_schema.tables
+WHERE table_schema = DATABASE() AND table_name = 'novel_chapter_content';
+SELECT ROUND(SUM(UNCOMPRESSED_LENGTH(content)) / SUM(LENGTH(content)), 2) AS compression_ratio
+FROM novel_chapter_content
+WHERE LENGTH(content) > 0;
@@ -0,0 +1,42 @@
+-- =====================================================
+-- 键集（游标）分页索引迁移
+-- 章节按 (chapter_number, sub_index) 翻页直接使用已有的 uk_project_chapter；
+-- 记忆按 (story_timeline, importance_score, id) 倒序、项目按 (排序字段, id) 翻页需要新索引
+-- =====================================================
+
+-- ---------- 1. 记忆排序键改为非空（键集条件无法正确比较 NULL） ----------
+UPDATE novel_story_memory m
+LEFT JOIN novel_chapter c ON c.id = m.chapter_id
+SET m.story_timeline = COALESCE(c.chapter_number, 0)
+WHERE m.story_timeline IS NULL;
+
+UPDATE novel_story_memory SET importance_score = 0.50 WHERE importance_score IS NULL;
+
+ALTER TABLE novel_story_memory
+    MODIFY COLUMN `importance_score` DECIMAL(3,2) NOT NULL DEFAULT 0.50 COMMENT '重要性分数 0.00-1.00',
+    MODIFY COLUMN `story_timeline` INT NOT NULL DEFAULT 0 COMMENT '故事时间线（章节序号）';
+
+-- ---------- 2. 记忆列表排序索引（前缀 (project_id, story_timeline) 覆盖原 idx_story_timeline 的用途） ----------
+ALTER TABLE novel_story_memory
+    ADD KEY `idx_project_timeline_importance` (`project_id`, `story_timeline` DESC, `importance_score` DESC, `id` DESC),
+    DROP KEY `idx_story_timeline`;
+
+-- ---------- 3. 项目列表三种排序的索引 ----------
+ALTER TABLE novel_project
+    ADD KEY `idx_user_update_time` (`user_id`, `is_deleted`, `update_time`, `id`),
+    ADD KEY `idx_user_create_time` (`user_id`, `is_deleted`, `create_time`, `id`),
+    ADD KEY `idx_user_title` (`user_id`, `is_deleted`, `title`, `id`);
+
+-- ---------- 4. 校验：以下执行计划应走对应索引且无 filesort ----------
+EXPLAIN SELECT * FROM novel_story_memory
+WHERE project_id = 1
+  AND (story_timeline < 100 OR (story_timeline = 100 AND importance_score < 0.50)
+       OR (story_timeline = 100 AND importance_score = 0.50 AND id < 9223372036854775807))
+ORDER BY story_timeline DESC, importance_score DESC, id DESC
+LIMIT 21;
+
+EXPLAIN SELECT * FROM novel_chapter
+WHERE project_id = 1 AND is_deleted = 0
+  AND (chapter_number > 100 OR (chapter_number = 100 AND sub_index > 0))
+ORDER BY chapter_number ASC, sub_index ASC
+LIMIT 21;
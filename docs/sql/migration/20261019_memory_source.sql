@@ -0,0 +1,25 @@
+-- =====================================================
+-- 记忆来源章节迁移
+-- 近似重复的记忆合并后保留最初章节的 chapter_id，新增关联表记录所有来源章节，
+-- 重新生成章节时只删除没有其他来源章节的记忆
+--
+-- 可在部署前执行；存量记忆按 chapter_id 回填一条来源记录
+-- =====================================================
+
+-- ---------- 1. 关联表 ----------
+CREATE TABLE IF NOT EXISTS `novel_memory_source` (
+    `id` BIGINT NOT NULL COMMENT '主键ID（雪花算法生成）',
+    `project_id` BIGINT NOT NULL COMMENT '项目ID',
+    `memory_id` BIGINT NOT NULL COMMENT '记忆ID',
+    `chapter_id` BIGINT NOT NULL COMMENT '来源章节ID',
+    `create_time` DATETIME DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (`id`),
+    UNIQUE KEY `uk_memory_chapter` (`memory_id`, `chapter_id`),
+    KEY `idx_chapter_id` (`chapter_id`),
+    KEY `idx_project_id` (`project_id`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='记忆-来源章节关联表';
+
+-- ---------- 2. 回填（id 使用 UUID_SHORT() 代替雪花ID，仅需唯一） ----------
+INSERT IGNORE INTO novel_memory_source (id, project_id, memory_id, chapter_id, create_time)
+SELECT UUID_SHORT(), project_id, id, chapter_id, create_time
+FROM novel_story_memory;
@@ -0,0 +1,11 @@
+-- =====================================================
+-- 剧情分析乐观并发迁移
+-- 分析不再在事务中调用 AI：写入时比较章节内容版本与分析版本，
+-- 分析期间章节被修改或被其他请求先写入时放弃本次结果
+--
+-- 已有分析的 content_version 保持 NULL，批量分析会将其视为过期并重新分析
+-- =====================================================
+
+ALTER TABLE `novel_plot_analysis`
+    ADD COLUMN `content_version` INT COMMENT '分析所基于的章节内容版本（对应 novel_chapter.version）' AFTER `ai_model`,
+    ADD COLUMN `version` INT NOT NULL DEFAULT 0 COMMENT '乐观锁版本，每次重新分析写入时递增' AFTER `content_version`;
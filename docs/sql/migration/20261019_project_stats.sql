@@ -0,0 +1,118 @@
+-- =====================================================
+-- 项目统计表迁移
+-- 统计改为按增量维护的单行读取，本脚本建表并从明细表回填存量项目
+-- 应用读取时发现统计行缺失会自动汇总补齐，回填可在部署后执行
+-- =====================================================
+
+-- ---------- 1. 建表 ----------
+CREATE TABLE IF NOT EXISTS `novel_project_stats` (
+    `project_id` BIGINT NOT NULL COMMENT '项目ID',
+    `chapter_count` INT NOT NULL DEFAULT 0 COMMENT '章节数',
+    `word_count` INT NOT NULL DEFAULT 0 COMMENT '总字数（各章节 word_count 之和）',
+    `character_count` INT NOT NULL DEFAULT 0 COMMENT '角色数（不含组织）',
+    `protagonist_count` INT NOT NULL DEFAULT 0 COMMENT '主角数',
+    `supporting_count` INT NOT NULL DEFAULT 0 COMMENT '配角数',
+    `antagonist_count` INT NOT NULL DEFAULT 0 COMMENT '反派数',
+    `organization_count` INT NOT NULL DEFAULT 0 COMMENT '组织数',
+    `outline_count` INT NOT NULL DEFAULT 0 COMMENT '大纲数',
+    `memory_count` INT NOT NULL DEFAULT 0 COMMENT '记忆数',
+    `plot_point_count` INT NOT NULL DEFAULT 0 COMMENT '情节点记忆数',
+    `hook_count` INT NOT NULL DEFAULT 0 COMMENT '钩子记忆数',
+    `foreshadow_count` INT NOT NULL DEFAULT 0 COMMENT '伏笔类型记忆数',
+    `character_event_count` INT NOT NULL DEFAULT 0 COMMENT '角色事件记忆数',
+    `location_event_count` INT NOT NULL DEFAULT 0 COMMENT '地点事件记忆数',
+    `other_memory_count` INT NOT NULL DEFAULT 0 COMMENT '其他类型记忆数',
+    `planted_foreshadow_count` INT NOT NULL DEFAULT 0 COMMENT '已埋下未回收的伏笔数',
+    `resolved_foreshadow_count` INT NOT NULL DEFAULT 0 COMMENT '已回收的伏笔数',
+    `covered_chapter_count` INT NOT NULL DEFAULT 0 COMMENT '有记忆的章节数',
+    `reconcile_time` DATETIME COMMENT '最近一次从明细表重新汇总的时间',
+    `update_time` DATETIME DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    PRIMARY KEY (`project_id`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='项目统计表';
+
+-- ---------- 2. 回填存量项目（每张明细表按 project_id 分组扫描一次；重复执行安全） ----------
+INSERT INTO novel_project_stats (
+    project_id, chapter_count, word_count,
+    character_count, protagonist_count, supporting_count, antagonist_count, organization_count,
+    outline_count,
+    memory_count, plot_point_count, hook_count, foreshadow_count, character_event_count,
+    location_event_count, other_memory_count, planted_foreshadow_count, resolved_foreshadow_count,
+    covered_chapter_count, reconcile_time
+)
+SELECT
+    p.id,
+    COALESCE(ch.chapter_count, 0), COALESCE(ch.word_count, 0),
+    COALESCE(cr.character_count, 0), COALESCE(cr.protagonist_count, 0), COALESCE(cr.supporting_count, 0),
+    COALESCE(cr.antagonist_count, 0), COALESCE(cr.organization_count, 0),
+    COALESCE(ol.outline_count, 0),
+    COALESCE(m.memory_count, 0), COALESCE(m.plot_point_count, 0), COALESCE(m.hook_count, 0),
+    COALESCE(m.foreshadow_count, 0), COALESCE(m.character_event_count, 0), COALESCE(m.location_event_count, 0),
+    COALESCE(m.other_memory_count, 0), COALESCE(m.planted_foreshadow_count, 0),
+    COALESCE(m.resolved_foreshadow_count, 0), COALESCE(m.covered_chapter_count, 0),
+    NOW()
+FROM novel_project p
+LEFT JOIN (
+    SELECT project_id, COUNT(*) AS chapter_count, SUM(word_count) AS word_count
+    FROM novel_chapter
+    WHERE is_deleted = 0
+    GROUP BY project_id
+) ch ON ch.project_id = p.id
+LEFT JOIN (
+    SELECT project_id,
+           SUM(is_organization = 0) AS character_count,
+           SUM(role_type = 'protagonist') AS protagonist_count,
+           SUM(role_type = 'supporting') AS supporting_count,
+           SUM(role_type = 'antagonist') AS antagonist_count,
+           SUM(is_organization = 1) AS organization_count
+    FROM novel_character
+    WHERE is_deleted = 0
+    GROUP BY project_id
+) cr ON cr.project_id = p.id
+LEFT JOIN (
+    SELECT project_id, COUNT(*) AS outline_count
+    FROM novel_outline
+    WHERE is_deleted = 0
+    GROUP BY project_id
+) ol ON ol.project_id = p.id
+LEFT JOIN (
+    SELECT project_id,
+           COUNT(*) AS memory_count,
+           SUM(memory_type = 'plot_point') AS plot_point_count,
+           SUM(memory_type = 'hook') AS hook_count,
+           SUM(memory_type = 'foreshadow') AS foreshadow_count,
+           SUM(memory_type = 'character_event') AS character_event_count,
+           SUM(memory_type = 'location_event') AS location_event_count,
+           SUM(memory_type NOT IN ('plot_point', 'hook', 'foreshadow', 'character_event', 'location_event'))
+               AS other_memory_count,
+           SUM(is_foreshadow = 1) AS planted_foreshadow_count,
+           SUM(is_foreshadow = 2) AS resolved_foreshadow_count,
+           COUNT(DISTINCT chapter_id) AS covered_chapter_count
+    FROM novel_story_memory
+    GROUP BY project_id
+) m ON m.project_id = p.id
+WHERE p.is_deleted = 0
+ON DUPLICATE KEY UPDATE
+    chapter_count = VALUES(chapter_count),
+    word_count = VALUES(word_count),
+    character_count = VALUES(character_count),
+    protagonist_count = VALUES(protagonist_count),
+    supporting_count = VALUES(supporting_count),
+    antagonist_count = VALUES(antagonist_count),
+    organization_count = VALUES(organization_count),
+    outline_count = VALUES(outline_count),
+    memory_count = VALUES(memory_count),
+    plot_point_count = VALUES(plot_point_count),
+    hook_count = VALUES(hook_count),
+    foreshadow_count = VALUES(foreshadow_count),
+    character_event_count = VALUES(character_event_count),
+    location_event_count = VALUES(location_event_count),
+    other_memory_count = VALUES(other_memory_count),
+    planted_foreshadow_count = VALUES(planted_foreshadow_count),
+    resolved_foreshadow_count = VALUES(resolved_foreshadow_count),
+    covered_chapter_count = VALUES(covered_chapter_count),
+    reconcile_time = VALUES(reconcile_time);
+
+-- ---------- 3. 校验：统计行数应等于未删除项目数 ----------
+SELECT
+    (SELECT COUNT(*) FROM novel_project WHERE is_deleted = 0) AS projects,
+    (SELECT COUNT(*) FROM novel_project_stats) AS stats_rows;
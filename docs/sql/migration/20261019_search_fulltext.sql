@@ -0,0 +1,36 @@
+-- =====================================================
+-- 全局搜索全文索引迁移
+-- 为搜索涉及的文本列建立 ngram 全文索引，替代 LIKE '%keyword%' 全表扫描
+--
+-- ngram 分词长度由服务器参数 ngram_token_size 决定（默认 2，只读，需在 my.cnf 中配置后重启），
+-- 应用配置 novel.search.ngram-token-size 需与之保持一致
+-- 建索引会重建表，大表建议在低峰期执行（InnoDB 支持 ALGORITHM=INPLACE，期间不阻塞 DML）
+-- =====================================================
+
+SHOW VARIABLES LIKE 'ngram_token_size';
+
+-- ---------- 0. 迁移前：记录搜索耗时（迁移后换成 MATCH 写法再执行一次对比） ----------
+-- SET profiling = 1;
+-- SELECT c.id FROM novel_chapter c
+--   JOIN novel_project p ON p.id = c.project_id AND p.user_id = <用户ID> AND p.is_deleted = 0
+--  WHERE c.is_deleted = 0 AND (c.title LIKE '%<关键词>%' OR c.summary LIKE '%<关键词>%') LIMIT 5;
+-- SELECT c.id FROM novel_chapter c
+--   JOIN novel_project p ON p.id = c.project_id AND p.user_id = <用户ID> AND p.is_deleted = 0
+--  WHERE c.is_deleted = 0 AND MATCH(c.title, c.summary) AGAINST('+"<关键词>"' IN BOOLEAN MODE) LIMIT 5;
+-- SHOW PROFILES;
+
+-- ---------- 1. 建立全文索引 ----------
+ALTER TABLE novel_project
+    ADD FULLTEXT KEY `ft_title_description` (`title`, `description`) WITH PARSER ngram;
+ALTER TABLE novel_chapter
+    ADD FULLTEXT KEY `ft_title_summary` (`title`, `summary`) WITH PARSER ngram;
+ALTER TABLE novel_outline
+    ADD FULLTEXT KEY `ft_title_content` (`title`, `content`) WITH PARSER ngram;
+ALTER TABLE novel_character
+    ADD FULLTEXT KEY `ft_name_background` (`name`, `background`) WITH PARSER ngram;
+ALTER TABLE novel_story_memory
+    ADD FULLTEXT KEY `ft_title_content` (`title`, `content`) WITH PARSER ngram;
+
+-- ---------- 2. 校验：执行计划中应出现 fulltext 访问类型 ----------
+EXPLAIN SELECT id FROM novel_story_memory
+WHERE MATCH(title, content) AGAINST('+"测试"' IN BOOLEAN MODE);
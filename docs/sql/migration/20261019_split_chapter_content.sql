@@ -0,0 +1,81 @@
+-- =====================================================
+-- 章节正文拆表迁移
+-- novel_chapter.content -> novel_chapter_content
+--
+-- 执行顺序：1. 建表  2. 分批回填  3. 校验  4. 删除旧列
+-- 建议先停掉写入（或在低峰期执行），回填与删列之间不要有新章节写入旧列
+-- =====================================================
+
+-- ---------- 0. 迁移前：记录列表查询耗时（在迁移后再执行一次对比） ----------
+-- SET profiling = 1;
+-- SELECT SQL_NO_CACHE * FROM novel_chapter
+--  WHERE project_id = <项目ID> AND is_deleted = 0
+--  ORDER BY chapter_number, sub_index LIMIT 0, 20;
+-- SELECT SQL_NO_CACHE id, title, chapter_number, sub_index, word_count, status, generation_status
+--   FROM novel_chapter
+--  WHERE project_id = <项目ID> AND is_deleted = 0
+--  ORDER BY chapter_number, sub_index LIMIT 0, 20;
+-- SHOW PROFILES;
+-- 同时记录表大小：
+-- SELECT table_name, ROUND(data_length / 1024 / 1024, 1) AS data_mb, table_rows
+--   FROM information_schema.tables
+--  WHERE table_schema = DATABASE() AND table_name IN ('novel_chapter', 'novel_chapter_content');
+
+-- ---------- 1. 建表 ----------
+CREATE TABLE IF NOT EXISTS `novel_chapter_content` (
+    `id` BIGINT NOT NULL COMMENT '主键ID（雪花算法生成）',
+    `project_id` BIGINT NOT NULL COMMENT '项目ID（冗余，便于按项目清理）',
+    `chapter_id` BIGINT NOT NULL COMMENT '章节ID',
+    `version` INT NOT NULL DEFAULT 1 COMMENT '章节版本号（与 novel_chapter.version 对应）',
+    `content` LONGTEXT COMMENT '章节正文',
+    `create_time` DATETIME DEFAULT CURRENT_TIMESTAMP,
+    `update_time` DATETIME DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+
+    PRIMARY KEY (`id`),
+    UNIQUE KEY `uk_chapter_version` (`chapter_id`, `version`),
+    KEY `idx_project_id` (`project_id`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='章节正文表';
+
+-- ---------- 2. 回填（按章节ID分批，避免大事务；重复执行安全） ----------
+-- 章节ID为雪花ID，正文表ID直接复用章节ID即可保证唯一
+DROP PROCEDURE IF EXISTS migrate_chapter_content;
+DELIMITER //
+CREATE PROCEDURE migrate_chapter_content(IN batch_size INT)
+BEGIN
+    DECLARE last_id BIGINT DEFAULT 0;
+    DECLARE max_id BIGINT;
+    SELECT COALESCE(MAX(id), 0) INTO max_id FROM novel_chapter;
+    WHILE last_id < max_id DO
+        INSERT IGNORE INTO novel_chapter_content (id, project_id, chapter_id, version, content, create_time)
+        SELECT c.id, c.project_id, c.id, COALESCE(c.version, 1), c.content, c.create_time
+        FROM novel_chapter c
+        WHERE c.id > last_id
+          AND c.content IS NOT NULL
+        ORDER BY c.id
+        LIMIT batch_size;
+
+        SELECT COALESCE(MAX(id), max_id) INTO last_id
+        FROM (SELECT id FROM novel_chapter WHERE id > last_id ORDER BY id LIMIT batch_size) t;
+    END WHILE;
+END //
+DELIMITER ;
+
+CALL migrate_chapter_content(500);
+DROP PROCEDURE migrate_chapter_content;
+
+-- ---------- 3. 校验：以下两个数应一致，且差异查询为空 ----------
+SELECT COUNT(*) AS chapters_with_content FROM novel_chapter WHERE content IS NOT NULL;
+SELECT COUNT(*) AS migrated FROM novel_chapter_content;
+SELECT c.id
+FROM novel_chapter c
+LEFT JOIN novel_chapter_content cc ON cc.chapter_id = c.id AND cc.version = COALESCE(c.version, 1)
+WHERE c.content IS NOT NULL
+  AND (cc.id IS NULL OR CHAR_LENGTH(cc.content) <> CHAR_LENGTH(c.content))
+LIMIT 20;
+
+-- ---------- 4. 删除旧列（确认校验通过、新版本应用已部署后执行） ----------
+ALTER TABLE novel_chapter DROP COLUMN content;
+-- 回收表空间
+OPTIMIZE TABLE novel_chapter;
+
+-- ---------- 5. 迁移后：重复第 0 步的查询与表大小统计，记录对比结果 ----------
@@ -0,0 +1,56 @@
+-- =====================================================
+-- 生成任务冷热分离迁移
+-- 1. 新建归档表，已结束的历史任务由 GenerationTaskArchiveJob 分批移入（JSON 字段 COMPRESS() 压缩）
+-- 2. 进行中任务查询改用覆盖索引 (user_id, status, create_time)，替换 idx_user_status
+-- 3. 归档扫描使用 completed_at 索引
+--
+-- 可在部署前执行；首次归档由定时任务分批完成，不需要在脚本中搬迁数据
+-- =====================================================
+
+-- ---------- 0. 迁移前：记录表大小 ----------
+SELECT table_name, ROUND(data_length / 1024 / 1024, 1) AS data_mb, table_rows
+FROM information_schema.tables
+WHERE table_schema = DATABASE() AND table_name = 'novel_generation_task';
+
+-- ---------- 1. 归档表 ----------
+CREATE TABLE IF NOT EXISTS `novel_generation_task_archive` (
+    `id` BIGINT NOT NULL COMMENT '任务ID（与原任务一致）',
+    `project_id` BIGINT NOT NULL COMMENT '项目ID',
+    `user_id` BIGINT NOT NULL COMMENT '用户ID',
+    `task_type` VARCHAR(30) NOT NULL COMMENT '任务类型',
+    `status` VARCHAR(20) NOT NULL COMMENT '状态: completed/failed/cancelled',
+    `params` BLOB COMMENT '任务参数（COMPRESS() 压缩的 JSON）',
+    `chapter_ids` BLOB COMMENT '关联的章节ID列表（COMPRESS() 压缩的 JSON）',
+    `progress` INT DEFAULT 0 COMMENT '进度百分比 0-100',
+    `current_step` VARCHAR(100) COMMENT '最后步骤描述',
+    `result` MEDIUMBLOB COMMENT '任务结果（COMPRESS() 压缩的 JSON）',
+    `error_message` TEXT COMMENT '错误信息',
+    `started_at` DATETIME COMMENT '开始执行时间',
+    `completed_at` DATETIME COMMENT '完成时间',
+    `create_time` DATETIME COMMENT '创建时间',
+    `update_time` DATETIME COMMENT '最后更新时间',
+    `archive_time` DATETIME DEFAULT CURRENT_TIMESTAMP COMMENT '归档时间',
+    PRIMARY KEY (`id`),
+    KEY `idx_project_id` (`project_id`),
+    KEY `idx_user_create` (`user_id`, `create_time`),
+    KEY `idx_completed_at` (`completed_at`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='生成任务归档表';
+
+-- ---------- 2. 索引（idx_user_status 是新索引的前缀，一并删除） ----------
+ALTER TABLE novel_generation_task
+    ADD KEY `idx_user_status_create` (`user_id`, `status`, `create_time`),
+    ADD KEY `idx_completed_at` (`completed_at`),
+    DROP KEY `idx_user_status`;
+
+-- ---------- 3. 校验：进行中任务查询应只扫描索引（Extra: Using index） ----------
+EXPLAIN SELECT id
+FROM novel_generation_task
+WHERE user_id = 1
+  AND status IN ('pending', 'running');
+
+-- ---------- 4. 待归档的任务数（默认保留 30 天） ----------
+SELECT COUNT(*) AS archivable
+FROM novel_generation_task
+WHERE status IN ('completed', 'failed', 'cancelled')
+  AND completed_at < NOW() - INTERVAL 30 DAY
+  AND task_type <> 'reindex';
@@ -169,6 +169,50 @@ public interface NovelConstants {
         String FAILED = "failed";
     }
 
+    /**
+     * 章节正文版本存储方式
+     */
+    interface ContentStorage {
+        /**
+         * 完整正文（当前版本与定期快照）
+         */
+        String FULL = "full";
+        /**
+         * 相对下一版本的段落差异
+         */
+        String DELTA = "delta";
+    }
+
+    /**
+     * 章节正文版本来源
+     */
+    interface ContentSource {
+        /**
+         * 首次生成
+         */
+        String GENERATE = "generate";
+        /**
+         * 重新生成
+         */
+        String REGENERATE = "regenerate";
+        /**
+         * 润色
+         */
+        String POLISH = "polish";
+        /**
+         * AI去味
+         */
+        String DENOISE = "denoise";
+        /**
+         * 手动编辑
+         */
+        String EDIT = "edit";
+        /**
+         * 书稿导入
+         */
+        String IMPORT = "import";
+    }
+
     // ==================== 记忆相关 ====================
 
     /**
@@ -241,6 +285,18 @@ public interface NovelConstants {
          * 大纲生成
          */
         String OUTLINES = "outlines";
+        /**
+         * 向量库全量重建（系统任务，project_id 为 0）
+         */
+        String REINDEX = "reindex";
+        /**
+         * 删除项目后的后台数据清理
+         */
+        String PURGE = "purge";
+        /**
+         * 书稿导入后的后台处理（记忆提取、剧情分析）
+         */
+        String IMPORT = "import";
     }
 
     /**
@@ -269,6 +325,88 @@ public interface NovelConstants {
         String CANCELLED = "cancelled";
     }
 
+    /**
+     * 任务事件类型（SSE 事件名）
+     */
+    interface TaskEventType {
+        /**
+         * 订阅时推送的当前任务状态
+         */
+        String SNAPSHOT = "snapshot";
+        /**
+         * 进度或步骤变化
+         */
+        String PROGRESS = "progress";
+        /**
+         * 单个章节处理完成（成功或失败）
+         */
+        String CHAPTER = "chapter";
+        /**
+         * 任务完成
+         */
+        String COMPLETED = "completed";
+        /**
+         * 任务失败
+         */
+        String FAILED = "failed";
+        /**
+         * 任务取消
+         */
+        String CANCELLED = "cancelled";
+    }
+
+    // ==================== 向量同步相关 ====================
+
+    /**
+     * 向量同步 Outbox 操作类型
+     */
+    interface VectorOutboxOp {
+        /**
+         * 写入/覆盖记忆向量
+         */
+        String UPSERT = "upsert";
+        /**
+         * 删除记忆向量
+         */
+        String DELETE = "delete";
+        /**
+         * 删除项目 Collection
+         */
+        String DROP_COLLECTION = "drop_collection";
+    }
+
+    /**
+     * 向量同步 Outbox 状态（处理成功的记录直接删除）
+     */
+    interface VectorOutboxStatus {
+        /**
+         * 待处理
+         */
+        String PENDING = "pending";
+        /**
+         * 处理中（已被某个工作线程领取）
+         */
+        String PROCESSING = "processing";
+        /**
+         * 超过最大重试次数
+         */
+        String FAILED = "failed";
+    }
+
+    /**
+     * 故事层级摘要级别
+     */
+    interface RollupLevel {
+        /**
+         * 情节弧（每N章一条）
+         */
+        String ARC = "arc";
+        /**
+         * 卷（每N个情节弧一条）
+         */
+        String VOLUME = "volume";
+    }
+
     // ==================== 润色相关 ====================
 
     /**
@@ -323,6 +461,10 @@ public interface NovelConstants {
          * RAG检索数量
          */
         int MEMORY_TOP_K = 15;
+        /**
+         * 每个主要角色的近况记忆数
+         */
+        int CHARACTER_STATE_TOP_K = 3;
         /**
          * 相似度阈值
          */
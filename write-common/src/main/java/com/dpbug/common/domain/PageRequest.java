@@ -33,6 +33,16 @@ public class PageRequest implements Serializable {
      */
     private String order;
 
+    /**
+     * 键集分页游标：不传时按页码分页；传空串取第一页，之后传上一页返回的 nextCursor（忽略页码）
+     */
+    private String cursor;
+
+    /**
+     * 游标分页时是否统计总数（默认不统计，深分页时 COUNT 代价较高）
+     */
+    private Boolean withTotal;
+
     public PageRequest() {
     }
 
@@ -71,6 +81,13 @@ public class PageRequest implements Serializable {
         return pageSize;
     }
 
+    /**
+     * 是否为游标分页
+     */
+    public boolean isCursorMode() {
+        return cursor != null;
+    }
+
     /**
      * 计算偏移量（用于SQL LIMIT）
      */
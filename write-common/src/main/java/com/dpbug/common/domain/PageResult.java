@@ -5,6 +5,7 @@ import lombok.Data;
 
 import java.io.Serializable;
 import java.util.List;
+import java.util.function.Function;
 
 /**
  * 分页结果封装类
@@ -41,6 +42,11 @@ public class PageResult<T> implements Serializable {
      */
     private List<T> list;
 
+    /**
+     * 下一页游标（仅游标分页返回，没有更多数据时为 null）
+     */
+    private String nextCursor;
+
     public PageResult() {
         this.pageNum = CommonConstants.DEFAULT_PAGE_NUM;
         this.pageSize = CommonConstants.DEFAULT_PAGE_SIZE;
@@ -73,6 +79,31 @@ public class PageResult<T> implements Serializable {
         return new PageResult<>(pageNum, pageSize, total, list);
     }
 
+    /**
+     * 创建游标分页结果
+     * <p>rows 按 pageSize + 1 条查询，多出的一条只用于判断是否还有下一页</p>
+     *
+     * @param rows      查询结果（最多 pageSize + 1 条）
+     * @param pageSize  每页大小
+     * @param total     总记录数（未统计时为 null）
+     * @param cursorOf  由本页最后一条记录生成下一页游标
+     * @param converter 记录转换
+     */
+    public static <E, T> PageResult<T> ofCursor(List<E> rows, Integer pageSize, Long total,
+                                                Function<E, String> cursorOf, Function<E, T> converter) {
+        boolean hasMore = rows.size() > pageSize;
+        List<E> page = hasMore ? rows.subList(0, pageSize) : rows;
+
+        PageResult<T> result = new PageResult<>();
+        result.pageNum = null;
+        result.pageSize = pageSize;
+        result.total = total;
+        result.pages = total != null ? result.calculatePages(total, pageSize) : null;
+        result.list = page.stream().map(converter).toList();
+        result.nextCursor = hasMore ? cursorOf.apply(page.get(page.size() - 1)) : null;
+        return result;
+    }
+
     /**
      * 创建空的分页结果
      */
@@ -98,6 +129,9 @@ public class PageResult<T> implements Serializable {
      * 是否有下一页
      */
     public boolean hasNext() {
+        if (pageNum == null) {
+            return nextCursor != null;
+        }
         return pageNum < pages;
     }
 
@@ -105,6 +139,6 @@ public class PageResult<T> implements Serializable {
      * 是否有上一页
      */
     public boolean hasPrevious() {
-        return pageNum > 1;
+        return pageNum != null && pageNum > 1;
     }
 }
\ No newline at end of file
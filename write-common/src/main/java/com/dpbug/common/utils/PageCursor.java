@@ -0,0 +1,122 @@
+package com.dpbug.common.utils;
+
+import com.dpbug.common.enums.ResultCode;
+import com.dpbug.common.exception.BusinessException;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.function.Function;
+
+/**
+ * 键集分页游标工具类
+ * <p>把上一页最后一条记录的排序键编码为不透明字符串，下一页以 "排序键 &gt; 游标" 代替 OFFSET。
+ * 游标带排序方式标识，换了排序方式的旧游标会被拒绝。</p>
+ */
+public class PageCursor {
+
+    private static final String SEPARATOR = ".";
+
+    private static final String NULL_VALUE = "~";
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private PageCursor() {
+    }
+
+    /**
+     * 编码游标
+     *
+     * @param sort   排序方式标识
+     * @param values 排序键（按排序字段顺序，以 toString 编码）
+     * @return 游标
+     */
+    public static String encode(String sort, Object... values) {
+        StringBuilder sb = new StringBuilder(encodePart(sort));
+        for (Object value : values) {
+            sb.append(SEPARATOR).append(value == null ? NULL_VALUE : encodePart(value.toString()));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 解码游标
+     *
+     * @param cursor 游标
+     * @param sort   期望的排序方式标识
+     * @param size   期望的排序键个数
+     * @return 排序键（null 值保持为 null）
+     */
+    public static String[] decode(String cursor, String sort, int size) {
+        String[] parts = cursor.split("\\.", -1);
+        if (parts.length != size + 1) {
+            throw invalid();
+        }
+        try {
+            if (!sort.equals(decodePart(parts[0]))) {
+                throw invalid();
+            }
+            String[] values = new String[size];
+            for (int i = 0; i < size; i++) {
+                values[i] = NULL_VALUE.equals(parts[i + 1]) ? null : decodePart(parts[i + 1]);
+            }
+            return values;
+        } catch (IllegalArgumentException e) {
+            throw invalid();
+        }
+    }
+
+    /**
+     * 解析整数排序键
+     */
+    public static Integer toInteger(String value) {
+        return parse(value, Integer::valueOf);
+    }
+
+    /**
+     * 解析长整数排序键
+     */
+    public static Long toLong(String value) {
+        return parse(value, Long::valueOf);
+    }
+
+    /**
+     * 解析小数排序键
+     */
+    public static BigDecimal toDecimal(String value) {
+        return parse(value, BigDecimal::new);
+    }
+
+    /**
+     * 解析时间排序键
+     */
+    public static LocalDateTime toDateTime(String value) {
+        return parse(value, LocalDateTime::parse);
+    }
+
+    private static <T> T parse(String value, Function<String, T> parser) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return parser.apply(value);
+        } catch (RuntimeException e) {
+            throw invalid();
+        }
+    }
+
+    private static String encodePart(String value) {
+        return ENCODER.encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String decodePart(String value) {
+        return new String(DECODER.decode(value), StandardCharsets.UTF_8);
+    }
+
+    private static BusinessException invalid() {
+        return new BusinessException(ResultCode.PARAM_ERROR, "分页游标无效");
+    }
+}
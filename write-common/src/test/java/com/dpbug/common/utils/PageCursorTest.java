@@ -0,0 +1,77 @@
+package com.dpbug.common.utils;
+
+import com.dpbug.common.enums.ResultCode;
+import com.dpbug.common.exception.BusinessException;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * PageCursor 测试类
+ *
+ * @author dpbug
+ */
+class PageCursorTest {
+
+    private static final String SORT = "updateTime";
+
+    @Test
+    void testRoundTrip() {
+        LocalDateTime time = LocalDateTime.of(2026, 10, 19, 8, 30, 15, 123_000_000);
+        String cursor = PageCursor.encode(SORT, time, 42L, new BigDecimal("8.50"), "第一章.序");
+
+        String[] values = PageCursor.decode(cursor, SORT, 4);
+
+        assertEquals(time, PageCursor.toDateTime(values[0]));
+        assertEquals(42L, PageCursor.toLong(values[1]));
+        assertEquals(new BigDecimal("8.50"), PageCursor.toDecimal(values[2]));
+        // 排序键中的分隔符不影响解析
+        assertEquals("第一章.序", values[3]);
+    }
+
+    @Test
+    void testNullRoundTrip() {
+        String cursor = PageCursor.encode(SORT, null, 7);
+
+        String[] values = PageCursor.decode(cursor, SORT, 2);
+
+        assertArrayEquals(new String[]{null, "7"}, values);
+        assertNull(PageCursor.toDateTime(values[0]));
+        assertNull(PageCursor.toInteger(values[0]));
+        assertEquals(7, PageCursor.toInteger(values[1]));
+    }
+
+    @Test
+    void testSortMismatchRejected() {
+        String cursor = PageCursor.encode(SORT, 1L);
+
+        assertInvalid(() -> PageCursor.decode(cursor, "createTime", 1));
+    }
+
+    @Test
+    void testMalformedCursorRejected() {
+        String cursor = PageCursor.encode(SORT, 1L);
+
+        // 排序键个数不符
+        assertInvalid(() -> PageCursor.decode(cursor, SORT, 2));
+        // 不是合法的 Base64
+        assertInvalid(() -> PageCursor.decode("!!!.abc", SORT, 1));
+        assertInvalid(() -> PageCursor.decode(cursor + "*", SORT, 1));
+        // 排序键无法解析为期望的类型
+        String[] values = PageCursor.decode(PageCursor.encode(SORT, "abc"), SORT, 1);
+        assertInvalid(() -> PageCursor.toLong(values[0]));
+        assertInvalid(() -> PageCursor.toDateTime(values[0]));
+        assertInvalid(() -> PageCursor.toDecimal(values[0]));
+    }
+
+    private void assertInvalid(Runnable action) {
+        BusinessException e = assertThrows(BusinessException.class, action::run);
+        assertEquals(ResultCode.PARAM_ERROR.getCode(), e.getCode());
+    }
+}
@@ -1,18 +1,36 @@
 package com.dpbug.server.ai;
 
+import com.dpbug.common.constant.NovelConstants;
+import com.dpbug.server.mapper.novel.GenerationTaskMapper;
+import com.dpbug.server.model.entity.novel.NovelGenerationTask;
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.ai.chroma.vectorstore.ChromaApi;
+import org.springframework.ai.chroma.vectorstore.ChromaFilterExpressionConverter;
 import org.springframework.ai.chroma.vectorstore.ChromaVectorStore;
+import org.springframework.ai.document.Document;
 import org.springframework.ai.embedding.EmbeddingModel;
 import org.springframework.ai.vectorstore.VectorStore;
+import org.springframework.ai.vectorstore.filter.Filter;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 
 /**
  * ChromaDB Collection 动态工厂
@@ -20,8 +38,9 @@ import java.util.concurrent.ConcurrentHashMap;
  * <p>功能：</p>
  * <ul>
  *   <li>为每个用户的每个项目创建独立的 Collection</li>
- *   <li>缓存已创建的 VectorStore 实例</li>
+ *   <li>缓存已创建的 VectorStore 实例（按容量与空闲时间淘汰，异步加载）</li>
  *   <li>使用 SHA256 哈希压缩 ID，符合 ChromaDB 命名规则</li>
+ *   <li>支持按代数切换 Collection，用于更换嵌入模型后的全量重建</li>
  * </ul>
  *
  * <p>命名规则（参考 learn1）：</p>
@@ -48,7 +67,21 @@ import java.util.concurrent.ConcurrentHashMap;
 public class ChromaVectorStoreFactory {
 
     private final ChromaApi chromaApi;
-    private final EmbeddingModel embeddingModel;
+
+    /**
+     * 当前生效的 EmbeddingModel（全量重建完成后切换）
+     */
+    private volatile EmbeddingModel embeddingModel;
+
+    /**
+     * 当前生效的嵌入模型名称（记录到 novel_story_memory.embedding_model）
+     */
+    private volatile String embeddingModelName;
+
+    /**
+     * 当前生效的 Collection 代数：0 为初始 Collection，每次全量重建 +1
+     */
+    private volatile int activeGeneration;
 
     /**
      * ChromaDB 租户名称（Spring AI 默认值）
@@ -66,13 +99,62 @@ public class ChromaVectorStoreFactory {
      * 缓存已创建的 VectorStore 实例
      * Key: collectionName
      * Value: VectorStore
+     *
+     * <p>使用异步加载缓存：首次访问时在 vectorStoreExecutor 中调用 Chroma 接口创建 Collection，
+     * 缓存中只保存 Future，不同项目的加载互不阻塞；同一项目的并发请求共享同一个加载 Future。</p>
+     */
+    private final AsyncLoadingCache<String, VectorStore> vectorStoreCache;
+
+    /**
+     * Collection 名称 -> Collection ID（直接调用 ChromaApi 查询时使用）
      */
-    private final Map<String, VectorStore> vectorStoreCache = new ConcurrentHashMap<>();
+    private final Cache<String, String> collectionIdCache;
 
-    public ChromaVectorStoreFactory(ChromaApi chromaApi, EmbeddingModel embeddingModel) {
+    private final ChromaFilterExpressionConverter filterExpressionConverter = new ChromaFilterExpressionConverter();
+
+    public ChromaVectorStoreFactory(ChromaApi chromaApi,
+                                    EmbeddingModel embeddingModel,
+                                    GenerationTaskMapper generationTaskMapper,
+                                    @Qualifier("vectorStoreExecutor") Executor vectorStoreExecutor,
+                                    @Value("${novel.vector-store.cache.max-size:500}") long maxSize,
+                                    @Value("${novel.vector-store.cache.expire-after-access:30m}") Duration expireAfterAccess) {
         this.chromaApi = chromaApi;
         this.embeddingModel = embeddingModel;
-        log.info("✅ ChromaVectorStoreFactory 初始化完成");
+        this.embeddingModelName = embeddingModel.getClass().getSimpleName();
+        loadActiveGeneration(generationTaskMapper);
+        this.vectorStoreCache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterAccess(expireAfterAccess)
+                .executor(vectorStoreExecutor)
+                .removalListener((String name, VectorStore store, RemovalCause cause) ->
+                        log.debug("VectorStore 移出缓存: collection={}, cause={}", name, cause))
+                .buildAsync(this::createVectorStore);
+        this.collectionIdCache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterAccess(expireAfterAccess)
+                .build();
+        log.info("✅ ChromaVectorStoreFactory 初始化完成: maxSize={}, expireAfterAccess={}, generation={}",
+                maxSize, expireAfterAccess, activeGeneration);
+    }
+
+    /**
+     * 从最近一次完成的全量重建任务恢复 Collection 代数
+     *
+     * @param generationTaskMapper 任务 Mapper
+     */
+    private void loadActiveGeneration(GenerationTaskMapper generationTaskMapper) {
+        try {
+            NovelGenerationTask task = generationTaskMapper.selectLatestCompletedByType(NovelConstants.TaskType.REINDEX);
+            if (task != null && task.getResult() != null && task.getResult().get("generation") instanceof Number number) {
+                this.activeGeneration = number.intValue();
+                Object modelName = task.getResult().get("embeddingModel");
+                if (modelName != null) {
+                    this.embeddingModelName = modelName.toString();
+                }
+            }
+        } catch (Exception e) {
+            log.warn("读取向量库代数失败，使用初始 Collection: {}", e.getMessage());
+        }
     }
 
     /**
@@ -87,32 +169,73 @@ public class ChromaVectorStoreFactory {
      * @return VectorStore 实例
      */
     public VectorStore getVectorStore(Long userId, Long projectId) {
-        String collectionName = generateCollectionName(userId, projectId);
+        try {
+            return getVectorStoreAsync(userId, projectId).join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new RuntimeException("Failed to load vector store: projectId=" + projectId, cause);
+        }
+    }
 
-        return vectorStoreCache.computeIfAbsent(collectionName, name -> {
-            log.info("创建项目 VectorStore: userId={}, projectId={}, collection={}",
-                    userId, projectId, name);
+    /**
+     * 异步获取项目专属的 VectorStore
+     *
+     * @param userId    用户 ID
+     * @param projectId 项目 ID
+     * @return VectorStore 加载 Future
+     */
+    public CompletableFuture<VectorStore> getVectorStoreAsync(Long userId, Long projectId) {
+        return vectorStoreCache.get(generateCollectionName(userId, projectId));
+    }
 
-            // 先确保 Collection 存在（手动创建，解决 ChromaDB 1.0.0 兼容性问题）
-            ensureCollectionExists(name);
+    /**
+     * 预热项目的 VectorStore（不阻塞调用方）
+     *
+     * <p>用于项目被打开时或应用启动时提前创建 Collection，失败仅记录日志。</p>
+     *
+     * @param userId    用户 ID
+     * @param projectId 项目 ID
+     */
+    public void prefetch(Long userId, Long projectId) {
+        getVectorStoreAsync(userId, projectId).whenComplete((store, error) -> {
+            if (error != null) {
+                log.warn("VectorStore 预热失败: userId={}, projectId={}, error={}",
+                        userId, projectId, error.getMessage());
+            }
+        });
+    }
 
-            ChromaVectorStore vectorStore = ChromaVectorStore.builder(chromaApi, embeddingModel)
-                    .collectionName(name)
-                    .tenantName(tenantName)
-                    .databaseName(databaseName)
-                    .initializeSchema(false)  // 已手动创建，无需再初始化
-                    .build();
+    /**
+     * 创建 VectorStore（缓存加载函数，在 vectorStoreExecutor 中执行）
+     *
+     * @param name Collection 名称
+     * @return VectorStore 实例
+     */
+    private VectorStore createVectorStore(String name) {
+        log.info("创建项目 VectorStore: collection={}", name);
 
-            // 强制初始化：获取 Collection ID
-            try {
-                vectorStore.afterPropertiesSet();
-            } catch (Exception e) {
-                log.warn("VectorStore 初始化警告: {}", e.getMessage());
-            }
+        // 先确保 Collection 存在（手动创建，解决 ChromaDB 1.0.0 兼容性问题）
+        ensureCollectionExists(name);
 
-            log.info("✅ VectorStore 创建成功: {}", name);
-            return vectorStore;
-        });
+        ChromaVectorStore vectorStore = ChromaVectorStore.builder(chromaApi, embeddingModel)
+                .collectionName(name)
+                .tenantName(tenantName)
+                .databaseName(databaseName)
+                .initializeSchema(false)  // 已手动创建，无需再初始化
+                .build();
+
+        // 强制初始化：获取 Collection ID
+        try {
+            vectorStore.afterPropertiesSet();
+        } catch (Exception e) {
+            log.warn("VectorStore 初始化警告: {}", e.getMessage());
+        }
+
+        log.info("✅ VectorStore 创建成功: {}", name);
+        return vectorStore;
     }
 
     /**
@@ -158,9 +281,24 @@ public class ChromaVectorStoreFactory {
      * @return Collection 名称
      */
     public String generateCollectionName(Long userId, Long projectId) {
+        return generateCollectionName(userId, projectId, activeGeneration);
+    }
+
+    /**
+     * 生成指定代数的 Collection 名称
+     *
+     * <p>第 0 代沿用原有名称，之后追加 _g{generation} 后缀</p>
+     *
+     * @param userId     用户 ID
+     * @param projectId  项目 ID
+     * @param generation Collection 代数
+     * @return Collection 名称
+     */
+    public String generateCollectionName(Long userId, Long projectId, int generation) {
         String userHash = sha256Hash(userId.toString()).substring(0, 8);
         String projectHash = sha256Hash(projectId.toString()).substring(0, 8);
-        return String.format("u_%s_p_%s", userHash, projectHash);
+        String name = String.format("u_%s_p_%s", userHash, projectHash);
+        return generation > 0 ? name + "_g" + generation : name;
     }
 
     /**
@@ -174,19 +312,33 @@ public class ChromaVectorStoreFactory {
      * @return 是否删除成功
      */
     public boolean deleteCollection(Long userId, Long projectId) {
-        String collectionName = generateCollectionName(userId, projectId);
+        return deleteCollection(userId, projectId, activeGeneration);
+    }
+
+    /**
+     * 删除项目指定代数的 Collection（用于全量重建后清理旧 Collection）
+     *
+     * @param userId     用户 ID
+     * @param projectId  项目 ID
+     * @param generation Collection 代数
+     * @return 是否删除成功
+     */
+    public boolean deleteCollection(Long userId, Long projectId, int generation) {
+        String collectionName = generateCollectionName(userId, projectId, generation);
 
         try {
             // ChromaApi.deleteCollection 需要 tenantName, databaseName, collectionName
             chromaApi.deleteCollection(tenantName, databaseName, collectionName);
-            vectorStoreCache.remove(collectionName);
+            vectorStoreCache.synchronous().invalidate(collectionName);
+            collectionIdCache.invalidate(collectionName);
             log.info("Collection 已删除: {}", collectionName);
             return true;
         } catch (Exception e) {
             // Collection 不存在时忽略
             if (e.getMessage() != null && e.getMessage().contains("does not exist")) {
                 log.info("Collection 不存在，无需删除: {}", collectionName);
-                vectorStoreCache.remove(collectionName);
+                vectorStoreCache.synchronous().invalidate(collectionName);
+                collectionIdCache.invalidate(collectionName);
                 return true;
             }
             log.error("删除 Collection 失败: {}", collectionName, e);
@@ -194,6 +346,192 @@ public class ChromaVectorStoreFactory {
         }
     }
 
+    /**
+     * 用已计算好的查询向量检索项目 Collection，多个查询合并为一次请求
+     *
+     * <p>结果与 ChromaVectorStore 的检索结果一致：得分为 1 - 距离，低于阈值的结果被过滤</p>
+     *
+     * @param userId              用户 ID
+     * @param projectId           项目 ID
+     * @param queryEmbeddings     查询向量
+     * @param topK                每个查询返回的数量
+     * @param similarityThreshold 相似度阈值
+     * @param filterExpression    过滤表达式（可为空）
+     * @return 与查询向量一一对应的检索结果
+     */
+    public List<List<Document>> similaritySearch(Long userId, Long projectId, List<float[]> queryEmbeddings, int topK,
+                                                 double similarityThreshold, Filter.Expression filterExpression) {
+        if (queryEmbeddings.isEmpty()) {
+            return Collections.emptyList();
+        }
+        // 确保 Collection 已创建
+        getVectorStore(userId, projectId);
+        String collectionName = generateCollectionName(userId, projectId);
+        String collectionId = collectionIdCache.get(collectionName,
+                name -> chromaApi.getCollection(tenantName, databaseName, name).id());
+
+        Map<String, Object> where = filterExpression == null ? null
+                : chromaApi.where(filterExpressionConverter.convertExpression(filterExpression));
+        ChromaApi.QueryResponse response = chromaApi.queryCollection(tenantName, databaseName, collectionId,
+                new ChromaApi.QueryRequest(queryEmbeddings, topK, where, List.of(
+                        ChromaApi.QueryRequest.Include.DOCUMENTS,
+                        ChromaApi.QueryRequest.Include.METADATAS,
+                        ChromaApi.QueryRequest.Include.DISTANCES)));
+
+        List<List<Document>> results = new ArrayList<>(queryEmbeddings.size());
+        for (int q = 0; q < queryEmbeddings.size(); q++) {
+            List<Document> documents = new ArrayList<>();
+            if (response != null && response.ids() != null && q < response.ids().size()) {
+                List<String> ids = response.ids().get(q);
+                for (int i = 0; i < ids.size(); i++) {
+                    double score = 1 - response.distances().get(q).get(i);
+                    if (score < similarityThreshold) {
+                        continue;
+                    }
+                    Map<String, Object> metadata = new HashMap<>();
+                    Map<String, Object> source = response.metadata().get(q).get(i);
+                    if (source != null) {
+                        metadata.putAll(source);
+                    }
+                    metadata.put("distance", response.distances().get(q).get(i).floatValue());
+                    documents.add(Document.builder()
+                            .id(ids.get(i))
+                            .text(response.documents().get(q).get(i))
+                            .metadata(metadata)
+                            .score(score)
+                            .build());
+                }
+            }
+            results.add(documents);
+        }
+        return results;
+    }
+
+    /**
+     * 列出项目 Collection 中的全部向量（用于与 MySQL 对账）
+     *
+     * <p>按页读取 ID 与元数据，不返回向量本身；Collection 不存在时返回空 Map。</p>
+     *
+     * @param userId    用户 ID
+     * @param projectId 项目 ID
+     * @param pageSize  每页数量
+     * @return 向量ID -> 元数据中的 memory_id（可能为 null）
+     */
+    public Map<String, String> listVectorMemoryIds(Long userId, Long projectId, int pageSize) {
+        String collectionName = generateCollectionName(userId, projectId);
+        ChromaApi.Collection collection;
+        try {
+            collection = chromaApi.getCollection(tenantName, databaseName, collectionName);
+        } catch (Exception e) {
+            log.debug("Collection 不存在，跳过列举: {}", collectionName);
+            return Collections.emptyMap();
+        }
+        if (collection == null) {
+            return Collections.emptyMap();
+        }
+
+        Map<String, String> result = new HashMap<>();
+        int offset = 0;
+        while (true) {
+            ChromaApi.GetEmbeddingResponse response = chromaApi.getEmbeddings(tenantName, databaseName, collection.id(),
+                    new ChromaApi.GetEmbeddingsRequest(null, null, pageSize, offset,
+                            List.of(ChromaApi.QueryRequest.Include.METADATAS)));
+            if (response == null || response.ids() == null || response.ids().isEmpty()) {
+                break;
+            }
+            List<Map<String, String>> metadata = response.metadata();
+            for (int i = 0; i < response.ids().size(); i++) {
+                Map<String, String> meta = metadata != null && i < metadata.size() ? metadata.get(i) : null;
+                Object memoryId = meta != null ? meta.get("memory_id") : null;
+                result.put(response.ids().get(i), memoryId != null ? memoryId.toString() : null);
+            }
+            if (response.ids().size() < pageSize) {
+                break;
+            }
+            offset += pageSize;
+        }
+        return result;
+    }
+
+    /**
+     * 准备全量重建使用的影子 Collection（不进入缓存，不影响线上检索）
+     *
+     * @param userId     用户 ID
+     * @param projectId  项目 ID
+     * @param generation 目标代数
+     * @return Collection ID
+     */
+    public String prepareShadowCollection(Long userId, Long projectId, int generation) {
+        String collectionName = generateCollectionName(userId, projectId, generation);
+        ensureCollectionExists(collectionName);
+        ChromaApi.Collection collection = chromaApi.getCollection(tenantName, databaseName, collectionName);
+        if (collection == null) {
+            throw new IllegalStateException("Collection not found after creation: " + collectionName);
+        }
+        return collection.id();
+    }
+
+    /**
+     * 直接写入已计算好的向量（用于全量重建，向量由调用方批量计算）
+     *
+     * @param collectionId Collection ID
+     * @param ids          向量ID
+     * @param embeddings   向量
+     * @param metadata     元数据
+     * @param documents    文档内容
+     */
+    public void upsertEmbeddings(String collectionId, List<String> ids, List<float[]> embeddings,
+                                 List<Map<String, Object>> metadata, List<String> documents) {
+        chromaApi.upsertEmbeddings(tenantName, databaseName, collectionId,
+                new ChromaApi.AddEmbeddingsRequest(ids, embeddings, metadata, documents));
+    }
+
+    /**
+     * 切换到新一代 Collection 与 EmbeddingModel
+     *
+     * <p>代数、模型与缓存在同一把锁内切换；之后的 getVectorStore 调用全部指向新 Collection，
+     * 旧实例随缓存失效被丢弃</p>
+     *
+     * @param generation     新代数
+     * @param newModel       新 EmbeddingModel
+     * @param newModelName   新模型名称
+     */
+    public synchronized void swapGeneration(int generation, EmbeddingModel newModel, String newModelName) {
+        int previous = this.activeGeneration;
+        this.embeddingModel = newModel;
+        this.embeddingModelName = newModelName;
+        this.activeGeneration = generation;
+        vectorStoreCache.synchronous().invalidateAll();
+        log.info("向量库已切换: generation {} -> {}, embeddingModel={}", previous, generation, newModelName);
+    }
+
+    /**
+     * 获取当前生效的 Collection 代数
+     *
+     * @return 代数
+     */
+    public int getActiveGeneration() {
+        return activeGeneration;
+    }
+
+    /**
+     * 获取当前生效的 EmbeddingModel（供不经过 Collection 的向量计算使用）
+     *
+     * @return EmbeddingModel
+     */
+    public EmbeddingModel getEmbeddingModel() {
+        return embeddingModel;
+    }
+
+    /**
+     * 获取当前生效的嵌入模型名称
+     *
+     * @return 模型名称
+     */
+    public String getEmbeddingModelName() {
+        return embeddingModelName;
+    }
+
     /**
      * 检查 Collection 是否存在（基于缓存）
      *
@@ -203,14 +541,14 @@ public class ChromaVectorStoreFactory {
      */
     public boolean collectionExistsInCache(Long userId, Long projectId) {
         String collectionName = generateCollectionName(userId, projectId);
-        return vectorStoreCache.containsKey(collectionName);
+        return vectorStoreCache.getIfPresent(collectionName) != null;
     }
 
     /**
      * 清除缓存（用于测试或重置）
      */
     public void clearCache() {
-        vectorStoreCache.clear();
+        vectorStoreCache.synchronous().invalidateAll();
         log.info("VectorStore 缓存已清除");
     }
 
@@ -220,7 +558,7 @@ public class ChromaVectorStoreFactory {
      * @return 缓存中的 VectorStore 数量
      */
     public int getCacheSize() {
-        return vectorStoreCache.size();
+        return (int) vectorStoreCache.synchronous().estimatedSize();
     }
 
     /**
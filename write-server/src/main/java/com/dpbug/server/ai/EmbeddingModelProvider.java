@@ -53,7 +53,17 @@ public class EmbeddingModelProvider {
 
     @Bean
     public EmbeddingModel embeddingModel() {
-        UserApiConfig config = userApiConfigService.getSystemConfig();
+        return createEmbeddingModel(userApiConfigService.getSystemConfig());
+    }
+
+    /**
+     * 按配置创建 EmbeddingModel
+     * <p>除启动时创建 Bean 外，向量库全量重建时也用它按最新的系统配置创建目标模型</p>
+     *
+     * @param config 嵌入模型配置
+     * @return EmbeddingModel 实例
+     */
+    public EmbeddingModel createEmbeddingModel(UserApiConfig config) {
         String apiType = config.getApiType().toUpperCase();
 
         log.info("初始化 EmbeddingModel: apiType={}, model={}", apiType, config.getEmbeddingModel());
@@ -156,6 +166,17 @@ public class EmbeddingModelProvider {
         return new OpenAiEmbeddingModel(apiBuilder.build(), MetadataMode.EMBED, options);
     }
 
+    /**
+     * 配置对应的模型名称（记录到 novel_story_memory.embedding_model）
+     *
+     * @param config 嵌入模型配置
+     * @return 模型名称，格式 apiType:model
+     */
+    public String describe(UserApiConfig config) {
+        String model = hasValue(config.getEmbeddingModel()) ? config.getEmbeddingModel() : "default";
+        return config.getApiType().toUpperCase() + ":" + model;
+    }
+
     private boolean hasValue(String str) {
         return str != null && !str.trim().isEmpty();
     }
@@ -0,0 +1,142 @@
+package com.dpbug.server.ai;
+
+import com.dpbug.common.constant.NovelConstants;
+import com.dpbug.server.model.entity.novel.NovelStoryMemory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.document.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * 记忆检索结果重排器
+ *
+ * <p>向量库只按相似度排序，这里在本地综合相似度、重要性、距当前章节的远近与伏笔状态重新打分：
+ * {@code score = w1 * 相似度 + w2 * 重要性 + w3 * 时间衰减 + 伏笔加分}，
+ * 时间衰减按半衰期指数衰减，未回收的伏笔额外加分。</p>
+ *
+ * @author dpbug
+ */
+@Slf4j
+@Component
+public class MemoryReranker {
+
+    private final boolean enabled;
+    private final int overFetchFactor;
+    private final double similarityWeight;
+    private final double importanceWeight;
+    private final double recencyWeight;
+    private final double recencyHalfLife;
+    private final double foreshadowBoost;
+
+    public MemoryReranker(@Value("${novel.memory.rerank.enabled:true}") boolean enabled,
+                          @Value("${novel.memory.rerank.over-fetch-factor:3}") int overFetchFactor,
+                          @Value("${novel.memory.rerank.similarity-weight:0.6}") double similarityWeight,
+                          @Value("${novel.memory.rerank.importance-weight:0.2}") double importanceWeight,
+                          @Value("${novel.memory.rerank.recency-weight:0.2}") double recencyWeight,
+                          @Value("${novel.memory.rerank.recency-half-life:20}") double recencyHalfLife,
+                          @Value("${novel.memory.rerank.foreshadow-boost:0.1}") double foreshadowBoost) {
+        this.enabled = enabled;
+        this.overFetchFactor = Math.max(1, overFetchFactor);
+        this.similarityWeight = similarityWeight;
+        this.importanceWeight = importanceWeight;
+        this.recencyWeight = recencyWeight;
+        this.recencyHalfLife = Math.max(1, recencyHalfLife);
+        this.foreshadowBoost = foreshadowBoost;
+    }
+
+    /**
+     * 向量检索时实际召回的数量（启用重排时放大召回，再在本地截取）
+     *
+     * @param topK 最终返回数量
+     * @return 召回数量
+     */
+    public int fetchSize(int topK) {
+        return enabled ? topK * overFetchFactor : topK;
+    }
+
+    /**
+     * 对召回的记忆重新排序并截取前 topK 条
+     *
+     * <p>记忆列表可以是任意顺序（如按ID批量查询的结果），输出顺序只由得分决定；
+     * 未启用重排时保持向量检索的相似度顺序。</p>
+     *
+     * @param hits           向量检索结果（按相似度排序）
+     * @param memories       召回记忆的完整数据
+     * @param topK           返回数量
+     * @param currentChapter 当前章节号，为空时以召回记忆中最新的章节为准
+     * @return 排序后的记忆
+     */
+    public List<NovelStoryMemory> rerank(List<Document> hits, List<NovelStoryMemory> memories, int topK,
+                                         Integer currentChapter) {
+        Map<Long, NovelStoryMemory> memoryMap = new HashMap<>();
+        for (NovelStoryMemory memory : memories) {
+            memoryMap.put(memory.getId(), memory);
+        }
+
+        // 按检索顺序对齐记忆与相似度，已删除的记忆跳过
+        Map<Long, Candidate> candidates = new LinkedHashMap<>();
+        for (Document hit : hits) {
+            Object memoryId = hit.getMetadata().get("memory_id");
+            NovelStoryMemory memory = memoryId == null ? null : memoryMap.get(Long.parseLong(memoryId.toString()));
+            if (memory != null) {
+                candidates.putIfAbsent(memory.getId(),
+                        new Candidate(memory, hit.getScore() != null ? hit.getScore() : 0D));
+            }
+        }
+
+        List<Candidate> ordered = new ArrayList<>(candidates.values());
+        if (enabled) {
+            int reference = currentChapter != null ? currentChapter : ordered.stream()
+                    .map(candidate -> candidate.memory.getStoryTimeline())
+                    .filter(Objects::nonNull)
+                    .max(Integer::compare)
+                    .orElse(0);
+            ordered.forEach(candidate -> candidate.score = score(candidate.memory, candidate.similarity, reference));
+            // 稳定排序，同分时保留相似度顺序
+            ordered.sort((a, b) -> Double.compare(b.score, a.score));
+
+            if (log.isDebugEnabled()) {
+                ordered.stream().limit(topK).forEach(candidate -> log.debug(
+                        "记忆重排: memoryId={}, score={}, similarity={}", candidate.memory.getId(),
+                        String.format("%.3f", candidate.score), String.format("%.3f", candidate.similarity)));
+            }
+        }
+        return ordered.stream().limit(topK).map(candidate -> candidate.memory).toList();
+    }
+
+    private double score(NovelStoryMemory memory, double similarity, int referenceChapter) {
+        double importance = memory.getImportanceScore() != null ? memory.getImportanceScore().doubleValue() : 0.5;
+
+        double recency = 0.5;
+        if (memory.getStoryTimeline() != null) {
+            int distance = Math.max(0, referenceChapter - memory.getStoryTimeline());
+            recency = Math.pow(0.5, distance / recencyHalfLife);
+        }
+
+        double boost = memory.getIsForeshadow() != null
+                && memory.getIsForeshadow() == NovelConstants.ForeshadowStatus.PLANTED ? foreshadowBoost : 0;
+
+        return similarityWeight * similarity + importanceWeight * importance + recencyWeight * recency + boost;
+    }
+
+    /**
+     * 重排候选项
+     */
+    private static final class Candidate {
+        private final NovelStoryMemory memory;
+        private final double similarity;
+        private double score;
+
+        private Candidate(NovelStoryMemory memory, double similarity) {
+            this.memory = memory;
+            this.similarity = similarity;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.dpbug.server.ai;
+
+import com.dpbug.server.model.entity.novel.NovelStoryMemory;
+import org.springframework.ai.document.Document;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * 记忆向量文档构建工具
+ *
+ * <p>Outbox 同步与全量重建共用同一套 ID、文本与元数据规则，保证两条路径写入的向量一致</p>
+ *
+ * @author dpbug
+ */
+public final class MemoryVectorDocuments {
+
+    private MemoryVectorDocuments() {
+    }
+
+    /**
+     * 记忆的向量ID：已有则沿用，否则由记忆ID确定性生成（重复写入只会覆盖）
+     *
+     * @param memory 记忆实体
+     * @return 向量ID
+     */
+    public static String vectorId(NovelStoryMemory memory) {
+        if (memory.getVectorId() != null) {
+            return memory.getVectorId();
+        }
+        return UUID.nameUUIDFromBytes(("memory:" + memory.getId()).getBytes(StandardCharsets.UTF_8)).toString();
+    }
+
+    /**
+     * 向量文档内容：标题 + 内容
+     *
+     * @param memory 记忆实体
+     * @return 文档内容
+     */
+    public static String text(NovelStoryMemory memory) {
+        return memory.getTitle() + "\n" + memory.getContent();
+    }
+
+    /**
+     * 元数据，用于后续过滤检索
+     *
+     * @param projectId 项目ID
+     * @param memory    记忆实体
+     * @return 元数据
+     */
+    public static Map<String, Object> metadata(Long projectId, NovelStoryMemory memory) {
+        Map<String, Object> metadata = new HashMap<>();
+        metadata.put("project_id", projectId.toString());
+        metadata.put("memory_id", memory.getId().toString());
+        metadata.put("chapter_id", memory.getChapterId().toString());
+        if (memory.getStoryTimeline() != null) {
+            metadata.put("chapter_number", memory.getStoryTimeline());
+        }
+        if (memory.getMemoryType() != null) {
+            metadata.put("memory_type", memory.getMemoryType());
+        }
+        if (memory.getImportanceScore() != null) {
+            metadata.put("importance_score", memory.getImportanceScore().doubleValue());
+        }
+        if (memory.getIsForeshadow() != null) {
+            metadata.put("is_foreshadow", memory.getIsForeshadow());
+        }
+        return metadata;
+    }
+
+    /**
+     * 构建向量文档
+     *
+     * @param projectId 项目ID
+     * @param memory    记忆实体
+     * @return 向量文档
+     */
+    public static Document toDocument(Long projectId, NovelStoryMemory memory) {
+        return new Document(vectorId(memory), text(memory), metadata(projectId, memory));
+    }
+}
@@ -0,0 +1,177 @@
+package com.dpbug.server.ai;
+
+import lombok.Getter;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.vectorstore.filter.Filter;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 检索会话：一次章节生成过程内共享的查询向量与检索结果
+ *
+ * <p>构建上下文、层级摘要选择、伏笔回收检测与记忆搜索接口使用同一会话，
+ * 相同查询文本只计算一次向量，多个查询合并为一次嵌入请求和一次向量库请求。
+ * 会话由 {@link RetrievalSessionManager} 按项目维护，记忆向量写入后检索结果失效，查询向量继续复用。</p>
+ *
+ * @author dpbug
+ */
+public class RetrievalSession {
+
+    @Getter
+    private final Long userId;
+
+    @Getter
+    private final Long projectId;
+
+    /**
+     * 创建会话时的 Collection 代数，切换后会话作废
+     */
+    @Getter
+    private final int generation;
+
+    private final EmbeddingModel embeddingModel;
+    private final ChromaVectorStoreFactory chromaVectorStoreFactory;
+    private final int maxEntries;
+
+    /**
+     * 查询文本 -> 查询向量
+     */
+    private final Map<String, float[]> embeddings = new ConcurrentHashMap<>();
+
+    /**
+     * 检索条件 -> 检索结果
+     */
+    private final Map<String, List<Document>> results = new ConcurrentHashMap<>();
+
+    /**
+     * 检索结果的失效次数，检索期间发生失效时结果不写入缓存（写入与失效都在 results 上同步）
+     */
+    private long resultsEpoch;
+
+    RetrievalSession(Long userId, Long projectId, int generation, EmbeddingModel embeddingModel,
+                     ChromaVectorStoreFactory chromaVectorStoreFactory, int maxEntries) {
+        this.userId = userId;
+        this.projectId = projectId;
+        this.generation = generation;
+        this.embeddingModel = embeddingModel;
+        this.chromaVectorStoreFactory = chromaVectorStoreFactory;
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * 获取查询向量
+     *
+     * @param text 查询文本
+     * @return 查询向量
+     */
+    public float[] embed(String text) {
+        return embedAll(List.of(text)).get(0);
+    }
+
+    /**
+     * 批量获取查询向量，未缓存的文本合并为一次嵌入请求
+     *
+     * @param texts 查询文本
+     * @return 与文本一一对应的查询向量
+     */
+    public List<float[]> embedAll(List<String> texts) {
+        Map<String, float[]> resolved = new HashMap<>();
+        List<String> missing = new ArrayList<>();
+        for (String text : new LinkedHashSet<>(texts)) {
+            float[] cached = embeddings.get(text);
+            if (cached != null) {
+                resolved.put(text, cached);
+            } else {
+                missing.add(text);
+            }
+        }
+        if (!missing.isEmpty()) {
+            List<float[]> computed = embeddingModel.embed(missing);
+            if (embeddings.size() + missing.size() > maxEntries) {
+                embeddings.clear();
+            }
+            for (int i = 0; i < missing.size(); i++) {
+                resolved.put(missing.get(i), computed.get(i));
+                embeddings.put(missing.get(i), computed.get(i));
+            }
+        }
+        return texts.stream().map(resolved::get).toList();
+    }
+
+    /**
+     * 语义检索，未命中缓存的查询合并为一次向量库请求
+     *
+     * @param queries             查询文本
+     * @param topK                每个查询返回的数量
+     * @param similarityThreshold 相似度阈值
+     * @param filterExpression    过滤表达式（可为空）
+     * @return 与查询一一对应的检索结果
+     */
+    public List<List<Document>> search(List<String> queries, int topK, double similarityThreshold,
+                                       Filter.Expression filterExpression) {
+        String condition = topK + "|" + similarityThreshold + "|" + filterExpression + "|";
+        Map<String, List<Document>> resolved = new HashMap<>();
+        List<String> missing = new ArrayList<>();
+        for (String query : new LinkedHashSet<>(queries)) {
+            List<Document> cached = results.get(condition + query);
+            if (cached != null) {
+                resolved.put(query, cached);
+            } else {
+                missing.add(query);
+            }
+        }
+        if (!missing.isEmpty()) {
+            long epoch;
+            synchronized (results) {
+                epoch = resultsEpoch;
+            }
+            List<List<Document>> found = chromaVectorStoreFactory.similaritySearch(userId, projectId,
+                    embedAll(missing), topK, similarityThreshold, filterExpression);
+            for (int i = 0; i < missing.size(); i++) {
+                resolved.put(missing.get(i), List.copyOf(found.get(i)));
+            }
+            synchronized (results) {
+                // 检索期间记忆向量已变化，结果可能不含新写入的记忆，只返回给本次调用
+                if (epoch == resultsEpoch) {
+                    if (results.size() + missing.size() > maxEntries) {
+                        results.clear();
+                    }
+                    for (String query : missing) {
+                        results.put(condition + query, resolved.get(query));
+                    }
+                }
+            }
+        }
+        return queries.stream().map(resolved::get).toList();
+    }
+
+    /**
+     * 语义检索单个查询
+     *
+     * @param query               查询文本
+     * @param topK                返回数量
+     * @param similarityThreshold 相似度阈值
+     * @param filterExpression    过滤表达式（可为空）
+     * @return 检索结果
+     */
+    public List<Document> search(String query, int topK, double similarityThreshold,
+                                 Filter.Expression filterExpression) {
+        return search(List.of(query), topK, similarityThreshold, filterExpression).get(0);
+    }
+
+    /**
+     * 清空检索结果（记忆向量变化后调用），查询向量保留
+     */
+    void invalidateResults() {
+        synchronized (results) {
+            resultsEpoch++;
+            results.clear();
+        }
+    }
+}
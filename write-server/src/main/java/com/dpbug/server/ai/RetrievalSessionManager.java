@@ -0,0 +1,74 @@
+package com.dpbug.server.ai;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * 检索会话管理
+ *
+ * <p>章节生成跨越请求线程、生成线程与记忆提取线程，无法绑定到单个 HTTP 请求，
+ * 因此按项目维护短期会话：同一次生成（以及紧接着的重新生成、记忆搜索）共享查询向量与检索结果。
+ * 会话创建一段时间后过期；本实例写入记忆向量时清空检索结果，其他实例的写入最多在会话过期后可见。</p>
+ *
+ * @author dpbug
+ */
+@Slf4j
+@Component
+public class RetrievalSessionManager {
+
+    private final ChromaVectorStoreFactory chromaVectorStoreFactory;
+    private final int maxEntries;
+
+    /**
+     * 项目ID -> 检索会话
+     */
+    private final Cache<Long, RetrievalSession> sessions;
+
+    public RetrievalSessionManager(ChromaVectorStoreFactory chromaVectorStoreFactory,
+                                   @Value("${novel.memory.retrieval-session.ttl:10m}") Duration ttl,
+                                   @Value("${novel.memory.retrieval-session.max-sessions:500}") long maxSessions,
+                                   @Value("${novel.memory.retrieval-session.max-entries:200}") int maxEntries) {
+        this.chromaVectorStoreFactory = chromaVectorStoreFactory;
+        this.maxEntries = Math.max(1, maxEntries);
+        this.sessions = Caffeine.newBuilder()
+                .maximumSize(maxSessions)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    /**
+     * 获取项目的检索会话，不存在或向量库已切换时新建
+     *
+     * @param userId    用户ID
+     * @param projectId 项目ID
+     * @return 检索会话
+     */
+    public RetrievalSession session(Long userId, Long projectId) {
+        int generation = chromaVectorStoreFactory.getActiveGeneration();
+        RetrievalSession session = sessions.getIfPresent(projectId);
+        if (session == null || session.getGeneration() != generation || !session.getUserId().equals(userId)) {
+            session = new RetrievalSession(userId, projectId, generation,
+                    chromaVectorStoreFactory.getEmbeddingModel(), chromaVectorStoreFactory, maxEntries);
+            sessions.put(projectId, session);
+        }
+        return session;
+    }
+
+    /**
+     * 项目记忆向量变化后清空检索结果
+     *
+     * @param projectId 项目ID
+     */
+    public void invalidateResults(Long projectId) {
+        RetrievalSession session = sessions.getIfPresent(projectId);
+        if (session != null) {
+            session.invalidateResults();
+            log.debug("检索会话结果已失效: projectId={}", projectId);
+        }
+    }
+}
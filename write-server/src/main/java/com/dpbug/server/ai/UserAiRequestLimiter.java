@@ -0,0 +1,80 @@
+package com.dpbug.server.ai;
+
+import com.dpbug.server.util.SimpleRateLimiter;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.function.Supplier;
+
+/**
+ * 用户级 AI 请求限流器
+ *
+ * <p>后台任务并发调用模型时（如提取记忆、书稿导入后的剧情分析），按用户限制同时进行的请求数与每秒请求数，
+ * 避免单个用户的后台任务打满其 API Key 的速率限制。限流状态只在本实例内生效。
+ * 额度不可重入：持有额度期间不要再调用同样经过限流的方法，否则可能互相等待。</p>
+ *
+ * @author dpbug
+ */
+@Slf4j
+@Component
+public class UserAiRequestLimiter {
+
+    private final int maxConcurrent;
+    private final double requestsPerSecond;
+
+    /**
+     * 用户ID -> 限流状态，空闲一段时间后淘汰
+     */
+    private final Cache<Long, UserPermits> permitsCache = Caffeine.newBuilder()
+            .expireAfterAccess(Duration.ofMinutes(30))
+            .build();
+
+    public UserAiRequestLimiter(@Value("${novel.ai.user-limit.max-concurrent:3}") int maxConcurrent,
+                                @Value("${novel.ai.user-limit.requests-per-second:2}") double requestsPerSecond) {
+        this.maxConcurrent = Math.max(1, maxConcurrent);
+        this.requestsPerSecond = requestsPerSecond;
+    }
+
+    /**
+     * 在用户的限流额度内执行一次 AI 请求，额度不足时阻塞等待
+     *
+     * @param userId 用户ID
+     * @param call   AI 请求
+     * @param <T>    返回类型
+     * @return 请求结果
+     */
+    public <T> T execute(Long userId, Supplier<T> call) {
+        UserPermits permits = permitsCache.get(userId, id -> new UserPermits(maxConcurrent, requestsPerSecond));
+        try {
+            permits.concurrency.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("等待 AI 请求额度时被中断", e);
+        }
+        try {
+            permits.rateLimiter.acquire();
+            return call.get();
+        } finally {
+            permits.concurrency.release();
+        }
+    }
+
+    /**
+     * 单个用户的限流状态
+     */
+    private static class UserPermits {
+
+        private final Semaphore concurrency;
+        private final SimpleRateLimiter rateLimiter;
+
+        UserPermits(int maxConcurrent, double requestsPerSecond) {
+            this.concurrency = new Semaphore(maxConcurrent);
+            this.rateLimiter = new SimpleRateLimiter(requestsPerSecond);
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.dpbug.server.ai;
+
+import com.dpbug.server.mapper.novel.ProjectMapper;
+import com.dpbug.server.model.entity.novel.NovelProject;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * VectorStore 预热器
+ *
+ * <p>功能：</p>
+ * <ul>
+ *   <li>项目被打开时记录到 Redis 有序集合（按打开时间排序），并异步预热其 Collection</li>
+ *   <li>应用启动后，按最近打开顺序预热前 N 个项目；Redis 无记录时退化为最近更新的项目</li>
+ * </ul>
+ *
+ * @author dpbug
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class VectorStoreWarmUp {
+
+    /**
+     * 最近打开项目的 Redis Key（member 为 userId:projectId，score 为打开时间戳）
+     */
+    private static final String RECENT_OPENED_KEY = "vector:warmup:recent";
+
+    private final ChromaVectorStoreFactory chromaVectorStoreFactory;
+    private final ProjectMapper projectMapper;
+    private final StringRedisTemplate stringRedisTemplate;
+
+    @Value("${novel.vector-store.warm-up.enabled:true}")
+    private boolean enabled;
+
+    /**
+     * 启动时预热的项目数量（同时也是最近打开记录的保留数量）
+     */
+    @Value("${novel.vector-store.warm-up.project-limit:50}")
+    private int projectLimit;
+
+    /**
+     * 记录项目被打开，并在后台预热其 VectorStore
+     *
+     * @param userId    用户ID
+     * @param projectId 项目ID
+     */
+    public void recordOpen(Long userId, Long projectId) {
+        if (!enabled) {
+            return;
+        }
+        chromaVectorStoreFactory.prefetch(userId, projectId);
+        try {
+            stringRedisTemplate.opsForZSet().add(RECENT_OPENED_KEY,
+                    userId + ":" + projectId, System.currentTimeMillis());
+            // 只保留最近的 projectLimit 条
+            stringRedisTemplate.opsForZSet().removeRange(RECENT_OPENED_KEY, 0, -projectLimit - 1L);
+        } catch (Exception e) {
+            log.debug("记录最近打开项目失败: projectId={}, error={}", projectId, e.getMessage());
+        }
+    }
+
+    /**
+     * 应用启动完成后预热最近打开的项目
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUpOnStartup() {
+        if (!enabled || projectLimit <= 0) {
+            return;
+        }
+        try {
+            int count = warmUpRecentlyOpened();
+            if (count == 0) {
+                List<NovelProject> projects = projectMapper.selectRecentlyActive(projectLimit);
+                projects.forEach(p -> chromaVectorStoreFactory.prefetch(p.getUserId(), p.getId()));
+                count = projects.size();
+            }
+            log.info("VectorStore 预热已提交: count={}", count);
+        } catch (Exception e) {
+            log.warn("VectorStore 预热失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 按最近打开顺序预热
+     *
+     * @return 提交预热的项目数量
+     */
+    private int warmUpRecentlyOpened() {
+        Set<String> members;
+        try {
+            members = stringRedisTemplate.opsForZSet().reverseRange(RECENT_OPENED_KEY, 0, projectLimit - 1L);
+        } catch (Exception e) {
+            log.debug("读取最近打开项目失败: {}", e.getMessage());
+            return 0;
+        }
+        if (members == null || members.isEmpty()) {
+            return 0;
+        }
+
+        int count = 0;
+        for (String member : members) {
+            String[] parts = member.split(":");
+            if (parts.length != 2) {
+                continue;
+            }
+            try {
+                chromaVectorStoreFactory.prefetch(Long.parseLong(parts[0]), Long.parseLong(parts[1]));
+                count++;
+            } catch (NumberFormatException ignored) {
+                // 忽略格式异常的记录
+            }
+        }
+        return count;
+    }
+}
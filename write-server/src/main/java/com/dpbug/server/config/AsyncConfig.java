@@ -1,5 +1,6 @@
 package com.dpbug.server.config;
 
+import com.dpbug.server.config.datasource.ReadRouteContext;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -73,6 +74,148 @@ public class AsyncConfig implements WebMvcConfigurer {
         return executor;
     }
 
+    /**
+     * 向量库专用线程池
+     *
+     * <p>用于 VectorStore 的异步加载与预热（Chroma HTTP 调用），避免占用章节生成线程</p>
+     */
+    @Bean("vectorStoreExecutor")
+    public Executor vectorStoreExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(2);
+        executor.setMaxPoolSize(8);
+        executor.setQueueCapacity(200);
+        executor.setThreadNamePrefix("vector-store-");
+        // 拒绝策略：由调用者线程执行，保证加载请求不会丢失
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        executor.initialize();
+
+        return executor;
+    }
+
+    /**
+     * 向量库全量重建线程池
+     *
+     * <p>一个线程用于任务编排，其余线程并行计算批次向量；队列满时由编排线程自己执行</p>
+     */
+    @Bean("reindexExecutor")
+    public Executor reindexExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(5);
+        executor.setMaxPoolSize(5);
+        executor.setQueueCapacity(20);
+        executor.setThreadNamePrefix("vector-reindex-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        executor.initialize();
+
+        return executor;
+    }
+
+    /**
+     * 记忆分段提取线程池
+     *
+     * <p>长章节按段并发调用模型提取记忆；单个用户的并发由 UserAiRequestLimiter 限制，队列满时由提交线程执行</p>
+     */
+    @Bean("memoryExtractExecutor")
+    public Executor memoryExtractExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(4);
+        executor.setMaxPoolSize(8);
+        executor.setQueueCapacity(50);
+        executor.setThreadNamePrefix("memory-extract-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(60);
+        executor.initialize();
+
+        return executor;
+    }
+
+    /**
+     * 全局搜索线程池
+     *
+     * <p>各类搜索并发执行，查询都很短；不设队列以免排队超过请求截止时间，线程满时由请求线程自己执行</p>
+     */
+    @Bean("searchExecutor")
+    public Executor searchExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(8);
+        executor.setMaxPoolSize(16);
+        executor.setQueueCapacity(0);
+        executor.setThreadNamePrefix("search-");
+        // 搜索在 @ReadFromReplica 范围内发起，把读写路由上下文带到搜索线程
+        executor.setTaskDecorator(ReadRouteContext::propagate);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        executor.initialize();
+
+        return executor;
+    }
+
+    /**
+     * 项目数据清理线程池
+     *
+     * <p>删除项目后的分块清理，单线程串行执行以限制对数据库的压力；任务已落库，
+     * 队列满时丢弃并记录日志，未执行的清理在下次启动时继续，不占用删除请求的线程</p>
+     */
+    @Bean("purgeExecutor")
+    public Executor purgeExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(100);
+        executor.setThreadNamePrefix("project-purge-");
+        executor.setRejectedExecutionHandler((task, pool) ->
+                log.warn("项目清理队列已满，清理任务将在下次启动时继续: queueSize={}", pool.getQueue().size()));
+        // 中断的任务在下次启动时继续，关闭时不等待
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        executor.initialize();
+
+        return executor;
+    }
+
+    /**
+     * 书稿导入后处理线程池
+     *
+     * <p>导入的章节并行提取记忆与分析剧情，单个导入任务的并行度由 novel.import.parallelism 限制，
+     * 调用模型时再受 UserAiRequestLimiter 约束；队列满时由编排线程执行</p>
+     */
+    @Bean("importExecutor")
+    public Executor importExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(4);
+        executor.setMaxPoolSize(8);
+        executor.setQueueCapacity(100);
+        executor.setThreadNamePrefix("manuscript-import-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        executor.initialize();
+
+        return executor;
+    }
+
+    /**
+     * 配置批量剧情分析线程池
+     *
+     * <p>单个分析任务的并行度由 novel.analysis.parallelism 限制，调用模型时再受 UserAiRequestLimiter 约束；
+     * 分析过程中只在读取和写入时短暂占用数据库连接；队列满时由编排线程执行</p>
+     */
+    @Bean("analysisExecutor")
+    public Executor analysisExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(4);
+        executor.setMaxPoolSize(8);
+        executor.setQueueCapacity(100);
+        executor.setThreadNamePrefix("plot-analysis-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        executor.initialize();
+
+        return executor;
+    }
+
     /**
      * 配置 WebMvc 异步请求支持
      *
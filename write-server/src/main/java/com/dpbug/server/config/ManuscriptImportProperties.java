@@ -0,0 +1,48 @@
+package com.dpbug.server.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 书稿导入配置属性类
+ *
+ * @author dpbug
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "novel.import")
+public class ManuscriptImportProperties {
+
+    /**
+     * 默认章节标题模式（正则，匹配去掉首尾空白后的整行），请求中指定标题模式时替换默认值
+     */
+    private List<String> headingPatterns = new ArrayList<>(List.of(
+            "第[0-9零一二三四五六七八九十百千万两〇]+[章回节卷].*",
+            "(Chapter|CHAPTER)\\s+\\d+.*",
+            "#{1,3}\\s+.+"
+    ));
+
+    /**
+     * 单章最大字数，超过时拒绝导入（通常是标题模式没有匹配到）
+     */
+    private Integer maxChapterChars = 200000;
+
+    /**
+     * 单次导入最多章节数
+     */
+    private Integer maxChapters = 5000;
+
+    /**
+     * 每批插入的章节数（章节与正文各一次批量插入）
+     */
+    private Integer batchSize = 20;
+
+    /**
+     * 单个导入任务同时处理的章节数（记忆提取、剧情分析）
+     */
+    private Integer parallelism = 2;
+}
@@ -0,0 +1,35 @@
+package com.dpbug.server.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+/**
+ * 定时任务配置
+ *
+ * <p>默认调度器只有一个线程，长时间运行的对账任务会阻塞其他定时任务，这里单独配置线程池</p>
+ *
+ * @author dpbug
+ */
+@Slf4j
+@Configuration
+@EnableScheduling
+public class ScheduleConfig {
+
+    /**
+     * 定时任务调度线程池
+     */
+    @Bean("taskScheduler")
+    public ThreadPoolTaskScheduler taskScheduler() {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(4);
+        scheduler.setThreadNamePrefix("schedule-");
+        scheduler.setWaitForTasksToCompleteOnShutdown(false);
+        scheduler.initialize();
+
+        log.info("定时任务线程池初始化完成: poolSize={}", 4);
+        return scheduler;
+    }
+}
@@ -0,0 +1,45 @@
+package com.dpbug.server.config;
+
+import com.dpbug.server.service.novel.impl.TaskCancellationRegistry;
+import com.dpbug.server.service.novel.impl.TaskEventBus;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+/**
+ * 任务事件配置
+ *
+ * <p>多实例部署时任务可能在任意实例执行，事件和取消通知通过 Redis 频道广播：
+ * 每个实例订阅事件频道并推送给本实例的 SSE 连接，订阅取消频道并中断本实例上执行的任务</p>
+ *
+ * @author dpbug
+ */
+@Slf4j
+@Configuration
+public class TaskEventConfig {
+
+    /**
+     * 订阅任务事件频道和任务取消频道
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "novel.task.events", name = "redis-enabled", havingValue = "true", matchIfMissing = true)
+    public RedisMessageListenerContainer taskEventListenerContainer(
+            RedisConnectionFactory connectionFactory,
+            TaskEventBus taskEventBus,
+            TaskCancellationRegistry taskCancellationRegistry,
+            @Value("${novel.task.events.channel:novel:task-events}") String channel,
+            @Value("${novel.task.events.cancel-channel:novel:task-cancel}") String cancelChannel) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(taskEventBus, new ChannelTopic(channel));
+        container.addMessageListener(taskCancellationRegistry, new ChannelTopic(cancelChannel));
+
+        log.info("任务事件订阅初始化完成: channel={}, cancelChannel={}", channel, cancelChannel);
+        return container;
+    }
+}
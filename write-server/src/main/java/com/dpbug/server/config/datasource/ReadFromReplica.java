@@ -0,0 +1,22 @@
+package com.dpbug.server.config.datasource;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 标记只读方法优先从只读副本读取
+ *
+ * <p>未开启读写分离（novel.datasource.read-write.enabled=false）时不生效。
+ * 方法内发生写入后，本次调用剩余的查询以及该用户在粘滞时间内的查询都回到主库；
+ * 只读事务（@Transactional(readOnly = true)）同样会路由到副本，但事务内不能写入。</p>
+ *
+ * @author dpbug
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ReadFromReplica {
+}
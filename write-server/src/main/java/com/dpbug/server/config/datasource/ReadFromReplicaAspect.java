@@ -0,0 +1,24 @@
+package com.dpbug.server.config.datasource;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+
+/**
+ * @ReadFromReplica 切面：方法执行期间进入副本读取范围
+ *
+ * @author dpbug
+ */
+@Aspect
+public class ReadFromReplicaAspect {
+
+    @Around("@annotation(com.dpbug.server.config.datasource.ReadFromReplica)")
+    public Object around(ProceedingJoinPoint joinPoint) throws Throwable {
+        ReadRouteContext.Scope previous = ReadRouteContext.enter(ReadRouteContext.currentUserId());
+        try {
+            return joinPoint.proceed();
+        } finally {
+            ReadRouteContext.restore(previous);
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.dpbug.server.config.datasource;
+
+import cn.dev33.satoken.stp.StpUtil;
+import org.springframework.web.context.request.RequestContextHolder;
+
+/**
+ * 读写路由上下文
+ *
+ * <p>记录当前线程是否处于 @ReadFromReplica 方法内、发起请求的用户，以及本次调用是否已经写过库。
+ * 搜索等在线程池中并发执行的查询通过 {@link #propagate(Runnable)} 把上下文带到工作线程。</p>
+ *
+ * @author dpbug
+ */
+public final class ReadRouteContext {
+
+    private static final ThreadLocal<Scope> CURRENT = new ThreadLocal<>();
+
+    private ReadRouteContext() {
+    }
+
+    /**
+     * 一次 @ReadFromReplica 调用的路由状态
+     */
+    public static final class Scope {
+
+        private final Long userId;
+        private volatile boolean wrote;
+
+        Scope(Long userId) {
+            this.userId = userId;
+        }
+
+        public Long getUserId() {
+            return userId;
+        }
+
+        public boolean isWrote() {
+            return wrote;
+        }
+    }
+
+    /**
+     * 进入副本读取范围，已在范围内时沿用外层范围
+     *
+     * @param userId 发起请求的用户ID，未知时为 null
+     * @return 进入前的范围，退出时传给 {@link #restore(Scope)}
+     */
+    public static Scope enter(Long userId) {
+        Scope previous = CURRENT.get();
+        if (previous == null) {
+            CURRENT.set(new Scope(userId));
+        }
+        return previous;
+    }
+
+    /**
+     * 恢复进入前的范围
+     */
+    public static void restore(Scope previous) {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+
+    /**
+     * 当前范围，不在 @ReadFromReplica 方法内时为 null
+     */
+    public static Scope current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * 记录本次调用发生了写入，之后的查询都走主库
+     */
+    public static void markWrite() {
+        Scope scope = CURRENT.get();
+        if (scope != null) {
+            scope.wrote = true;
+        }
+    }
+
+    /**
+     * 当前用户ID：优先取范围内记录的用户，其次取 Web 请求中的登录用户，后台线程返回 null
+     */
+    public static Long currentUserId() {
+        Scope scope = CURRENT.get();
+        if (scope != null && scope.userId != null) {
+            return scope.userId;
+        }
+        if (RequestContextHolder.getRequestAttributes() == null) {
+            return null;
+        }
+        try {
+            Object loginId = StpUtil.getLoginIdDefaultNull();
+            return loginId != null ? Long.valueOf(loginId.toString()) : null;
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    /**
+     * 把提交线程的范围带到工作线程（用作线程池的 TaskDecorator）
+     */
+    public static Runnable propagate(Runnable task) {
+        Scope scope = CURRENT.get();
+        if (scope == null) {
+            return task;
+        }
+        return () -> {
+            Scope previous = CURRENT.get();
+            CURRENT.set(scope);
+            try {
+                task.run();
+            } finally {
+                restore(previous);
+            }
+        };
+    }
+}
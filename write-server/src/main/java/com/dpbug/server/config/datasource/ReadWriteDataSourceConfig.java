@@ -0,0 +1,94 @@
+package com.dpbug.server.config.datasource;
+
+import com.alibaba.druid.pool.DruidDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.util.StringUtils;
+
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import javax.sql.DataSource;
+
+/**
+ * 读写分离数据源配置
+ *
+ * <p>启用后替代 Druid 自动配置的单数据源：主库取 spring.datasource，副本取 novel.datasource.read-write.replicas，
+ * 连接池参数都沿用 spring.datasource.druid。对外的 dataSource 是包装了路由数据源的 LazyConnectionDataSourceProxy。</p>
+ *
+ * @author dpbug
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(prefix = "novel.datasource.read-write", name = "enabled", havingValue = "true")
+public class ReadWriteDataSourceConfig {
+
+    @Bean
+    public ReadYourWritesTracker readYourWritesTracker(ReadWriteDataSourceProperties properties) {
+        return new ReadYourWritesTracker(properties.getStickyWindow());
+    }
+
+    @Bean
+    public ReadWriteRoutingDataSource readWriteRoutingDataSource(Environment environment,
+                                                                 ReadWriteDataSourceProperties properties,
+                                                                 ReadYourWritesTracker tracker) throws SQLException {
+        Binder binder = Binder.get(environment);
+
+        DruidDataSource primary = new DruidDataSource();
+        binder.bind("spring.datasource", Bindable.ofInstance(primary));
+        binder.bind("spring.datasource.druid", Bindable.ofInstance(primary));
+        primary.setName(ReadWriteRoutingDataSource.PRIMARY);
+        primary.init();
+
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        for (int i = 0; i < properties.getReplicas().size(); i++) {
+            ReadWriteDataSourceProperties.Replica config = properties.getReplicas().get(i);
+            String name = StringUtils.hasText(config.getName()) ? config.getName() : "replica-" + (i + 1);
+            DruidDataSource replica = new DruidDataSource();
+            binder.bind("spring.datasource", Bindable.ofInstance(replica));
+            binder.bind("spring.datasource.druid", Bindable.ofInstance(replica));
+            replica.setName(name);
+            replica.setUrl(config.getUrl());
+            replica.setUsername(config.getUsername());
+            replica.setPassword(config.getPassword());
+            // 副本延迟初始化：副本不可用时不影响启动，由延迟检测暂停使用
+            replicas.put(name, replica);
+        }
+
+        log.info("读写分离已启用: replicas={}, stickyWindow={}, maxLag={}, lagCheck={}",
+                replicas.keySet(), properties.getStickyWindow(), properties.getMaxLag(), properties.getLagCheck());
+        return new ReadWriteRoutingDataSource(primary, replicas, tracker);
+    }
+
+    /**
+     * 应用使用的数据源：延迟到第一条语句执行时才获取连接，保证路由时事务的只读标记已经设置
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(ReadWriteRoutingDataSource routingDataSource) {
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+
+    @Bean
+    public ReadYourWritesInterceptor readYourWritesInterceptor(ReadYourWritesTracker tracker) {
+        return new ReadYourWritesInterceptor(tracker);
+    }
+
+    @Bean
+    public ReadFromReplicaAspect readFromReplicaAspect() {
+        return new ReadFromReplicaAspect();
+    }
+
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor(ReadWriteRoutingDataSource routingDataSource,
+                                               ReadWriteDataSourceProperties properties) {
+        return new ReplicaLagMonitor(routingDataSource, properties);
+    }
+}
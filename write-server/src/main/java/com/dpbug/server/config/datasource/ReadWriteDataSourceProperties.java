@@ -0,0 +1,58 @@
+package com.dpbug.server.config.datasource;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 读写分离配置属性类
+ *
+ * @author dpbug
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "novel.datasource.read-write")
+public class ReadWriteDataSourceProperties {
+
+    /**
+     * 是否启用读写分离，关闭时只使用 spring.datasource 配置的主库
+     */
+    private Boolean enabled = false;
+
+    /**
+     * 用户写入后继续从主库读取的时间，应大于 maxLag
+     */
+    private Duration stickyWindow = Duration.ofSeconds(5);
+
+    /**
+     * 副本允许的最大复制延迟，超过时暂停使用该副本
+     */
+    private Duration maxLag = Duration.ofSeconds(3);
+
+    /**
+     * 是否检查复制延迟；关闭时只检查副本能否连接（本地用普通 MySQL 模拟副本时使用）
+     */
+    private Boolean lagCheck = true;
+
+    /**
+     * 只读副本列表，连接池参数沿用 spring.datasource.druid
+     */
+    private List<Replica> replicas = new ArrayList<>();
+
+    @Data
+    public static class Replica {
+
+        /**
+         * 副本名称（日志与路由键）
+         */
+        private String name;
+
+        private String url;
+        private String username;
+        private String password;
+    }
+}
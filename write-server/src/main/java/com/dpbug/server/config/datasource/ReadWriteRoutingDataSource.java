@@ -0,0 +1,117 @@
+package com.dpbug.server.config.datasource;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.sql.DataSource;
+
+/**
+ * 读写分离路由数据源
+ *
+ * <p>满足以下条件时轮询选择一个健康的副本，否则使用主库：</p>
+ * <ol>
+ *   <li>处于只读事务，或处于 @ReadFromReplica 方法内且不在读写事务中</li>
+ *   <li>本次调用还没有写入过</li>
+ *   <li>当前用户不在写入后的粘滞时间内</li>
+ * </ol>
+ * <p>连接在第一条语句执行时才获取（外层包装 LazyConnectionDataSourceProxy），此时事务的只读标记已经设置。
+ * 副本健康状态由 ReplicaLagMonitor 定期更新，初始为不可用，首次检查通过后才参与路由。</p>
+ *
+ * @author dpbug
+ */
+@Slf4j
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    public static final String PRIMARY = "primary";
+
+    private final Map<String, DataSource> replicas;
+    private final ReadYourWritesTracker tracker;
+    private final AtomicInteger counter = new AtomicInteger();
+
+    /**
+     * 当前可用的副本名称
+     */
+    private volatile List<String> healthyReplicas = List.of();
+
+    public ReadWriteRoutingDataSource(DataSource primary, Map<String, DataSource> replicas,
+                                      ReadYourWritesTracker tracker) {
+        this.replicas = replicas;
+        this.tracker = tracker;
+        Map<Object, Object> targets = new HashMap<>(replicas);
+        targets.put(PRIMARY, primary);
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        setLenientFallback(false);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!routeToReplica()) {
+            return PRIMARY;
+        }
+        List<String> healthy = healthyReplicas;
+        if (healthy.isEmpty()) {
+            return PRIMARY;
+        }
+        return healthy.get(Math.floorMod(counter.getAndIncrement(), healthy.size()));
+    }
+
+    private boolean routeToReplica() {
+        boolean inTransaction = TransactionSynchronizationManager.isActualTransactionActive();
+        boolean readOnlyTransaction = inTransaction && TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+        if (inTransaction && !readOnlyTransaction) {
+            return false;
+        }
+        ReadRouteContext.Scope scope = ReadRouteContext.current();
+        if (scope == null && !readOnlyTransaction) {
+            return false;
+        }
+        if (scope != null && scope.isWrote()) {
+            return false;
+        }
+        return !tracker.isSticky(ReadRouteContext.currentUserId());
+    }
+
+    /**
+     * 副本数据源（名称 -> 数据源）
+     */
+    public Map<String, DataSource> getReplicas() {
+        return replicas;
+    }
+
+    /**
+     * 更新可用副本，状态变化时打印日志
+     */
+    public void updateHealthyReplicas(Set<String> healthy) {
+        List<String> next = replicas.keySet().stream().filter(healthy::contains).sorted().toList();
+        if (!next.equals(healthyReplicas)) {
+            log.info("可用只读副本变化: {} -> {}", healthyReplicas, next);
+            healthyReplicas = next;
+        }
+    }
+
+    public List<String> getHealthyReplicas() {
+        return healthyReplicas;
+    }
+
+    /**
+     * 关闭主库与副本连接池
+     */
+    public void close() {
+        for (DataSource dataSource : getResolvedDataSources().values()) {
+            if (dataSource instanceof AutoCloseable closeable) {
+                try {
+                    closeable.close();
+                } catch (Exception e) {
+                    log.warn("关闭数据源失败: {}", e.getMessage());
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.dpbug.server.config.datasource;
+
+import lombok.RequiredArgsConstructor;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+
+/**
+ * 写入路由拦截器
+ *
+ * <p>在写语句获取连接之前把本次调用固定到主库，并记录当前用户的写入时间以开启读己之写粘滞。
+ * 只在启用读写分离时注册。</p>
+ *
+ * @author dpbug
+ */
+@RequiredArgsConstructor
+@Intercepts(@Signature(type = Executor.class, method = "update", args = {MappedStatement.class, Object.class}))
+public class ReadYourWritesInterceptor implements Interceptor {
+
+    private final ReadYourWritesTracker tracker;
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        ReadRouteContext.markWrite();
+        tracker.markWrite(ReadRouteContext.currentUserId());
+        return invocation.proceed();
+    }
+}
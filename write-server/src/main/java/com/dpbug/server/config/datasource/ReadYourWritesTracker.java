@@ -0,0 +1,45 @@
+package com.dpbug.server.config.datasource;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+
+/**
+ * 读己之写粘滞记录
+ *
+ * <p>用户写入后的一段时间内，该用户的查询都走主库，避免刚保存的内容因复制延迟读不到。
+ * 记录只在本实例内生效，多实例部署时需要在网关按用户做会话保持。</p>
+ *
+ * @author dpbug
+ */
+public class ReadYourWritesTracker {
+
+    /**
+     * 用户ID -> 最近一次写入时间，写入后 stickyWindow 过期
+     */
+    private final Cache<Long, Long> lastWrites;
+
+    public ReadYourWritesTracker(Duration stickyWindow) {
+        this.lastWrites = Caffeine.newBuilder()
+                .expireAfterWrite(stickyWindow)
+                .maximumSize(100_000)
+                .build();
+    }
+
+    /**
+     * 记录用户写入
+     */
+    public void markWrite(Long userId) {
+        if (userId != null) {
+            lastWrites.put(userId, System.currentTimeMillis());
+        }
+    }
+
+    /**
+     * 用户是否仍在写入后的粘滞时间内
+     */
+    public boolean isSticky(Long userId) {
+        return userId != null && lastWrites.getIfPresent(userId) != null;
+    }
+}
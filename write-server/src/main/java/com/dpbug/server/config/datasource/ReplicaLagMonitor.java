@@ -0,0 +1,84 @@
+package com.dpbug.server.config.datasource;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import javax.sql.DataSource;
+
+/**
+ * 只读副本延迟检测
+ *
+ * <p>定期在每个副本上执行 SHOW REPLICA STATUS（MySQL 8.0.22 之前为 SHOW SLAVE STATUS），
+ * 复制线程停止、延迟超过 max-lag 或无法连接的副本暂停使用，恢复后自动重新加入；
+ * 没有可用副本时所有查询回到主库。副本账号需要 REPLICATION CLIENT 权限。</p>
+ *
+ * @author dpbug
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class ReplicaLagMonitor {
+
+    private final ReadWriteRoutingDataSource routingDataSource;
+    private final ReadWriteDataSourceProperties properties;
+
+    @Scheduled(fixedDelayString = "${novel.datasource.read-write.lag-check-interval-ms:5000}")
+    public void check() {
+        Set<String> healthy = new HashSet<>();
+        for (Map.Entry<String, DataSource> replica : routingDataSource.getReplicas().entrySet()) {
+            try {
+                Long lagSeconds = Boolean.TRUE.equals(properties.getLagCheck())
+                        ? lagSeconds(replica.getValue())
+                        : ping(replica.getValue());
+                if (lagSeconds == null) {
+                    log.warn("只读副本复制未运行，暂停使用: replica={}", replica.getKey());
+                } else if (lagSeconds > properties.getMaxLag().toSeconds()) {
+                    log.warn("只读副本延迟过高，暂停使用: replica={}, lag={}s", replica.getKey(), lagSeconds);
+                } else {
+                    healthy.add(replica.getKey());
+                }
+            } catch (Exception e) {
+                log.warn("只读副本检测失败，暂停使用: replica={}, error={}", replica.getKey(), e.getMessage());
+            }
+        }
+        routingDataSource.updateHealthyReplicas(healthy);
+    }
+
+    /**
+     * 查询复制延迟（秒），复制未运行或不是副本时返回 null
+     */
+    private Long lagSeconds(DataSource dataSource) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            try (ResultSet rs = statement.executeQuery("SHOW REPLICA STATUS")) {
+                return rs.next() ? toLong(rs.getObject("Seconds_Behind_Source")) : null;
+            } catch (SQLException e) {
+                try (ResultSet rs = statement.executeQuery("SHOW SLAVE STATUS")) {
+                    return rs.next() ? toLong(rs.getObject("Seconds_Behind_Master")) : null;
+                }
+            }
+        }
+    }
+
+    /**
+     * 只检查能否连接，可连接时视为无延迟
+     */
+    private Long ping(DataSource dataSource) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute("SELECT 1");
+            return 0L;
+        }
+    }
+
+    private Long toLong(Object value) {
+        return value instanceof Number number ? number.longValue() : null;
+    }
+}
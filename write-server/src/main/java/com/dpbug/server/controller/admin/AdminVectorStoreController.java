@@ -0,0 +1,52 @@
+package com.dpbug.server.controller.admin;
+
+import cn.dev33.satoken.stp.StpUtil;
+import com.dpbug.common.domain.Result;
+import com.dpbug.server.model.vo.novel.GenerationTaskVO;
+import com.dpbug.server.service.novel.VectorReindexService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * @author dpbug
+ * @description 向量库管理控制器（需要 ADMIN 角色）
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/admin/vector-store")
+@RequiredArgsConstructor
+public class AdminVectorStoreController {
+
+    private final VectorReindexService vectorReindexService;
+
+    /**
+     * 发起全量重建（更换系统嵌入模型后调用）
+     */
+    @PostMapping("/reindex")
+    public Result<GenerationTaskVO> reindex() {
+        Long userId = StpUtil.getLoginIdAsLong();
+        log.info("发起向量库全量重建: userId={}", userId);
+        return Result.success(vectorReindexService.startReindex(userId));
+    }
+
+    /**
+     * 从断点继续执行重建任务
+     */
+    @PostMapping("/reindex/{taskId}/resume")
+    public Result<GenerationTaskVO> resume(@PathVariable Long taskId) {
+        return Result.success(vectorReindexService.resumeReindex(taskId));
+    }
+
+    /**
+     * 查询重建任务进度
+     */
+    @GetMapping("/reindex/{taskId}")
+    public Result<GenerationTaskVO> getTask(@PathVariable Long taskId) {
+        return Result.success(vectorReindexService.getReindexTask(taskId));
+    }
+}
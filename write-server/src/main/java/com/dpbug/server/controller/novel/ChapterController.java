@@ -8,15 +8,24 @@ import com.dpbug.server.model.dto.novel.ChapterGenerateRequest;
 import com.dpbug.server.model.dto.novel.ChapterPolishRequest;
 import com.dpbug.server.model.dto.novel.ChapterQueryRequest;
 import com.dpbug.server.model.dto.novel.ChapterUpdateRequest;
+import com.dpbug.server.model.dto.novel.ManuscriptImportRequest;
 import com.dpbug.server.model.vo.novel.ChapterContextVO;
 import com.dpbug.server.model.vo.novel.ChapterDetailVO;
 import com.dpbug.server.model.vo.novel.ChapterVO;
+import com.dpbug.server.model.vo.novel.ChapterVersionDiffVO;
+import com.dpbug.server.model.vo.novel.ChapterVersionVO;
 import com.dpbug.server.model.vo.novel.GenerationTaskVO;
+import com.dpbug.server.model.vo.novel.ManuscriptImportVO;
+import com.dpbug.server.model.vo.novel.TaskEventVO;
 import com.dpbug.server.service.novel.ChapterService;
+import com.dpbug.server.service.novel.ChapterVersionService;
 import com.dpbug.server.service.novel.GenerationTaskService;
+import com.dpbug.server.service.novel.ManuscriptImportService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.MediaType;
 import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -29,6 +38,9 @@ import org.springframework.web.bind.annotation.RestController;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
 import java.util.List;
 
 /**
@@ -43,7 +55,12 @@ import java.util.List;
 public class ChapterController {
 
     private final ChapterService chapterService;
+    private final ChapterVersionService chapterVersionService;
     private final GenerationTaskService taskService;
+    private final ManuscriptImportService manuscriptImportService;
+
+    @Value("${novel.task.events.heartbeat:30s}")
+    private Duration taskEventHeartbeat;
 
     /**
      * 生成单个章节（SSE流式）
@@ -100,6 +117,20 @@ public class ChapterController {
         return Result.success(task);
     }
 
+    /**
+     * 导入书稿（请求体为 TXT / Markdown 原文，按章节标题切分后追加到项目末尾）
+     * 返回导入结果与后台处理任务ID，记忆提取与剧情分析进度通过任务接口查询
+     */
+    @PostMapping(value = "/import", consumes = {MediaType.TEXT_PLAIN_VALUE, MediaType.TEXT_MARKDOWN_VALUE,
+            MediaType.APPLICATION_OCTET_STREAM_VALUE})
+    public Result<ManuscriptImportVO> importManuscript(@Valid ManuscriptImportRequest request,
+                                                       HttpServletRequest httpRequest) throws IOException {
+        Long userId = StpUtil.getLoginIdAsLong();
+        try (InputStream in = httpRequest.getInputStream()) {
+            return Result.success(manuscriptImportService.importManuscript(userId, request, in));
+        }
+    }
+
     /**
      * 重新生成章节（SSE流式）
      */
@@ -203,6 +234,36 @@ public class ChapterController {
         return Result.success(detail);
     }
 
+    /**
+     * 获取章节版本列表（不含正文）
+     */
+    @GetMapping("/{chapterId}/versions")
+    public Result<List<ChapterVersionVO>> listVersions(@PathVariable Long chapterId) {
+        Long userId = StpUtil.getLoginIdAsLong();
+        return Result.success(chapterVersionService.listVersions(userId, chapterId));
+    }
+
+    /**
+     * 获取章节指定版本的正文
+     */
+    @GetMapping("/{chapterId}/versions/{version}")
+    public Result<ChapterVersionVO> getVersion(@PathVariable Long chapterId, @PathVariable Integer version) {
+        Long userId = StpUtil.getLoginIdAsLong();
+        return Result.success(chapterVersionService.getVersion(userId, chapterId, version));
+    }
+
+    /**
+     * 对比章节的两个版本（段落级）
+     */
+    @GetMapping("/{chapterId}/versions/diff")
+    public Result<ChapterVersionDiffVO> diffVersions(
+            @PathVariable Long chapterId,
+            @RequestParam Integer from,
+            @RequestParam Integer to) {
+        Long userId = StpUtil.getLoginIdAsLong();
+        return Result.success(chapterVersionService.diff(userId, chapterId, from, to));
+    }
+
     /**
      * 获取章节列表
      */
@@ -266,6 +327,27 @@ public class ChapterController {
         return Result.success(tasks);
     }
 
+    /**
+     * 订阅当前用户的任务事件（SSE）
+     *
+     * <p>连接后先推送进行中任务的快照，之后推送进度、章节完成和任务结束事件，事件名即事件类型；
+     * 定期发送心跳注释保持连接。连接受异步请求超时限制，客户端断开后重连即可。</p>
+     */
+    @GetMapping(value = "/tasks/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<TaskEventVO>> subscribeTaskEvents() {
+        Long userId = StpUtil.getLoginIdAsLong();
+        Flux<ServerSentEvent<TaskEventVO>> events = taskService.subscribeEvents(userId)
+                .map(event -> ServerSentEvent.<TaskEventVO>builder()
+                        .event(event.getType())
+                        .data(event)
+                        .build());
+        Flux<ServerSentEvent<TaskEventVO>> heartbeats = Flux.interval(taskEventHeartbeat)
+                .map(tick -> ServerSentEvent.<TaskEventVO>builder()
+                        .comment("heartbeat")
+                        .build());
+        return Flux.merge(events, heartbeats);
+    }
+
     /**
      * 取消任务
      */
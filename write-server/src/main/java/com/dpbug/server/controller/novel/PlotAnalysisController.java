@@ -2,8 +2,11 @@ package com.dpbug.server.controller.novel;
 
 import cn.dev33.satoken.stp.StpUtil;
 import com.dpbug.common.domain.Result;
+import com.dpbug.server.model.dto.novel.PlotAnalysisBatchRequest;
 import com.dpbug.server.model.dto.novel.PlotAnalysisRequest;
+import com.dpbug.server.model.vo.novel.GenerationTaskVO;
 import com.dpbug.server.model.vo.novel.PlotAnalysisVO;
+import com.dpbug.server.service.novel.PlotAnalysisBatchService;
 import com.dpbug.server.service.novel.PlotAnalysisService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -23,6 +26,7 @@ import org.springframework.web.bind.annotation.RestController;
 public class PlotAnalysisController {
 
     private final PlotAnalysisService plotAnalysisService;
+    private final PlotAnalysisBatchService plotAnalysisBatchService;
 
     /**
      * 分析单个章节（非流式，返回结构化 JSON 结果并落库）
@@ -34,6 +38,15 @@ public class PlotAnalysisController {
         return Result.success(analysis);
     }
 
+    /**
+     * 后台分析项目全部章节，返回任务信息（进度通过任务查询或任务事件获取）
+     */
+    @PostMapping("/analyze-project")
+    public Result<GenerationTaskVO> analyzeProject(@RequestBody @Valid PlotAnalysisBatchRequest request) {
+        Long userId = StpUtil.getLoginIdAsLong();
+        return Result.success(plotAnalysisBatchService.analyzeProjectAsync(userId, request.getProjectId(), request.getForce()));
+    }
+
     /**
      * 获取章节分析报告
      */
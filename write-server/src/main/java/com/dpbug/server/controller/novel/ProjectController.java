@@ -6,13 +6,19 @@ import com.dpbug.common.domain.Result;
 import com.dpbug.server.model.dto.novel.ProjectCreateRequest;
 import com.dpbug.server.model.dto.novel.ProjectQueryRequest;
 import com.dpbug.server.model.dto.novel.ProjectUpdateRequest;
+import com.dpbug.server.model.entity.novel.NovelProject;
 import com.dpbug.server.model.vo.novel.ProjectListVO;
 import com.dpbug.server.model.vo.novel.ProjectStatisticsVO;
 import com.dpbug.server.model.vo.novel.ProjectVO;
+import com.dpbug.server.service.novel.NovelExportService;
 import com.dpbug.server.service.novel.ProjectService;
+import com.dpbug.server.util.NovelExportWriter;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -21,6 +27,9 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
 @Slf4j
 @RestController
 @RequestMapping("/api/novel/project")
@@ -28,6 +37,7 @@ import org.springframework.web.bind.annotation.RestController;
 public class ProjectController {
 
     private final ProjectService projectService;
+    private final NovelExportService novelExportService;
 
     /**
      * 创建项目
@@ -61,12 +71,33 @@ public class ProjectController {
 
     /**
      * 删除项目
+     *
+     * <p>返回后台清理任务ID，可通过任务接口查询清理进度</p>
      */
     @PostMapping("/delete")
-    public Result<Void> delete(@RequestParam("id") Long id) {
+    public Result<Long> delete(@RequestParam("id") Long id) {
         Long userId = StpUtil.getLoginIdAsLong();
-        projectService.delete(userId, id);
-        return Result.success();
+        return Result.success(projectService.delete(userId, id));
+    }
+
+    /**
+     * 导出整本小说
+     *
+     * <p>format 支持 txt / md / epub，章节按顺序流式写入响应，不在服务端缓存整本内容</p>
+     */
+    @GetMapping("/export")
+    public void export(@RequestParam("id") Long id,
+                       @RequestParam(value = "format", defaultValue = "txt") String format,
+                       HttpServletResponse response) throws IOException {
+        Long userId = StpUtil.getLoginIdAsLong();
+        NovelExportWriter.Format exportFormat = NovelExportWriter.Format.of(format);
+        NovelProject project = projectService.checkOwnership(userId, id);
+
+        String fileName = project.getTitle() + "." + exportFormat.getExtension();
+        response.setContentType(exportFormat.getContentType());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                ContentDisposition.attachment().filename(fileName, StandardCharsets.UTF_8).build().toString());
+        novelExportService.export(userId, id, exportFormat, response.getOutputStream());
     }
 
     /**
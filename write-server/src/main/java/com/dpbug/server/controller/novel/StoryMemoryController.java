@@ -3,6 +3,7 @@ package com.dpbug.server.controller.novel;
 import cn.dev33.satoken.stp.StpUtil;
 import com.dpbug.common.domain.PageResult;
 import com.dpbug.common.domain.Result;
+import com.dpbug.server.model.dto.novel.CharacterEventsRequest;
 import com.dpbug.server.model.dto.novel.ForeshadowResolveRequest;
 import com.dpbug.server.model.dto.novel.MemorySearchRequest;
 import com.dpbug.server.model.dto.novel.StoryMemoryQueryRequest;
@@ -21,6 +22,7 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.util.List;
+import java.util.Map;
 
 /**
  * @author dpbug
@@ -76,6 +78,21 @@ public class StoryMemoryController {
         return Result.success(foreshadows);
     }
 
+    /**
+     * 批量获取角色最近事件（按角色分组）
+     */
+    @PostMapping("/character-events")
+    public Result<Map<Long, List<StoryMemoryVO>>> getCharacterEvents(@RequestBody @Valid CharacterEventsRequest request) {
+        Map<Long, List<StoryMemoryVO>> events = storyMemoryService.getLatestCharacterEvents(
+                request.getProjectId(),
+                request.getCharacterIds(),
+                request.getLimit(),
+                request.getMemoryType(),
+                request.getBeforeChapter()
+        );
+        return Result.success(events);
+    }
+
     /**
      * 标记伏笔已回收
      */
@@ -0,0 +1,175 @@
+package com.dpbug.server.handler;
+
+import org.apache.ibatis.type.BaseTypeHandler;
+import org.apache.ibatis.type.JdbcType;
+import org.apache.ibatis.type.MappedJdbcTypes;
+import org.apache.ibatis.type.MappedTypes;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.CallableStatement;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * 压缩文本类型处理器（String 与 BLOB 互转）
+ * <p>
+ * 存储格式与 MySQL COMPRESS() 一致：4 字节小端序原文长度 + zlib 数据，
+ * 因此 SQL 中可直接用 UNCOMPRESS() 读取（如关键词过滤、截取摘要），存量数据也可用 COMPRESS() 原地迁移。
+ * 读取时从结果集的二进制流边读边解压，按原文长度一次分配结果缓冲区（长度超过 {@link #MAX_LENGTH} 视为损坏），
+ * 解压出的字节数必须与长度前缀完全一致。
+ * <p>
+ * 无法识别为压缩格式的数据按 UTF-8 原文读取，兼容迁移前写入的明文。
+ *
+ * @author dpbug
+ */
+@MappedTypes(String.class)
+@MappedJdbcTypes(JdbcType.BLOB)
+public class CompressedTextTypeHandler extends BaseTypeHandler<String> {
+
+    /**
+     * 长度前缀字节数
+     */
+    private static final int LENGTH_PREFIX = 4;
+
+    /**
+     * 原文长度上限（MySQL 8 max_allowed_packet 默认值），防止损坏的长度前缀导致超大内存分配
+     */
+    static final int MAX_LENGTH = 64 * 1024 * 1024;
+
+    /**
+     * 压缩级别：中文正文在 6 级以上收益很小，耗时明显增加
+     */
+    private static final int COMPRESSION_LEVEL = 6;
+
+    @Override
+    public void setNonNullParameter(PreparedStatement ps, int i, String parameter, JdbcType jdbcType)
+            throws SQLException {
+        ps.setBytes(i, compress(parameter));
+    }
+
+    @Override
+    public String getNullableResult(ResultSet rs, String columnName) throws SQLException {
+        InputStream in = rs.getBinaryStream(columnName);
+        return in == null ? null : decompress(in);
+    }
+
+    @Override
+    public String getNullableResult(ResultSet rs, int columnIndex) throws SQLException {
+        InputStream in = rs.getBinaryStream(columnIndex);
+        return in == null ? null : decompress(in);
+    }
+
+    @Override
+    public String getNullableResult(CallableStatement cs, int columnIndex) throws SQLException {
+        return decompress(cs.getBytes(columnIndex));
+    }
+
+    /**
+     * 压缩文本（空串与 MySQL COMPRESS('') 一样存为空字节）
+     *
+     * @param text 原文
+     * @return 压缩数据
+     */
+    public static byte[] compress(String text) {
+        byte[] raw = text.getBytes(StandardCharsets.UTF_8);
+        if (raw.length == 0) {
+            return new byte[0];
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream(raw.length / 3 + 64);
+        out.write(raw.length & 0xFF);
+        out.write((raw.length >>> 8) & 0xFF);
+        out.write((raw.length >>> 16) & 0xFF);
+        out.write((raw.length >>> 24) & 0xFF);
+        Deflater deflater = new Deflater(COMPRESSION_LEVEL);
+        try (DeflaterOutputStream deflaterOut = new DeflaterOutputStream(out, deflater, 8192)) {
+            deflaterOut.write(raw);
+        } catch (IOException e) {
+            throw new IllegalStateException("压缩文本失败", e);
+        } finally {
+            deflater.end();
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * 解压文本
+     *
+     * @param bytes 压缩数据或旧的明文数据
+     * @return 原文
+     */
+    public static String decompress(byte[] bytes) {
+        return bytes == null ? null : decompress(new ByteArrayInputStream(bytes));
+    }
+
+    /**
+     * 从流中边读边解压
+     *
+     * @param in 压缩数据或旧的明文数据
+     * @return 原文
+     */
+    public static String decompress(InputStream in) {
+        try (InputStream source = in.markSupported() ? in : new BufferedInputStream(in)) {
+            // 前 6 字节：长度前缀 + zlib 头；不符合压缩格式时按明文读取
+            source.mark(LENGTH_PREFIX + 2);
+            byte[] header = source.readNBytes(LENGTH_PREFIX + 2);
+            if (header.length == 0) {
+                return "";
+            }
+            if (!isCompressed(header)) {
+                source.reset();
+                return new String(source.readAllBytes(), StandardCharsets.UTF_8);
+            }
+            int length = (header[0] & 0xFF) | (header[1] & 0xFF) << 8 | (header[2] & 0xFF) << 16
+                    | (header[3] & 0xFF) << 24;
+            if (length > MAX_LENGTH) {
+                throw new IllegalStateException("压缩文本已损坏: 长度前缀 " + Integer.toUnsignedString(length)
+                        + " 超过上限 " + MAX_LENGTH);
+            }
+            source.reset();
+            source.skipNBytes(LENGTH_PREFIX);
+
+            byte[] result = new byte[length];
+            try (InflaterInputStream inflater = new InflaterInputStream(source)) {
+                int offset = 0;
+                while (offset < length) {
+                    int read = inflater.read(result, offset, length - offset);
+                    if (read < 0) {
+                        throw new IllegalStateException("压缩文本已损坏: 期望 " + length + " 字节，实际 " + offset);
+                    }
+                    offset += read;
+                }
+                if (inflater.read() >= 0) {
+                    throw new IllegalStateException("压缩文本已损坏: 解压数据超过长度前缀 " + length + " 字节");
+                }
+            }
+            return new String(result, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new IllegalStateException("解压文本失败", e);
+        }
+    }
+
+    /**
+     * 判断是否为 COMPRESS() 格式：长度前缀后紧跟合法的 zlib 头（CMF=0x78 且 CMF*256+FLG 为 31 的倍数）
+     * <p>
+     * UTF-8 明文（中文为多字节序列，英文为可打印字符）几乎不可能同时满足这些条件
+     */
+    private static boolean isCompressed(byte[] header) {
+        if (header.length < LENGTH_PREFIX + 2) {
+            return false;
+        }
+        int length = (header[0] & 0xFF) | (header[1] & 0xFF) << 8 | (header[2] & 0xFF) << 16
+                | (header[3] & 0xFF) << 24;
+        int cmf = header[4] & 0xFF;
+        int flg = header[5] & 0xFF;
+        return length > 0 && cmf == 0x78 && (cmf * 256 + flg) % 31 == 0;
+    }
+}
@@ -0,0 +1,57 @@
+package com.dpbug.server.handler;
+
+import org.apache.ibatis.type.BaseTypeHandler;
+import org.apache.ibatis.type.JdbcType;
+import org.apache.ibatis.type.MappedJdbcTypes;
+import org.apache.ibatis.type.MappedTypes;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.sql.CallableStatement;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * float[] 与 BLOB 互转的类型处理器
+ * <p>
+ * 以 float32 小端序存储向量，比 JSON 数组节省约 4 倍空间，读取时无需解析文本。
+ *
+ * @author dpbug
+ */
+@MappedTypes(float[].class)
+@MappedJdbcTypes(JdbcType.BLOB)
+public class FloatArrayTypeHandler extends BaseTypeHandler<float[]> {
+
+    @Override
+    public void setNonNullParameter(PreparedStatement ps, int i, float[] parameter, JdbcType jdbcType)
+            throws SQLException {
+        ByteBuffer buffer = ByteBuffer.allocate(parameter.length * Float.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.asFloatBuffer().put(parameter);
+        ps.setBytes(i, buffer.array());
+    }
+
+    @Override
+    public float[] getNullableResult(ResultSet rs, String columnName) throws SQLException {
+        return toFloats(rs.getBytes(columnName));
+    }
+
+    @Override
+    public float[] getNullableResult(ResultSet rs, int columnIndex) throws SQLException {
+        return toFloats(rs.getBytes(columnIndex));
+    }
+
+    @Override
+    public float[] getNullableResult(CallableStatement cs, int columnIndex) throws SQLException {
+        return toFloats(cs.getBytes(columnIndex));
+    }
+
+    private float[] toFloats(byte[] bytes) {
+        if (bytes == null) {
+            return null;
+        }
+        float[] result = new float[bytes.length / Float.BYTES];
+        ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN).asFloatBuffer().get(result);
+        return result;
+    }
+}
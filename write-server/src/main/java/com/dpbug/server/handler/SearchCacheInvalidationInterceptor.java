@@ -0,0 +1,110 @@
+package com.dpbug.server.handler;
+
+import com.dpbug.server.mapper.novel.CharacterMapper;
+import com.dpbug.server.mapper.novel.ChapterMapper;
+import com.dpbug.server.mapper.novel.OutlineMapper;
+import com.dpbug.server.mapper.novel.ProjectMapper;
+import com.dpbug.server.mapper.novel.StoryMemoryMapper;
+import com.dpbug.server.model.entity.novel.NovelChapter;
+import com.dpbug.server.model.entity.novel.NovelCharacter;
+import com.dpbug.server.model.entity.novel.NovelOutline;
+import com.dpbug.server.model.entity.novel.NovelProject;
+import com.dpbug.server.model.entity.novel.NovelStoryMemory;
+import com.dpbug.server.service.novel.impl.SearchResultCache;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 搜索缓存失效拦截器
+ *
+ * <p>拦截被全局搜索覆盖的五张表的写入，从写入实体中取出项目ID（或项目的用户ID）失效对应用户的搜索缓存。
+ * 按条件构造器批量更新/删除时拿不到实体，依赖缓存过期时间兜底。</p>
+ *
+ * @author dpbug
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@Intercepts(@Signature(type = Executor.class, method = "update", args = {MappedStatement.class, Object.class}))
+public class SearchCacheInvalidationInterceptor implements Interceptor {
+
+    /**
+     * 需要失效搜索缓存的 Mapper 命名空间
+     */
+    private static final Set<String> SEARCHED_NAMESPACES = Set.of(
+            ProjectMapper.class.getName(),
+            ChapterMapper.class.getName(),
+            OutlineMapper.class.getName(),
+            CharacterMapper.class.getName(),
+            StoryMemoryMapper.class.getName()
+    );
+
+    /**
+     * MyBatis-Plus 通用方法中实体参数的名称
+     */
+    private static final String ENTITY_PARAM = "et";
+
+    private final SearchResultCache searchResultCache;
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        Object result = invocation.proceed();
+
+        MappedStatement ms = (MappedStatement) invocation.getArgs()[0];
+        String id = ms.getId();
+        String namespace = id.substring(0, id.lastIndexOf('.'));
+        if (SEARCHED_NAMESPACES.contains(namespace)) {
+            try {
+                invalidate(namespace, invocation.getArgs()[1]);
+            } catch (Exception e) {
+                log.warn("失效搜索缓存失败: statement={}", id, e);
+            }
+        }
+        return result;
+    }
+
+    private void invalidate(String namespace, Object parameter) {
+        // 按ID删除项目时参数只有项目ID
+        if (parameter instanceof Long projectId && ProjectMapper.class.getName().equals(namespace)) {
+            searchResultCache.invalidateProject(projectId);
+            return;
+        }
+
+        Object entity = parameter;
+        if (parameter instanceof Map<?, ?> map) {
+            entity = map.containsKey(ENTITY_PARAM) ? map.get(ENTITY_PARAM) : null;
+        }
+
+        if (entity instanceof NovelProject project) {
+            if (project.getUserId() != null) {
+                searchResultCache.invalidateUser(project.getUserId());
+            } else if (project.getId() != null) {
+                searchResultCache.invalidateProject(project.getId());
+            }
+            return;
+        }
+        Long projectId = null;
+        if (entity instanceof NovelChapter chapter) {
+            projectId = chapter.getProjectId();
+        } else if (entity instanceof NovelOutline outline) {
+            projectId = outline.getProjectId();
+        } else if (entity instanceof NovelCharacter character) {
+            projectId = character.getProjectId();
+        } else if (entity instanceof NovelStoryMemory memory) {
+            projectId = memory.getProjectId();
+        }
+        if (projectId != null) {
+            searchResultCache.invalidateProject(projectId);
+        }
+    }
+}
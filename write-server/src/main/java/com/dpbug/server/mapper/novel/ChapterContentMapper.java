@@ -0,0 +1,103 @@
+package com.dpbug.server.mapper.novel;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.baomidou.mybatisplus.core.toolkit.IdWorker;
+import com.dpbug.server.model.entity.novel.NovelChapterContent;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.List;
+
+/**
+ * 章节正文Mapper接口
+ *
+ * @author dpbug
+ */
+@Mapper
+public interface ChapterContentMapper extends BaseMapper<NovelChapterContent> {
+
+    /**
+     * 写入章节当前版本的完整正文（版本号取自章节行，已存在则覆盖正文与字数）
+     *
+     * @param id        新记录ID（已存在时不使用）
+     * @param chapterId 章节ID
+     * @param content   正文
+     * @param wordCount 字数
+     * @param source    版本来源（仅新建时写入）
+     * @return 影响行数
+     */
+    int upsertCurrent(
+            @Param("id") Long id,
+            @Param("chapterId") Long chapterId,
+            @Param("content") String content,
+            @Param("wordCount") Integer wordCount,
+            @Param("source") String source
+    );
+
+    /**
+     * 写入章节当前版本的正文
+     * <p>
+     * 原地覆盖当前版本；已有历史版本的章节应通过 ChapterVersionService 写入，以便同步调整上一版本的差异
+     *
+     * @param chapterId 章节ID
+     * @param content   正文
+     * @param source    版本来源
+     * @return 影响行数
+     */
+    default int saveCurrent(Long chapterId, String content, String source) {
+        return upsertCurrent(IdWorker.getId(), chapterId, content, content.length(), source);
+    }
+
+    /**
+     * 查询章节当前版本的正文记录
+     *
+     * @param chapterId 章节ID
+     * @return 正文记录，不存在时为 null
+     */
+    NovelChapterContent selectCurrent(@Param("chapterId") Long chapterId);
+
+    /**
+     * 查询章节当前版本的正文
+     *
+     * @param chapterId 章节ID
+     * @return 正文，不存在时为 null
+     */
+    default String selectCurrentContent(Long chapterId) {
+        NovelChapterContent current = selectCurrent(chapterId);
+        return current != null ? current.getContent() : null;
+    }
+
+    /**
+     * 查询章节的全部版本（不含正文），按版本号倒序
+     *
+     * @param chapterId 章节ID
+     * @return 版本列表
+     */
+    List<NovelChapterContent> selectVersions(@Param("chapterId") Long chapterId);
+
+    /**
+     * 查询不低于指定版本的最近完整版本号（重建的起点）
+     *
+     * @param chapterId 章节ID
+     * @param version   版本号
+     * @return 完整版本号，不存在时为 null
+     */
+    Integer selectNearestFullVersion(
+            @Param("chapterId") Long chapterId,
+            @Param("version") Integer version
+    );
+
+    /**
+     * 查询版本区间内的记录（含正文或差异），按版本号倒序
+     *
+     * @param chapterId   章节ID
+     * @param fromVersion 起始版本（含）
+     * @param toVersion   结束版本（含）
+     * @return 版本记录
+     */
+    List<NovelChapterContent> selectVersionRange(
+            @Param("chapterId") Long chapterId,
+            @Param("fromVersion") Integer fromVersion,
+            @Param("toVersion") Integer toVersion
+    );
+}
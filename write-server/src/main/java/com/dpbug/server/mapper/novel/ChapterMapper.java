@@ -5,6 +5,7 @@ import com.dpbug.server.model.entity.novel.NovelChapter;
 import com.dpbug.server.model.vo.novel.ProjectChapterCountVO;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.cursor.Cursor;
 
 import java.util.List;
 import java.util.Map;
@@ -18,7 +19,7 @@ import java.util.Map;
 public interface ChapterMapper extends BaseMapper<NovelChapter> {
 
     /**
-     * 查询项目章节列表(按章节号排序)
+     * 查询项目章节列表(按章节号排序,不含正文)
      *
      * @param projectId 项目ID
      * @return 章节列表
@@ -26,7 +27,7 @@ public interface ChapterMapper extends BaseMapper<NovelChapter> {
     List<NovelChapter> selectByProjectIdOrdered(@Param("projectId") Long projectId);
 
     /**
-     * 查询最近N章(完整内容)
+     * 查询最近N章(含当前版本正文)
      *
      * @param projectId           项目ID
      * @param currentChapterNumber 当前章节号
@@ -51,6 +52,20 @@ public interface ChapterMapper extends BaseMapper<NovelChapter> {
             @Param("currentChapterNumber") Integer currentChapterNumber
     );
 
+    /**
+     * 查询章节号区间内的章节摘要(用于层级摘要生成,摘要为空时取正文开头)
+     *
+     * @param projectId    项目ID
+     * @param startChapter 起始章节号(含)
+     * @param endChapter   结束章节号(含)
+     * @return 章节摘要列表
+     */
+    List<NovelChapter> selectSummariesInRange(
+            @Param("projectId") Long projectId,
+            @Param("startChapter") Integer startChapter,
+            @Param("endChapter") Integer endChapter
+    );
+
     /**
      * 获取项目最大章节号
      *
@@ -80,4 +95,33 @@ public interface ChapterMapper extends BaseMapper<NovelChapter> {
      * @return 统计结果
      */
     List<ProjectChapterCountVO> selectChapterCountsByProjectIds(@Param("projectIds") List<Long> projectIds);
+
+    /**
+     * 按章节顺序流式读取项目章节（含当前版本正文），用于整本导出
+     * <p>
+     * MySQL 驱动逐行返回结果（不缓存整个结果集），必须在事务内遍历并关闭游标。
+     * 没有正文的章节不返回。
+     *
+     * @param projectId 项目ID
+     * @return 章节游标（只含标题、章节号与正文）
+     */
+    Cursor<NovelChapter> selectExportCursor(@Param("projectId") Long projectId);
+
+    /**
+     * 加共享锁读取章节正文修订号，须在事务内调用
+     * <p>
+     * 锁持有到事务结束，期间正文保存（会递增 content_revision）需要等待，用于写入依赖章节内容的派生数据。
+     *
+     * @param chapterId 章节ID
+     * @return 正文修订号，章节不存在或已删除时返回 null
+     */
+    Integer selectContentRevisionForShare(@Param("chapterId") Long chapterId);
+
+    /**
+     * 递增章节正文修订号（任何写入当前正文的操作都应在同一事务中调用）
+     *
+     * @param chapterId 章节ID
+     * @return 影响行数
+     */
+    int incrementContentRevision(@Param("chapterId") Long chapterId);
 }
@@ -5,6 +5,7 @@ import com.dpbug.server.model.entity.novel.NovelGenerationTask;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 /**
@@ -36,4 +37,77 @@ public interface GenerationTaskMapper extends BaseMapper<NovelGenerationTask> {
             @Param("progress") Integer progress,
             @Param("currentStep") String currentStep
     );
-}
\ No newline at end of file
+
+    /**
+     * 查询指定类型最近一次完成的任务
+     *
+     * @param taskType 任务类型
+     * @return 任务，不存在时返回 null
+     */
+    NovelGenerationTask selectLatestCompletedByType(@Param("taskType") String taskType);
+
+    /**
+     * 查询任务的有效状态（用于执行中定期检查任务是否已取消）
+     * <p>
+     * 所属项目已删除时返回 cancelled（项目清理任务除外），项目数据正在或已经被清理，任务不应继续写入。
+     *
+     * @param taskId 任务ID
+     * @return 任务状态，任务不存在时返回 null
+     */
+    String selectEffectiveStatus(@Param("taskId") Long taskId);
+
+    /**
+     * 查询指定类型未结束的任务（pending/running）
+     *
+     * @param taskType 任务类型
+     * @return 任务列表
+     */
+    List<NovelGenerationTask> selectUnfinishedByType(@Param("taskType") String taskType);
+
+    /**
+     * 查询可归档的任务ID（已结束且完成时间早于指定时间）
+     *
+     * @param before      完成时间上限
+     * @param excludeType 不归档的任务类型（恢复状态依赖历史任务的系统任务）
+     * @param limit       最大条数
+     * @return 任务ID列表
+     */
+    List<Long> selectArchivableIds(
+            @Param("before") LocalDateTime before,
+            @Param("excludeType") String excludeType,
+            @Param("limit") int limit
+    );
+
+    /**
+     * 将任务复制到归档表（JSON 字段压缩；已归档的跳过，可重复执行）
+     *
+     * @param ids 任务ID列表
+     * @return 写入行数
+     */
+    int copyToArchive(@Param("ids") List<Long> ids);
+
+    /**
+     * 删除已复制到归档表的任务
+     *
+     * @param ids 任务ID列表
+     * @return 删除行数
+     */
+    int deleteArchived(@Param("ids") List<Long> ids);
+
+    /**
+     * 删除超过保留期的归档任务
+     *
+     * @param before 完成时间上限
+     * @param limit  最大条数
+     * @return 删除行数
+     */
+    int deleteExpiredArchive(@Param("before") LocalDateTime before, @Param("limit") int limit);
+
+    /**
+     * 从归档表查询任务
+     *
+     * @param id 任务ID
+     * @return 任务，不存在时返回 null
+     */
+    NovelGenerationTask selectArchivedById(@Param("id") Long id);
+}
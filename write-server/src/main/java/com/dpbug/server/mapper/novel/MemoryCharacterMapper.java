@@ -0,0 +1,55 @@
+package com.dpbug.server.mapper.novel;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.dpbug.server.model.entity.novel.NovelMemoryCharacter;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.List;
+
+/**
+ * 记忆-角色关联 Mapper接口
+ *
+ * @author dpbug
+ */
+@Mapper
+public interface MemoryCharacterMapper extends BaseMapper<NovelMemoryCharacter> {
+
+    /**
+     * 批量写入关联（已存在的关联忽略）
+     *
+     * @param list 关联列表
+     * @return 写入行数
+     */
+    int insertIgnoreBatch(@Param("list") List<NovelMemoryCharacter> list);
+
+    /**
+     * 同步记忆的时间线
+     *
+     * @param memoryId      记忆ID
+     * @param storyTimeline 时间线
+     * @return 影响行数
+     */
+    int updateTimelineByMemory(
+            @Param("memoryId") Long memoryId,
+            @Param("storyTimeline") Integer storyTimeline
+    );
+
+    /**
+     * 一次查询多个角色各自最近的 K 条记忆
+     *
+     * @param projectId      项目ID
+     * @param characterIds   角色ID列表
+     * @param limit          每个角色返回的条数
+     * @param memoryType     记忆类型，为空时不过滤
+     * @param beforeTimeline 只返回该章节之前的记忆，为空时不过滤
+     * @return 关联列表（含记忆），按角色分组、时间线倒序
+     */
+    List<NovelMemoryCharacter> selectLatestByCharacters(
+            @Param("projectId") Long projectId,
+            @Param("characterIds") List<Long> characterIds,
+            @Param("limit") Integer limit,
+            @Param("memoryType") String memoryType,
+            @Param("beforeTimeline") Integer beforeTimeline
+    );
+}
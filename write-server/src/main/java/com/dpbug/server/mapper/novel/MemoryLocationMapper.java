@@ -0,0 +1,37 @@
+package com.dpbug.server.mapper.novel;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.dpbug.server.model.entity.novel.NovelMemoryLocation;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.List;
+
+/**
+ * 记忆-地点关联 Mapper接口
+ *
+ * @author dpbug
+ */
+@Mapper
+public interface MemoryLocationMapper extends BaseMapper<NovelMemoryLocation> {
+
+    /**
+     * 批量写入关联（已存在的关联忽略）
+     *
+     * @param list 关联列表
+     * @return 写入行数
+     */
+    int insertIgnoreBatch(@Param("list") List<NovelMemoryLocation> list);
+
+    /**
+     * 同步记忆的时间线
+     *
+     * @param memoryId      记忆ID
+     * @param storyTimeline 时间线
+     * @return 影响行数
+     */
+    int updateTimelineByMemory(
+            @Param("memoryId") Long memoryId,
+            @Param("storyTimeline") Integer storyTimeline
+    );
+}
@@ -0,0 +1,25 @@
+package com.dpbug.server.mapper.novel;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.dpbug.server.model.entity.novel.NovelMemorySource;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.List;
+
+/**
+ * 记忆-来源章节关联 Mapper接口
+ *
+ * @author dpbug
+ */
+@Mapper
+public interface MemorySourceMapper extends BaseMapper<NovelMemorySource> {
+
+    /**
+     * 批量写入关联（已存在的关联忽略）
+     *
+     * @param list 关联列表
+     * @return 写入行数
+     */
+    int insertIgnoreBatch(@Param("list") List<NovelMemorySource> list);
+}
@@ -0,0 +1,70 @@
+package com.dpbug.server.mapper.novel;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.dpbug.server.model.entity.novel.NovelMemoryVectorOutbox;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 记忆向量同步 Outbox Mapper接口
+ *
+ * @author dpbug
+ */
+@Mapper
+public interface MemoryVectorOutboxMapper extends BaseMapper<NovelMemoryVectorOutbox> {
+
+    /**
+     * 领取到期的待处理记录（含租约已过期的处理中记录）
+     *
+     * @param claimToken 领取令牌
+     * @param leaseUntil 租约到期时间
+     * @param limit      最大领取数量
+     * @return 领取数量
+     */
+    int claimDue(
+            @Param("claimToken") String claimToken,
+            @Param("leaseUntil") LocalDateTime leaseUntil,
+            @Param("limit") Integer limit
+    );
+
+    /**
+     * 按ID领取待处理记录（用于事务提交后立即同步）
+     *
+     * @param claimToken 领取令牌
+     * @param leaseUntil 租约到期时间
+     * @param ids        Outbox ID列表
+     * @return 领取数量
+     */
+    int claimByIds(
+            @Param("claimToken") String claimToken,
+            @Param("leaseUntil") LocalDateTime leaseUntil,
+            @Param("ids") List<Long> ids
+    );
+
+    /**
+     * 查询指定令牌领取的记录（按ID顺序，保证同一项目的操作按写入顺序执行）
+     *
+     * @param claimToken 领取令牌
+     * @return 记录列表
+     */
+    List<NovelMemoryVectorOutbox> selectByClaimToken(@Param("claimToken") String claimToken);
+
+    /**
+     * 查询项目中尚未完成同步的记忆ID
+     *
+     * @param projectId 项目ID
+     * @return 记忆ID列表
+     */
+    List<Long> selectUnsyncedMemoryIds(@Param("projectId") Long projectId);
+
+    /**
+     * 重新激活项目中已失败的记录（由对账任务调用）
+     *
+     * @param projectId 项目ID
+     * @return 影响行数
+     */
+    int rearmFailed(@Param("projectId") Long projectId);
+}
@@ -2,10 +2,11 @@ package com.dpbug.server.mapper.novel;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.dpbug.server.model.entity.novel.NovelProject;
-import com.dpbug.server.model.vo.novel.ProjectStatisticsVO;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 
+import java.util.List;
+
 /**
  * 项目Mapper接口
  *
@@ -15,18 +16,26 @@ import org.apache.ibatis.annotations.Param;
 public interface ProjectMapper extends BaseMapper<NovelProject> {
 
     /**
-     * 查询项目统计信息
+     * 将项目统计表中的字数、角色数同步到项目行
      *
      * @param projectId 项目ID
-     * @param userId    用户ID（安全校验）
-     * @return 统计信息
      */
-    ProjectStatisticsVO selectStatistics(@Param("projectId") Long projectId, @Param("userId") Long userId);
+    void updateStatistics(@Param("projectId") Long projectId);
 
     /**
-     * 更新项目统计信息（字数、角色数等）
+     * 查询最近活跃的项目（仅 id、user_id，用于向量库预热）
      *
-     * @param projectId 项目ID
+     * @param limit 限制数量
+     * @return 项目列表
      */
-    void updateStatistics(@Param("projectId") Long projectId);
-}
\ No newline at end of file
+    List<NovelProject> selectRecentlyActive(@Param("limit") Integer limit);
+
+    /**
+     * 按ID顺序分批查询项目（仅 id、user_id，用于向量对账）
+     *
+     * @param lastId 上一批最后一个项目ID
+     * @param limit  限制数量
+     * @return 项目列表
+     */
+    List<NovelProject> selectIdsAfter(@Param("lastId") Long lastId, @Param("limit") Integer limit);
+}
@@ -0,0 +1,40 @@
+package com.dpbug.server.mapper.novel;
+
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+/**
+ * 项目数据清理Mapper接口
+ * <p>
+ * 删除项目后由后台任务分块物理删除各子表数据。每次只删除 limit 行，
+ * 走各表以 project_id 开头的索引，单条语句自动提交，避免长事务和大范围行锁阻塞正常读写。
+ *
+ * @author dpbug
+ */
+@Mapper
+public interface ProjectPurgeMapper {
+
+    /**
+     * 删除项目在指定表中的一批数据
+     *
+     * @param table     表名（只允许调用方内置的表名常量）
+     * @param projectId 项目ID
+     * @param limit     本批最多删除行数
+     * @return 删除行数
+     */
+    int deleteChunk(@Param("table") String table,
+                    @Param("projectId") Long projectId,
+                    @Param("limit") int limit);
+
+    /**
+     * 删除项目的一批生成任务（保留执行清理的任务本身）
+     *
+     * @param projectId     项目ID
+     * @param excludeTaskId 清理任务ID
+     * @param limit         本批最多删除行数
+     * @return 删除行数
+     */
+    int deleteTaskChunk(@Param("projectId") Long projectId,
+                        @Param("excludeTaskId") Long excludeTaskId,
+                        @Param("limit") int limit);
+}
@@ -0,0 +1,49 @@
+package com.dpbug.server.mapper.novel;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.dpbug.server.model.dto.novel.ProjectStatsDelta;
+import com.dpbug.server.model.entity.novel.NovelProjectStats;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+/**
+ * 项目统计Mapper接口
+ *
+ * @author dpbug
+ */
+@Mapper
+public interface ProjectStatsMapper extends BaseMapper<NovelProjectStats> {
+
+    /**
+     * 按增量更新计数（统计行不存在时不更新，由读取时重新汇总）
+     *
+     * @param delta 增量
+     * @return 影响行数
+     */
+    int applyDelta(@Param("delta") ProjectStatsDelta delta);
+
+    /**
+     * 章节字数即将改为 wordCount：按章节行上的旧字数调整总字数（须在更新章节行之前调用）
+     *
+     * @param chapterId 章节ID
+     * @param wordCount 新字数
+     * @return 影响行数
+     */
+    int applyChapterWordCount(@Param("chapterId") Long chapterId, @Param("wordCount") int wordCount);
+
+    /**
+     * 章节即将删除：扣减章节数与该章节字数（须在删除章节行之前调用）
+     *
+     * @param chapterId 章节ID
+     * @return 影响行数
+     */
+    int applyChapterRemoved(@Param("chapterId") Long chapterId);
+
+    /**
+     * 从明细表重新汇总项目统计（不存在时插入）
+     *
+     * @param projectId 项目ID
+     * @return 影响行数
+     */
+    int recount(@Param("projectId") Long projectId);
+}
@@ -0,0 +1,111 @@
+package com.dpbug.server.mapper.novel;
+
+import com.dpbug.server.model.vo.novel.GlobalSearchResultVO;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 全局搜索Mapper接口
+ * <p>
+ * 各方法在 fulltext 为 true 时走 ngram 全文索引（MATCH ... AGAINST 布尔模式短语匹配，按相关度排序），
+ * 否则（关键词短于 ngram 分词长度，全文索引无法命中）退回 LIKE 并按更新时间排序。
+ * 项目按用户ID过滤，其余各类按调用方传入的用户项目ID列表过滤（非空）。
+ *
+ * @author dpbug
+ */
+@Mapper
+public interface SearchMapper {
+
+    /**
+     * 搜索项目（书名、简介）
+     *
+     * @param userId   用户ID
+     * @param keyword  原始关键词（LIKE 使用）
+     * @param query    全文检索表达式
+     * @param fulltext 是否使用全文索引
+     * @param limit    返回数量
+     * @return 命中列表
+     */
+    List<GlobalSearchResultVO.ProjectHitVO> searchProjects(
+            @Param("userId") Long userId,
+            @Param("keyword") String keyword,
+            @Param("query") String query,
+            @Param("fulltext") boolean fulltext,
+            @Param("limit") int limit
+    );
+
+    /**
+     * 搜索章节（标题、摘要）
+     *
+     * @param projectIds 用户的项目ID列表
+     * @param keyword    原始关键词（LIKE 使用）
+     * @param query      全文检索表达式
+     * @param fulltext   是否使用全文索引
+     * @param limit      返回数量
+     * @return 命中列表
+     */
+    List<GlobalSearchResultVO.ChapterHitVO> searchChapters(
+            @Param("projectIds") Collection<Long> projectIds,
+            @Param("keyword") String keyword,
+            @Param("query") String query,
+            @Param("fulltext") boolean fulltext,
+            @Param("limit") int limit
+    );
+
+    /**
+     * 搜索大纲（标题、内容）
+     *
+     * @param projectIds 用户的项目ID列表
+     * @param keyword    原始关键词（LIKE 使用）
+     * @param query      全文检索表达式
+     * @param fulltext   是否使用全文索引
+     * @param limit      返回数量
+     * @return 命中列表
+     */
+    List<GlobalSearchResultVO.OutlineHitVO> searchOutlines(
+            @Param("projectIds") Collection<Long> projectIds,
+            @Param("keyword") String keyword,
+            @Param("query") String query,
+            @Param("fulltext") boolean fulltext,
+            @Param("limit") int limit
+    );
+
+    /**
+     * 搜索角色（名称、背景）
+     *
+     * @param projectIds 用户的项目ID列表
+     * @param keyword    原始关键词（LIKE 使用）
+     * @param query      全文检索表达式
+     * @param fulltext   是否使用全文索引
+     * @param limit      返回数量
+     * @return 命中列表
+     */
+    List<GlobalSearchResultVO.CharacterHitVO> searchCharacters(
+            @Param("projectIds") Collection<Long> projectIds,
+            @Param("keyword") String keyword,
+            @Param("query") String query,
+            @Param("fulltext") boolean fulltext,
+            @Param("limit") int limit
+    );
+
+    /**
+     * 搜索记忆（标题、内容）
+     *
+     * @param projectIds 用户的项目ID列表
+     * @param keyword    原始关键词（LIKE 使用）
+     * @param query      全文检索表达式
+     * @param fulltext   是否使用全文索引
+     * @param limit      返回数量
+     * @return 命中列表
+     */
+    List<GlobalSearchResultVO.MemoryHitVO> searchMemories(
+            @Param("projectIds") Collection<Long> projectIds,
+            @Param("keyword") String keyword,
+            @Param("query") String query,
+            @Param("fulltext") boolean fulltext,
+            @Param("limit") int limit
+    );
+}
@@ -8,7 +8,6 @@ import org.apache.ibatis.annotations.Param;
 
 import java.math.BigDecimal;
 import java.util.List;
-import java.util.Map;
 
 /**
  * 故事记忆Mapper接口
@@ -83,14 +82,6 @@ public interface StoryMemoryMapper extends BaseMapper<NovelStoryMemory> {
         @Param("memoryType") String memoryType
     );
 
-    /**
-     * 统计项目各类型记忆数量
-     *
-     * @param projectId 项目ID
-     * @return 统计map
-     */
-    List<Map<String, Object>> countByType(@Param("projectId") Long projectId);
-
     /**
      * 按时间线范围查询
      *
@@ -105,5 +96,63 @@ public interface StoryMemoryMapper extends BaseMapper<NovelStoryMemory> {
             @Param("endTimeline") Integer endTimeline
     );
 
+    /**
+     * 查询项目近期记忆的指纹（用于写入前的近似去重）
+     *
+     * @param projectId     项目ID
+     * @param fromTimeline  起始章节号（含），为空时查询全部
+     * @return 记忆列表（仅 id、memory_type、title、content、simhash、importance_score、story_timeline、is_foreshadow）
+     */
+    List<NovelStoryMemory> selectFingerprints(
+            @Param("projectId") Long projectId,
+            @Param("fromTimeline") Integer fromTimeline
+    );
+
+    /**
+     * 查询项目所有记忆的向量引用（仅 id、vector_id，用于向量对账）
+     *
+     * @param projectId 项目ID
+     * @return 记忆列表
+     */
+    List<NovelStoryMemory> selectVectorRefsByProject(@Param("projectId") Long projectId);
 
+    /**
+     * 更新记忆的向量信息
+     *
+     * @param id             记忆ID
+     * @param vectorId       向量ID
+     * @param embeddingModel 嵌入模型
+     * @return 影响行数
+     */
+    int updateVectorInfo(
+            @Param("id") Long id,
+            @Param("vectorId") String vectorId,
+            @Param("embeddingModel") String embeddingModel
+    );
+
+    /**
+     * 按ID游标分批读取项目记忆（用于向量库全量重建）
+     *
+     * @param projectId 项目ID
+     * @param lastId    上一批最后一条记忆ID
+     * @param limit     限制数量
+     * @return 记忆列表（按ID升序）
+     */
+    List<NovelStoryMemory> selectForReindex(
+            @Param("projectId") Long projectId,
+            @Param("lastId") Long lastId,
+            @Param("limit") Integer limit
+    );
+
+    /**
+     * 批量更新项目记忆的嵌入模型
+     *
+     * @param projectId      项目ID
+     * @param embeddingModel 嵌入模型
+     * @return 影响行数
+     */
+    int updateEmbeddingModelByProject(
+            @Param("projectId") Long projectId,
+            @Param("embeddingModel") String embeddingModel
+    );
 }
\ No newline at end of file
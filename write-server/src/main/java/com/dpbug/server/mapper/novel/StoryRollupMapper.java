@@ -0,0 +1,55 @@
+package com.dpbug.server.mapper.novel;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.dpbug.server.model.entity.novel.NovelStoryRollup;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.List;
+
+/**
+ * 故事层级摘要 Mapper接口
+ *
+ * @author dpbug
+ */
+@Mapper
+public interface StoryRollupMapper extends BaseMapper<NovelStoryRollup> {
+
+    /**
+     * 查询项目的层级摘要（不含向量，用于增量生成判断）
+     *
+     * @param projectId 项目ID
+     * @param level     级别
+     * @return 层级摘要列表（按序号升序）
+     */
+    List<NovelStoryRollup> selectMetaByLevel(
+            @Param("projectId") Long projectId,
+            @Param("level") String level
+    );
+
+    /**
+     * 查询在指定章节之前已完结的层级摘要（含向量，用于检索）
+     *
+     * @param projectId     项目ID
+     * @param beforeChapter 当前章节号（只返回 end_chapter 小于该值的记录）
+     * @return 层级摘要列表（按起始章节升序）
+     */
+    List<NovelStoryRollup> selectCompletedBefore(
+            @Param("projectId") Long projectId,
+            @Param("beforeChapter") Integer beforeChapter
+    );
+
+    /**
+     * 更新摘要向量
+     *
+     * @param id             主键ID
+     * @param embedding      向量
+     * @param embeddingModel 嵌入模型
+     * @return 影响行数
+     */
+    int updateEmbedding(
+            @Param("id") Long id,
+            @Param("embedding") float[] embedding,
+            @Param("embeddingModel") String embeddingModel
+    );
+}
@@ -0,0 +1,49 @@
+package com.dpbug.server.model.dto.novel;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * @author dpbug
+ * @description 角色最近事件查询请求
+ */
+@Data
+public class CharacterEventsRequest implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 项目ID（必填）
+     */
+    @NotNull(message = "项目ID不能为空")
+    private Long projectId;
+
+    /**
+     * 角色ID列表（必填）
+     */
+    @NotEmpty(message = "角色ID不能为空")
+    private List<Long> characterIds;
+
+    /**
+     * 每个角色返回的事件数（默认5）
+     */
+    @Min(value = 1, message = "返回数量不能小于1")
+    @Max(value = 50, message = "返回数量不能大于50")
+    private Integer limit = 5;
+
+    /**
+     * 记忆类型（可选，为空时不限类型）
+     */
+    private String memoryType;
+
+    /**
+     * 只返回该章节之前的事件（可选）
+     */
+    private Integer beforeChapter;
+}
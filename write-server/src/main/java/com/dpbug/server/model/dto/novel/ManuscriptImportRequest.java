@@ -0,0 +1,36 @@
+package com.dpbug.server.model.dto.novel;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+import java.io.Serializable;
+
+/**
+ * 书稿导入请求（书稿正文通过请求体上传）
+ */
+@Data
+public class ManuscriptImportRequest implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 项目ID
+     */
+    @NotNull(message = "项目ID不能为空")
+    private Long projectId;
+
+    /**
+     * 书稿编码（默认 UTF-8）
+     */
+    private String charset;
+
+    /**
+     * 章节标题模式（正则，匹配整行），为空时使用默认模式
+     */
+    private String headingPattern;
+
+    /**
+     * 导入后是否进行剧情分析（默认 false，只提取记忆）
+     */
+    private Boolean analyze;
+}
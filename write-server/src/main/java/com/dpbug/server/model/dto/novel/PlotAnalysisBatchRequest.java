@@ -0,0 +1,26 @@
+package com.dpbug.server.model.dto.novel;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+import java.io.Serializable;
+
+/**
+ * 批量剧情分析请求
+ */
+@Data
+public class PlotAnalysisBatchRequest implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 项目ID
+     */
+    @NotNull(message = "项目ID不能为空")
+    private Long projectId;
+
+    /**
+     * 是否强制重新分析（默认 false：跳过已基于当前内容版本分析过的章节）
+     */
+    private Boolean force;
+}
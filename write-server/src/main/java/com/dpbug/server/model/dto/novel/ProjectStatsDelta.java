@@ -0,0 +1,148 @@
+package com.dpbug.server.model.dto.novel;
+
+import com.dpbug.common.constant.NovelConstants;
+import com.dpbug.server.model.entity.novel.NovelCharacter;
+import com.dpbug.server.model.entity.novel.NovelStoryMemory;
+import lombok.Data;
+
+/**
+ * 项目统计增量
+ * <p>
+ * 每个字段是对应计数的变化量，0 表示不变。由写入方根据实际增删的记录构造，
+ * 一次写操作涉及的所有变化合并为一个增量，只更新一次统计行。
+ * 字数依赖章节行上的旧值，不在增量中携带，由统计服务按章节直接计算。
+ *
+ * @author dpbug
+ */
+@Data
+public class ProjectStatsDelta {
+
+    private final Long projectId;
+
+    private int chapterCount;
+
+    private int characterCount;
+    private int protagonistCount;
+    private int supportingCount;
+    private int antagonistCount;
+    private int organizationCount;
+
+    private int outlineCount;
+
+    private int memoryCount;
+    private int plotPointCount;
+    private int hookCount;
+    private int foreshadowCount;
+    private int characterEventCount;
+    private int locationEventCount;
+    private int otherMemoryCount;
+    private int plantedForeshadowCount;
+    private int resolvedForeshadowCount;
+    private int coveredChapterCount;
+
+    public static ProjectStatsDelta of(Long projectId) {
+        return new ProjectStatsDelta(projectId);
+    }
+
+    /**
+     * 章节增减（新建章节字数为 0，删除章节的字数由统计服务按章节行扣减）
+     */
+    public ProjectStatsDelta chapters(int count) {
+        chapterCount += count;
+        return this;
+    }
+
+    public ProjectStatsDelta outlines(int count) {
+        outlineCount += count;
+        return this;
+    }
+
+    /**
+     * 角色增减，按组织/角色类型计入对应分类
+     *
+     * @param sign 1 新增，-1 删除
+     */
+    public ProjectStatsDelta character(NovelCharacter character, int sign) {
+        return character(character.getIsOrganization(), character.getRoleType(), sign);
+    }
+
+    public ProjectStatsDelta character(Integer isOrganization, String roleType, int sign) {
+        if (isOrganization != null && isOrganization == 1) {
+            organizationCount += sign;
+        } else {
+            characterCount += sign;
+        }
+        if (NovelConstants.RoleType.PROTAGONIST.equals(roleType)) {
+            protagonistCount += sign;
+        } else if (NovelConstants.RoleType.SUPPORTING.equals(roleType)) {
+            supportingCount += sign;
+        } else if (NovelConstants.RoleType.ANTAGONIST.equals(roleType)) {
+            antagonistCount += sign;
+        }
+        return this;
+    }
+
+    /**
+     * 记忆增减，按记忆类型与伏笔状态计入对应分类
+     *
+     * @param sign 1 新增，-1 删除
+     */
+    public ProjectStatsDelta memory(NovelStoryMemory memory, int sign) {
+        memoryCount += sign;
+        String type = memory.getMemoryType();
+        if (NovelConstants.MemoryType.PLOT_POINT.equals(type)) {
+            plotPointCount += sign;
+        } else if (NovelConstants.MemoryType.HOOK.equals(type)) {
+            hookCount += sign;
+        } else if (NovelConstants.MemoryType.FORESHADOW.equals(type)) {
+            foreshadowCount += sign;
+        } else if (NovelConstants.MemoryType.CHARACTER_EVENT.equals(type)) {
+            characterEventCount += sign;
+        } else if (NovelConstants.MemoryType.LOCATION_EVENT.equals(type)) {
+            locationEventCount += sign;
+        } else {
+            otherMemoryCount += sign;
+        }
+        return foreshadowStatus(memory.getIsForeshadow(), sign);
+    }
+
+    /**
+     * 伏笔状态变化（如已埋下 -> 已回收）
+     */
+    public ProjectStatsDelta foreshadow(Integer from, Integer to) {
+        if (from == null ? to == null : from.equals(to)) {
+            return this;
+        }
+        return foreshadowStatus(from, -1).foreshadowStatus(to, 1);
+    }
+
+    public ProjectStatsDelta coveredChapters(int count) {
+        coveredChapterCount += count;
+        return this;
+    }
+
+    private ProjectStatsDelta foreshadowStatus(Integer status, int sign) {
+        if (status == null) {
+            return this;
+        }
+        if (status == NovelConstants.ForeshadowStatus.PLANTED) {
+            plantedForeshadowCount += sign;
+        } else if (status == NovelConstants.ForeshadowStatus.RESOLVED) {
+            resolvedForeshadowCount += sign;
+        }
+        return this;
+    }
+
+    /**
+     * 是否没有任何变化
+     */
+    public boolean isEmpty() {
+        return chapterCount == 0
+                && characterCount == 0 && protagonistCount == 0 && supportingCount == 0
+                && antagonistCount == 0 && organizationCount == 0
+                && outlineCount == 0
+                && memoryCount == 0 && plotPointCount == 0 && hookCount == 0 && foreshadowCount == 0
+                && characterEventCount == 0 && locationEventCount == 0 && otherMemoryCount == 0
+                && plantedForeshadowCount == 0 && resolvedForeshadowCount == 0 && coveredChapterCount == 0;
+    }
+}
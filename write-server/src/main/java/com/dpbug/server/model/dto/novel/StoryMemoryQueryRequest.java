@@ -60,4 +60,14 @@ public class StoryMemoryQueryRequest implements Serializable {
      * 每页数量
      */
     private Integer pageSize = 20;
+
+    /**
+     * 键集分页游标：不传时按页码分页；传空串取第一页，之后传上一页返回的 nextCursor
+     */
+    private String cursor;
+
+    /**
+     * 游标分页时是否统计总数（默认不统计）
+     */
+    private Boolean withTotal;
 }
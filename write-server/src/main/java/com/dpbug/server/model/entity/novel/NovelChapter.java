@@ -47,9 +47,10 @@ public class NovelChapter extends BaseEntity {
 
     /**
      * 章节内容
-     * <p>使用 NOT_NULL 策略，避免部分更新时误将 content 置为 null</p>
+     * <p>正文存放在 novel_chapter_content（见 ChapterContentMapper），不随章节行读写；
+     * 仅在需要正文的查询中按需填充</p>
      */
-    @TableField(updateStrategy = FieldStrategy.NOT_NULL)
+    @TableField(exist = false)
     private String content;
 
     /**
@@ -95,12 +96,19 @@ public class NovelChapter extends BaseEntity {
     private String styleCode;
 
     /**
-     * 版本号
+     * 当前正文版本号（历史版本保存在 novel_chapter_content，见 ChapterVersionService）
      */
     private Integer version;
 
     /**
-     * 上一版本ID
+     * 上一版本ID（早期按整行复制创建版本时使用，现版本均在同一章节下递增）
      */
     private Long previousVersionId;
+
+    /**
+     * 正文修订号（保存新版本与原地修改正文时都递增，用于判断基于正文的派生数据是否过期）
+     * <p>只通过 ChapterMapper#incrementContentRevision 递增，updateById 不写入，避免用读取到的旧值覆盖</p>
+     */
+    @TableField(updateStrategy = FieldStrategy.NEVER)
+    private Integer contentRevision;
 }
@@ -0,0 +1,89 @@
+package com.dpbug.server.model.entity.novel;
+
+import com.baomidou.mybatisplus.annotation.FieldFill;
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableField;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import com.dpbug.server.handler.CompressedTextTypeHandler;
+import lombok.Data;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * 章节正文实体类
+ * <p>
+ * 正文与章节元数据分表存放，按章节ID + 版本号唯一；章节行的 version 指向当前正文。
+ * 正文以 MySQL COMPRESS() 兼容格式压缩存储。
+ * <p>
+ * 历史版本：当前版本与定期快照存完整正文，其余旧版本只存相对下一版本的段落差异（JSON 编辑脚本），
+ * 重建某个版本时从不低于它的最近完整版本逐级回放。
+ *
+ * @author dpbug
+ */
+@Data
+@TableName(value = "novel_chapter_content", autoResultMap = true)
+public class NovelChapterContent implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 主键ID（雪花算法生成）
+     */
+    @TableId(value = "id", type = IdType.ASSIGN_ID)
+    private Long id;
+
+    /**
+     * 项目ID
+     */
+    private Long projectId;
+
+    /**
+     * 章节ID
+     */
+    private Long chapterId;
+
+    /**
+     * 章节版本号
+     */
+    private Integer version;
+
+    /**
+     * 存储方式：full-完整正文，delta-相对 baseVersion 的段落差异
+     */
+    private String storageType;
+
+    /**
+     * 差异的基准版本（storageType 为 delta 时有效，恒为 version + 1）
+     */
+    private Integer baseVersion;
+
+    /**
+     * 版本来源：generate/regenerate/polish/denoise/edit
+     */
+    private String source;
+
+    /**
+     * 该版本的字数
+     */
+    private Integer wordCount;
+
+    /**
+     * 章节正文或段落差异（压缩存储，读写时透明解压/压缩）
+     */
+    @TableField(typeHandler = CompressedTextTypeHandler.class)
+    private String content;
+
+    /**
+     * 创建时间
+     */
+    @TableField(fill = FieldFill.INSERT)
+    private LocalDateTime createTime;
+
+    /**
+     * 更新时间
+     */
+    @TableField(fill = FieldFill.INSERT_UPDATE)
+    private LocalDateTime updateTime;
+}
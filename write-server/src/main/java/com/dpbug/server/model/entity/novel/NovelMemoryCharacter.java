@@ -0,0 +1,68 @@
+package com.dpbug.server.model.entity.novel;
+
+import com.baomidou.mybatisplus.annotation.FieldFill;
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableField;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Data;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * 记忆-角色关联实体类
+ * <p>
+ * 由记忆的相关角色列表展开，随记忆一起写入和删除，用于按角色查询最近事件。
+ *
+ * @author dpbug
+ */
+@Data
+@TableName("novel_memory_character")
+public class NovelMemoryCharacter implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 主键ID（雪花算法生成）
+     */
+    @TableId(value = "id", type = IdType.ASSIGN_ID)
+    private Long id;
+
+    /**
+     * 项目ID
+     */
+    private Long projectId;
+
+    /**
+     * 记忆ID
+     */
+    private Long memoryId;
+
+    /**
+     * 角色ID
+     */
+    private Long characterId;
+
+    /**
+     * 记忆类型（冗余）
+     */
+    private String memoryType;
+
+    /**
+     * 故事时间线（冗余）
+     */
+    private Integer storyTimeline;
+
+    /**
+     * 创建时间
+     */
+    @TableField(fill = FieldFill.INSERT)
+    private LocalDateTime createTime;
+
+    /**
+     * 关联的记忆（按角色查询最近事件时填充）
+     */
+    @TableField(exist = false)
+    private NovelStoryMemory memory;
+}
@@ -0,0 +1,62 @@
+package com.dpbug.server.model.entity.novel;
+
+import com.baomidou.mybatisplus.annotation.FieldFill;
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableField;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Data;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * 记忆-地点关联实体类
+ * <p>
+ * 由记忆的相关地点列表展开，随记忆一起写入和删除，用于按地点查询最近事件。
+ *
+ * @author dpbug
+ */
+@Data
+@TableName("novel_memory_location")
+public class NovelMemoryLocation implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 主键ID（雪花算法生成）
+     */
+    @TableId(value = "id", type = IdType.ASSIGN_ID)
+    private Long id;
+
+    /**
+     * 项目ID
+     */
+    private Long projectId;
+
+    /**
+     * 记忆ID
+     */
+    private Long memoryId;
+
+    /**
+     * 地点名称
+     */
+    private String locationName;
+
+    /**
+     * 记忆类型（冗余）
+     */
+    private String memoryType;
+
+    /**
+     * 故事时间线（冗余）
+     */
+    private Integer storyTimeline;
+
+    /**
+     * 创建时间
+     */
+    @TableField(fill = FieldFill.INSERT)
+    private LocalDateTime createTime;
+}
@@ -0,0 +1,53 @@
+package com.dpbug.server.model.entity.novel;
+
+import com.baomidou.mybatisplus.annotation.FieldFill;
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableField;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Data;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * 记忆-来源章节关联实体类
+ * <p>
+ * 记录提取出该记忆的章节，近似重复的记忆合并后一条记忆可能来自多个章节。
+ * 重新生成章节时，仍有其他来源章节的记忆不会被删除。
+ *
+ * @author dpbug
+ */
+@Data
+@TableName("novel_memory_source")
+public class NovelMemorySource implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 主键ID（雪花算法生成）
+     */
+    @TableId(value = "id", type = IdType.ASSIGN_ID)
+    private Long id;
+
+    /**
+     * 项目ID
+     */
+    private Long projectId;
+
+    /**
+     * 记忆ID
+     */
+    private Long memoryId;
+
+    /**
+     * 来源章节ID
+     */
+    private Long chapterId;
+
+    /**
+     * 创建时间
+     */
+    @TableField(fill = FieldFill.INSERT)
+    private LocalDateTime createTime;
+}
@@ -0,0 +1,94 @@
+package com.dpbug.server.model.entity.novel;
+
+import com.baomidou.mybatisplus.annotation.FieldFill;
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableField;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Data;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * 记忆向量同步 Outbox 实体类
+ * <p>
+ * 与 novel_story_memory 的变更在同一事务中写入，由后台任务批量同步到 ChromaDB。
+ * 处理成功后物理删除，不继承 BaseEntity。
+ *
+ * @author dpbug
+ */
+@Data
+@TableName("novel_memory_vector_outbox")
+public class NovelMemoryVectorOutbox implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 主键ID（雪花算法生成）
+     */
+    @TableId(value = "id", type = IdType.ASSIGN_ID)
+    private Long id;
+
+    /**
+     * 用户ID（用于定位 Collection）
+     */
+    private Long userId;
+
+    /**
+     * 项目ID
+     */
+    private Long projectId;
+
+    /**
+     * 记忆ID（drop_collection 时为空）
+     */
+    private Long memoryId;
+
+    /**
+     * 操作: upsert/delete/drop_collection
+     */
+    private String op;
+
+    /**
+     * 待删除的向量ID（delete 时使用）
+     */
+    private String vectorId;
+
+    /**
+     * 状态: pending/processing/failed
+     */
+    private String status;
+
+    /**
+     * 领取令牌
+     */
+    private String claimToken;
+
+    /**
+     * 已重试次数
+     */
+    private Integer retryCount;
+
+    /**
+     * 下次可处理时间（processing 状态下为租约到期时间）
+     */
+    private LocalDateTime nextRetryAt;
+
+    /**
+     * 最近一次失败原因
+     */
+    private String lastError;
+
+    /**
+     * 创建时间
+     */
+    @TableField(fill = FieldFill.INSERT)
+    private LocalDateTime createTime;
+
+    /**
+     * 更新时间
+     */
+    @TableField(fill = FieldFill.INSERT_UPDATE)
+    private LocalDateTime updateTime;
+}
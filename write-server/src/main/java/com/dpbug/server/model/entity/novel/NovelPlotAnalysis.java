@@ -60,5 +60,15 @@ public class NovelPlotAnalysis extends BaseEntity {
     private List<String> suggestions;
 
     private String aiModel;
+
+    /**
+     * 分析所基于的章节正文修订号（对应 novel_chapter.content_revision）
+     */
+    private Integer contentVersion;
+
+    /**
+     * 乐观锁版本（写入时手动比较并递增）
+     */
+    private Integer version;
 }
 
@@ -0,0 +1,130 @@
+package com.dpbug.server.model.entity.novel;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Data;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * 项目统计实体类
+ * <p>
+ * 每个项目一行，随章节、角色、大纲、记忆的增删按增量更新，定时任务从明细表重新汇总对账。
+ * 跟随项目生命周期，删除项目时物理删除。
+ *
+ * @author dpbug
+ */
+@Data
+@TableName("novel_project_stats")
+public class NovelProjectStats implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 项目ID
+     */
+    @TableId(value = "project_id", type = IdType.INPUT)
+    private Long projectId;
+
+    /**
+     * 章节数
+     */
+    private Integer chapterCount;
+
+    /**
+     * 总字数
+     */
+    private Integer wordCount;
+
+    /**
+     * 角色数（不含组织）
+     */
+    private Integer characterCount;
+
+    /**
+     * 主角数
+     */
+    private Integer protagonistCount;
+
+    /**
+     * 配角数
+     */
+    private Integer supportingCount;
+
+    /**
+     * 反派数
+     */
+    private Integer antagonistCount;
+
+    /**
+     * 组织数
+     */
+    private Integer organizationCount;
+
+    /**
+     * 大纲数
+     */
+    private Integer outlineCount;
+
+    /**
+     * 记忆数
+     */
+    private Integer memoryCount;
+
+    /**
+     * 情节点记忆数
+     */
+    private Integer plotPointCount;
+
+    /**
+     * 钩子记忆数
+     */
+    private Integer hookCount;
+
+    /**
+     * 伏笔类型记忆数
+     */
+    private Integer foreshadowCount;
+
+    /**
+     * 角色事件记忆数
+     */
+    private Integer characterEventCount;
+
+    /**
+     * 地点事件记忆数
+     */
+    private Integer locationEventCount;
+
+    /**
+     * 其他类型记忆数
+     */
+    private Integer otherMemoryCount;
+
+    /**
+     * 已埋下未回收的伏笔数
+     */
+    private Integer plantedForeshadowCount;
+
+    /**
+     * 已回收的伏笔数
+     */
+    private Integer resolvedForeshadowCount;
+
+    /**
+     * 有记忆的章节数
+     */
+    private Integer coveredChapterCount;
+
+    /**
+     * 最近一次对账时间
+     */
+    private LocalDateTime reconcileTime;
+
+    /**
+     * 更新时间
+     */
+    private LocalDateTime updateTime;
+}
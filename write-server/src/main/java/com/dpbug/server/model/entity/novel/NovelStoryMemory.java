@@ -96,6 +96,11 @@ public class NovelStoryMemory implements Serializable {
      */
     private Long foreshadowResolvedAt;
 
+    /**
+     * 内容指纹（SimHash，用于写入前的近似去重）
+     */
+    private Long simhash;
+
     /**
      * 向量数据库中的ID
      */
@@ -0,0 +1,91 @@
+package com.dpbug.server.model.entity.novel;
+
+import com.baomidou.mybatisplus.annotation.FieldFill;
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableField;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import com.dpbug.server.handler.FloatArrayTypeHandler;
+import lombok.Data;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * 故事层级摘要实体类
+ * <p>
+ * 每N章压缩为一条情节弧（arc）摘要，每N个情节弧再压缩为一条卷（volume）摘要，
+ * 用于超长篇小说的由粗到细检索。跟随项目生命周期，删除时物理删除。
+ *
+ * @author dpbug
+ */
+@Data
+@TableName(value = "novel_story_rollup", autoResultMap = true)
+public class NovelStoryRollup implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 主键ID（雪花算法生成）
+     */
+    @TableId(value = "id", type = IdType.ASSIGN_ID)
+    private Long id;
+
+    /**
+     * 项目ID
+     */
+    private Long projectId;
+
+    /**
+     * 级别: arc/volume
+     */
+    private String level;
+
+    /**
+     * 同级序号（从1开始）
+     */
+    private Integer seq;
+
+    /**
+     * 起始章节号（含）
+     */
+    private Integer startChapter;
+
+    /**
+     * 结束章节号（含）
+     */
+    private Integer endChapter;
+
+    /**
+     * 层级摘要
+     */
+    private String summary;
+
+    /**
+     * 输入内容摘要，输入变化时重新生成
+     */
+    private String sourceHash;
+
+    /**
+     * 摘要向量
+     */
+    @TableField(typeHandler = FloatArrayTypeHandler.class)
+    private float[] embedding;
+
+    /**
+     * 生成向量的嵌入模型
+     */
+    private String embeddingModel;
+
+    /**
+     * 创建时间
+     */
+    @TableField(fill = FieldFill.INSERT)
+    private LocalDateTime createTime;
+
+    /**
+     * 更新时间
+     */
+    @TableField(fill = FieldFill.INSERT_UPDATE)
+    private LocalDateTime updateTime;
+}
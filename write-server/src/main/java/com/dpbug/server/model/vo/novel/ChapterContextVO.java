@@ -82,6 +82,11 @@ public class ChapterContextVO implements Serializable {
      */
     private List<ChapterSummaryVO> skeletonChapters;
 
+    /**
+     * 故事层级摘要（卷→情节弧，由粗到细检索；存在时替代故事骨架）
+     */
+    private List<StoryRollupVO> storyRollups;
+
     // ========== RAG记忆 ==========
 
     /**
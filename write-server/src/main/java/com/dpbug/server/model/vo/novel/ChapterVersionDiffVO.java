@@ -0,0 +1,83 @@
+package com.dpbug.server.model.vo.novel;
+
+import lombok.Data;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * 章节版本对比响应
+ * <p>
+ * 按段落给出从 fromVersion 到 toVersion 的变化，相同段落只返回数量
+ *
+ * @author dpbug
+ */
+@Data
+public class ChapterVersionDiffVO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 章节ID
+     */
+    private Long chapterId;
+
+    /**
+     * 起始版本
+     */
+    private Integer fromVersion;
+
+    /**
+     * 目标版本
+     */
+    private Integer toVersion;
+
+    /**
+     * 新增段落数
+     */
+    private Integer addedParagraphs;
+
+    /**
+     * 删除段落数
+     */
+    private Integer removedParagraphs;
+
+    /**
+     * 差异块
+     */
+    private List<Hunk> hunks;
+
+    /**
+     * 差异块
+     */
+    @Data
+    public static class Hunk implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * 类型：equal/delete/insert
+         */
+        private String type;
+
+        /**
+         * 在起始版本中的段落下标
+         */
+        private Integer fromIndex;
+
+        /**
+         * 在目标版本中的段落下标
+         */
+        private Integer toIndex;
+
+        /**
+         * 段落数
+         */
+        private Integer count;
+
+        /**
+         * 删除或新增的段落（equal 时为空）
+         */
+        private List<String> paragraphs;
+    }
+}
@@ -0,0 +1,57 @@
+package com.dpbug.server.model.vo.novel;
+
+import lombok.Data;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * 章节版本响应
+ *
+ * @author dpbug
+ */
+@Data
+public class ChapterVersionVO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 章节ID
+     */
+    private Long chapterId;
+
+    /**
+     * 版本号
+     */
+    private Integer version;
+
+    /**
+     * 版本来源：generate/regenerate/polish/denoise/edit
+     */
+    private String source;
+
+    /**
+     * 存储方式：full/delta
+     */
+    private String storageType;
+
+    /**
+     * 字数
+     */
+    private Integer wordCount;
+
+    /**
+     * 是否为当前版本
+     */
+    private Boolean current;
+
+    /**
+     * 创建时间
+     */
+    private LocalDateTime createTime;
+
+    /**
+     * 正文（仅查询单个版本时返回）
+     */
+    private String content;
+}
@@ -6,6 +6,9 @@ import java.util.List;
 
 /**
  * 全局搜索结果（按类型聚合）
+ * <p>
+ * 每类命中按相关度降序；score 为全文检索相关度（短关键词走 LIKE 时为 0），
+ * snippet 为命中位置附近的片段，已做 HTML 转义，关键词以 &lt;em&gt; 标记。
  */
 @Data
 public class GlobalSearchResultVO {
@@ -15,12 +18,18 @@ public class GlobalSearchResultVO {
     private List<OutlineHitVO> outlines;
     private List<CharacterHitVO> characters;
     private List<MemoryHitVO> memories;
+    /**
+     * 是否为部分结果（有类别超时或失败，对应列表为空）
+     */
+    private Boolean partial;
 
     @Data
     public static class ProjectHitVO {
         private Long id;
         private String title;
         private String description;
+        private Double score;
+        private String snippet;
     }
 
     @Data
@@ -30,6 +39,8 @@ public class GlobalSearchResultVO {
         private Integer chapterNumber;
         private String title;
         private String summary;
+        private Double score;
+        private String snippet;
     }
 
     @Data
@@ -39,6 +50,8 @@ public class GlobalSearchResultVO {
         private Integer orderIndex;
         private String title;
         private String content;
+        private Double score;
+        private String snippet;
     }
 
     @Data
@@ -48,6 +61,8 @@ public class GlobalSearchResultVO {
         private String name;
         private String roleType;
         private Integer isOrganization;
+        private Double score;
+        private String snippet;
     }
 
     @Data
@@ -58,6 +73,8 @@ public class GlobalSearchResultVO {
         private String memoryType;
         private String title;
         private String content;
+        private Double score;
+        private String snippet;
     }
 }
 
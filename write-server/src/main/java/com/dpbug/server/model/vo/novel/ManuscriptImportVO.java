@@ -0,0 +1,41 @@
+package com.dpbug.server.model.vo.novel;
+
+import lombok.Data;
+
+import java.io.Serializable;
+
+/**
+ * 书稿导入结果
+ *
+ * @author dpbug
+ */
+@Data
+public class ManuscriptImportVO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 后台处理任务ID（记忆提取、剧情分析）
+     */
+    private Long taskId;
+
+    /**
+     * 导入的章节数
+     */
+    private Integer chapterCount;
+
+    /**
+     * 导入的总字数
+     */
+    private Long wordCount;
+
+    /**
+     * 起始章节号
+     */
+    private Integer fromChapterNumber;
+
+    /**
+     * 结束章节号
+     */
+    private Integer toChapterNumber;
+}
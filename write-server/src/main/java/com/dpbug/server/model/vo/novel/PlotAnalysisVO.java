@@ -42,6 +42,7 @@ public class PlotAnalysisVO {
     private List<String> suggestions;
 
     private String aiModel;
+    private Integer contentVersion;
     private LocalDateTime createTime;
     private LocalDateTime updateTime;
 }
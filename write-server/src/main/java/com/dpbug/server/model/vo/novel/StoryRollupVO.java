@@ -0,0 +1,46 @@
+package com.dpbug.server.model.vo.novel;
+
+import lombok.Data;
+
+import java.io.Serializable;
+
+/**
+ * 故事层级摘要响应
+ *
+ * @author dpbug
+ */
+@Data
+public class StoryRollupVO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 摘要ID
+     */
+    private Long id;
+
+    /**
+     * 级别: arc/volume
+     */
+    private String level;
+
+    /**
+     * 同级序号
+     */
+    private Integer seq;
+
+    /**
+     * 起始章节号（含）
+     */
+    private Integer startChapter;
+
+    /**
+     * 结束章节号（含）
+     */
+    private Integer endChapter;
+
+    /**
+     * 层级摘要
+     */
+    private String summary;
+}
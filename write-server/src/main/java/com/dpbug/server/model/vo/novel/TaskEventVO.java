@@ -0,0 +1,87 @@
+package com.dpbug.server.model.vo.novel;
+
+import lombok.Data;
+
+import java.io.Serializable;
+import java.util.Map;
+
+/**
+ * 任务事件VO（SSE 推送，同时作为 Redis 广播的消息体）
+ *
+ * @author dpbug
+ */
+@Data
+public class TaskEventVO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 事件类型（见 NovelConstants.TaskEventType）
+     */
+    private String type;
+
+    /**
+     * 任务ID
+     */
+    private Long taskId;
+
+    /**
+     * 任务所属用户ID（用于按用户分发）
+     */
+    private Long userId;
+
+    /**
+     * 项目ID
+     */
+    private Long projectId;
+
+    /**
+     * 任务类型
+     */
+    private String taskType;
+
+    /**
+     * 任务状态
+     */
+    private String status;
+
+    /**
+     * 进度（0-100）
+     */
+    private Integer progress;
+
+    /**
+     * 当前步骤
+     */
+    private String currentStep;
+
+    /**
+     * 章节事件：大纲ID
+     */
+    private Long outlineId;
+
+    /**
+     * 章节事件：章节ID
+     */
+    private Long chapterId;
+
+    /**
+     * 章节事件：是否成功
+     */
+    private Boolean success;
+
+    /**
+     * 错误信息
+     */
+    private String errorMessage;
+
+    /**
+     * 任务结果（完成事件）
+     */
+    private Map<String, Object> result;
+
+    /**
+     * 事件时间（毫秒时间戳）
+     */
+    private Long timestamp;
+}
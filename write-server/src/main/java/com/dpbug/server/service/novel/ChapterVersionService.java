@@ -0,0 +1,65 @@
+package com.dpbug.server.service.novel;
+
+import com.dpbug.server.model.vo.novel.ChapterVersionDiffVO;
+import com.dpbug.server.model.vo.novel.ChapterVersionVO;
+
+import java.util.List;
+
+/**
+ * 章节版本服务接口
+ * <p>
+ * 当前版本存完整正文，旧版本存相对下一版本的段落差异，每隔固定版本数保留一个完整快照，
+ * 重建任意版本最多回放一个快照间隔内的差异。
+ *
+ * @author dpbug
+ */
+public interface ChapterVersionService {
+
+    /**
+     * 保存为章节的新版本（版本号 +1），并把原当前版本转为差异存储
+     *
+     * @param chapterId 章节ID
+     * @param content   新版本正文
+     * @param source    版本来源
+     * @return 新版本号
+     */
+    int saveNewVersion(Long chapterId, String content, String source);
+
+    /**
+     * 原地覆盖当前版本的正文（不产生新版本，递增正文修订号），同步调整上一版本的差异
+     *
+     * @param chapterId 章节ID
+     * @param content   正文
+     */
+    void overwriteCurrent(Long chapterId, String content);
+
+    /**
+     * 查询章节的版本列表（不含正文）
+     *
+     * @param userId    用户ID
+     * @param chapterId 章节ID
+     * @return 版本列表，按版本号倒序
+     */
+    List<ChapterVersionVO> listVersions(Long userId, Long chapterId);
+
+    /**
+     * 查询章节指定版本（含重建后的正文）
+     *
+     * @param userId    用户ID
+     * @param chapterId 章节ID
+     * @param version   版本号
+     * @return 版本详情
+     */
+    ChapterVersionVO getVersion(Long userId, Long chapterId, Integer version);
+
+    /**
+     * 对比章节的两个版本
+     *
+     * @param userId      用户ID
+     * @param chapterId   章节ID
+     * @param fromVersion 起始版本
+     * @param toVersion   目标版本
+     * @return 段落级差异
+     */
+    ChapterVersionDiffVO diff(Long userId, Long chapterId, Integer fromVersion, Integer toVersion);
+}
@@ -2,6 +2,8 @@ package com.dpbug.server.service.novel;
 
 import com.dpbug.server.model.entity.novel.NovelGenerationTask;
 import com.dpbug.server.model.vo.novel.GenerationTaskVO;
+import com.dpbug.server.model.vo.novel.TaskEventVO;
+import reactor.core.publisher.Flux;
 
 import java.util.List;
 import java.util.Map;
@@ -25,7 +27,7 @@ public interface GenerationTaskService {
     NovelGenerationTask createTask(Long userId, Long projectId, String taskType, Map<String, Object> params);
 
     /**
-     * 更新任务进度
+     * 更新任务进度（立即推送事件，写库按 novel.task.progress.flush-interval 合并）
      *
      * @param taskId      任务ID
      * @param progress    进度
@@ -49,6 +51,17 @@ public interface GenerationTaskService {
      */
     void failTask(Long taskId, String errorMessage);
 
+    /**
+     * 推送单个章节处理完成事件（只推送，不写库）
+     *
+     * @param taskId       任务ID
+     * @param outlineId    大纲ID，可为空
+     * @param chapterId    章节ID，失败时可能为空
+     * @param success      是否成功
+     * @param errorMessage 失败原因
+     */
+    void reportChapter(Long taskId, Long outlineId, Long chapterId, boolean success, String errorMessage);
+
     /**
      * 获取任务详情
      *
@@ -73,4 +86,12 @@ public interface GenerationTaskService {
      * @param taskId 任务ID
      */
     void cancelTask(Long userId, Long taskId);
-}
\ No newline at end of file
+
+    /**
+     * 订阅用户的任务事件：先推送进行中任务的快照，再推送实时事件
+     *
+     * @param userId 用户ID
+     * @return 事件流
+     */
+    Flux<TaskEventVO> subscribeEvents(Long userId);
+}
@@ -0,0 +1,26 @@
+package com.dpbug.server.service.novel;
+
+import com.dpbug.server.model.dto.novel.ManuscriptImportRequest;
+import com.dpbug.server.model.vo.novel.ManuscriptImportVO;
+
+import java.io.InputStream;
+
+/**
+ * 书稿导入服务接口
+ *
+ * <p>边读边按章节标题切分书稿并分批写入章节，导入完成后在后台提取记忆与分析剧情</p>
+ *
+ * @author dpbug
+ */
+public interface ManuscriptImportService {
+
+    /**
+     * 导入 TXT / Markdown 书稿，章节追加在项目现有章节之后
+     *
+     * @param userId  用户ID
+     * @param request 导入参数
+     * @param in      书稿输入流（不关闭）
+     * @return 导入结果
+     */
+    ManuscriptImportVO importManuscript(Long userId, ManuscriptImportRequest request, InputStream in);
+}
@@ -0,0 +1,80 @@
+package com.dpbug.server.service.novel;
+
+import com.dpbug.server.model.entity.novel.NovelStoryMemory;
+
+import java.util.List;
+
+/**
+ * 记忆向量同步服务接口
+ * <p>
+ * 基于 Outbox 表保证 MySQL 与 ChromaDB 的最终一致：
+ * 记忆的增删与 Outbox 记录在同一事务中写入，事务提交后再同步到向量库，
+ * 失败的记录由后台任务按退避策略重试，并定期对账修复漂移。
+ * </p>
+ *
+ * @author dpbug
+ */
+public interface MemoryVectorSyncService {
+
+    /**
+     * 保存记忆并写入 upsert Outbox（同一事务）
+     *
+     * @param userId    用户ID
+     * @param projectId 项目ID
+     * @param memories  记忆列表
+     * @return Outbox ID列表
+     */
+    List<Long> saveMemories(Long userId, Long projectId, List<NovelStoryMemory> memories);
+
+    /**
+     * 删除章节记忆并写入 delete Outbox（同一事务）
+     *
+     * @param userId    用户ID
+     * @param projectId 项目ID
+     * @param chapterId 章节ID
+     * @return Outbox ID列表
+     */
+    List<Long> deleteByChapter(Long userId, Long projectId, Long chapterId);
+
+    /**
+     * 删除项目记忆并写入 drop_collection Outbox（同一事务）
+     *
+     * @param userId    用户ID
+     * @param projectId 项目ID
+     * @return Outbox ID列表
+     */
+    List<Long> deleteByProject(Long userId, Long projectId);
+
+    /**
+     * 写入 drop_collection Outbox（加入调用方事务，用于项目级联删除）
+     *
+     * @param userId    用户ID
+     * @param projectId 项目ID
+     * @return Outbox ID
+     */
+    Long enqueueDropCollection(Long userId, Long projectId);
+
+    /**
+     * 立即同步指定的 Outbox 记录
+     * <p>存在活动事务时推迟到事务提交后执行；失败的记录留给后台任务重试</p>
+     *
+     * @param outboxIds Outbox ID列表
+     */
+    void syncAfterCommit(List<Long> outboxIds);
+
+    /**
+     * 领取并处理一批到期的 Outbox 记录
+     *
+     * @return 本批处理的记录数（0 表示没有到期记录）
+     */
+    int drainPending();
+
+    /**
+     * 对账单个项目：比对 MySQL 记忆与 Collection 内容，为缺失或多余的向量写入 Outbox
+     *
+     * @param userId    用户ID
+     * @param projectId 项目ID
+     * @return 写入的修复记录数
+     */
+    int reconcileProject(Long userId, Long projectId);
+}
@@ -0,0 +1,28 @@
+package com.dpbug.server.service.novel;
+
+import com.dpbug.server.util.NovelExportWriter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * 小说导出服务接口
+ *
+ * <p>按章节顺序从数据库流式读取正文并直接写入输出流，内存占用与小说长度无关</p>
+ *
+ * @author dpbug
+ */
+public interface NovelExportService {
+
+    /**
+     * 导出整本小说
+     *
+     * @param userId    用户ID
+     * @param projectId 项目ID
+     * @param format    导出格式
+     * @param out       输出流（不关闭）
+     * @return 导出的章节数
+     * @throws IOException 写入输出流失败（如客户端断开）
+     */
+    int export(Long userId, Long projectId, NovelExportWriter.Format format, OutputStream out) throws IOException;
+}
@@ -0,0 +1,24 @@
+package com.dpbug.server.service.novel;
+
+import com.dpbug.server.model.vo.novel.GenerationTaskVO;
+
+/**
+ * 批量剧情分析服务
+ * <p>
+ * 在后台逐章分析整个项目，进度通过生成任务查询和任务事件推送。
+ * </p>
+ *
+ * @author dpbug
+ */
+public interface PlotAnalysisBatchService {
+
+    /**
+     * 发起项目全部章节的剧情分析；项目已有未结束的分析任务时直接返回该任务
+     *
+     * @param userId    用户ID
+     * @param projectId 项目ID
+     * @param force     是否重新分析已基于当前内容版本分析过的章节
+     * @return 任务信息
+     */
+    GenerationTaskVO analyzeProjectAsync(Long userId, Long projectId, Boolean force);
+}
@@ -43,12 +43,13 @@ public interface ProjectService {
     void update(Long userId, ProjectUpdateRequest dto);
 
     /**
-     * 删除项目
+     * 删除项目（逻辑删除项目，子表数据与向量库由后台清理任务删除）
      *
      * @param userId    用户ID
      * @param projectId 项目ID
+     * @return 清理任务ID
      */
-    void delete(Long userId, Long projectId);
+    Long delete(Long userId, Long projectId);
 
     /**
      * 分页查询项目列表
@@ -0,0 +1,85 @@
+package com.dpbug.server.service.novel;
+
+import com.dpbug.server.model.dto.novel.ProjectStatsDelta;
+import com.dpbug.server.model.entity.novel.NovelProjectStats;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * 项目统计服务接口
+ *
+ * <p>章节、角色、大纲、记忆的单条增删由写入方上报增量，统计行按增量更新；批量删除后直接重新汇总。
+ * 读取统计只查一行，统计行缺失时从明细表汇总补齐，定时任务每晚对账修正漂移</p>
+ *
+ * @author dpbug
+ */
+public interface ProjectStatsService {
+
+    /**
+     * 获取项目统计（不存在时从明细表汇总）
+     *
+     * @param projectId 项目ID
+     * @return 项目统计
+     */
+    NovelProjectStats get(Long projectId);
+
+    /**
+     * 批量获取项目统计（用于项目列表）
+     *
+     * @param projectIds 项目ID
+     * @return 项目ID -> 统计
+     */
+    Map<Long, NovelProjectStats> listByProjectIds(Collection<Long> projectIds);
+
+    /**
+     * 新建项目时写入全零的统计行
+     *
+     * @param projectId 项目ID
+     */
+    void init(Long projectId);
+
+    /**
+     * 应用计数增量
+     *
+     * @param delta 增量
+     */
+    void apply(ProjectStatsDelta delta);
+
+    /**
+     * 章节字数即将更新（须在更新章节行之前调用，按章节行上的旧字数计算差值）
+     *
+     * @param chapterId 章节ID
+     * @param wordCount 新字数
+     */
+    void onChapterWordCount(Long chapterId, int wordCount);
+
+    /**
+     * 单个章节即将删除（须在删除章节行之前调用）
+     *
+     * @param chapterId 章节ID
+     */
+    void onChapterRemoved(Long chapterId);
+
+    /**
+     * 从明细表重新汇总（批量增删后调用）
+     *
+     * @param projectId 项目ID
+     */
+    void recount(Long projectId);
+
+    /**
+     * 对账：重新汇总并与当前计数比较
+     *
+     * @param projectId 项目ID
+     * @return 计数是否发生漂移
+     */
+    boolean reconcile(Long projectId);
+
+    /**
+     * 删除项目统计
+     *
+     * @param projectId 项目ID
+     */
+    void remove(Long projectId);
+}
@@ -7,6 +7,7 @@ import com.dpbug.server.model.vo.novel.MemoryStatisticsVO;
 import com.dpbug.server.model.vo.novel.StoryMemoryVO;
 
 import java.util.List;
+import java.util.Map;
 
 /**
  * 故事记忆服务接口
@@ -48,6 +49,34 @@ public interface StoryMemoryService {
      */
     List<StoryMemoryVO> searchRelatedMemories(Long userId, Long projectId, String query, int topK);
 
+    /**
+     * 语义检索相关记忆，并按距当前章节的远近参与重排
+     *
+     * @param userId         用户ID（用于获取项目专属 VectorStore）
+     * @param projectId      项目ID
+     * @param query          查询文本
+     * @param topK           返回数量
+     * @param currentChapter 当前章节号（可为空，为空时以召回记忆中最新的章节为准）
+     * @return 记忆列表（按综合得分排序）
+     */
+    List<StoryMemoryVO> searchRelatedMemories(Long userId, Long projectId, String query, int topK,
+                                              Integer currentChapter);
+
+    /**
+     * 在指定章节区间内语义检索相关记忆（由粗到细检索的最后一级）
+     * <p>区间内无结果时退回全项目检索</p>
+     *
+     * @param userId         用户ID（用于获取项目专属 VectorStore）
+     * @param projectId      项目ID
+     * @param query          查询文本
+     * @param topK           返回数量
+     * @param currentChapter 当前章节号（可为空）
+     * @param chapterRanges  章节区间列表，每项为 [起始章节号, 结束章节号]（含）
+     * @return 记忆列表（按综合得分排序）
+     */
+    List<StoryMemoryVO> searchRelatedMemories(Long userId, Long projectId, String query, int topK,
+                                              Integer currentChapter, List<int[]> chapterRanges);
+
     /**
      * 获取未完结伏笔
      *
@@ -65,6 +94,19 @@ public interface StoryMemoryService {
      */
     List<StoryMemoryVO> getCharacterStates(Long projectId, List<Long> characterIds);
 
+    /**
+     * 一次查询多个角色各自最近的 K 条记忆（走记忆-角色关联索引）
+     *
+     * @param projectId     项目ID
+     * @param characterIds  角色ID列表
+     * @param limit         每个角色返回的条数
+     * @param memoryType    记忆类型，为空时不过滤
+     * @param beforeChapter 只返回该章节之前的记忆，为空时不过滤
+     * @return 角色ID -> 记忆列表（时间线倒序）
+     */
+    Map<Long, List<StoryMemoryVO>> getLatestCharacterEvents(Long projectId, List<Long> characterIds, int limit,
+                                                            String memoryType, Integer beforeChapter);
+
     /**
      * 标记伏笔为已回收
      *
@@ -0,0 +1,54 @@
+package com.dpbug.server.service.novel;
+
+import com.dpbug.server.model.vo.novel.StoryRollupVO;
+
+import java.util.List;
+
+/**
+ * 故事层级摘要服务接口
+ *
+ * <p>将章节摘要与记忆逐级压缩为情节弧、卷摘要，生成章节时由粗到细检索（卷 → 情节弧 → 记忆），
+ * 上下文长度不随小说篇幅线性增长</p>
+ *
+ * @author dpbug
+ */
+public interface StoryRollupService {
+
+    /**
+     * 增量生成层级摘要
+     * <p>补齐已完结但缺失的情节弧/卷，并重新生成输入发生变化的情节弧（指定章节所在的情节弧）</p>
+     *
+     * @param userId        用户ID（使用其 AI 配置生成摘要）
+     * @param projectId     项目ID
+     * @param chapterNumber 触发生成的章节号
+     */
+    void refreshRollups(Long userId, Long projectId, Integer chapterNumber);
+
+    /**
+     * 由粗到细检索层级摘要
+     * <p>先选出与查询最相关的卷，再在这些卷（以及尚未归卷的情节弧）中选出最相关的情节弧</p>
+     *
+     * @param userId               用户ID
+     * @param projectId            项目ID
+     * @param query                查询文本（为空时按时间选取最近的卷与情节弧）
+     * @param currentChapterNumber 当前章节号（只检索此前已完结的摘要）
+     * @return 选中的卷与情节弧（按章节顺序，同起点时卷在前）；项目尚无摘要时返回空列表
+     */
+    List<StoryRollupVO> retrieve(Long userId, Long projectId, String query, Integer currentChapterNumber);
+
+    /**
+     * 获取故事概览：所有卷摘要 + 尚未归卷的情节弧摘要
+     *
+     * @param projectId            项目ID
+     * @param currentChapterNumber 当前章节号
+     * @return 层级摘要列表（按章节顺序）
+     */
+    List<StoryRollupVO> listOverview(Long projectId, Integer currentChapterNumber);
+
+    /**
+     * 删除项目的所有层级摘要
+     *
+     * @param projectId 项目ID
+     */
+    void deleteByProject(Long projectId);
+}
@@ -0,0 +1,38 @@
+package com.dpbug.server.service.novel;
+
+import com.dpbug.server.model.vo.novel.GenerationTaskVO;
+
+/**
+ * 向量库全量重建服务接口
+ * <p>
+ * 更换系统嵌入模型后，按新模型重新计算全部记忆向量并切换 Collection。
+ * </p>
+ *
+ * @author dpbug
+ */
+public interface VectorReindexService {
+
+    /**
+     * 发起全量重建；已有未结束的重建任务时直接返回该任务并尝试继续执行
+     *
+     * @param userId 管理员用户ID
+     * @return 任务信息
+     */
+    GenerationTaskVO startReindex(Long userId);
+
+    /**
+     * 从断点继续执行失败或中断的重建任务
+     *
+     * @param taskId 任务ID
+     * @return 任务信息
+     */
+    GenerationTaskVO resumeReindex(Long taskId);
+
+    /**
+     * 查询重建任务
+     *
+     * @param taskId 任务ID
+     * @return 任务信息
+     */
+    GenerationTaskVO getReindexTask(Long taskId);
+}
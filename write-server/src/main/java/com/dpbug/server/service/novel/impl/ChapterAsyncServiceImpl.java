@@ -5,9 +5,11 @@ import com.dpbug.server.ai.ChatClientFactory;
 import com.dpbug.server.ai.prompt.PromptTemplates;
 import com.dpbug.server.ai.prompt.WritingStyleManager;
 import com.dpbug.server.ai.prompt.model.WritingStyle;
+import com.dpbug.server.mapper.novel.ChapterContentMapper;
 import com.dpbug.server.mapper.novel.ChapterMapper;
 import com.dpbug.server.model.dto.novel.BatchGenerateRequest;
 import com.dpbug.server.model.dto.novel.ChapterGenerateRequest;
+import com.dpbug.server.model.dto.novel.ProjectStatsDelta;
 import com.dpbug.server.model.entity.novel.NovelChapter;
 import com.dpbug.server.model.entity.novel.NovelGenerationTask;
 import com.dpbug.server.model.entity.novel.NovelProject;
@@ -17,12 +19,15 @@ import com.dpbug.server.model.vo.novel.ChapterSummaryVO;
 import com.dpbug.server.model.vo.novel.CharacterVO;
 import com.dpbug.server.model.vo.novel.OutlineVO;
 import com.dpbug.server.model.vo.novel.StoryMemoryVO;
+import com.dpbug.server.model.vo.novel.StoryRollupVO;
 import com.dpbug.server.service.novel.ChapterAsyncService;
 import com.dpbug.server.service.novel.ChapterContextBuilder;
 import com.dpbug.server.service.novel.GenerationTaskService;
 import com.dpbug.server.service.novel.OutlineService;
 import com.dpbug.server.service.novel.ProjectService;
+import com.dpbug.server.service.novel.ProjectStatsService;
 import com.dpbug.server.service.novel.StoryMemoryService;
+import com.dpbug.server.service.novel.StoryRollupService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.ai.chat.client.ChatClient;
@@ -32,6 +37,8 @@ import org.springframework.stereotype.Service;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.stream.Collectors;
 
 /**
  * 章节异步服务实现类
@@ -46,13 +53,17 @@ import java.util.Map;
 public class ChapterAsyncServiceImpl implements ChapterAsyncService {
 
     private final ChapterMapper chapterMapper;
+    private final ChapterContentMapper chapterContentMapper;
     private final StoryMemoryService storyMemoryService;
+    private final StoryRollupService storyRollupService;
     private final GenerationTaskService taskService;
     private final OutlineService outlineService;
     private final ProjectService projectService;
+    private final ProjectStatsService projectStatsService;
     private final ChatClientFactory chatClientFactory;
     private final ChapterContextBuilder chapterContextBuilder;
     private final WritingStyleManager writingStyleManager;
+    private final TaskCancellationRegistry cancellationRegistry;
 
     @Override
     @Async("chapterExecutor")
@@ -67,6 +78,9 @@ public class ChapterAsyncServiceImpl implements ChapterAsyncService {
                 storyMemoryService.saveMemories(userId, projectId, memories);
                 log.info("记忆提取完成: chapterId={}, count={}", chapterId, memories.size());
             }
+
+            // 增量生成层级摘要（依赖本章记忆，放在记忆保存之后）
+            storyRollupService.refreshRollups(userId, projectId, chapterNumber);
         } catch (Exception e) {
             log.error("提取记忆失败: chapterId={}", chapterId, e);
         }
@@ -111,25 +125,40 @@ public class ChapterAsyncServiceImpl implements ChapterAsyncService {
         // 更新任务状态为运行中
         taskService.updateProgress(task.getId(), 0, "开始批量生成");
 
-        for (int i = 0; i < outlineIds.size(); i++) {
-            Long outlineId = outlineIds.get(i);
-
-            try {
-                // 更新进度
-                int progress = (i * 100) / total;
-                taskService.updateProgress(task.getId(), progress,
-                        String.format("正在生成第 %d/%d 章", i + 1, total));
+        try {
+            for (int i = 0; i < outlineIds.size(); i++) {
+                Long outlineId = outlineIds.get(i);
 
-                // 同步生成单章
-                generateChapterSync(userId, request.getProjectId(), outlineId, request);
-                completed++;
+                // 检查是否被取消（只读内存，任务表中的取消状态已由 cancelTask 写入）
+                if (cancellationRegistry.isCancelled(task.getId())) {
+                    log.info("批量生成已取消: taskId={}, completed={}/{}", task.getId(), completed, total);
+                    return;
+                }
 
-                log.info("批量生成进度: taskId={}, {}/{}", task.getId(), completed, total);
-            } catch (Exception e) {
-                failed++;
-                log.error("批量生成单章失败: outlineId={}", outlineId, e);
-                // 继续下一章，不中断整个任务
+                try {
+                    // 更新进度
+                    int progress = (i * 100) / total;
+                    taskService.updateProgress(task.getId(), progress,
+                            String.format("正在生成第 %d/%d 章", i + 1, total));
+
+                    // 同步生成单章
+                    Long chapterId = generateChapterSync(userId, request.getProjectId(), outlineId, task.getId(), request);
+                    completed++;
+                    taskService.reportChapter(task.getId(), outlineId, chapterId, true, null);
+
+                    log.info("批量生成进度: taskId={}, {}/{}", task.getId(), completed, total);
+                } catch (CancellationException e) {
+                    log.info("批量生成已取消，中断当前章节: taskId={}, outlineId={}", task.getId(), outlineId);
+                    return;
+                } catch (Exception e) {
+                    failed++;
+                    log.error("批量生成单章失败: outlineId={}", outlineId, e);
+                    taskService.reportChapter(task.getId(), outlineId, null, false, e.getMessage());
+                    // 继续下一章，不中断整个任务
+                }
             }
+        } finally {
+            cancellationRegistry.release(task.getId());
         }
 
         // 完成任务
@@ -150,8 +179,13 @@ public class ChapterAsyncServiceImpl implements ChapterAsyncService {
     /**
      * 同步生成单个章节（供批量生成调用）
      * 使用完整的 PromptTemplates 模板和上下文构建
+     *
+     * <p>AI 以流式调用并绑定到任务，任务取消时立即中断，抛出 CancellationException</p>
+     *
+     * @return 章节ID
      */
-    private void generateChapterSync(Long userId, Long projectId, Long outlineId, BatchGenerateRequest batchRequest) {
+    private Long generateChapterSync(Long userId, Long projectId, Long outlineId, Long taskId,
+                                     BatchGenerateRequest batchRequest) {
         // 获取项目信息
         NovelProject project = projectService.checkOwnership(userId, projectId);
 
@@ -181,6 +215,7 @@ public class ChapterAsyncServiceImpl implements ChapterAsyncService {
         chapter.setGenerationParams(params);
 
         chapterMapper.insert(chapter);
+        projectStatsService.apply(ProjectStatsDelta.of(projectId).chapters(1));
 
         try {
             // 构建生成请求
@@ -206,16 +241,23 @@ public class ChapterAsyncServiceImpl implements ChapterAsyncService {
                 }
             }
 
-            // 调用AI生成（同步方式）
+            // 调用AI生成（流式请求并等待完成，取消任务时可中断）
             ChatClient chatClient = chatClientFactory.createForUser(userId);
-            String content = chatClient.prompt()
-                    .user(prompt)
-                    .call()
-                    .content();
+            String content = cancellationRegistry.bind(taskId, chatClient.prompt()
+                            .user(prompt)
+                            .stream()
+                            .content())
+                    .collect(Collectors.joining())
+                    .block();
 
             // 保存内容
-            chapter.setContent(content);
-            chapter.setWordCount(content != null ? content.length() : 0);
+            if (content != null) {
+                chapterContentMapper.saveCurrent(chapter.getId(), content, NovelConstants.ContentSource.GENERATE);
+                chapterMapper.incrementContentRevision(chapter.getId());
+            }
+            int wordCount = content != null ? content.length() : 0;
+            projectStatsService.onChapterWordCount(chapter.getId(), wordCount);
+            chapter.setWordCount(wordCount);
             chapter.setGenerationStatus(NovelConstants.GenerationStatus.COMPLETED);
             chapter.setAiModel("batch-model");
             chapterMapper.updateById(chapter);
@@ -224,7 +266,7 @@ public class ChapterAsyncServiceImpl implements ChapterAsyncService {
             if (content != null && !content.isEmpty()) {
                 asyncExtractMemories(userId, projectId, chapter.getId(), chapter.getChapterNumber(), content);
             }
-
+            return chapter.getId();
         } catch (Exception e) {
             // 标记生成失败
             chapter.setGenerationStatus(NovelConstants.GenerationStatus.FAILED);
@@ -335,6 +377,16 @@ public class ChapterAsyncServiceImpl implements ChapterAsyncService {
     private String buildMemoryContextString(ChapterContextVO context) {
         StringBuilder sb = new StringBuilder();
 
+        // 故事脉络(层级摘要)
+        if (context.getStoryRollups() != null && !context.getStoryRollups().isEmpty()) {
+            sb.append("【故事脉络】\n");
+            for (StoryRollupVO r : context.getStoryRollups()) {
+                sb.append("- 第").append(r.getStartChapter()).append("-").append(r.getEndChapter()).append("章：");
+                sb.append(r.getSummary()).append("\n");
+            }
+            sb.append("\n");
+        }
+
         // 相关记忆
         if (context.getRelatedMemories() != null && !context.getRelatedMemories().isEmpty()) {
             sb.append("【语义相关记忆】\n");
@@ -345,6 +397,16 @@ public class ChapterAsyncServiceImpl implements ChapterAsyncService {
             sb.append("\n");
         }
 
+        // 角色近况
+        if (context.getCharacterStates() != null && !context.getCharacterStates().isEmpty()) {
+            sb.append("【角色近况】\n");
+            for (StoryMemoryVO m : context.getCharacterStates()) {
+                sb.append("- （第").append(m.getStoryTimeline()).append("章）");
+                sb.append(m.getTitle()).append("：").append(m.getContent()).append("\n");
+            }
+            sb.append("\n");
+        }
+
         // 未完结伏笔
         if (context.getPendingForeshadows() != null && !context.getPendingForeshadows().isEmpty()) {
             sb.append("【未完结伏笔】\n");
@@ -12,9 +12,11 @@ import com.dpbug.server.model.vo.novel.ChapterSummaryVO;
 import com.dpbug.server.model.vo.novel.CharacterVO;
 import com.dpbug.server.model.vo.novel.OutlineVO;
 import com.dpbug.server.model.vo.novel.StoryMemoryVO;
+import com.dpbug.server.model.vo.novel.StoryRollupVO;
 import com.dpbug.server.service.novel.ChapterContextBuilder;
 import com.dpbug.server.service.novel.CharacterService;
 import com.dpbug.server.service.novel.StoryMemoryService;
+import com.dpbug.server.service.novel.StoryRollupService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.BeanUtils;
@@ -22,7 +24,9 @@ import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * 章节上下文构建器实现类
@@ -37,6 +41,7 @@ public class ChapterContextBuilderImpl implements ChapterContextBuilder {
     private final ChapterMapper chapterMapper;
     private final CharacterService characterService;
     private final StoryMemoryService storyMemoryService;
+    private final StoryRollupService storyRollupService;
     private final WritingStyleManager writingStyleManager;
 
     @Override
@@ -64,15 +69,20 @@ public class ChapterContextBuilderImpl implements ChapterContextBuilder {
         BeanUtils.copyProperties(outline, outlineVO);
         context.setCurrentOutline(outlineVO);
 
-        // 5. 历史章节上下文
-        buildHistoryContext(context, project.getId(), chapterNumber);
+        // 5. 层级摘要(卷→情节弧,由粗到细检索)
+        List<StoryRollupVO> rollups = storyRollupService.retrieve(
+                userId, project.getId(), outline.getContent(), chapterNumber);
+        context.setStoryRollups(rollups);
 
-        // 6. RAG记忆上下文
+        // 6. 历史章节上下文
+        buildHistoryContext(context, project.getId(), chapterNumber, !rollups.isEmpty());
+
+        // 7. RAG记忆上下文
         if (request.getEnableMemoryRetrieval() == null || request.getEnableMemoryRetrieval()) {
-            buildMemoryContext(context, userId, project.getId(), outline.getContent());
+            buildMemoryContext(context, userId, project.getId(), outline.getContent(), chapterNumber);
         }
 
-        // 7. 写作风格
+        // 8. 写作风格
         String styleCode = request.getStyleCode();
         if (styleCode != null && !styleCode.isBlank()) {
             // 优先使用请求中指定的风格
@@ -81,7 +91,7 @@ public class ChapterContextBuilderImpl implements ChapterContextBuilder {
         }
         // 如果请求没有指定风格，暂不使用项目默认风格（因为类型不匹配，后续可扩展）
 
-        // 8. 展开规划（one-to-many模式）
+        // 9. 展开规划（one-to-many模式）
         buildExpansionPlanContext(context, outline.getId(), request.getSubIndex());
 
         return context;
@@ -153,8 +163,11 @@ public class ChapterContextBuilderImpl implements ChapterContextBuilder {
 
     /**
      * 构建历史章节上下文(智能采样策略)
+     *
+     * @param hasRollups 已有层级摘要时不再采样故事骨架
      */
-    private void buildHistoryContext(ChapterContextVO context, Long projectId, Integer currentChapterNumber) {
+    private void buildHistoryContext(ChapterContextVO context, Long projectId, Integer currentChapterNumber,
+                                     boolean hasRollups) {
         if (currentChapterNumber == null || currentChapterNumber <= 1) {
             // 第一章,无历史
             context.setRecentChapters(Collections.emptyList());
@@ -174,8 +187,8 @@ public class ChapterContextBuilderImpl implements ChapterContextBuilder {
         Collections.reverse(recentSummaries);
         context.setRecentChapters(recentSummaries);
 
-        // 2. 如果章节数超过50,构建故事骨架
-        if (currentChapterNumber > NovelConstants.ChapterConfig.SKELETON_SAMPLE_INTERVAL) {
+        // 2. 如果章节数超过50且尚无层级摘要,构建故事骨架
+        if (!hasRollups && currentChapterNumber > NovelConstants.ChapterConfig.SKELETON_SAMPLE_INTERVAL) {
             List<NovelChapter> allSummaries = chapterMapper.selectChapterSummaries(
                     projectId, currentChapterNumber);
 
@@ -193,18 +206,49 @@ public class ChapterContextBuilderImpl implements ChapterContextBuilder {
     /**
      * 构建RAG记忆上下文
      */
-    private void buildMemoryContext(ChapterContextVO context, Long userId, Long projectId, String outlineContent) {
-        // 1. 语义检索相关记忆
+    private void buildMemoryContext(ChapterContextVO context, Long userId, Long projectId, String outlineContent,
+                                    Integer currentChapterNumber) {
+        // 1. 语义检索相关记忆(有层级摘要时限定在选中的情节弧及其后的章节内)
         List<StoryMemoryVO> relatedMemories = storyMemoryService.searchRelatedMemories(
-                userId, projectId, outlineContent, NovelConstants.ChapterConfig.MEMORY_TOP_K);
+                userId, projectId, outlineContent, NovelConstants.ChapterConfig.MEMORY_TOP_K, currentChapterNumber,
+                buildMemoryRanges(context.getStoryRollups(), currentChapterNumber));
         context.setRelatedMemories(relatedMemories);
 
         // 2. 获取未完结伏笔
         List<StoryMemoryVO> foreshadows = storyMemoryService.getPendingForeshadows(projectId);
         context.setPendingForeshadows(foreshadows);
 
-        // 3. 角色状态(从记忆中提取最近的角色事件) - 待实现
-        context.setCharacterStates(Collections.emptyList());
+        // 3. 角色状态(主要角色各自最近的角色事件,按角色分组,同一记忆只保留一次)
+        List<Long> characterIds = context.getMainCharacters() == null ? Collections.emptyList()
+                : context.getMainCharacters().stream().map(CharacterVO::getId).toList();
+        Map<Long, List<StoryMemoryVO>> events = storyMemoryService.getLatestCharacterEvents(projectId, characterIds,
+                NovelConstants.ChapterConfig.CHARACTER_STATE_TOP_K, NovelConstants.MemoryType.CHARACTER_EVENT,
+                currentChapterNumber);
+        Map<Long, StoryMemoryVO> characterStates = new LinkedHashMap<>();
+        events.values().forEach(list -> list.forEach(m -> characterStates.putIfAbsent(m.getId(), m)));
+        context.setCharacterStates(new ArrayList<>(characterStates.values()));
+    }
+
+    /**
+     * 根据选中的情节弧计算记忆检索的章节区间
+     * <p>选中情节弧覆盖的章节 + 最近情节弧之后尚未归档的章节</p>
+     */
+    private List<int[]> buildMemoryRanges(List<StoryRollupVO> rollups, Integer currentChapterNumber) {
+        if (rollups == null || rollups.isEmpty() || currentChapterNumber == null) {
+            return Collections.emptyList();
+        }
+        List<int[]> ranges = new ArrayList<>();
+        int lastArcEnd = 0;
+        for (StoryRollupVO rollup : rollups) {
+            if (NovelConstants.RollupLevel.ARC.equals(rollup.getLevel())) {
+                ranges.add(new int[]{rollup.getStartChapter(), rollup.getEndChapter()});
+                lastArcEnd = Math.max(lastArcEnd, rollup.getEndChapter());
+            }
+        }
+        if (lastArcEnd + 1 <= currentChapterNumber - 1) {
+            ranges.add(new int[]{lastArcEnd + 1, currentChapterNumber - 1});
+        }
+        return ranges;
     }
 
     /**
@@ -234,11 +278,19 @@ public class ChapterContextBuilderImpl implements ChapterContextBuilder {
     @Override
     public String buildHistoryContext(Long projectId, Integer currentChapterNumber) {
         // 简化版:返回格式化的历史上下文字符串
+        List<StoryRollupVO> overview = storyRollupService.listOverview(projectId, currentChapterNumber);
         ChapterContextVO context = new ChapterContextVO();
-        buildHistoryContext(context, projectId, currentChapterNumber);
+        buildHistoryContext(context, projectId, currentChapterNumber, !overview.isEmpty());
 
         StringBuilder sb = new StringBuilder();
-        if (context.getSkeletonChapters() != null && !context.getSkeletonChapters().isEmpty()) {
+        if (!overview.isEmpty()) {
+            sb.append("【故事骨架】\n");
+            for (StoryRollupVO r : overview) {
+                sb.append("第").append(r.getStartChapter()).append("-").append(r.getEndChapter()).append("章:");
+                sb.append(r.getSummary()).append("\n");
+            }
+            sb.append("\n");
+        } else if (context.getSkeletonChapters() != null && !context.getSkeletonChapters().isEmpty()) {
             sb.append("【故事骨架】\n");
             for (ChapterSummaryVO c : context.getSkeletonChapters()) {
                 sb.append("第").append(c.getChapterNumber()).append("章:").append(c.getSummary()).append("\n");
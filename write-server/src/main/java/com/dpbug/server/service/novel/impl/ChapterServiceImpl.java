@@ -7,14 +7,18 @@ import com.dpbug.common.domain.PageResult;
 import com.dpbug.common.enums.ResultCode;
 import com.dpbug.common.exception.BusinessException;
 import com.dpbug.common.utils.Assert;
+import com.dpbug.common.utils.PageCursor;
 import com.dpbug.server.ai.ChatClientFactory;
 import com.dpbug.server.ai.prompt.PromptTemplates;
+import com.dpbug.server.config.datasource.ReadFromReplica;
+import com.dpbug.server.mapper.novel.ChapterContentMapper;
 import com.dpbug.server.mapper.novel.ChapterMapper;
 import com.dpbug.server.model.dto.novel.BatchGenerateRequest;
 import com.dpbug.server.model.dto.novel.ChapterGenerateRequest;
 import com.dpbug.server.model.dto.novel.ChapterPolishRequest;
 import com.dpbug.server.model.dto.novel.ChapterQueryRequest;
 import com.dpbug.server.model.dto.novel.ChapterUpdateRequest;
+import com.dpbug.server.model.dto.novel.ProjectStatsDelta;
 import com.dpbug.server.model.entity.novel.NovelChapter;
 import com.dpbug.server.model.entity.novel.NovelProject;
 import com.dpbug.server.model.vo.novel.ChapterContextVO;
@@ -24,12 +28,15 @@ import com.dpbug.server.model.vo.novel.ChapterVO;
 import com.dpbug.server.model.vo.novel.CharacterVO;
 import com.dpbug.server.model.vo.novel.OutlineVO;
 import com.dpbug.server.model.vo.novel.StoryMemoryVO;
+import com.dpbug.server.model.vo.novel.StoryRollupVO;
 import com.dpbug.server.service.novel.ChapterAsyncService;
 import com.dpbug.server.service.novel.ChapterContextBuilder;
 import com.dpbug.server.service.novel.ChapterService;
+import com.dpbug.server.service.novel.ChapterVersionService;
 import com.dpbug.server.service.novel.GenerationTaskService;
 import com.dpbug.server.service.novel.OutlineService;
 import com.dpbug.server.service.novel.ProjectService;
+import com.dpbug.server.service.novel.ProjectStatsService;
 import com.dpbug.server.service.novel.StoryMemoryService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -37,6 +44,7 @@ import org.springframework.ai.chat.client.ChatClient;
 import org.springframework.beans.BeanUtils;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
 import reactor.core.publisher.Flux;
 
 import java.util.HashMap;
@@ -56,7 +64,10 @@ import java.util.concurrent.atomic.AtomicReference;
 public class ChapterServiceImpl implements ChapterService {
 
     private final ChapterMapper chapterMapper;
+    private final ChapterContentMapper chapterContentMapper;
+    private final ChapterVersionService chapterVersionService;
     private final ProjectService projectService;
+    private final ProjectStatsService projectStatsService;
     private final OutlineService outlineService;
     private final StoryMemoryService storyMemoryService;
     private final GenerationTaskService taskService;
@@ -70,6 +81,11 @@ public class ChapterServiceImpl implements ChapterService {
      */
     private static final ConcurrentHashMap<String, Boolean> GENERATION_LOCKS = new ConcurrentHashMap<>();
 
+    /**
+     * 章节列表游标的排序方式标识
+     */
+    private static final String CHAPTER_CURSOR_SORT = "chapter";
+
     @Override
     public Flux<String> generateChapter(Long userId, ChapterGenerateRequest request) {
         // 获取大纲及项目信息
@@ -177,7 +193,7 @@ public class ChapterServiceImpl implements ChapterService {
                             log.error("章节生成失败，已标记章节为FAILED: chapterId={}", chapterId, error);
                         } else {
                             // 删除已创建的章节记录（因为生成失败了）
-                            chapterMapper.deleteById(chapterId);
+                            removeChapter(chapterId);
                             log.error("章节生成失败，已删除章节记录: chapterId={}", chapterId, error);
                         }
                     })
@@ -188,7 +204,7 @@ public class ChapterServiceImpl implements ChapterService {
                             updateChapterStatus(chapterId, NovelConstants.GenerationStatus.FAILED);
                             log.info("章节生成被取消，已标记章节为FAILED: chapterId={}", chapterId);
                         } else {
-                            chapterMapper.deleteById(chapterId);
+                            removeChapter(chapterId);
                             log.info("章节生成被取消，已删除章节记录: chapterId={}", chapterId);
                         }
                     });
@@ -200,7 +216,7 @@ public class ChapterServiceImpl implements ChapterService {
                     updateChapterStatus(chapter.getId(), NovelConstants.GenerationStatus.FAILED);
                     log.warn("章节生成准备阶段异常，已标记章节为FAILED: chapterId={}", chapter.getId());
                 } else {
-                    chapterMapper.deleteById(chapter.getId());
+                    removeChapter(chapter.getId());
                     log.warn("章节生成准备阶段异常，已删除章节记录: chapterId={}", chapter.getId());
                 }
             }
@@ -256,6 +272,7 @@ public class ChapterServiceImpl implements ChapterService {
         chapter.setGenerationParams(params);
 
         chapterMapper.insert(chapter);
+        projectStatsService.apply(ProjectStatsDelta.of(project.getId()).chapters(1));
         log.info("创建章节记录: chapterId={}, chapterNumber={}", chapter.getId(), chapterNumber);
         return chapter;
     }
@@ -318,6 +335,16 @@ public class ChapterServiceImpl implements ChapterService {
             sb.append("\n");
         }
 
+        // 故事脉络(层级摘要)
+        if (context.getStoryRollups() != null && !context.getStoryRollups().isEmpty()) {
+            sb.append("# 故事脉络\n");
+            for (StoryRollupVO r : context.getStoryRollups()) {
+                sb.append("- 第").append(r.getStartChapter()).append("-").append(r.getEndChapter()).append("章:");
+                sb.append(r.getSummary()).append("\n");
+            }
+            sb.append("\n");
+        }
+
         // 历史章节上下文
         if (context.getRecentChapters() != null && !context.getRecentChapters().isEmpty()) {
             sb.append("# 前情回顾\n");
@@ -338,6 +365,16 @@ public class ChapterServiceImpl implements ChapterService {
             sb.append("\n");
         }
 
+        // 角色近况
+        if (context.getCharacterStates() != null && !context.getCharacterStates().isEmpty()) {
+            sb.append("# 角色近况\n");
+            for (StoryMemoryVO m : context.getCharacterStates()) {
+                sb.append("- (第").append(m.getStoryTimeline()).append("章)");
+                sb.append(m.getTitle()).append(":").append(m.getContent()).append("\n");
+            }
+            sb.append("\n");
+        }
+
         // 未完结伏笔
         if (context.getPendingForeshadows() != null && !context.getPendingForeshadows().isEmpty()) {
             sb.append("# 待回收的伏笔\n");
@@ -420,9 +457,12 @@ public class ChapterServiceImpl implements ChapterService {
      * 保存章节内容
      */
     private void saveChapterContent(Long chapterId, String content, String aiModel) {
+        chapterContentMapper.saveCurrent(chapterId, content, NovelConstants.ContentSource.GENERATE);
+        chapterMapper.incrementContentRevision(chapterId);
+
+        projectStatsService.onChapterWordCount(chapterId, content.length());
         NovelChapter chapter = new NovelChapter();
         chapter.setId(chapterId);
-        chapter.setContent(content);
         chapter.setWordCount(content.length());
         chapter.setGenerationStatus(NovelConstants.GenerationStatus.COMPLETED);
         chapter.setAiModel(aiModel);
@@ -431,6 +471,14 @@ public class ChapterServiceImpl implements ChapterService {
         log.info("保存章节内容: chapterId={}, wordCount={}", chapterId, content.length());
     }
 
+    /**
+     * 删除章节记录（须先扣减项目统计，扣减时按章节行上的字数计算）
+     */
+    private void removeChapter(Long chapterId) {
+        projectStatsService.onChapterRemoved(chapterId);
+        chapterMapper.deleteById(chapterId);
+    }
+
     /**
      * 更新章节状态
      */
@@ -492,24 +540,18 @@ public class ChapterServiceImpl implements ChapterService {
         // 获取大纲
         OutlineVO outline = outlineService.getByIdInternal(existingChapter.getOutlineId());
 
-        // 创建新版本记录
-        NovelChapter newChapter = new NovelChapter();
-        BeanUtils.copyProperties(existingChapter, newChapter);
-        newChapter.setId(null);
-        newChapter.setContent(null);
-        newChapter.setSummary(null);
-        newChapter.setVersion(existingChapter.getVersion() + 1);
-        newChapter.setPreviousVersionId(existingChapter.getId());
-        newChapter.setGenerationStatus(NovelConstants.GenerationStatus.GENERATING);
-        newChapter.setStyleCode(request.getStyleCode() != null ? request.getStyleCode() : existingChapter.getStyleCode());
-
-        chapterMapper.insert(newChapter);
-        log.info("重新生成章节: oldChapterId={}, newChapterId={}, version={}",
-                chapterId, newChapter.getId(), newChapter.getVersion());
+        // 在原章节上生成新版本，完成后作为新版本保存，旧正文保留在版本历史中
+        String styleCode = request.getStyleCode() != null ? request.getStyleCode() : existingChapter.getStyleCode();
+        NovelChapter generating = new NovelChapter();
+        generating.setId(chapterId);
+        generating.setStyleCode(styleCode);
+        generating.setGenerationStatus(NovelConstants.GenerationStatus.GENERATING);
+        chapterMapper.updateById(generating);
+        log.info("重新生成章节: chapterId={}, currentVersion={}", chapterId, existingChapter.getVersion());
 
         // 构建上下文
         ChapterContextVO context = contextBuilder.buildContext(userId, project, outline,
-                newChapter.getChapterNumber(), request);
+                existingChapter.getChapterNumber(), request);
 
         // 构建提示词
         String systemPrompt = buildSystemPrompt(context, request);
@@ -526,16 +568,27 @@ public class ChapterServiceImpl implements ChapterService {
                 .content()
                 .doOnNext(chunk -> fullContent.updateAndGet(current -> current + chunk))
                 .doOnComplete(() -> {
-                    String modelName = chatClientFactory.getCurrentModelName(userId);
-                    saveChapterContent(newChapter.getId(), fullContent.get(), modelName);
-                    chapterAsyncService.asyncExtractMemories(userId, project.getId(), newChapter.getId(),
-                            newChapter.getChapterNumber(), fullContent.get());
-                    chapterAsyncService.asyncGenerateSummary(newChapter.getId(), fullContent.get());
+                    String content = fullContent.get();
+                    int version = chapterVersionService.saveNewVersion(chapterId, content,
+                            NovelConstants.ContentSource.REGENERATE);
+                    NovelChapter completed = new NovelChapter();
+                    completed.setId(chapterId);
+                    completed.setGenerationStatus(NovelConstants.GenerationStatus.COMPLETED);
+                    completed.setAiModel(chatClientFactory.getCurrentModelName(userId));
+                    chapterMapper.updateById(completed);
+
+                    // 旧版本提取的记忆已不再对应正文，清除后按新正文重新提取
+                    storyMemoryService.deleteByChapter(userId, project.getId(), chapterId);
+                    chapterAsyncService.asyncExtractMemories(userId, project.getId(), chapterId,
+                            existingChapter.getChapterNumber(), content);
+                    chapterAsyncService.asyncGenerateSummary(chapterId, content);
                     updateProjectStatistics(project);
+                    log.info("重新生成完成: chapterId={}, version={}", chapterId, version);
                 })
                 .doOnError(error -> {
-                    updateChapterStatus(newChapter.getId(), NovelConstants.GenerationStatus.FAILED);
-                    log.error("重新生成章节失败: chapterId={}", newChapter.getId(), error);
+                    // 原正文仍是当前版本，恢复生成前的状态
+                    updateChapterStatus(chapterId, existingChapter.getGenerationStatus());
+                    log.error("重新生成章节失败: chapterId={}", chapterId, error);
                 });
     }
 
@@ -543,6 +596,7 @@ public class ChapterServiceImpl implements ChapterService {
     public Flux<String> polishChapter(Long userId, ChapterPolishRequest request) {
         // 检查章节权限
         NovelChapter chapter = getChapterWithPermissionCheck(userId, request.getChapterId());
+        chapter.setContent(chapterContentMapper.selectCurrentContent(chapter.getId()));
 
         // 检查章节是否有内容
         Assert.isTrue(chapter.getContent() != null && !chapter.getContent().isBlank(), "章节内容为空，无法润色");
@@ -565,11 +619,8 @@ public class ChapterServiceImpl implements ChapterService {
                 .doOnComplete(() -> {
                     // 更新章节内容
                     String polishedContent = fullContent.get();
-                    NovelChapter updateChapter = new NovelChapter();
-                    updateChapter.setId(chapter.getId());
-                    updateChapter.setContent(polishedContent);
-                    updateChapter.setWordCount(polishedContent.length());
-                    chapterMapper.updateById(updateChapter);
+                    chapterVersionService.saveNewVersion(chapter.getId(), polishedContent,
+                            NovelConstants.ContentSource.POLISH);
 
                     // 异步生成新摘要
                     chapterAsyncService.asyncGenerateSummary(chapter.getId(), polishedContent);
@@ -617,6 +668,7 @@ public class ChapterServiceImpl implements ChapterService {
     @Override
     public ChapterDetailVO getDetail(Long userId, Long chapterId) {
         NovelChapter chapter = getChapterWithPermissionCheck(userId, chapterId);
+        chapter.setContent(chapterContentMapper.selectCurrentContent(chapterId));
 
         ChapterDetailVO vo = new ChapterDetailVO();
         BeanUtils.copyProperties(chapter, vo);
@@ -632,6 +684,7 @@ public class ChapterServiceImpl implements ChapterService {
     }
 
     @Override
+    @ReadFromReplica
     public PageResult<ChapterVO> list(Long userId, ChapterQueryRequest pageRequest) {
         // 检查项目权限
         projectService.checkOwnership(userId, pageRequest.getProjectId());
@@ -646,9 +699,16 @@ public class ChapterServiceImpl implements ChapterService {
                 .and(pageRequest.getKeyword() != null, w ->
                         w.like(NovelChapter::getTitle, pageRequest.getKeyword())
                                 .or()
-                                .like(NovelChapter::getContent, pageRequest.getKeyword())
-                )
-                .orderByAsc(NovelChapter::getChapterNumber, NovelChapter::getSubIndex);
+                                .apply("EXISTS (SELECT 1 FROM novel_chapter_content cc WHERE cc.chapter_id = novel_chapter.id"
+                                        + " AND cc.version = novel_chapter.version"
+                                        + " AND CONVERT(UNCOMPRESS(cc.content) USING utf8mb4) LIKE CONCAT('%', {0}, '%'))",
+                                        pageRequest.getKeyword())
+                );
+
+        if (pageRequest.isCursorMode()) {
+            return listByCursor(pageRequest, wrapper);
+        }
+        wrapper.orderByAsc(NovelChapter::getChapterNumber, NovelChapter::getSubIndex);
 
         // 分页查询
         Page<NovelChapter> page = new Page<>(pageRequest.getPageNum(), pageRequest.getPageSize());
@@ -667,54 +727,64 @@ public class ChapterServiceImpl implements ChapterService {
         );
     }
 
+    /**
+     * 游标分页：按 (chapter_number, sub_index) 键集翻页，走 uk_project_chapter 索引，不随页数变慢
+     */
+    private PageResult<ChapterVO> listByCursor(ChapterQueryRequest pageRequest,
+                                               LambdaQueryWrapper<NovelChapter> wrapper) {
+        int pageSize = pageRequest.getPageSize();
+        Long total = Boolean.TRUE.equals(pageRequest.getWithTotal()) ? chapterMapper.selectCount(wrapper) : null;
+
+        if (StringUtils.hasText(pageRequest.getCursor())) {
+            String[] values = PageCursor.decode(pageRequest.getCursor(), CHAPTER_CURSOR_SORT, 2);
+            Integer chapterNumber = PageCursor.toInteger(values[0]);
+            Integer subIndex = PageCursor.toInteger(values[1]);
+            wrapper.and(w -> w.gt(NovelChapter::getChapterNumber, chapterNumber)
+                    .or(x -> x.eq(NovelChapter::getChapterNumber, chapterNumber)
+                            .gt(NovelChapter::getSubIndex, subIndex)));
+        }
+        wrapper.orderByAsc(NovelChapter::getChapterNumber, NovelChapter::getSubIndex)
+                .last("LIMIT " + (pageSize + 1));
+
+        return PageResult.ofCursor(chapterMapper.selectList(wrapper), pageSize, total,
+                chapter -> PageCursor.encode(CHAPTER_CURSOR_SORT, chapter.getChapterNumber(),
+                        chapter.getSubIndex() != null ? chapter.getSubIndex() : 0),
+                this::convertToVO);
+    }
+
     @Override
     @Transactional(rollbackFor = Exception.class)
     public void update(Long userId, ChapterUpdateRequest request) {
         NovelChapter existingChapter = getChapterWithPermissionCheck(userId, request.getId());
 
-        // 检查是否需要创建新版本
-        if (Boolean.TRUE.equals(request.getCreateNewVersion())) {
-            // 创建新版本
-            NovelChapter newChapter = new NovelChapter();
-            BeanUtils.copyProperties(existingChapter, newChapter);
-            newChapter.setId(null);
-            newChapter.setVersion(existingChapter.getVersion() + 1);
-            newChapter.setPreviousVersionId(existingChapter.getId());
-
-            // 应用更新
-            if (request.getTitle() != null) {
-                newChapter.setTitle(request.getTitle());
-            }
-            if (request.getContent() != null) {
-                newChapter.setContent(request.getContent());
-                newChapter.setWordCount(request.getContent().length());
-            }
-            if (request.getStatus() != null) {
-                newChapter.setStatus(request.getStatus());
-            }
-
-            chapterMapper.insert(newChapter);
-            log.info("创建章节新版本: oldId={}, newId={}, version={}",
-                    existingChapter.getId(), newChapter.getId(), newChapter.getVersion());
-        } else {
-            // 直接更新
-            NovelChapter updateChapter = new NovelChapter();
-            updateChapter.setId(request.getId());
+        // 标题、状态直接更新在章节行上
+        NovelChapter updateChapter = new NovelChapter();
+        updateChapter.setId(request.getId());
+        updateChapter.setTitle(request.getTitle());
+        updateChapter.setStatus(request.getStatus());
+        if (request.getTitle() != null || request.getStatus() != null) {
+            chapterMapper.updateById(updateChapter);
+        }
 
-            if (request.getTitle() != null) {
-                updateChapter.setTitle(request.getTitle());
-            }
-            if (request.getContent() != null) {
-                updateChapter.setContent(request.getContent());
-                updateChapter.setWordCount(request.getContent().length());
-            }
-            if (request.getStatus() != null) {
-                updateChapter.setStatus(request.getStatus());
+        if (Boolean.TRUE.equals(request.getCreateNewVersion())) {
+            // 创建新版本：未修改正文时沿用当前正文
+            String content = request.getContent() != null ? request.getContent()
+                    : chapterContentMapper.selectCurrentContent(existingChapter.getId());
+            if (content != null) {
+                int version = chapterVersionService.saveNewVersion(existingChapter.getId(), content,
+                        NovelConstants.ContentSource.EDIT);
+                log.info("创建章节新版本: chapterId={}, version={}", existingChapter.getId(), version);
             }
-
-            chapterMapper.updateById(updateChapter);
-            log.info("更新章节: chapterId={}", request.getId());
+        } else if (request.getContent() != null) {
+            // 直接覆盖当前版本
+            chapterVersionService.overwriteCurrent(request.getId(), request.getContent());
+            projectStatsService.onChapterWordCount(request.getId(), request.getContent().length());
+            NovelChapter wordCount = new NovelChapter();
+            wordCount.setId(request.getId());
+            wordCount.setWordCount(request.getContent().length());
+            chapterMapper.updateById(wordCount);
         }
+        log.info("更新章节: chapterId={}", request.getId());
     }
 
     @Override
@@ -723,7 +793,7 @@ public class ChapterServiceImpl implements ChapterService {
         NovelChapter chapter = getChapterWithPermissionCheck(userId, chapterId);
 
         // 删除章节
-        chapterMapper.deleteById(chapterId);
+        removeChapter(chapterId);
 
         // 删除关联的记忆
         storyMemoryService.deleteByChapter(userId, chapter.getProjectId(), chapterId);
@@ -789,6 +859,7 @@ public class ChapterServiceImpl implements ChapterService {
     public Flux<String> denoiseChapter(Long userId, Long chapterId) {
         // 检查章节权限
         NovelChapter chapter = getChapterWithPermissionCheck(userId, chapterId);
+        chapter.setContent(chapterContentMapper.selectCurrentContent(chapterId));
 
         // 检查章节是否有内容
         Assert.isTrue(chapter.getContent() != null && !chapter.getContent().isBlank(),
@@ -813,11 +884,8 @@ public class ChapterServiceImpl implements ChapterService {
                 .doOnComplete(() -> {
                     // 更新章节内容
                     String denoisedContent = fullContent.get();
-                    NovelChapter updateChapter = new NovelChapter();
-                    updateChapter.setId(chapter.getId());
-                    updateChapter.setContent(denoisedContent);
-                    updateChapter.setWordCount(denoisedContent.length());
-                    chapterMapper.updateById(updateChapter);
+                    chapterVersionService.saveNewVersion(chapter.getId(), denoisedContent,
+                            NovelConstants.ContentSource.DENOISE);
 
                     // 异步生成新摘要
                     chapterAsyncService.asyncGenerateSummary(chapter.getId(), denoisedContent);
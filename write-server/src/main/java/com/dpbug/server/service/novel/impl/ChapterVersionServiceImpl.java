@@ -0,0 +1,317 @@
+package com.dpbug.server.service.novel.impl;
+
+import com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper;
+import com.dpbug.common.constant.NovelConstants;
+import com.dpbug.common.enums.ResultCode;
+import com.dpbug.common.exception.BusinessException;
+import com.dpbug.server.mapper.novel.ChapterContentMapper;
+import com.dpbug.server.mapper.novel.ChapterMapper;
+import com.dpbug.server.model.entity.novel.NovelChapter;
+import com.dpbug.server.model.entity.novel.NovelChapterContent;
+import com.dpbug.server.model.vo.novel.ChapterVersionDiffVO;
+import com.dpbug.server.model.vo.novel.ChapterVersionVO;
+import com.dpbug.server.service.novel.ChapterVersionService;
+import com.dpbug.server.service.novel.ProjectService;
+import com.dpbug.server.service.novel.ProjectStatsService;
+import com.dpbug.server.util.ParagraphDiff;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeSet;
+
+/**
+ * 章节版本服务实现
+ * <p>
+ * 差异为反向差异：旧版本 = 在下一版本上应用差异，因此当前版本始终是完整正文，读取当前版本无额外开销。
+ * 版本号为快照间隔整数倍的旧版本保留完整正文；差异不比全文小时（如重新生成）也保留全文。
+ *
+ * @author dpbug
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ChapterVersionServiceImpl implements ChapterVersionService {
+
+    private static final TypeReference<List<ParagraphDiff.Op>> OPS_TYPE = new TypeReference<>() {
+    };
+
+    private final ChapterMapper chapterMapper;
+    private final ChapterContentMapper chapterContentMapper;
+    private final ProjectService projectService;
+    private final ProjectStatsService projectStatsService;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * 完整快照间隔（每 N 个版本保留一个完整正文），决定重建旧版本时最多回放的差异数；小于 1 时按 1 处理（每个版本都保留全文）
+     */
+    @Value("${novel.chapter.version.snapshot-interval:10}")
+    private int snapshotInterval;
+
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public int saveNewVersion(Long chapterId, String content, String source) {
+        NovelChapter chapter = chapterMapper.selectById(chapterId);
+        if (chapter == null) {
+            throw new BusinessException(ResultCode.DATA_NOT_EXIST, "章节不存在");
+        }
+        int currentVersion = chapter.getVersion() != null ? chapter.getVersion() : 1;
+
+        NovelChapterContent currentRow = chapterContentMapper.selectCurrent(chapterId);
+        if (currentRow == null) {
+            // 尚无正文：直接作为当前版本写入
+            chapterContentMapper.saveCurrent(chapterId, content, source);
+            chapterMapper.incrementContentRevision(chapterId);
+            updateWordCount(chapterId, content.length());
+            return currentVersion;
+        }
+
+        // 乐观推进版本号，并发保存同一章节时只有一个成功（冲突时抛出异常，统计随事务回滚）
+        int nextVersion = currentVersion + 1;
+        projectStatsService.onChapterWordCount(chapterId, content.length());
+        int bumped = chapterMapper.update(null, new LambdaUpdateWrapper<NovelChapter>()
+                .eq(NovelChapter::getId, chapterId)
+                .eq(NovelChapter::getVersion, currentVersion)
+                .set(NovelChapter::getVersion, nextVersion)
+                .set(NovelChapter::getWordCount, content.length()));
+        if (bumped == 0) {
+            throw new BusinessException(ResultCode.CONFLICT, "章节版本已变化，请刷新后重试");
+        }
+        chapterMapper.incrementContentRevision(chapterId);
+
+        NovelChapterContent nextRow = new NovelChapterContent();
+        nextRow.setProjectId(chapter.getProjectId());
+        nextRow.setChapterId(chapterId);
+        nextRow.setVersion(nextVersion);
+        nextRow.setStorageType(NovelConstants.ContentStorage.FULL);
+        nextRow.setSource(source);
+        nextRow.setWordCount(content.length());
+        nextRow.setContent(content);
+        chapterContentMapper.insert(nextRow);
+
+        // 原当前版本转为相对新版本的差异（快照版本保留全文）
+        if (currentVersion % snapshotInterval() != 0) {
+            storeAsDelta(currentRow, currentRow.getContent(), ParagraphDiff.split(content), nextVersion);
+        }
+
+        log.info("保存章节新版本: chapterId={}, version={}, source={}, wordCount={}",
+                chapterId, nextVersion, source, content.length());
+        return nextVersion;
+    }
+
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public void overwriteCurrent(Long chapterId, String content) {
+        NovelChapterContent currentRow = chapterContentMapper.selectCurrent(chapterId);
+        if (currentRow != null && currentRow.getVersion() > 1) {
+            // 上一版本的差异以当前正文为基准，覆盖前先还原上一版本，再以新正文重新计算差异
+            int previousVersion = currentRow.getVersion() - 1;
+            List<NovelChapterContent> previous = chapterContentMapper.selectVersionRange(
+                    chapterId, previousVersion, previousVersion);
+            if (!previous.isEmpty()
+                    && NovelConstants.ContentStorage.DELTA.equals(previous.get(0).getStorageType())) {
+                NovelChapterContent previousRow = previous.get(0);
+                List<String> previousParagraphs = ParagraphDiff.apply(
+                        ParagraphDiff.split(currentRow.getContent()), parseOps(previousRow.getContent()));
+                storeAsDelta(previousRow, ParagraphDiff.join(previousParagraphs),
+                        ParagraphDiff.split(content), currentRow.getVersion());
+            }
+        }
+        chapterContentMapper.saveCurrent(chapterId, content, NovelConstants.ContentSource.EDIT);
+        // 版本号不变，依赖正文的派生数据（如剧情分析）按修订号判断是否过期
+        chapterMapper.incrementContentRevision(chapterId);
+    }
+
+    @Override
+    public List<ChapterVersionVO> listVersions(Long userId, Long chapterId) {
+        NovelChapter chapter = getChapterWithPermissionCheck(userId, chapterId);
+        return chapterContentMapper.selectVersions(chapterId).stream()
+                .map(row -> convertToVO(row, chapter))
+                .toList();
+    }
+
+    @Override
+    public ChapterVersionVO getVersion(Long userId, Long chapterId, Integer version) {
+        NovelChapter chapter = getChapterWithPermissionCheck(userId, chapterId);
+        Map<Integer, List<String>> paragraphs = reconstruct(chapterId, List.of(version));
+
+        NovelChapterContent meta = chapterContentMapper.selectVersions(chapterId).stream()
+                .filter(row -> version.equals(row.getVersion()))
+                .findFirst()
+                .orElseThrow(() -> new BusinessException(ResultCode.DATA_NOT_EXIST, "章节版本不存在"));
+        ChapterVersionVO vo = convertToVO(meta, chapter);
+        vo.setContent(ParagraphDiff.join(paragraphs.get(version)));
+        return vo;
+    }
+
+    @Override
+    public ChapterVersionDiffVO diff(Long userId, Long chapterId, Integer fromVersion, Integer toVersion) {
+        getChapterWithPermissionCheck(userId, chapterId);
+        Map<Integer, List<String>> paragraphs = reconstruct(chapterId, List.of(fromVersion, toVersion));
+        List<String> from = paragraphs.get(fromVersion);
+        List<String> to = paragraphs.get(toVersion);
+
+        List<ChapterVersionDiffVO.Hunk> hunks = new ArrayList<>();
+        int fromIndex = 0;
+        int toIndex = 0;
+        int added = 0;
+        int removed = 0;
+        for (ParagraphDiff.Op op : ParagraphDiff.diff(from, to)) {
+            ChapterVersionDiffVO.Hunk hunk = new ChapterVersionDiffVO.Hunk();
+            hunk.setFromIndex(fromIndex);
+            hunk.setToIndex(toIndex);
+            hunk.setCount(op.size());
+            switch (op.type()) {
+                case ParagraphDiff.EQUAL -> {
+                    hunk.setType("equal");
+                    fromIndex += op.size();
+                    toIndex += op.size();
+                }
+                case ParagraphDiff.DELETE -> {
+                    hunk.setType("delete");
+                    hunk.setParagraphs(from.subList(fromIndex, fromIndex + op.size()));
+                    fromIndex += op.size();
+                    removed += op.size();
+                }
+                default -> {
+                    hunk.setType("insert");
+                    hunk.setParagraphs(op.paragraphs());
+                    toIndex += op.size();
+                    added += op.size();
+                }
+            }
+            hunks.add(hunk);
+        }
+
+        ChapterVersionDiffVO vo = new ChapterVersionDiffVO();
+        vo.setChapterId(chapterId);
+        vo.setFromVersion(fromVersion);
+        vo.setToVersion(toVersion);
+        vo.setAddedParagraphs(added);
+        vo.setRemovedParagraphs(removed);
+        vo.setHunks(hunks);
+        return vo;
+    }
+
+    /**
+     * 重建指定版本的段落
+     * <p>
+     * 从不低于最小目标版本的最近完整版本开始，按版本号倒序逐级应用差异，
+     * 途经的其他目标版本一并取出；更高的目标版本若在该快照之上，再从其自身最近的快照重建。
+     * 只读取快照与区间内的差异记录，不需要加载中间版本的全文。
+     */
+    private Map<Integer, List<String>> reconstruct(Long chapterId, List<Integer> versions) {
+        TreeSet<Integer> pending = new TreeSet<>(versions);
+        Map<Integer, List<String>> result = new HashMap<>();
+        while (!pending.isEmpty()) {
+            int low = pending.first();
+            Integer start = low >= 1 ? chapterContentMapper.selectNearestFullVersion(chapterId, low) : null;
+            if (start == null) {
+                throw new BusinessException(ResultCode.DATA_NOT_EXIST, "章节版本不存在: " + low);
+            }
+
+            List<String> paragraphs = null;
+            int expected = start;
+            for (NovelChapterContent row : chapterContentMapper.selectVersionRange(chapterId, low, start)) {
+                if (row.getVersion() != expected) {
+                    throw new BusinessException(ResultCode.DATA_NOT_EXIST, "章节版本不存在: " + expected);
+                }
+                paragraphs = paragraphs == null || NovelConstants.ContentStorage.FULL.equals(row.getStorageType())
+                        ? ParagraphDiff.split(row.getContent())
+                        : ParagraphDiff.apply(paragraphs, parseOps(row.getContent()));
+                if (pending.remove(row.getVersion())) {
+                    result.put(row.getVersion(), paragraphs);
+                }
+                expected--;
+            }
+            if (expected != low - 1) {
+                throw new BusinessException(ResultCode.DATA_NOT_EXIST, "章节版本不存在: " + expected);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 把旧版本改存为相对基准版本的差异；差异不比原文小时保留原文
+     */
+    private void storeAsDelta(NovelChapterContent row, String content, List<String> baseParagraphs, int baseVersion) {
+        String delta = toJson(ParagraphDiff.diff(baseParagraphs, ParagraphDiff.split(content)));
+
+        NovelChapterContent update = new NovelChapterContent();
+        update.setId(row.getId());
+        if (delta.length() < content.length()) {
+            update.setStorageType(NovelConstants.ContentStorage.DELTA);
+            update.setBaseVersion(baseVersion);
+            update.setContent(delta);
+        } else {
+            update.setStorageType(NovelConstants.ContentStorage.FULL);
+            update.setContent(content);
+        }
+        chapterContentMapper.updateById(update);
+        log.debug("章节旧版本改存: chapterId={}, version={}, storageType={}, size={} -> {}",
+                row.getChapterId(), row.getVersion(), update.getStorageType(), content.length(),
+                update.getContent().length());
+    }
+
+    private String toJson(List<ParagraphDiff.Op> ops) {
+        try {
+            return objectMapper.writeValueAsString(ops);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("序列化章节差异失败", e);
+        }
+    }
+
+    private List<ParagraphDiff.Op> parseOps(String json) {
+        try {
+            return objectMapper.readValue(json, OPS_TYPE);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("解析章节差异失败", e);
+        }
+    }
+
+    private void updateWordCount(Long chapterId, int wordCount) {
+        projectStatsService.onChapterWordCount(chapterId, wordCount);
+        NovelChapter update = new NovelChapter();
+        update.setId(chapterId);
+        update.setWordCount(wordCount);
+        chapterMapper.updateById(update);
+    }
+
+    /**
+     * 获取章节并检查权限
+     */
+    private NovelChapter getChapterWithPermissionCheck(Long userId, Long chapterId) {
+        NovelChapter chapter = chapterMapper.selectById(chapterId);
+        if (chapter == null) {
+            throw new BusinessException(ResultCode.DATA_NOT_EXIST, "章节不存在");
+        }
+        projectService.checkOwnership(userId, chapter.getProjectId());
+        return chapter;
+    }
+
+    private ChapterVersionVO convertToVO(NovelChapterContent row, NovelChapter chapter) {
+        ChapterVersionVO vo = new ChapterVersionVO();
+        vo.setChapterId(row.getChapterId());
+        vo.setVersion(row.getVersion());
+        vo.setSource(row.getSource());
+        vo.setStorageType(row.getStorageType());
+        vo.setWordCount(row.getWordCount());
+        vo.setCurrent(Objects.equals(row.getVersion(), chapter.getVersion()));
+        vo.setCreateTime(row.getCreateTime());
+        return vo;
+    }
+
+    private int snapshotInterval() {
+        return Math.max(1, snapshotInterval);
+    }
+}
@@ -5,11 +5,13 @@ import com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper;
 import com.dpbug.common.enums.ResultCode;
 import com.dpbug.common.exception.BusinessException;
 import com.dpbug.server.mapper.novel.CharacterMapper;
+import com.dpbug.server.model.dto.novel.ProjectStatsDelta;
 import com.dpbug.server.model.entity.novel.NovelCharacter;
 import com.dpbug.server.model.vo.novel.CharacterStatisticsVO;
 import com.dpbug.server.model.vo.novel.CharacterVO;
 import com.dpbug.server.service.novel.CharacterService;
 import com.dpbug.server.service.novel.ProjectService;
+import com.dpbug.server.service.novel.ProjectStatsService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.BeanUtils;
@@ -30,6 +32,7 @@ public class CharacterServiceImpl implements CharacterService {
 
     private final CharacterMapper characterMapper;
     private final ProjectService projectService;
+    private final ProjectStatsService projectStatsService;
 
     @Override
     @Transactional(rollbackFor = Exception.class)
@@ -44,10 +47,11 @@ public class CharacterServiceImpl implements CharacterService {
         // 设置项目ID
         characters.forEach(character -> character.setProjectId(projectId));
 
-        // 批量插入
-        for (NovelCharacter character : characters) {
-            characterMapper.insert(character);
-        }
+        // 批量插入（JDBC 批处理，驱动改写为多行 INSERT）
+        characterMapper.insert(characters);
+        ProjectStatsDelta delta = ProjectStatsDelta.of(projectId);
+        characters.forEach(character -> delta.character(character, 1));
+        projectStatsService.apply(delta);
 
         log.info("批量创建角色成功: userId={}, projectId={}, count={}", userId, projectId, characters.size());
     }
@@ -134,6 +138,14 @@ public class CharacterServiceImpl implements CharacterService {
 
         characterMapper.updateById(character);
 
+        // 角色类型或组织标记变化时调整分类计数
+        Integer isOrganization = character.getIsOrganization() != null
+                ? character.getIsOrganization() : existing.getIsOrganization();
+        String roleType = character.getRoleType() != null ? character.getRoleType() : existing.getRoleType();
+        projectStatsService.apply(ProjectStatsDelta.of(existing.getProjectId())
+                .character(existing, -1)
+                .character(isOrganization, roleType, 1));
+
         log.info("更新角色成功: userId={}, characterId={}", userId, character.getId());
     }
 
@@ -149,6 +161,7 @@ public class CharacterServiceImpl implements CharacterService {
         projectService.checkOwnership(userId, character.getProjectId());
 
         characterMapper.deleteById(characterId);
+        projectStatsService.apply(ProjectStatsDelta.of(character.getProjectId()).character(character, -1));
 
         log.info("删除角色成功: userId={}, characterId={}", userId, characterId);
     }
@@ -163,6 +176,7 @@ public class CharacterServiceImpl implements CharacterService {
         wrapper.eq(NovelCharacter::getProjectId, projectId);
 
         characterMapper.delete(wrapper);
+        projectStatsService.recount(projectId);
 
         log.info("删除项目所有角色: userId={}, projectId={}", userId, projectId);
     }
@@ -1,12 +1,9 @@
 package com.dpbug.server.service.novel.impl;
 
-import com.dpbug.common.constant.NovelConstants;
 import com.dpbug.server.mapper.novel.ChapterMapper;
-import com.dpbug.server.mapper.novel.GenerationTaskMapper;
 import com.dpbug.server.model.dto.novel.ChapterGenerateRequest;
 import com.dpbug.server.model.dto.novel.ExpandedChaptersGenerateRequest;
 import com.dpbug.server.model.entity.novel.NovelChapter;
-import com.dpbug.server.model.entity.novel.NovelGenerationTask;
 import com.dpbug.server.service.novel.ChapterService;
 import com.dpbug.server.service.novel.GenerationTaskService;
 import lombok.RequiredArgsConstructor;
@@ -17,11 +14,13 @@ import org.springframework.stereotype.Service;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CancellationException;
 
 /**
  * 一纲多章：已展开子章节批量生成任务执行器
  *
- * <p>独立于 ChapterAsyncService，避免与 ChapterService 形成循环依赖</p>
+ * <p>独立于 ChapterAsyncService，避免与 ChapterService 形成循环依赖。
+ * 每章开始前通过 TaskCancellationRegistry 检查取消，生成中的 AI 流在取消时立即中断。</p>
  *
  * @author dpbug
  */
@@ -32,7 +31,7 @@ public class ExpandedChaptersTaskRunner {
 
     private final ChapterService chapterService;
     private final GenerationTaskService taskService;
-    private final GenerationTaskMapper taskMapper;
+    private final TaskCancellationRegistry cancellationRegistry;
     private final ChapterMapper chapterMapper;
 
     @Async("chapterExecutor")
@@ -46,6 +45,19 @@ public class ExpandedChaptersTaskRunner {
             return;
         }
 
+        try {
+            generate(userId, taskId, projectId, outlineId, chapterIds, request);
+        } finally {
+            cancellationRegistry.release(taskId);
+        }
+    }
+
+    private void generate(Long userId,
+                          Long taskId,
+                          Long projectId,
+                          Long outlineId,
+                          List<Long> chapterIds,
+                          ExpandedChaptersGenerateRequest request) {
         int total = chapterIds.size();
         int completed = 0;
         int failed = 0;
@@ -54,11 +66,7 @@ public class ExpandedChaptersTaskRunner {
 
         for (int i = 0; i < chapterIds.size(); i++) {
             // 检查是否被取消
-            NovelGenerationTask task = taskMapper.selectById(taskId);
-            if (task == null) {
-                return;
-            }
-            if (NovelConstants.TaskStatus.CANCELLED.equals(task.getStatus())) {
+            if (cancellationRegistry.isCancelled(taskId)) {
                 log.info("任务已取消，停止执行: taskId={}", taskId);
                 return;
             }
@@ -72,12 +80,14 @@ public class ExpandedChaptersTaskRunner {
                 NovelChapter chapter = chapterMapper.selectById(chapterId);
                 if (chapter == null) {
                     failed++;
+                    taskService.reportChapter(taskId, outlineId, chapterId, false, "章节不存在");
                     continue;
                 }
                 if (!outlineId.equals(chapter.getOutlineId())
                         || chapter.getSubIndex() == null
                         || chapter.getSubIndex() <= 0) {
                     failed++;
+                    taskService.reportChapter(taskId, outlineId, chapterId, false, "不是该大纲的子章节");
                     continue;
                 }
 
@@ -94,11 +104,17 @@ public class ExpandedChaptersTaskRunner {
                 generateRequest.setEnableMemoryRetrieval(request.getEnableMemoryRetrieval());
 
                 // 复用单章生成闭环：章节记录会被复用并在完成/失败时正确落库
-                chapterService.generateChapter(userId, generateRequest).then().block();
+                // 取消时中断 AI 流，未完成的章节由 generateChapter 的取消处理标记为失败
+                cancellationRegistry.bind(taskId, chapterService.generateChapter(userId, generateRequest)).then().block();
                 completed++;
+                taskService.reportChapter(taskId, outlineId, chapterId, true, null);
+            } catch (CancellationException e) {
+                log.info("任务已取消，中断生成: taskId={}, chapterId={}", taskId, chapterId);
+                return;
             } catch (Exception e) {
                 failed++;
                 log.error("生成子章节失败: taskId={}, chapterId={}", taskId, chapterId, e);
+                taskService.reportChapter(taskId, outlineId, chapterId, false, e.getMessage());
             }
         }
 
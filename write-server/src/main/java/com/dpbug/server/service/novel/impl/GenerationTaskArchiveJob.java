@@ -0,0 +1,142 @@
+package com.dpbug.server.service.novel.impl;
+
+import com.dpbug.common.constant.NovelConstants;
+import com.dpbug.server.mapper.novel.GenerationTaskMapper;
+import com.dpbug.server.util.RedisLockUtil;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 生成任务归档定时任务
+ *
+ * <p>任务表只保留进行中和最近结束的任务：结束超过 hot-retention 的任务分批复制到归档表（JSON 字段压缩）后从任务表删除，
+ * 归档超过 archive-retention 的任务被删除。每批先复制再只删除归档表中已存在的行，中途失败重复执行是安全的。
+ * 向量库重建任务不归档（启动时依赖最近一次完成的重建任务恢复向量库代数）。通过 Redis 锁保证单实例执行</p>
+ *
+ * @author dpbug
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class GenerationTaskArchiveJob {
+
+    private static final String ARCHIVE_LOCK_KEY = "generation-task:archive:lock";
+
+    private final GenerationTaskMapper taskMapper;
+    private final RedisLockUtil redisLockUtil;
+
+    @Value("${novel.task.archive.enabled:true}")
+    private boolean archiveEnabled;
+
+    /**
+     * 已结束任务在任务表中的保留时间
+     */
+    @Value("${novel.task.archive.hot-retention:30d}")
+    private Duration hotRetention;
+
+    /**
+     * 归档任务的保留时间，0 表示永久保留
+     */
+    @Value("${novel.task.archive.archive-retention:365d}")
+    private Duration archiveRetention;
+
+    @Value("${novel.task.archive.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${novel.task.archive.chunk-pause:50ms}")
+    private Duration chunkPause;
+
+    @Value("${novel.task.archive.lock-timeout:1h}")
+    private Duration lockTimeout;
+
+    /**
+     * 归档已结束的任务并清理过期归档
+     */
+    @Scheduled(cron = "${novel.task.archive.cron:0 30 3 * * ?}")
+    public void archive() {
+        if (!archiveEnabled) {
+            return;
+        }
+        if (!redisLockUtil.tryLock(ARCHIVE_LOCK_KEY, lockTimeout)) {
+            log.debug("生成任务归档已在其他实例执行，跳过");
+            return;
+        }
+
+        long start = System.currentTimeMillis();
+        long archived = 0;
+        long expired = 0;
+        try {
+            archived = archiveFinished();
+            expired = deleteExpired();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.info("生成任务归档被中断，下次执行时继续");
+        } finally {
+            redisLockUtil.unlock(ARCHIVE_LOCK_KEY);
+        }
+
+        log.info("生成任务归档完成: archived={}, expired={}, cost={}ms",
+                archived, expired, System.currentTimeMillis() - start);
+    }
+
+    private long archiveFinished() throws InterruptedException {
+        LocalDateTime before = LocalDateTime.now().minus(hotRetention);
+        long total = 0;
+        while (true) {
+            List<Long> ids = taskMapper.selectArchivableIds(before, NovelConstants.TaskType.REINDEX, chunkLimit());
+            if (ids.isEmpty()) {
+                break;
+            }
+            taskMapper.copyToArchive(ids);
+            int deleted = taskMapper.deleteArchived(ids);
+            total += deleted;
+            if (deleted == 0) {
+                // 复制没有生效（如归档表不存在），避免反复读取同一批
+                log.warn("生成任务归档未删除任何行，停止本次归档: batch={}", ids.size());
+                break;
+            }
+            if (ids.size() < chunkLimit()) {
+                break;
+            }
+            pause();
+        }
+        return total;
+    }
+
+    private long deleteExpired() throws InterruptedException {
+        if (archiveRetention.isZero() || archiveRetention.isNegative()) {
+            return 0;
+        }
+        LocalDateTime before = LocalDateTime.now().minus(archiveRetention);
+        long total = 0;
+        int affected;
+        do {
+            affected = taskMapper.deleteExpiredArchive(before, chunkLimit());
+            total += affected;
+            if (affected >= chunkLimit()) {
+                pause();
+            }
+        } while (affected >= chunkLimit());
+        return total;
+    }
+
+    /**
+     * 批次之间让出数据库
+     */
+    private void pause() throws InterruptedException {
+        if (!chunkPause.isZero()) {
+            Thread.sleep(chunkPause.toMillis());
+        }
+    }
+
+    private int chunkLimit() {
+        return Math.max(1, chunkSize);
+    }
+}
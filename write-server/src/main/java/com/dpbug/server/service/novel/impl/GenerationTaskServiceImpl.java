@@ -4,15 +4,21 @@ import com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper;
 import com.dpbug.common.constant.NovelConstants;
 import com.dpbug.common.enums.ResultCode;
 import com.dpbug.common.exception.BusinessException;
+import com.dpbug.server.config.datasource.ReadFromReplica;
 import com.dpbug.server.mapper.novel.GenerationTaskMapper;
 import com.dpbug.server.model.entity.novel.NovelGenerationTask;
 import com.dpbug.server.model.vo.novel.GenerationTaskVO;
+import com.dpbug.server.model.vo.novel.TaskEventVO;
 import com.dpbug.server.service.novel.GenerationTaskService;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.BeanUtils;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
@@ -20,6 +26,9 @@ import java.util.Map;
 /**
  * 生成任务服务实现类
  *
+ * <p>进度和章节完成事件通过 TaskEventBus 实时推送；进度写库由 TaskProgressBuffer 合并，
+ * 完成、失败、取消等状态变化立即写库并推送。</p>
+ *
  * @author dpbug
  */
 @Slf4j
@@ -27,7 +36,24 @@ import java.util.Map;
 @RequiredArgsConstructor
 public class GenerationTaskServiceImpl implements GenerationTaskService {
 
+    /**
+     * 事件所需的任务归属信息
+     */
+    private record TaskMeta(Long userId, Long projectId, String taskType) {
+    }
+
     private final GenerationTaskMapper taskMapper;
+    private final TaskProgressBuffer progressBuffer;
+    private final TaskEventBus taskEventBus;
+    private final TaskCancellationRegistry cancellationRegistry;
+
+    /**
+     * 任务ID -> 归属信息，避免每次推送进度都查询任务表
+     */
+    private final Cache<Long, TaskMeta> taskMetas = Caffeine.newBuilder()
+            .maximumSize(10000)
+            .expireAfterAccess(Duration.ofHours(1))
+            .build();
 
     @Override
     public NovelGenerationTask createTask(Long userId, Long projectId, String taskType, Map<String, Object> params) {
@@ -41,6 +67,7 @@ public class GenerationTaskServiceImpl implements GenerationTaskService {
         task.setCurrentStep("等待开始");
 
         taskMapper.insert(task);
+        taskMetas.put(task.getId(), new TaskMeta(userId, projectId, taskType));
         log.info("创建生成任务: userId={}, projectId={}, taskType={}, taskId={}",
                 userId, projectId, taskType, task.getId());
 
@@ -49,7 +76,15 @@ public class GenerationTaskServiceImpl implements GenerationTaskService {
 
     @Override
     public void updateProgress(Long taskId, Integer progress, String currentStep) {
-        taskMapper.updateProgress(taskId, progress, currentStep);
+        progressBuffer.update(taskId, progress, currentStep);
+
+        TaskEventVO event = newEvent(taskId, NovelConstants.TaskEventType.PROGRESS);
+        if (event != null) {
+            event.setStatus(NovelConstants.TaskStatus.RUNNING);
+            event.setProgress(progress);
+            event.setCurrentStep(currentStep);
+            taskEventBus.publish(event);
+        }
     }
 
     @Override
@@ -62,8 +97,21 @@ public class GenerationTaskServiceImpl implements GenerationTaskService {
         task.setResult(result);
         task.setCompletedAt(LocalDateTime.now());
 
-        taskMapper.updateById(task);
+        progressBuffer.discard(taskId);
+        if (!finish(task)) {
+            log.info("任务已取消，忽略完成结果: taskId={}", taskId);
+            return;
+        }
         log.info("任务完成: taskId={}", taskId);
+
+        TaskEventVO event = newEvent(taskId, NovelConstants.TaskEventType.COMPLETED);
+        if (event != null) {
+            event.setStatus(NovelConstants.TaskStatus.COMPLETED);
+            event.setProgress(100);
+            event.setCurrentStep(task.getCurrentStep());
+            event.setResult(result);
+            taskEventBus.publish(event);
+        }
     }
 
     @Override
@@ -75,13 +123,42 @@ public class GenerationTaskServiceImpl implements GenerationTaskService {
         task.setErrorMessage(errorMessage);
         task.setCompletedAt(LocalDateTime.now());
 
-        taskMapper.updateById(task);
+        progressBuffer.discard(taskId);
+        if (!finish(task)) {
+            log.info("任务已取消，忽略失败结果: taskId={}, error={}", taskId, errorMessage);
+            return;
+        }
         log.error("任务失败: taskId={}, error={}", taskId, errorMessage);
+
+        TaskEventVO event = newEvent(taskId, NovelConstants.TaskEventType.FAILED);
+        if (event != null) {
+            event.setStatus(NovelConstants.TaskStatus.FAILED);
+            event.setCurrentStep(task.getCurrentStep());
+            event.setErrorMessage(errorMessage);
+            taskEventBus.publish(event);
+        }
+    }
+
+    @Override
+    public void reportChapter(Long taskId, Long outlineId, Long chapterId, boolean success, String errorMessage) {
+        TaskEventVO event = newEvent(taskId, NovelConstants.TaskEventType.CHAPTER);
+        if (event != null) {
+            event.setOutlineId(outlineId);
+            event.setChapterId(chapterId);
+            event.setSuccess(success);
+            event.setErrorMessage(errorMessage);
+            taskEventBus.publish(event);
+        }
     }
 
     @Override
+    @ReadFromReplica
     public GenerationTaskVO getTask(Long userId, Long taskId) {
         NovelGenerationTask task = taskMapper.selectById(taskId);
+        if (task == null) {
+            // 结束较久的任务已移入归档表
+            task = taskMapper.selectArchivedById(taskId);
+        }
 
         if (task == null) {
             throw new BusinessException(ResultCode.DATA_NOT_EXIST, "任务不存在");
@@ -96,6 +173,7 @@ public class GenerationTaskServiceImpl implements GenerationTaskService {
     }
 
     @Override
+    @ReadFromReplica
     public List<GenerationTaskVO> getRunningTasks(Long userId) {
         List<NovelGenerationTask> tasks = taskMapper.selectRunningTasks(userId);
 
@@ -117,6 +195,11 @@ public class GenerationTaskServiceImpl implements GenerationTaskService {
             throw new BusinessException(ResultCode.FORBIDDEN, "无权操作该任务");
         }
 
+        // 项目已删除，清理中断会留下无法访问的数据
+        if (NovelConstants.TaskType.PURGE.equals(task.getTaskType())) {
+            throw new BusinessException(ResultCode.BUSINESS_ERROR, "项目清理任务不能取消");
+        }
+
         // 只能取消待执行或执行中的任务
         if (!NovelConstants.TaskStatus.PENDING.equals(task.getStatus())
                 && !NovelConstants.TaskStatus.RUNNING.equals(task.getStatus())) {
@@ -130,8 +213,75 @@ public class GenerationTaskServiceImpl implements GenerationTaskService {
                 .set(NovelGenerationTask::getCurrentStep, "已取消")
                 .set(NovelGenerationTask::getCompletedAt, LocalDateTime.now());
 
+        progressBuffer.discard(taskId);
         taskMapper.update(null, updateWrapper);
+        // 通知执行任务的实例：中断进行中的 AI 流，章节之间的检查不再需要查库
+        cancellationRegistry.cancel(taskId);
         log.info("取消任务: userId={}, taskId={}", userId, taskId);
+
+        TaskEventVO event = newEvent(task, NovelConstants.TaskEventType.CANCELLED);
+        event.setStatus(NovelConstants.TaskStatus.CANCELLED);
+        event.setProgress(task.getProgress());
+        event.setCurrentStep("已取消");
+        taskEventBus.publish(event);
+    }
+
+    @Override
+    public Flux<TaskEventVO> subscribeEvents(Long userId) {
+        // 先订阅实时事件再读取快照，读取期间发生的事件不会丢失；快照直接读主库，避免副本延迟
+        Flux<TaskEventVO> snapshot = Flux.defer(() -> Flux.fromIterable(taskMapper.selectRunningTasks(userId))
+                .map(task -> {
+                    TaskEventVO event = newEvent(task, NovelConstants.TaskEventType.SNAPSHOT);
+                    event.setStatus(task.getStatus());
+                    event.setProgress(task.getProgress());
+                    event.setCurrentStep(task.getCurrentStep());
+                    event.setTimestamp(System.currentTimeMillis());
+                    return event;
+                }));
+        return Flux.merge(taskEventBus.subscribe(userId), snapshot);
+    }
+
+    /**
+     * 创建任务事件，任务不存在时返回 null
+     */
+    private TaskEventVO newEvent(Long taskId, String type) {
+        TaskMeta meta = taskMetas.get(taskId, id -> {
+            NovelGenerationTask task = taskMapper.selectById(id);
+            return task != null ? new TaskMeta(task.getUserId(), task.getProjectId(), task.getTaskType()) : null;
+        });
+        if (meta == null) {
+            return null;
+        }
+        TaskEventVO event = new TaskEventVO();
+        event.setType(type);
+        event.setTaskId(taskId);
+        event.setUserId(meta.userId());
+        event.setProjectId(meta.projectId());
+        event.setTaskType(meta.taskType());
+        return event;
+    }
+
+    private TaskEventVO newEvent(NovelGenerationTask task, String type) {
+        TaskEventVO event = new TaskEventVO();
+        event.setType(type);
+        event.setTaskId(task.getId());
+        event.setUserId(task.getUserId());
+        event.setProjectId(task.getProjectId());
+        event.setTaskType(task.getTaskType());
+        return event;
+    }
+
+    /**
+     * 写入任务的结束状态，已取消的任务保持取消状态
+     * <p>执行实例可能错过取消通知并继续执行到结束，此时不能用完成/失败覆盖取消</p>
+     *
+     * @return 是否写入
+     */
+    private boolean finish(NovelGenerationTask task) {
+        LambdaUpdateWrapper<NovelGenerationTask> wrapper = new LambdaUpdateWrapper<>();
+        wrapper.eq(NovelGenerationTask::getId, task.getId())
+                .ne(NovelGenerationTask::getStatus, NovelConstants.TaskStatus.CANCELLED);
+        return taskMapper.update(task, wrapper) > 0;
     }
 
     /**
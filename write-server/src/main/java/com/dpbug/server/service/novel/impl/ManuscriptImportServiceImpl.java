@@ -0,0 +1,264 @@
+package com.dpbug.server.service.novel.impl;
+
+import com.baomidou.mybatisplus.core.toolkit.IdWorker;
+import com.dpbug.common.constant.NovelConstants;
+import com.dpbug.common.enums.ResultCode;
+import com.dpbug.common.exception.BusinessException;
+import com.dpbug.server.config.ManuscriptImportProperties;
+import com.dpbug.server.mapper.novel.ChapterMapper;
+import com.dpbug.server.model.dto.novel.ManuscriptImportRequest;
+import com.dpbug.server.model.entity.novel.NovelChapter;
+import com.dpbug.server.model.entity.novel.NovelChapterContent;
+import com.dpbug.server.model.entity.novel.NovelGenerationTask;
+import com.dpbug.server.model.vo.novel.ManuscriptImportVO;
+import com.dpbug.server.service.novel.GenerationTaskService;
+import com.dpbug.server.service.novel.ManuscriptImportService;
+import com.dpbug.server.service.novel.ProjectService;
+import com.dpbug.server.service.novel.ProjectStatsService;
+import com.dpbug.server.util.ManuscriptSplitter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * 书稿导入服务实现类
+ *
+ * <p>请求体先完整写入临时文件，读取上传内容期间不占用数据库连接和事务。
+ * 之后由 ManuscriptSplitter 逐行读取切分，每凑满 batch-size 章在一个短事务中插入章节和正文，
+ * 内存中最多保留一批章节；切分或写入失败时删除已写入的批次。
+ * 全部写入后由 ManuscriptImportTaskRunner 在后台提取记忆、分析剧情。</p>
+ *
+ * @author dpbug
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ManuscriptImportServiceImpl implements ManuscriptImportService {
+
+    private final ProjectService projectService;
+    private final ChapterMapper chapterMapper;
+    private final ManuscriptImportWriter importWriter;
+    private final ProjectStatsService projectStatsService;
+    private final GenerationTaskService taskService;
+    private final ManuscriptImportTaskRunner importTaskRunner;
+    private final ManuscriptImportProperties importProperties;
+
+    @Override
+    public ManuscriptImportVO importManuscript(Long userId, ManuscriptImportRequest request, InputStream in) {
+        Long projectId = request.getProjectId();
+        projectService.checkOwnership(userId, projectId);
+        Charset charset = resolveCharset(request.getCharset());
+        List<Pattern> headingPatterns = resolveHeadingPatterns(request.getHeadingPattern());
+
+        long start = System.currentTimeMillis();
+        Path spooled = spool(userId, projectId, in);
+        List<Long> importedIds = new ArrayList<>();
+        try {
+            return importSpooled(userId, request, charset, headingPatterns, spooled, importedIds, start);
+        } catch (RuntimeException e) {
+            deleteImported(projectId, importedIds);
+            throw e;
+        } finally {
+            try {
+                Files.deleteIfExists(spooled);
+            } catch (IOException e) {
+                log.warn("删除书稿临时文件失败: path={}, error={}", spooled, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 把请求体写入临时文件
+     */
+    private Path spool(Long userId, Long projectId, InputStream in) {
+        Path spooled = null;
+        try {
+            spooled = Files.createTempFile("manuscript-", ".txt");
+            Files.copy(in, spooled, StandardCopyOption.REPLACE_EXISTING);
+            return spooled;
+        } catch (IOException e) {
+            log.error("读取书稿失败: userId={}, projectId={}", userId, projectId, e);
+            if (spooled != null) {
+                try {
+                    Files.deleteIfExists(spooled);
+                } catch (IOException ignored) {
+                    // 临时目录由系统定期清理
+                }
+            }
+            throw new BusinessException(ResultCode.PARAM_ERROR, "读取书稿失败: " + e.getMessage());
+        }
+    }
+
+    private ManuscriptImportVO importSpooled(Long userId, ManuscriptImportRequest request, Charset charset,
+                                             List<Pattern> headingPatterns, Path spooled, List<Long> importedIds,
+                                             long start) {
+        Long projectId = request.getProjectId();
+        int fromChapterNumber = chapterMapper.selectMaxChapterNumber(projectId) + 1;
+        int chapterNumber = fromChapterNumber;
+        long wordCount = 0;
+        int batchSize = Math.max(1, importProperties.getBatchSize());
+        List<NovelChapter> chapters = new ArrayList<>(batchSize);
+        List<NovelChapterContent> contents = new ArrayList<>(batchSize);
+
+        try (Reader reader = new InputStreamReader(Files.newInputStream(spooled), charset)) {
+            ManuscriptSplitter splitter = new ManuscriptSplitter(reader,
+                    headingPatterns, importProperties.getMaxChapterChars());
+            ManuscriptSplitter.Chapter parsed;
+            while ((parsed = splitter.next()) != null) {
+                if (chapterNumber - fromChapterNumber >= importProperties.getMaxChapters()) {
+                    throw new BusinessException(ResultCode.PARAM_ERROR,
+                            "单次最多导入 " + importProperties.getMaxChapters() + " 章");
+                }
+                addChapter(projectId, chapterNumber++, parsed, chapters, contents);
+                wordCount += parsed.content().length();
+                if (chapters.size() >= batchSize) {
+                    flush(chapters, contents, importedIds);
+                }
+            }
+        } catch (IOException e) {
+            log.error("读取书稿失败: userId={}, projectId={}", userId, projectId, e);
+            throw new BusinessException(ResultCode.PARAM_ERROR, "读取书稿失败: " + e.getMessage());
+        } catch (IllegalStateException e) {
+            throw new BusinessException(ResultCode.PARAM_ERROR, e.getMessage());
+        }
+        flush(chapters, contents, importedIds);
+
+        int chapterCount = chapterNumber - fromChapterNumber;
+        if (chapterCount == 0) {
+            throw new BusinessException(ResultCode.PARAM_ERROR, "书稿中没有可导入的章节");
+        }
+        int toChapterNumber = chapterNumber - 1;
+        projectStatsService.recount(projectId);
+
+        Map<String, Object> params = new HashMap<>();
+        params.put("projectId", projectId);
+        params.put("fromChapterNumber", fromChapterNumber);
+        params.put("toChapterNumber", toChapterNumber);
+        params.put("analyze", Boolean.TRUE.equals(request.getAnalyze()));
+        NovelGenerationTask task = taskService.createTask(userId, projectId, NovelConstants.TaskType.IMPORT, params);
+
+        // 各批次均已提交，后台处理时章节已可见
+        Long taskId = task.getId();
+        importTaskRunner.run(taskId);
+
+        log.info("书稿导入完成: userId={}, projectId={}, chapters={}, words={}, range={}-{}, cost={}ms, taskId={}",
+                userId, projectId, chapterCount, wordCount, fromChapterNumber, toChapterNumber,
+                System.currentTimeMillis() - start, taskId);
+
+        ManuscriptImportVO vo = new ManuscriptImportVO();
+        vo.setTaskId(taskId);
+        vo.setChapterCount(chapterCount);
+        vo.setWordCount(wordCount);
+        vo.setFromChapterNumber(fromChapterNumber);
+        vo.setToChapterNumber(toChapterNumber);
+        return vo;
+    }
+
+    private void addChapter(Long projectId, int chapterNumber, ManuscriptSplitter.Chapter parsed,
+                            List<NovelChapter> chapters, List<NovelChapterContent> contents) {
+        String content = parsed.content();
+
+        NovelChapter chapter = new NovelChapter();
+        chapter.setId(IdWorker.getId());
+        chapter.setProjectId(projectId);
+        chapter.setChapterNumber(chapterNumber);
+        chapter.setSubIndex(0);
+        chapter.setTitle(parsed.title());
+        chapter.setSummary(summaryOf(content));
+        chapter.setWordCount(content.length());
+        chapter.setStatus(NovelConstants.ChapterStatus.DRAFT);
+        chapter.setGenerationStatus(NovelConstants.GenerationStatus.COMPLETED);
+        chapter.setVersion(1);
+        chapters.add(chapter);
+
+        NovelChapterContent chapterContent = new NovelChapterContent();
+        chapterContent.setProjectId(projectId);
+        chapterContent.setChapterId(chapter.getId());
+        chapterContent.setVersion(1);
+        chapterContent.setStorageType(NovelConstants.ContentStorage.FULL);
+        chapterContent.setSource(NovelConstants.ContentSource.IMPORT);
+        chapterContent.setWordCount(content.length());
+        chapterContent.setContent(content);
+        contents.add(chapterContent);
+    }
+
+    /**
+     * 在短事务中批量写入已切分的章节与正文后清空缓冲
+     */
+    private void flush(List<NovelChapter> chapters, List<NovelChapterContent> contents, List<Long> importedIds) {
+        if (chapters.isEmpty()) {
+            return;
+        }
+        importWriter.insertBatch(chapters, contents);
+        chapters.forEach(chapter -> importedIds.add(chapter.getId()));
+        chapters.clear();
+        contents.clear();
+    }
+
+    /**
+     * 导入失败时按批删除已写入的章节与正文
+     */
+    private void deleteImported(Long projectId, List<Long> importedIds) {
+        if (importedIds.isEmpty()) {
+            return;
+        }
+        int batchSize = Math.max(1, importProperties.getBatchSize());
+        try {
+            for (int i = 0; i < importedIds.size(); i += batchSize) {
+                importWriter.deleteBatch(importedIds.subList(i, Math.min(i + batchSize, importedIds.size())));
+            }
+            log.info("书稿导入失败，已删除写入的章节: projectId={}, chapters={}", projectId, importedIds.size());
+        } catch (Exception e) {
+            log.error("书稿导入失败后删除已写入的章节失败: projectId={}, chapters={}", projectId, importedIds.size(), e);
+        }
+    }
+
+    /**
+     * 与章节生成后的摘要规则一致：截取前 200 字
+     */
+    private String summaryOf(String content) {
+        if (content.length() > NovelConstants.ChapterConfig.MAX_SUMMARY_LENGTH) {
+            return content.substring(0, NovelConstants.ChapterConfig.MAX_SUMMARY_LENGTH) + "...";
+        }
+        return content;
+    }
+
+    private Charset resolveCharset(String charset) {
+        if (!StringUtils.hasText(charset)) {
+            return StandardCharsets.UTF_8;
+        }
+        try {
+            return Charset.forName(charset.trim());
+        } catch (IllegalArgumentException e) {
+            throw new BusinessException(ResultCode.PARAM_ERROR, "不支持的编码: " + charset);
+        }
+    }
+
+    private List<Pattern> resolveHeadingPatterns(String headingPattern) {
+        List<String> patterns = StringUtils.hasText(headingPattern)
+                ? List.of(headingPattern.strip())
+                : importProperties.getHeadingPatterns();
+        try {
+            return patterns.stream().map(Pattern::compile).toList();
+        } catch (PatternSyntaxException e) {
+            throw new BusinessException(ResultCode.PARAM_ERROR, "章节标题模式不是有效的正则表达式: " + e.getDescription());
+        }
+    }
+}
@@ -0,0 +1,246 @@
+package com.dpbug.server.service.novel.impl;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.dpbug.common.constant.NovelConstants;
+import com.dpbug.server.ai.UserAiRequestLimiter;
+import com.dpbug.server.config.ManuscriptImportProperties;
+import com.dpbug.server.mapper.novel.ChapterContentMapper;
+import com.dpbug.server.mapper.novel.ChapterMapper;
+import com.dpbug.server.mapper.novel.GenerationTaskMapper;
+import com.dpbug.server.model.entity.novel.NovelChapter;
+import com.dpbug.server.model.entity.novel.NovelGenerationTask;
+import com.dpbug.server.model.entity.novel.NovelStoryMemory;
+import com.dpbug.server.service.novel.GenerationTaskService;
+import com.dpbug.server.service.novel.PlotAnalysisService;
+import com.dpbug.server.service.novel.StoryMemoryService;
+import com.dpbug.server.service.novel.StoryRollupService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 书稿导入后处理任务执行器
+ *
+ * <p>按章节号分页读取导入的章节，逐章提交到 importExecutor 并行处理：</p>
+ * <ol>
+ *   <li>提取记忆并写入（分段提取的每个窗口都受用户级限流约束）</li>
+ *   <li>增量生成层级摘要（同一项目同时只有一个线程在生成，其余直接跳过）</li>
+ *   <li>按需进行剧情分析（受用户级限流约束）</li>
+ * </ol>
+ * <p>单个任务同时处理的章节数由 novel.import.parallelism 限制，每提交一章前检查任务是否已取消。
+ * 单章失败只计数，不中断任务；每章处理完推送章节事件，进度按已处理章节数更新。</p>
+ * <p>记忆提取不可重复执行，重启时中断的任务不自动继续，启动后标记为失败。</p>
+ *
+ * @author dpbug
+ */
+@Slf4j
+@Service
+public class ManuscriptImportTaskRunner {
+
+    /**
+     * 每次读取的章节数
+     */
+    private static final int PAGE_SIZE = 200;
+
+    private final ChapterMapper chapterMapper;
+    private final ChapterContentMapper chapterContentMapper;
+    private final GenerationTaskMapper taskMapper;
+    private final GenerationTaskService taskService;
+    private final TaskCancellationRegistry cancellationRegistry;
+    private final StoryMemoryService storyMemoryService;
+    private final StoryRollupService storyRollupService;
+    private final PlotAnalysisService plotAnalysisService;
+    private final UserAiRequestLimiter userAiRequestLimiter;
+    private final ManuscriptImportProperties importProperties;
+    private final Executor importExecutor;
+
+    public ManuscriptImportTaskRunner(ChapterMapper chapterMapper,
+                                      ChapterContentMapper chapterContentMapper,
+                                      GenerationTaskMapper taskMapper,
+                                      GenerationTaskService taskService,
+                                      TaskCancellationRegistry cancellationRegistry,
+                                      StoryMemoryService storyMemoryService,
+                                      StoryRollupService storyRollupService,
+                                      PlotAnalysisService plotAnalysisService,
+                                      UserAiRequestLimiter userAiRequestLimiter,
+                                      ManuscriptImportProperties importProperties,
+                                      @Qualifier("importExecutor") Executor importExecutor) {
+        this.chapterMapper = chapterMapper;
+        this.chapterContentMapper = chapterContentMapper;
+        this.taskMapper = taskMapper;
+        this.taskService = taskService;
+        this.cancellationRegistry = cancellationRegistry;
+        this.storyMemoryService = storyMemoryService;
+        this.storyRollupService = storyRollupService;
+        this.plotAnalysisService = plotAnalysisService;
+        this.userAiRequestLimiter = userAiRequestLimiter;
+        this.importProperties = importProperties;
+        this.importExecutor = importExecutor;
+    }
+
+    /**
+     * 执行导入后处理任务
+     *
+     * @param taskId 任务ID
+     */
+    @Async("chapterExecutor")
+    public void run(Long taskId) {
+        try {
+            execute(taskId);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("书稿导入后处理被中断: taskId={}", taskId);
+            taskService.failTask(taskId, "处理被中断");
+        } catch (Exception e) {
+            log.error("书稿导入后处理失败: taskId={}", taskId, e);
+            taskService.failTask(taskId, "导入后处理失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 应用启动后把未结束的导入后处理任务标记为失败
+     * <p>
+     * 任务状态停留在待执行或执行中时，用户无法判断处理是否仍在进行；已导入的章节不受影响，
+     * 可按章节重新提取记忆或分析剧情。
+     * </p>
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void failUnfinishedOnStartup() {
+        try {
+            List<NovelGenerationTask> unfinished = taskMapper.selectUnfinishedByType(NovelConstants.TaskType.IMPORT);
+            for (NovelGenerationTask task : unfinished) {
+                log.info("导入后处理任务因服务重启中断: taskId={}, projectId={}", task.getId(), task.getProjectId());
+                taskService.failTask(task.getId(), "服务重启，导入后处理已中断，已导入的章节不受影响");
+            }
+        } catch (Exception e) {
+            log.warn("检查未完成的导入后处理任务失败: {}", e.getMessage());
+        }
+    }
+
+    private void execute(Long taskId) throws InterruptedException {
+        NovelGenerationTask task = taskMapper.selectById(taskId);
+        if (task == null || !NovelConstants.TaskStatus.PENDING.equals(task.getStatus())) {
+            return;
+        }
+        Long userId = task.getUserId();
+        Long projectId = task.getProjectId();
+        Map<String, Object> params = task.getParams();
+        int fromChapterNumber = toInt(params.get("fromChapterNumber"));
+        int toChapterNumber = toInt(params.get("toChapterNumber"));
+        boolean analyze = Boolean.TRUE.equals(params.get("analyze"));
+        int total = Math.max(1, toChapterNumber - fromChapterNumber + 1);
+        int parallelism = Math.max(1, importProperties.getParallelism());
+
+        long start = System.currentTimeMillis();
+        log.info("书稿导入后处理开始: taskId={}, projectId={}, chapters={}-{}, analyze={}, parallelism={}",
+                taskId, projectId, fromChapterNumber, toChapterNumber, analyze, parallelism);
+        taskService.updateProgress(taskId, 0, String.format("正在处理导入的章节（0/%d）", total));
+
+        Semaphore inFlight = new Semaphore(parallelism);
+        AtomicInteger processed = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        AtomicInteger memoryCount = new AtomicInteger();
+        boolean cancelled = false;
+        int lastChapterNumber = fromChapterNumber - 1;
+
+        page:
+        while (true) {
+            List<NovelChapter> chapters = chapterMapper.selectList(new LambdaQueryWrapper<NovelChapter>()
+                    .select(NovelChapter::getId, NovelChapter::getChapterNumber)
+                    .eq(NovelChapter::getProjectId, projectId)
+                    .gt(NovelChapter::getChapterNumber, lastChapterNumber)
+                    .le(NovelChapter::getChapterNumber, toChapterNumber)
+                    .orderByAsc(NovelChapter::getChapterNumber)
+                    .last("LIMIT " + PAGE_SIZE));
+            if (chapters.isEmpty()) {
+                break;
+            }
+            for (NovelChapter chapter : chapters) {
+                inFlight.acquire();
+                if (cancellationRegistry.isCancelled(taskId)) {
+                    inFlight.release();
+                    cancelled = true;
+                    break page;
+                }
+                importExecutor.execute(() -> {
+                    try {
+                        memoryCount.addAndGet(processChapter(userId, projectId, chapter, analyze));
+                        taskService.reportChapter(taskId, null, chapter.getId(), true, null);
+                    } catch (Exception e) {
+                        failed.incrementAndGet();
+                        log.warn("导入章节处理失败: taskId={}, chapterId={}, error={}",
+                                taskId, chapter.getId(), e.getMessage());
+                        taskService.reportChapter(taskId, null, chapter.getId(), false, e.getMessage());
+                    } finally {
+                        int done = processed.incrementAndGet();
+                        taskService.updateProgress(taskId, Math.min(99, done * 100 / total),
+                                String.format("正在处理导入的章节（%d/%d）", done, total));
+                        inFlight.release();
+                    }
+                });
+            }
+            lastChapterNumber = chapters.get(chapters.size() - 1).getChapterNumber();
+        }
+
+        // 等待已提交的章节处理完
+        inFlight.acquire(parallelism);
+        if (cancelled) {
+            log.info("书稿导入后处理已取消: taskId={}, processed={}/{}", taskId, processed.get(), total);
+            return;
+        }
+
+        // 并行处理时部分摘要会因锁被跳过，最后再补齐一次
+        storyRollupService.refreshRollups(userId, projectId, toChapterNumber);
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("projectId", projectId);
+        result.put("processed", processed.get());
+        result.put("failed", failed.get());
+        result.put("memoryCount", memoryCount.get());
+        result.put("analyzed", analyze);
+        taskService.completeTask(taskId, result);
+        log.info("书稿导入后处理完成: taskId={}, processed={}, failed={}, memories={}, cost={}ms",
+                taskId, processed.get(), failed.get(), memoryCount.get(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * 处理单个导入章节
+     *
+     * @return 写入的记忆数
+     */
+    private int processChapter(Long userId, Long projectId, NovelChapter chapter, boolean analyze) {
+        String content = chapterContentMapper.selectCurrentContent(chapter.getId());
+        if (!StringUtils.hasText(content)) {
+            return 0;
+        }
+
+        // extractMemories 内部按窗口逐个获取用户额度，这里不能再套一层限流，否则会互相等待
+        List<NovelStoryMemory> memories = storyMemoryService.extractMemories(
+                userId, projectId, chapter.getId(), chapter.getChapterNumber(), content);
+        if (!memories.isEmpty()) {
+            storyMemoryService.saveMemories(userId, projectId, memories);
+        }
+        storyRollupService.refreshRollups(userId, projectId, chapter.getChapterNumber());
+
+        if (analyze) {
+            userAiRequestLimiter.execute(userId,
+                    () -> plotAnalysisService.analyzeChapter(userId, chapter.getId(), false));
+        }
+        return memories.size();
+    }
+
+    private int toInt(Object value) {
+        return value instanceof Number number ? number.intValue() : 0;
+    }
+}
@@ -0,0 +1,52 @@
+package com.dpbug.server.service.novel.impl;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.dpbug.server.mapper.novel.ChapterContentMapper;
+import com.dpbug.server.mapper.novel.ChapterMapper;
+import com.dpbug.server.model.entity.novel.NovelChapter;
+import com.dpbug.server.model.entity.novel.NovelChapterContent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * 书稿导入写入
+ * <p>
+ * 每批章节与正文在一个短事务中写入，导入失败时按章节ID删除已写入的批次。独立成 Bean 以便事务代理生效。
+ * </p>
+ *
+ * @author dpbug
+ */
+@Component
+@RequiredArgsConstructor
+public class ManuscriptImportWriter {
+
+    private final ChapterMapper chapterMapper;
+    private final ChapterContentMapper chapterContentMapper;
+
+    /**
+     * 写入一批章节与正文
+     *
+     * @param chapters 章节（已分配ID）
+     * @param contents 对应的正文
+     */
+    @Transactional(rollbackFor = Exception.class)
+    public void insertBatch(List<NovelChapter> chapters, List<NovelChapterContent> contents) {
+        chapterMapper.insert(chapters);
+        chapterContentMapper.insert(contents);
+    }
+
+    /**
+     * 删除一批已导入的章节与正文
+     *
+     * @param chapterIds 章节ID
+     */
+    @Transactional(rollbackFor = Exception.class)
+    public void deleteBatch(List<Long> chapterIds) {
+        chapterContentMapper.delete(new LambdaQueryWrapper<NovelChapterContent>()
+                .in(NovelChapterContent::getChapterId, chapterIds));
+        chapterMapper.deleteByIds(chapterIds);
+    }
+}
@@ -0,0 +1,124 @@
+package com.dpbug.server.service.novel.impl;
+
+import com.dpbug.server.mapper.novel.ProjectMapper;
+import com.dpbug.server.model.entity.novel.NovelProject;
+import com.dpbug.server.service.novel.MemoryVectorSyncService;
+import com.dpbug.server.util.RedisLockUtil;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * 记忆向量同步定时任务
+ *
+ * <p>功能：</p>
+ * <ul>
+ *   <li>定期领取到期的 Outbox 记录并同步到向量库（多实例通过领取令牌互斥）</li>
+ *   <li>定期对账所有项目，修复 MySQL 与向量库之间的漂移（通过 Redis 锁保证单实例执行）</li>
+ * </ul>
+ *
+ * @author dpbug
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class MemoryVectorSyncJob {
+
+    private static final String RECONCILE_LOCK_KEY = "vector:reconcile:lock";
+
+    /**
+     * 对账时每批读取的项目数
+     */
+    private static final int PROJECT_BATCH_SIZE = 100;
+
+    private final MemoryVectorSyncService memoryVectorSyncService;
+    private final ProjectMapper projectMapper;
+    private final RedisLockUtil redisLockUtil;
+
+    @Value("${novel.vector-store.outbox.enabled:true}")
+    private boolean outboxEnabled;
+
+    /**
+     * 每轮最多处理的批次数（避免单轮占用调度线程过久）
+     */
+    @Value("${novel.vector-store.outbox.max-batches-per-run:10}")
+    private int maxBatchesPerRun;
+
+    @Value("${novel.vector-store.reconcile.enabled:true}")
+    private boolean reconcileEnabled;
+
+    @Value("${novel.vector-store.reconcile.lock-timeout:2h}")
+    private Duration reconcileLockTimeout;
+
+    /**
+     * 处理到期的 Outbox 记录
+     */
+    @Scheduled(initialDelayString = "${novel.vector-store.outbox.initial-delay-ms:30000}",
+            fixedDelayString = "${novel.vector-store.outbox.poll-interval-ms:5000}")
+    public void drainOutbox() {
+        if (!outboxEnabled) {
+            return;
+        }
+        try {
+            int total = 0;
+            for (int i = 0; i < maxBatchesPerRun; i++) {
+                int processed = memoryVectorSyncService.drainPending();
+                if (processed == 0) {
+                    break;
+                }
+                total += processed;
+            }
+            if (total > 0) {
+                log.debug("Outbox 处理完成: count={}", total);
+            }
+        } catch (Exception e) {
+            log.warn("Outbox 处理失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 对账所有项目的向量数据
+     */
+    @Scheduled(cron = "${novel.vector-store.reconcile.cron:0 30 3 * * ?}")
+    public void reconcile() {
+        if (!reconcileEnabled) {
+            return;
+        }
+        if (!redisLockUtil.tryLock(RECONCILE_LOCK_KEY, reconcileLockTimeout)) {
+            log.debug("向量对账已在其他实例执行，跳过");
+            return;
+        }
+
+        long start = System.currentTimeMillis();
+        int projectCount = 0;
+        int repaired = 0;
+        try {
+            long lastId = 0L;
+            while (true) {
+                List<NovelProject> projects = projectMapper.selectIdsAfter(lastId, PROJECT_BATCH_SIZE);
+                if (projects.isEmpty()) {
+                    break;
+                }
+                for (NovelProject project : projects) {
+                    try {
+                        repaired += memoryVectorSyncService.reconcileProject(project.getUserId(), project.getId());
+                    } catch (Exception e) {
+                        log.warn("项目向量对账失败: projectId={}, error={}", project.getId(), e.getMessage());
+                    }
+                    projectCount++;
+                }
+                lastId = projects.get(projects.size() - 1).getId();
+            }
+        } finally {
+            redisLockUtil.unlock(RECONCILE_LOCK_KEY);
+        }
+
+        log.info("向量对账完成: projects={}, repaired={}, cost={}ms",
+                projectCount, repaired, System.currentTimeMillis() - start);
+    }
+}
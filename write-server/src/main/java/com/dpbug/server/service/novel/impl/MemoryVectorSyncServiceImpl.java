@@ -0,0 +1,812 @@
+package com.dpbug.server.service.novel.impl;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper;
+import com.baomidou.mybatisplus.core.toolkit.IdWorker;
+import com.dpbug.common.constant.NovelConstants;
+import com.dpbug.server.ai.ChromaVectorStoreFactory;
+import com.dpbug.server.ai.MemoryVectorDocuments;
+import com.dpbug.server.ai.RetrievalSessionManager;
+import com.dpbug.server.mapper.novel.MemoryCharacterMapper;
+import com.dpbug.server.mapper.novel.MemoryLocationMapper;
+import com.dpbug.server.mapper.novel.MemorySourceMapper;
+import com.dpbug.server.mapper.novel.MemoryVectorOutboxMapper;
+import com.dpbug.server.mapper.novel.StoryMemoryMapper;
+import com.dpbug.server.model.dto.novel.ProjectStatsDelta;
+import com.dpbug.server.model.entity.novel.NovelMemoryCharacter;
+import com.dpbug.server.model.entity.novel.NovelMemoryLocation;
+import com.dpbug.server.model.entity.novel.NovelMemorySource;
+import com.dpbug.server.model.entity.novel.NovelMemoryVectorOutbox;
+import com.dpbug.server.model.entity.novel.NovelStoryMemory;
+import com.dpbug.server.service.novel.MemoryVectorSyncService;
+import com.dpbug.server.service.novel.ProjectStatsService;
+import com.dpbug.server.util.SimHash;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.vectorstore.VectorStore;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 记忆向量同步服务实现类
+ *
+ * <p>处理规则：</p>
+ * <ul>
+ *   <li>向量ID由记忆ID确定性生成（已有 vector_id 的沿用），重复 upsert 只会覆盖，保证幂等</li>
+ *   <li>upsert 时从 MySQL 重新加载记忆，记忆已被删除则直接跳过，避免与 delete 乱序时复活向量</li>
+ *   <li>同一项目的记录按写入顺序处理，某段失败时后续记录一并延后，保证操作顺序</li>
+ *   <li>处理成功的记录直接删除；失败按指数退避重试，超过最大次数标记为 failed，由对账任务重新激活</li>
+ *   <li>写入前按 SimHash 指纹合并近期的近似重复记忆，重复项不再单独入库和向量化</li>
+ *   <li>记忆的来源章节记录在 novel_memory_source，按章节删除时仍有其他来源章节的记忆保留</li>
+ * </ul>
+ *
+ * @author dpbug
+ */
+@Slf4j
+@Service
+public class MemoryVectorSyncServiceImpl implements MemoryVectorSyncService {
+
+    /**
+     * 错误信息最大长度（与 last_error 字段长度一致）
+     */
+    private static final int MAX_ERROR_LENGTH = 500;
+
+    /**
+     * 地点名称最大长度（与 location_name 字段长度一致）
+     */
+    private static final int MAX_LOCATION_NAME_LENGTH = 100;
+
+    private final StoryMemoryMapper storyMemoryMapper;
+    private final MemoryVectorOutboxMapper outboxMapper;
+    private final MemoryCharacterMapper memoryCharacterMapper;
+    private final MemoryLocationMapper memoryLocationMapper;
+    private final MemorySourceMapper memorySourceMapper;
+    private final ChromaVectorStoreFactory chromaVectorStoreFactory;
+    private final RetrievalSessionManager retrievalSessionManager;
+    private final ProjectStatsService projectStatsService;
+    private final Executor vectorStoreExecutor;
+
+    /**
+     * 每批领取的记录数
+     */
+    @Value("${novel.vector-store.outbox.batch-size:100}")
+    private int batchSize;
+
+    /**
+     * 最大重试次数
+     */
+    @Value("${novel.vector-store.outbox.max-retries:8}")
+    private int maxRetries;
+
+    /**
+     * 首次重试延迟（之后按 2 倍递增）
+     */
+    @Value("${novel.vector-store.outbox.retry-base-delay:10s}")
+    private Duration retryBaseDelay;
+
+    /**
+     * 最大重试延迟
+     */
+    @Value("${novel.vector-store.outbox.retry-max-delay:30m}")
+    private Duration retryMaxDelay;
+
+    /**
+     * 领取租约时长（处理线程崩溃后，租约到期的记录会被重新领取）
+     */
+    @Value("${novel.vector-store.outbox.lease:5m}")
+    private Duration lease;
+
+    /**
+     * 是否在写入前合并近似重复的记忆
+     */
+    @Value("${novel.memory.dedup.enabled:true}")
+    private boolean dedupEnabled;
+
+    /**
+     * 视为重复的最大汉明距离
+     */
+    @Value("${novel.memory.dedup.max-hamming-distance:18}")
+    private int dedupMaxDistance;
+
+    /**
+     * 指纹距离在阈值内时，还要求标题+内容的字符相似度不低于该值
+     */
+    @Value("${novel.memory.dedup.min-similarity:0.45}")
+    private double dedupMinSimilarity;
+
+    /**
+     * 指纹的字符 n-gram 长度
+     */
+    @Value("${novel.memory.dedup.ngram:1}")
+    private int dedupNgram;
+
+    /**
+     * 只与最近 N 章内的记忆比较，0 表示与全部记忆比较
+     */
+    @Value("${novel.memory.dedup.lookback-chapters:30}")
+    private int dedupLookbackChapters;
+
+    /**
+     * 对账时读取 Collection 的分页大小
+     */
+    @Value("${novel.vector-store.reconcile.page-size:500}")
+    private int reconcilePageSize;
+
+    public MemoryVectorSyncServiceImpl(StoryMemoryMapper storyMemoryMapper,
+                                       MemoryVectorOutboxMapper outboxMapper,
+                                       MemoryCharacterMapper memoryCharacterMapper,
+                                       MemoryLocationMapper memoryLocationMapper,
+                                       MemorySourceMapper memorySourceMapper,
+                                       ChromaVectorStoreFactory chromaVectorStoreFactory,
+                                       RetrievalSessionManager retrievalSessionManager,
+                                       ProjectStatsService projectStatsService,
+                                       @Qualifier("vectorStoreExecutor") Executor vectorStoreExecutor) {
+        this.storyMemoryMapper = storyMemoryMapper;
+        this.outboxMapper = outboxMapper;
+        this.memoryCharacterMapper = memoryCharacterMapper;
+        this.memoryLocationMapper = memoryLocationMapper;
+        this.memorySourceMapper = memorySourceMapper;
+        this.chromaVectorStoreFactory = chromaVectorStoreFactory;
+        this.retrievalSessionManager = retrievalSessionManager;
+        this.projectStatsService = projectStatsService;
+        this.vectorStoreExecutor = vectorStoreExecutor;
+    }
+
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public List<Long> saveMemories(Long userId, Long projectId, List<NovelStoryMemory> memories) {
+        // 近期记忆的指纹，本批写入的记忆也加入其中，批内重复同样会被合并
+        List<NovelStoryMemory> fingerprints = dedupEnabled ? loadFingerprints(projectId, memories) : new ArrayList<>();
+
+        // 新记忆预分配ID，循环结束后与关联、Outbox 记录分别批量写入
+        List<NovelStoryMemory> inserts = new ArrayList<>();
+        Set<Long> pendingIds = new HashSet<>();
+        List<Map.Entry<NovelStoryMemory, NovelStoryMemory>> relationSources = new ArrayList<>();
+        Set<Long> upsertIds = new LinkedHashSet<>();
+        ProjectStatsDelta delta = ProjectStatsDelta.of(projectId);
+        Map<Long, Integer> insertedByChapter = new HashMap<>();
+        int merged = 0;
+        for (NovelStoryMemory memory : memories) {
+            memory.setSimhash(SimHash.fingerprint(dedupText(memory), dedupNgram));
+            NovelStoryMemory duplicate = dedupEnabled ? findDuplicate(fingerprints, memory) : null;
+            if (duplicate == null) {
+                memory.setId(IdWorker.getId());
+                inserts.add(memory);
+                pendingIds.add(memory.getId());
+                relationSources.add(Map.entry(memory, memory));
+                fingerprints.add(memory);
+                upsertIds.add(memory.getId());
+                delta.memory(memory, 1);
+                insertedByChapter.merge(memory.getChapterId(), 1, Integer::sum);
+                continue;
+            }
+
+            Integer foreshadowBefore = duplicate.getIsForeshadow();
+            mergeInto(duplicate, memory, !pendingIds.contains(duplicate.getId()));
+            delta.foreshadow(foreshadowBefore, duplicate.getIsForeshadow());
+            relationSources.add(Map.entry(duplicate, memory));
+            upsertIds.add(duplicate.getId());
+            merged++;
+        }
+        if (!inserts.isEmpty()) {
+            storyMemoryMapper.insert(inserts);
+        }
+        // 关联按记忆合并后的最终时间线写入
+        saveRelations(projectId, relationSources);
+        saveSources(projectId, relationSources);
+        List<Long> outboxIds = enqueueAll(upsertIds.stream()
+                .map(memoryId -> newOutbox(userId, projectId, memoryId, NovelConstants.VectorOutboxOp.UPSERT, null))
+                .toList());
+        // 章节的记忆全部来自本批写入，说明该章节此前没有记忆
+        insertedByChapter.forEach((chapterId, inserted) -> {
+            Long total = storyMemoryMapper.selectCount(new LambdaQueryWrapper<NovelStoryMemory>()
+                    .eq(NovelStoryMemory::getChapterId, chapterId));
+            if (total != null && total == inserted.longValue()) {
+                delta.coveredChapters(1);
+            }
+        });
+        projectStatsService.apply(delta);
+        if (merged > 0) {
+            log.info("近似重复记忆已合并: projectId={}, total={}, merged={}", projectId, memories.size(), merged);
+        }
+        return outboxIds;
+    }
+
+    /**
+     * 加载本批记忆所在章节之前 lookback 范围内的记忆指纹
+     */
+    private List<NovelStoryMemory> loadFingerprints(Long projectId, List<NovelStoryMemory> memories) {
+        Integer fromTimeline = null;
+        if (dedupLookbackChapters > 0) {
+            int minTimeline = memories.stream()
+                    .map(NovelStoryMemory::getStoryTimeline)
+                    .filter(Objects::nonNull)
+                    .min(Integer::compare)
+                    .orElse(0);
+            fromTimeline = Math.max(0, minTimeline - dedupLookbackChapters);
+        }
+        return new ArrayList<>(storyMemoryMapper.selectFingerprints(projectId, fromTimeline));
+    }
+
+    /**
+     * 查找同类型、指纹汉明距离在阈值内且字符相似度达标的记忆（取距离最小的一条）
+     * <p>短文本的指纹在人物、情节相近的不同事件之间也可能很接近，只凭距离合并会丢失事件</p>
+     */
+    private NovelStoryMemory findDuplicate(List<NovelStoryMemory> fingerprints, NovelStoryMemory memory) {
+        NovelStoryMemory best = null;
+        int bestDistance = Integer.MAX_VALUE;
+        for (NovelStoryMemory candidate : fingerprints) {
+            if (candidate.getSimhash() == null || !Objects.equals(candidate.getMemoryType(), memory.getMemoryType())) {
+                continue;
+            }
+            int distance = SimHash.distance(candidate.getSimhash(), memory.getSimhash());
+            if (distance <= dedupMaxDistance && distance < bestDistance
+                    && SimHash.similarity(dedupText(candidate), dedupText(memory)) >= dedupMinSimilarity) {
+                best = candidate;
+                bestDistance = distance;
+            }
+        }
+        return best;
+    }
+
+    private String dedupText(NovelStoryMemory memory) {
+        return Objects.toString(memory.getTitle(), "") + Objects.toString(memory.getContent(), "");
+    }
+
+    /**
+     * 把新记忆合并到已有记忆：保留重要性更高的内容，时间线更新为最近出现的章节
+     * <p>chapter_id 保持不变，已有记忆仍归属最初提取它的章节，新记忆的章节记录为合并来源</p>
+     *
+     * @param persisted 已有记忆是否已入库；本批待插入的记忆只修改对象，随批量插入写入
+     */
+    private void mergeInto(NovelStoryMemory existing, NovelStoryMemory incoming, boolean persisted) {
+        LambdaUpdateWrapper<NovelStoryMemory> updateWrapper = new LambdaUpdateWrapper<>();
+        updateWrapper.eq(NovelStoryMemory::getId, existing.getId());
+
+        BigDecimal existingScore = existing.getImportanceScore() == null ? BigDecimal.ZERO : existing.getImportanceScore();
+        if (incoming.getImportanceScore() != null && incoming.getImportanceScore().compareTo(existingScore) > 0) {
+            updateWrapper.set(NovelStoryMemory::getTitle, incoming.getTitle())
+                    .set(NovelStoryMemory::getContent, incoming.getContent())
+                    .set(NovelStoryMemory::getImportanceScore, incoming.getImportanceScore())
+                    .set(NovelStoryMemory::getSimhash, incoming.getSimhash());
+            existing.setTitle(incoming.getTitle());
+            existing.setContent(incoming.getContent());
+            existing.setImportanceScore(incoming.getImportanceScore());
+            existing.setSimhash(incoming.getSimhash());
+        }
+        if (incoming.getStoryTimeline() != null
+                && (existing.getStoryTimeline() == null || incoming.getStoryTimeline() > existing.getStoryTimeline())) {
+            updateWrapper.set(NovelStoryMemory::getStoryTimeline, incoming.getStoryTimeline());
+            existing.setStoryTimeline(incoming.getStoryTimeline());
+            if (persisted) {
+                memoryCharacterMapper.updateTimelineByMemory(existing.getId(), incoming.getStoryTimeline());
+                memoryLocationMapper.updateTimelineByMemory(existing.getId(), incoming.getStoryTimeline());
+            }
+        }
+        // 普通记忆与伏笔重复时保留伏笔状态
+        if (incoming.getIsForeshadow() != null && existing.getIsForeshadow() != null
+                && incoming.getIsForeshadow() > existing.getIsForeshadow()) {
+            updateWrapper.set(NovelStoryMemory::getIsForeshadow, incoming.getIsForeshadow());
+            existing.setIsForeshadow(incoming.getIsForeshadow());
+        }
+        if (persisted) {
+            updateWrapper.set(NovelStoryMemory::getUpdateTime, LocalDateTime.now());
+            storyMemoryMapper.update(null, updateWrapper);
+        }
+    }
+
+    /**
+     * 批量写入记忆的角色/地点关联（已存在的关联忽略）
+     *
+     * @param sources (关联到的记忆, 提供相关角色与地点的记忆)；合并时前者为已有记忆
+     */
+    private void saveRelations(Long projectId, List<Map.Entry<NovelStoryMemory, NovelStoryMemory>> sources) {
+        List<NovelMemoryCharacter> characterRelations = new ArrayList<>();
+        List<NovelMemoryLocation> locationRelations = new ArrayList<>();
+        for (Map.Entry<NovelStoryMemory, NovelStoryMemory> entry : sources) {
+            NovelStoryMemory target = entry.getKey();
+            NovelStoryMemory source = entry.getValue();
+            if (source.getRelatedCharacters() != null) {
+                source.getRelatedCharacters().stream()
+                        .distinct()
+                        .map(characterId -> {
+                            NovelMemoryCharacter relation = new NovelMemoryCharacter();
+                            relation.setId(IdWorker.getId());
+                            relation.setProjectId(projectId);
+                            relation.setMemoryId(target.getId());
+                            relation.setCharacterId(characterId);
+                            relation.setMemoryType(target.getMemoryType());
+                            relation.setStoryTimeline(target.getStoryTimeline());
+                            return relation;
+                        })
+                        .forEach(characterRelations::add);
+            }
+            if (source.getRelatedLocations() != null) {
+                source.getRelatedLocations().stream()
+                        .filter(name -> name != null && !name.isBlank())
+                        .map(name -> name.length() > MAX_LOCATION_NAME_LENGTH
+                                ? name.substring(0, MAX_LOCATION_NAME_LENGTH) : name)
+                        .distinct()
+                        .map(name -> {
+                            NovelMemoryLocation relation = new NovelMemoryLocation();
+                            relation.setId(IdWorker.getId());
+                            relation.setProjectId(projectId);
+                            relation.setMemoryId(target.getId());
+                            relation.setLocationName(name);
+                            relation.setMemoryType(target.getMemoryType());
+                            relation.setStoryTimeline(target.getStoryTimeline());
+                            return relation;
+                        })
+                        .forEach(locationRelations::add);
+            }
+        }
+        if (!characterRelations.isEmpty()) {
+            memoryCharacterMapper.insertIgnoreBatch(characterRelations);
+        }
+        if (!locationRelations.isEmpty()) {
+            memoryLocationMapper.insertIgnoreBatch(locationRelations);
+        }
+    }
+
+    /**
+     * 批量写入记忆的来源章节（已存在的关联忽略）
+     *
+     * @param sources (关联到的记忆, 提取出它的记忆)；合并时前者为已有记忆
+     */
+    private void saveSources(Long projectId, List<Map.Entry<NovelStoryMemory, NovelStoryMemory>> sources) {
+        List<NovelMemorySource> rows = sources.stream()
+                .filter(entry -> entry.getValue().getChapterId() != null)
+                .map(entry -> {
+                    NovelMemorySource row = new NovelMemorySource();
+                    row.setId(IdWorker.getId());
+                    row.setProjectId(projectId);
+                    row.setMemoryId(entry.getKey().getId());
+                    row.setChapterId(entry.getValue().getChapterId());
+                    return row;
+                })
+                .toList();
+        if (!rows.isEmpty()) {
+            memorySourceMapper.insertIgnoreBatch(rows);
+        }
+    }
+
+    /**
+     * 删除章节提取的记忆
+     * <p>
+     * 合并了其他章节记忆的记录不删除，归属改为最早的其他来源章节；合并时采用的内容不回退。
+     * 没有来源记录的存量记忆按 chapter_id 删除。
+     * </p>
+     */
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public List<Long> deleteByChapter(Long userId, Long projectId, Long chapterId) {
+        memorySourceMapper.delete(new LambdaQueryWrapper<NovelMemorySource>()
+                .eq(NovelMemorySource::getChapterId, chapterId));
+        List<NovelStoryMemory> owned = storyMemoryMapper.selectByChapterId(chapterId);
+        Map<Long, Long> nextOwners = new HashMap<>();
+        if (!owned.isEmpty()) {
+            // 来源记录按ID（雪花ID随写入时间递增）排序，先写入的即最早的来源章节
+            memorySourceMapper.selectList(new LambdaQueryWrapper<NovelMemorySource>()
+                            .in(NovelMemorySource::getMemoryId, owned.stream().map(NovelStoryMemory::getId).toList())
+                            .orderByAsc(NovelMemorySource::getId))
+                    .forEach(source -> nextOwners.putIfAbsent(source.getMemoryId(), source.getChapterId()));
+        }
+        List<NovelStoryMemory> removed = owned.stream()
+                .filter(memory -> !nextOwners.containsKey(memory.getId()))
+                .toList();
+        List<NovelStoryMemory> retained = owned.stream()
+                .filter(memory -> nextOwners.containsKey(memory.getId()))
+                .toList();
+        ProjectStatsDelta delta = ProjectStatsDelta.of(projectId);
+        if (!owned.isEmpty()) {
+            delta.coveredChapters(-1);
+        }
+
+        // 保留的记忆转给其他来源章节，向量元数据中的章节随之更新
+        Set<Long> newlyCovered = new HashSet<>();
+        for (NovelStoryMemory memory : retained) {
+            Long owner = nextOwners.get(memory.getId());
+            if (!newlyCovered.contains(owner) && storyMemoryMapper.selectCount(new LambdaQueryWrapper<NovelStoryMemory>()
+                    .eq(NovelStoryMemory::getChapterId, owner)) == 0) {
+                newlyCovered.add(owner);
+            }
+            storyMemoryMapper.update(null, new LambdaUpdateWrapper<NovelStoryMemory>()
+                    .eq(NovelStoryMemory::getId, memory.getId())
+                    .set(NovelStoryMemory::getChapterId, owner)
+                    .set(NovelStoryMemory::getUpdateTime, LocalDateTime.now()));
+        }
+        delta.coveredChapters(newlyCovered.size());
+        List<Long> outboxIds = new ArrayList<>(enqueueAll(retained.stream()
+                .map(memory -> newOutbox(userId, projectId, memory.getId(), NovelConstants.VectorOutboxOp.UPSERT, null))
+                .toList()));
+        if (!retained.isEmpty()) {
+            log.info("章节记忆仍有其他来源章节，已保留: chapterId={}, retained={}", chapterId, retained.size());
+        }
+
+        // vector_id 为空的记忆也可能已写入向量库（回写失败），按确定性ID一并删除
+        outboxIds.addAll(enqueueAll(removed.stream()
+                .map(memory -> newOutbox(userId, projectId, memory.getId(),
+                        NovelConstants.VectorOutboxOp.DELETE, MemoryVectorDocuments.vectorId(memory)))
+                .toList()));
+
+        if (!removed.isEmpty()) {
+            removed.forEach(memory -> delta.memory(memory, -1));
+
+            List<Long> memoryIds = removed.stream().map(NovelStoryMemory::getId).toList();
+            memoryCharacterMapper.delete(new LambdaQueryWrapper<NovelMemoryCharacter>()
+                    .in(NovelMemoryCharacter::getMemoryId, memoryIds));
+            memoryLocationMapper.delete(new LambdaQueryWrapper<NovelMemoryLocation>()
+                    .in(NovelMemoryLocation::getMemoryId, memoryIds));
+            storyMemoryMapper.deleteByIds(memoryIds);
+        }
+        projectStatsService.apply(delta);
+
+        return outboxIds;
+    }
+
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public List<Long> deleteByProject(Long userId, Long projectId) {
+        // 整个 Collection 都会被删除，项目中尚未处理的记录已无意义
+        LambdaQueryWrapper<NovelMemoryVectorOutbox> outboxWrapper = new LambdaQueryWrapper<>();
+        outboxWrapper.eq(NovelMemoryVectorOutbox::getProjectId, projectId);
+        outboxMapper.delete(outboxWrapper);
+
+        memoryCharacterMapper.delete(new LambdaQueryWrapper<NovelMemoryCharacter>()
+                .eq(NovelMemoryCharacter::getProjectId, projectId));
+        memoryLocationMapper.delete(new LambdaQueryWrapper<NovelMemoryLocation>()
+                .eq(NovelMemoryLocation::getProjectId, projectId));
+        memorySourceMapper.delete(new LambdaQueryWrapper<NovelMemorySource>()
+                .eq(NovelMemorySource::getProjectId, projectId));
+
+        LambdaQueryWrapper<NovelStoryMemory> wrapper = new LambdaQueryWrapper<>();
+        wrapper.eq(NovelStoryMemory::getProjectId, projectId);
+        storyMemoryMapper.delete(wrapper);
+        projectStatsService.recount(projectId);
+
+        return List.of(enqueueDropCollection(userId, projectId));
+    }
+
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public Long enqueueDropCollection(Long userId, Long projectId) {
+        return enqueue(userId, projectId, null, NovelConstants.VectorOutboxOp.DROP_COLLECTION, null);
+    }
+
+    @Override
+    public void syncAfterCommit(List<Long> outboxIds) {
+        if (outboxIds == null || outboxIds.isEmpty()) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // 提交回调中事务资源仍绑定在当前线程，交给向量库线程池执行
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    vectorStoreExecutor.execute(() -> syncNow(outboxIds));
+                }
+            });
+        } else {
+            syncNow(outboxIds);
+        }
+    }
+
+    @Override
+    public int drainPending() {
+        String claimToken = UUID.randomUUID().toString();
+        int claimed = outboxMapper.claimDue(claimToken, LocalDateTime.now().plus(lease), batchSize);
+        if (claimed == 0) {
+            return 0;
+        }
+        List<NovelMemoryVectorOutbox> records = outboxMapper.selectByClaimToken(claimToken);
+        process(records);
+        return records.size();
+    }
+
+    @Override
+    public int reconcileProject(Long userId, Long projectId) {
+        // 已失败的记录重新进入队列
+        int rearmed = outboxMapper.rearmFailed(projectId);
+
+        // 先读向量库再读 MySQL：能在向量库中看到的记忆必然已提交，避免误删刚写入的向量
+        Map<String, String> vectors = chromaVectorStoreFactory.listVectorMemoryIds(userId, projectId, reconcilePageSize);
+        Set<Long> unsynced = new HashSet<>(outboxMapper.selectUnsyncedMemoryIds(projectId));
+        List<NovelStoryMemory> refs = storyMemoryMapper.selectVectorRefsByProject(projectId);
+        if (refs.isEmpty() && vectors.isEmpty()) {
+            return rearmed;
+        }
+
+        int repaired = 0;
+        String modelName = chromaVectorStoreFactory.getEmbeddingModelName();
+        Map<Long, NovelStoryMemory> refById = refs.stream()
+                .collect(Collectors.toMap(NovelStoryMemory::getId, Function.identity()));
+
+        // 1. MySQL 中存在但向量缺失的记忆 -> upsert
+        for (NovelStoryMemory ref : refs) {
+            if (unsynced.contains(ref.getId())) {
+                continue;
+            }
+            String expectedVectorId = MemoryVectorDocuments.vectorId(ref);
+            if (!vectors.containsKey(expectedVectorId)) {
+                enqueue(userId, projectId, ref.getId(), NovelConstants.VectorOutboxOp.UPSERT, null);
+                repaired++;
+            } else if (ref.getVectorId() == null) {
+                // 向量已写入但回写 vector_id 失败
+                storyMemoryMapper.updateVectorInfo(ref.getId(), expectedVectorId, modelName);
+                repaired++;
+            }
+        }
+
+        // 2. 向量库中存在但 MySQL 已删除（或ID不匹配）的向量 -> delete
+        for (Map.Entry<String, String> entry : vectors.entrySet()) {
+            Long memoryId = parseMemoryId(entry.getValue());
+            if (memoryId != null && unsynced.contains(memoryId)) {
+                continue;
+            }
+            NovelStoryMemory ref = memoryId != null ? refById.get(memoryId) : null;
+            if (ref == null || !MemoryVectorDocuments.vectorId(ref).equals(entry.getKey())) {
+                enqueue(userId, projectId, memoryId, NovelConstants.VectorOutboxOp.DELETE, entry.getKey());
+                repaired++;
+            }
+        }
+
+        if (repaired > 0 || rearmed > 0) {
+            log.info("向量对账完成: projectId={}, memories={}, vectors={}, repaired={}, rearmed={}",
+                    projectId, refs.size(), vectors.size(), repaired, rearmed);
+        }
+        return repaired + rearmed;
+    }
+
+    /**
+     * 立即领取并处理指定记录，失败仅记录日志
+     *
+     * @param outboxIds Outbox ID列表
+     */
+    private void syncNow(List<Long> outboxIds) {
+        try {
+            String claimToken = UUID.randomUUID().toString();
+            int claimed = outboxMapper.claimByIds(claimToken, LocalDateTime.now().plus(lease), outboxIds);
+            if (claimed > 0) {
+                process(outboxMapper.selectByClaimToken(claimToken));
+            }
+        } catch (Exception e) {
+            log.warn("向量即时同步失败，等待后台重试: count={}, error={}", outboxIds.size(), e.getMessage());
+        }
+    }
+
+    /**
+     * 处理已领取的记录（按项目分组）
+     *
+     * @param records 已领取的记录（按ID升序）
+     */
+    private void process(List<NovelMemoryVectorOutbox> records) {
+        Map<Long, List<NovelMemoryVectorOutbox>> byProject = records.stream()
+                .collect(Collectors.groupingBy(NovelMemoryVectorOutbox::getProjectId,
+                        LinkedHashMap::new, Collectors.toList()));
+        byProject.values().forEach(this::processProject);
+    }
+
+    /**
+     * 处理单个项目的记录：相邻的同类操作合并为一段批量执行
+     *
+     * @param records 同一项目的记录（按ID升序）
+     */
+    private void processProject(List<NovelMemoryVectorOutbox> records) {
+        int start = 0;
+        while (start < records.size()) {
+            String op = records.get(start).getOp();
+            int end = start;
+            while (end < records.size() && op.equals(records.get(end).getOp())) {
+                end++;
+            }
+            List<NovelMemoryVectorOutbox> segment = records.subList(start, end);
+            try {
+                applySegment(op, segment);
+                retrievalSessionManager.invalidateResults(segment.get(0).getProjectId());
+                outboxMapper.deleteByIds(segment.stream().map(NovelMemoryVectorOutbox::getId).toList());
+            } catch (Exception e) {
+                log.warn("向量同步失败: projectId={}, op={}, count={}, error={}",
+                        segment.get(0).getProjectId(), op, segment.size(), e.getMessage());
+                LocalDateTime nextRetryAt = reschedule(segment, e.getMessage());
+                // 后续记录不计重试次数，与失败段同时重试，保持顺序
+                release(records.subList(end, records.size()), nextRetryAt);
+                return;
+            }
+            start = end;
+        }
+    }
+
+    /**
+     * 执行一段同类操作
+     *
+     * @param op      操作类型
+     * @param segment 记录列表
+     */
+    private void applySegment(String op, List<NovelMemoryVectorOutbox> segment) {
+        NovelMemoryVectorOutbox first = segment.get(0);
+        Long userId = first.getUserId();
+        Long projectId = first.getProjectId();
+
+        switch (op) {
+            case NovelConstants.VectorOutboxOp.UPSERT -> upsertVectors(userId, projectId, segment);
+            case NovelConstants.VectorOutboxOp.DELETE -> {
+                List<String> vectorIds = segment.stream()
+                        .map(NovelMemoryVectorOutbox::getVectorId)
+                        .filter(Objects::nonNull)
+                        .distinct()
+                        .toList();
+                if (!vectorIds.isEmpty()) {
+                    chromaVectorStoreFactory.getVectorStore(userId, projectId).delete(vectorIds);
+                }
+            }
+            case NovelConstants.VectorOutboxOp.DROP_COLLECTION -> {
+                if (!chromaVectorStoreFactory.deleteCollection(userId, projectId)) {
+                    throw new IllegalStateException("删除 Collection 失败: projectId=" + projectId);
+                }
+            }
+            default -> log.warn("未知的向量同步操作，已忽略: op={}, ids={}", op,
+                    segment.stream().map(NovelMemoryVectorOutbox::getId).toList());
+        }
+    }
+
+    /**
+     * 批量写入记忆向量，并回写 vector_id
+     */
+    private void upsertVectors(Long userId, Long projectId, List<NovelMemoryVectorOutbox> segment) {
+        List<Long> memoryIds = segment.stream()
+                .map(NovelMemoryVectorOutbox::getMemoryId)
+                .filter(Objects::nonNull)
+                .distinct()
+                .toList();
+        if (memoryIds.isEmpty()) {
+            return;
+        }
+        // 已被删除的记忆不会出现在结果中
+        List<NovelStoryMemory> memories = storyMemoryMapper.selectByIds(memoryIds);
+        if (memories.isEmpty()) {
+            return;
+        }
+
+        VectorStore vectorStore = chromaVectorStoreFactory.getVectorStore(userId, projectId);
+        vectorStore.add(memories.stream().map(m -> MemoryVectorDocuments.toDocument(projectId, m)).toList());
+
+        String modelName = chromaVectorStoreFactory.getEmbeddingModelName();
+        for (NovelStoryMemory memory : memories) {
+            String vectorId = MemoryVectorDocuments.vectorId(memory);
+            if (!vectorId.equals(memory.getVectorId()) || !modelName.equals(memory.getEmbeddingModel())) {
+                storyMemoryMapper.updateVectorInfo(memory.getId(), vectorId, modelName);
+            }
+        }
+        log.debug("记忆向量同步成功: projectId={}, count={}", projectId, memories.size());
+    }
+
+    /**
+     * 写入一条 Outbox 记录
+     *
+     * @return Outbox ID
+     */
+    private Long enqueue(Long userId, Long projectId, Long memoryId, String op, String vectorId) {
+        NovelMemoryVectorOutbox outbox = newOutbox(userId, projectId, memoryId, op, vectorId);
+        outboxMapper.insert(outbox);
+        return outbox.getId();
+    }
+
+    /**
+     * 批量写入 Outbox 记录（保持传入顺序）
+     *
+     * @return Outbox ID 列表
+     */
+    private List<Long> enqueueAll(List<NovelMemoryVectorOutbox> outboxes) {
+        if (outboxes.isEmpty()) {
+            return new ArrayList<>();
+        }
+        outboxMapper.insert(outboxes);
+        return outboxes.stream().map(NovelMemoryVectorOutbox::getId).collect(Collectors.toCollection(ArrayList::new));
+    }
+
+    private NovelMemoryVectorOutbox newOutbox(Long userId, Long projectId, Long memoryId, String op, String vectorId) {
+        NovelMemoryVectorOutbox outbox = new NovelMemoryVectorOutbox();
+        outbox.setUserId(userId);
+        outbox.setProjectId(projectId);
+        outbox.setMemoryId(memoryId);
+        outbox.setOp(op);
+        outbox.setVectorId(vectorId);
+        outbox.setStatus(NovelConstants.VectorOutboxStatus.PENDING);
+        outbox.setRetryCount(0);
+        outbox.setNextRetryAt(LocalDateTime.now());
+        return outbox;
+    }
+
+    /**
+     * 失败重试：累加重试次数并按指数退避计算下次处理时间
+     *
+     * @return 本次计算的下次处理时间
+     */
+    private LocalDateTime reschedule(List<NovelMemoryVectorOutbox> records, String error) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime earliest = null;
+        for (NovelMemoryVectorOutbox record : records) {
+            int retryCount = (record.getRetryCount() == null ? 0 : record.getRetryCount()) + 1;
+            LocalDateTime nextRetryAt = now.plus(backoff(retryCount));
+            boolean exhausted = retryCount >= maxRetries;
+            outboxMapper.update(null, new LambdaUpdateWrapper<NovelMemoryVectorOutbox>()
+                    .eq(NovelMemoryVectorOutbox::getId, record.getId())
+                    .set(NovelMemoryVectorOutbox::getStatus, exhausted
+                            ? NovelConstants.VectorOutboxStatus.FAILED
+                            : NovelConstants.VectorOutboxStatus.PENDING)
+                    .set(NovelMemoryVectorOutbox::getClaimToken, null)
+                    .set(NovelMemoryVectorOutbox::getRetryCount, retryCount)
+                    .set(NovelMemoryVectorOutbox::getNextRetryAt, nextRetryAt)
+                    .set(NovelMemoryVectorOutbox::getLastError, truncate(error)));
+            if (exhausted) {
+                log.error("向量同步超过最大重试次数: outboxId={}, op={}, memoryId={}",
+                        record.getId(), record.getOp(), record.getMemoryId());
+            }
+            if (earliest == null || nextRetryAt.isBefore(earliest)) {
+                earliest = nextRetryAt;
+            }
+        }
+        return earliest;
+    }
+
+    /**
+     * 释放未处理的记录（不计重试次数）
+     */
+    private void release(List<NovelMemoryVectorOutbox> records, LocalDateTime nextRetryAt) {
+        if (records.isEmpty()) {
+            return;
+        }
+        outboxMapper.update(null, new LambdaUpdateWrapper<NovelMemoryVectorOutbox>()
+                .in(NovelMemoryVectorOutbox::getId, records.stream().map(NovelMemoryVectorOutbox::getId).toList())
+                .set(NovelMemoryVectorOutbox::getStatus, NovelConstants.VectorOutboxStatus.PENDING)
+                .set(NovelMemoryVectorOutbox::getClaimToken, null)
+                .set(NovelMemoryVectorOutbox::getNextRetryAt, nextRetryAt));
+    }
+
+    /**
+     * 计算第 N 次重试的延迟
+     */
+    private Duration backoff(int retryCount) {
+        long factor = 1L << Math.min(retryCount - 1, 20);
+        Duration delay = retryBaseDelay.multipliedBy(factor);
+        return delay.compareTo(retryMaxDelay) > 0 ? retryMaxDelay : delay;
+    }
+
+    private Long parseMemoryId(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private String truncate(String error) {
+        if (error == null) {
+            return null;
+        }
+        return error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error;
+    }
+}
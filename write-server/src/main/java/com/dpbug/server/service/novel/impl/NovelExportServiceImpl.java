@@ -0,0 +1,65 @@
+package com.dpbug.server.service.novel.impl;
+
+import com.dpbug.server.mapper.novel.ChapterMapper;
+import com.dpbug.server.model.entity.novel.NovelChapter;
+import com.dpbug.server.model.entity.novel.NovelProject;
+import com.dpbug.server.service.novel.NovelExportService;
+import com.dpbug.server.service.novel.ProjectService;
+import com.dpbug.server.util.NovelExportWriter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.ibatis.cursor.Cursor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * 小说导出服务实现类
+ *
+ * <p>章节通过 MyBatis Cursor 逐行读取（MySQL 流式结果集），每读一章写出一章，
+ * 任一时刻只持有一章正文。游标依赖事务内的 SqlSession，导出期间占用一个数据库连接。</p>
+ *
+ * @author dpbug
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class NovelExportServiceImpl implements NovelExportService {
+
+    private final ProjectService projectService;
+    private final ChapterMapper chapterMapper;
+
+    @Override
+    @Transactional(readOnly = true)
+    public int export(Long userId, Long projectId, NovelExportWriter.Format format, OutputStream out) throws IOException {
+        NovelProject project = projectService.checkOwnership(userId, projectId);
+
+        long start = System.currentTimeMillis();
+        long characters = 0;
+        int chapterCount = 0;
+        NovelExportWriter writer = NovelExportWriter.create(format, out);
+        writer.begin(project.getTitle(), project.getDescription());
+        try (Cursor<NovelChapter> cursor = chapterMapper.selectExportCursor(projectId)) {
+            for (NovelChapter chapter : cursor) {
+                writer.chapter(chapterTitle(chapter), chapter.getContent());
+                characters += chapter.getContent() != null ? chapter.getContent().length() : 0;
+                chapterCount++;
+            }
+        }
+        writer.finish();
+
+        log.info("导出小说完成: userId={}, projectId={}, format={}, chapters={}, characters={}, cost={}ms",
+                userId, projectId, format, chapterCount, characters, System.currentTimeMillis() - start);
+        return chapterCount;
+    }
+
+    private String chapterTitle(NovelChapter chapter) {
+        if (StringUtils.hasText(chapter.getTitle())) {
+            return chapter.getTitle().strip();
+        }
+        return "第" + chapter.getChapterNumber() + "章";
+    }
+}
@@ -5,10 +5,12 @@ import com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper;
 import com.dpbug.common.enums.ResultCode;
 import com.dpbug.common.exception.BusinessException;
 import com.dpbug.server.mapper.novel.OutlineMapper;
+import com.dpbug.server.model.dto.novel.ProjectStatsDelta;
 import com.dpbug.server.model.entity.novel.NovelOutline;
 import com.dpbug.server.model.vo.novel.OutlineVO;
 import com.dpbug.server.service.novel.OutlineService;
 import com.dpbug.server.service.novel.ProjectService;
+import com.dpbug.server.service.novel.ProjectStatsService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.BeanUtils;
@@ -29,6 +31,7 @@ public class OutlineServiceImpl implements OutlineService {
 
     private final OutlineMapper outlineMapper;
     private final ProjectService projectService;
+    private final ProjectStatsService projectStatsService;
 
     @Override
     @Transactional(rollbackFor = Exception.class)
@@ -51,8 +54,10 @@ public class OutlineServiceImpl implements OutlineService {
             if (outline.getOrderIndex() == null) {
                 outline.setOrderIndex(maxOrderIndex + i + 1);
             }
-            outlineMapper.insert(outline);
         }
+        // 批量插入（JDBC 批处理，驱动改写为多行 INSERT）
+        outlineMapper.insert(outlines);
+        projectStatsService.apply(ProjectStatsDelta.of(projectId).outlines(outlines.size()));
 
         log.info("批量创建大纲成功: userId={}, projectId={}, count={}", userId, projectId, outlines.size());
     }
@@ -122,6 +127,7 @@ public class OutlineServiceImpl implements OutlineService {
         projectService.checkOwnership(userId, outline.getProjectId());
 
         outlineMapper.deleteById(outlineId);
+        projectStatsService.apply(ProjectStatsDelta.of(outline.getProjectId()).outlines(-1));
 
         log.info("删除大纲成功: userId={}, outlineId={}", userId, outlineId);
     }
@@ -136,6 +142,7 @@ public class OutlineServiceImpl implements OutlineService {
         wrapper.eq(NovelOutline::getProjectId, projectId);
 
         outlineMapper.delete(wrapper);
+        projectStatsService.recount(projectId);
 
         log.info("删除项目所有大纲: userId={}, projectId={}", userId, projectId);
     }
@@ -0,0 +1,56 @@
+package com.dpbug.server.service.novel.impl;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.dpbug.common.constant.NovelConstants;
+import com.dpbug.server.mapper.novel.GenerationTaskMapper;
+import com.dpbug.server.model.entity.novel.NovelGenerationTask;
+import com.dpbug.server.model.vo.novel.GenerationTaskVO;
+import com.dpbug.server.service.novel.GenerationTaskService;
+import com.dpbug.server.service.novel.PlotAnalysisBatchService;
+import com.dpbug.server.service.novel.ProjectService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 批量剧情分析服务实现类
+ *
+ * @author dpbug
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PlotAnalysisBatchServiceImpl implements PlotAnalysisBatchService {
+
+    private final ProjectService projectService;
+    private final GenerationTaskService taskService;
+    private final GenerationTaskMapper taskMapper;
+    private final PlotAnalysisTaskRunner analysisTaskRunner;
+
+    @Override
+    public GenerationTaskVO analyzeProjectAsync(Long userId, Long projectId, Boolean force) {
+        projectService.checkOwnership(userId, projectId);
+
+        NovelGenerationTask unfinished = taskMapper.selectOne(new LambdaQueryWrapper<NovelGenerationTask>()
+                .eq(NovelGenerationTask::getProjectId, projectId)
+                .eq(NovelGenerationTask::getTaskType, NovelConstants.TaskType.ANALYSIS)
+                .in(NovelGenerationTask::getStatus,
+                        NovelConstants.TaskStatus.PENDING, NovelConstants.TaskStatus.RUNNING)
+                .last("LIMIT 1"));
+        if (unfinished != null) {
+            log.info("项目已有未结束的剧情分析任务: projectId={}, taskId={}", projectId, unfinished.getId());
+            return taskService.getTask(userId, unfinished.getId());
+        }
+
+        Map<String, Object> params = new HashMap<>();
+        params.put("projectId", projectId);
+        params.put("force", Boolean.TRUE.equals(force));
+        NovelGenerationTask task = taskService.createTask(userId, projectId, NovelConstants.TaskType.ANALYSIS, params);
+
+        analysisTaskRunner.run(task.getId());
+        return taskService.getTask(userId, task.getId());
+    }
+}
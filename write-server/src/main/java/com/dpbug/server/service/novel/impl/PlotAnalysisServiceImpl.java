@@ -8,6 +8,7 @@ import com.dpbug.common.enums.ResultCode;
 import com.dpbug.common.exception.BusinessException;
 import com.dpbug.server.ai.ChatClientFactory;
 import com.dpbug.server.ai.prompt.PromptTemplates;
+import com.dpbug.server.mapper.novel.ChapterContentMapper;
 import com.dpbug.server.mapper.novel.ChapterMapper;
 import com.dpbug.server.mapper.novel.PlotAnalysisMapper;
 import com.dpbug.server.model.entity.novel.NovelChapter;
@@ -20,7 +21,6 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.ai.chat.client.ChatClient;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 
 import java.math.BigDecimal;
@@ -42,13 +42,24 @@ public class PlotAnalysisServiceImpl implements PlotAnalysisService {
 
     private final PlotAnalysisMapper plotAnalysisMapper;
     private final ChapterMapper chapterMapper;
+    private final ChapterContentMapper chapterContentMapper;
     private final ProjectService projectService;
     private final ChatClientFactory chatClientFactory;
-
+    private final PlotAnalysisStore plotAnalysisStore;
+
+    /**
+     * 分析章节
+     * <p>
+     * 分三个阶段执行，AI 调用期间不持有数据库连接：
+     * 读取阶段各查询自动提交；AI 阶段不在事务中；写入阶段由 {@link PlotAnalysisStore} 在短事务中
+     * 校验章节内容版本并按乐观锁写入。
+     * </p>
+     */
     @Override
-    @Transactional(rollbackFor = Exception.class)
     public PlotAnalysisVO analyzeChapter(Long userId, Long chapterId, Boolean force) {
         boolean normalizedForce = Boolean.TRUE.equals(force);
+
+        // 读取阶段
         NovelChapter chapter = getChapterWithPermissionCheck(userId, chapterId);
 
         NovelPlotAnalysis existing = getEntityByChapterId(chapterId);
@@ -56,7 +67,8 @@ public class PlotAnalysisServiceImpl implements PlotAnalysisService {
             return convertToVO(existing);
         }
 
-        String content = chapter.getContent();
+        int contentVersion = chapter.getContentRevision() == null ? 1 : chapter.getContentRevision();
+        String content = chapterContentMapper.selectCurrentContent(chapterId);
         if (!StringUtils.hasText(content)) {
             throw new BusinessException(ResultCode.BUSINESS_ERROR, "章节内容为空，无法分析");
         }
@@ -70,6 +82,7 @@ public class PlotAnalysisServiceImpl implements PlotAnalysisService {
                 .replace("{word_count}", String.valueOf(chapter.getWordCount() == null ? content.length() : chapter.getWordCount()))
                 .replace("{content}", truncated);
 
+        // AI 阶段
         ChatClient chatClient = chatClientFactory.createForUserWithMinTokens(userId, MIN_TOKENS_FOR_ANALYSIS);
         String response = chatClient.prompt()
                 .user(prompt)
@@ -79,14 +92,8 @@ public class PlotAnalysisServiceImpl implements PlotAnalysisService {
         JSONObject root = parseStrictJsonObject(response);
         NovelPlotAnalysis analysis = buildEntityFromJson(project.getId(), chapterId, userId, root);
 
-        if (existing != null) {
-            analysis.setId(existing.getId());
-            plotAnalysisMapper.updateById(analysis);
-            return convertToVO(plotAnalysisMapper.selectById(existing.getId()));
-        }
-
-        plotAnalysisMapper.insert(analysis);
-        return convertToVO(plotAnalysisMapper.selectById(analysis.getId()));
+        // 写入阶段
+        return convertToVO(plotAnalysisStore.save(analysis, contentVersion, existing));
     }
 
     @Override
@@ -200,6 +207,7 @@ public class PlotAnalysisServiceImpl implements PlotAnalysisService {
         vo.setAnalysisReport(entity.getAnalysisReport());
         vo.setSuggestions(entity.getSuggestions());
         vo.setAiModel(entity.getAiModel());
+        vo.setContentVersion(entity.getContentVersion());
         vo.setCreateTime(entity.getCreateTime());
         vo.setUpdateTime(entity.getUpdateTime());
         return vo;
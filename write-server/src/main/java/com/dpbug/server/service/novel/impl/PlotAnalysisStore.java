@@ -0,0 +1,94 @@
+package com.dpbug.server.service.novel.impl;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper;
+import com.dpbug.common.enums.ResultCode;
+import com.dpbug.common.exception.BusinessException;
+import com.dpbug.server.mapper.novel.ChapterMapper;
+import com.dpbug.server.mapper.novel.PlotAnalysisMapper;
+import com.dpbug.server.model.entity.novel.NovelPlotAnalysis;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Objects;
+
+/**
+ * 剧情分析写入
+ * <p>
+ * AI 调用不在事务内，分析结果由这里在短事务中写入：先对章节加共享锁确认正文修订号没有变化，
+ * 再按分析记录的 version 条件更新（或插入新记录）。独立成 Bean 以便事务代理生效。
+ * </p>
+ *
+ * @author dpbug
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PlotAnalysisStore {
+
+    private final PlotAnalysisMapper plotAnalysisMapper;
+    private final ChapterMapper chapterMapper;
+
+    /**
+     * 写入分析结果
+     * <p>
+     * 其他请求基于同一内容版本先写入时，直接返回已写入的结果；章节内容在分析期间被修改时抛出 CONFLICT。
+     * </p>
+     *
+     * @param analysis       新的分析结果（不含ID）
+     * @param contentVersion 分析所基于的章节正文修订号
+     * @param expected       读取阶段看到的分析记录，null 表示当时还没有
+     * @return 当前保存的分析
+     */
+    @Transactional(rollbackFor = Exception.class)
+    public NovelPlotAnalysis save(NovelPlotAnalysis analysis, int contentVersion, NovelPlotAnalysis expected) {
+        Long chapterId = analysis.getChapterId();
+        Integer currentVersion = chapterMapper.selectContentRevisionForShare(chapterId);
+        if (currentVersion == null) {
+            throw new BusinessException(ResultCode.DATA_NOT_EXIST, "章节不存在");
+        }
+        if (currentVersion != contentVersion) {
+            log.info("章节内容在分析期间已修改，放弃分析结果: chapterId={}, analyzed={}, current={}",
+                    chapterId, contentVersion, currentVersion);
+            throw new BusinessException(ResultCode.CONFLICT, "章节内容在分析期间已修改，请重新分析");
+        }
+        analysis.setContentVersion(contentVersion);
+
+        if (expected == null) {
+            analysis.setVersion(0);
+            try {
+                plotAnalysisMapper.insert(analysis);
+                return plotAnalysisMapper.selectById(analysis.getId());
+            } catch (DuplicateKeyException e) {
+                return resolveConflict(chapterId, contentVersion);
+            }
+        }
+
+        int expectedVersion = expected.getVersion() == null ? 0 : expected.getVersion();
+        analysis.setVersion(null);
+        int updated = plotAnalysisMapper.update(analysis, new LambdaUpdateWrapper<NovelPlotAnalysis>()
+                .eq(NovelPlotAnalysis::getId, expected.getId())
+                .eq(NovelPlotAnalysis::getVersion, expectedVersion)
+                .set(NovelPlotAnalysis::getVersion, expectedVersion + 1));
+        if (updated == 0) {
+            return resolveConflict(chapterId, contentVersion);
+        }
+        return plotAnalysisMapper.selectById(expected.getId());
+    }
+
+    /**
+     * 其他请求已先写入：基于同一内容版本的结果直接沿用
+     */
+    private NovelPlotAnalysis resolveConflict(Long chapterId, int contentVersion) {
+        NovelPlotAnalysis current = plotAnalysisMapper.selectOne(new LambdaQueryWrapper<NovelPlotAnalysis>()
+                .eq(NovelPlotAnalysis::getChapterId, chapterId));
+        if (current != null && Objects.equals(current.getContentVersion(), contentVersion)) {
+            log.info("章节分析已由其他请求写入，沿用已有结果: chapterId={}, contentVersion={}", chapterId, contentVersion);
+            return current;
+        }
+        throw new BusinessException(ResultCode.CONFLICT, "该章节的分析已被其他请求更新，请刷新后重试");
+    }
+}
@@ -0,0 +1,220 @@
+package com.dpbug.server.service.novel.impl;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.dpbug.common.constant.NovelConstants;
+import com.dpbug.server.ai.UserAiRequestLimiter;
+import com.dpbug.server.mapper.novel.ChapterMapper;
+import com.dpbug.server.mapper.novel.GenerationTaskMapper;
+import com.dpbug.server.mapper.novel.PlotAnalysisMapper;
+import com.dpbug.server.model.entity.novel.NovelChapter;
+import com.dpbug.server.model.entity.novel.NovelGenerationTask;
+import com.dpbug.server.model.entity.novel.NovelPlotAnalysis;
+import com.dpbug.server.service.novel.GenerationTaskService;
+import com.dpbug.server.service.novel.PlotAnalysisService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 批量剧情分析任务执行器
+ *
+ * <p>按章节号分页读取项目中有正文的章节，逐章提交到 analysisExecutor 并行分析，
+ * 单个任务同时分析的章节数由 novel.analysis.parallelism 限制，调用模型时再受用户级限流约束。
+ * 分析过程只在读取和写入时短暂占用数据库连接，并行度不受连接池大小约束。</p>
+ * <p>非强制模式下跳过已基于当前正文修订号分析过的章节；单章失败只计数，不中断任务；
+ * 每提交一章前检查任务是否已取消。</p>
+ *
+ * @author dpbug
+ */
+@Slf4j
+@Service
+public class PlotAnalysisTaskRunner {
+
+    /**
+     * 每次读取的章节数
+     */
+    private static final int PAGE_SIZE = 200;
+
+    private final ChapterMapper chapterMapper;
+    private final PlotAnalysisMapper plotAnalysisMapper;
+    private final GenerationTaskMapper taskMapper;
+    private final GenerationTaskService taskService;
+    private final TaskCancellationRegistry cancellationRegistry;
+    private final PlotAnalysisService plotAnalysisService;
+    private final UserAiRequestLimiter userAiRequestLimiter;
+    private final Executor analysisExecutor;
+    private final int parallelism;
+
+    public PlotAnalysisTaskRunner(ChapterMapper chapterMapper,
+                                  PlotAnalysisMapper plotAnalysisMapper,
+                                  GenerationTaskMapper taskMapper,
+                                  GenerationTaskService taskService,
+                                  TaskCancellationRegistry cancellationRegistry,
+                                  PlotAnalysisService plotAnalysisService,
+                                  UserAiRequestLimiter userAiRequestLimiter,
+                                  @Qualifier("analysisExecutor") Executor analysisExecutor,
+                                  @Value("${novel.analysis.parallelism:2}") int parallelism) {
+        this.chapterMapper = chapterMapper;
+        this.plotAnalysisMapper = plotAnalysisMapper;
+        this.taskMapper = taskMapper;
+        this.taskService = taskService;
+        this.cancellationRegistry = cancellationRegistry;
+        this.plotAnalysisService = plotAnalysisService;
+        this.userAiRequestLimiter = userAiRequestLimiter;
+        this.analysisExecutor = analysisExecutor;
+        this.parallelism = Math.max(1, parallelism);
+    }
+
+    /**
+     * 执行批量剧情分析任务
+     *
+     * @param taskId 任务ID
+     */
+    @Async("chapterExecutor")
+    public void run(Long taskId) {
+        try {
+            execute(taskId);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("批量剧情分析被中断: taskId={}", taskId);
+            taskService.failTask(taskId, "分析被中断");
+        } catch (Exception e) {
+            log.error("批量剧情分析失败: taskId={}", taskId, e);
+            taskService.failTask(taskId, "批量剧情分析失败: " + e.getMessage());
+        } finally {
+            cancellationRegistry.release(taskId);
+        }
+    }
+
+    private void execute(Long taskId) throws InterruptedException {
+        NovelGenerationTask task = taskMapper.selectById(taskId);
+        if (task == null || !NovelConstants.TaskStatus.PENDING.equals(task.getStatus())) {
+            return;
+        }
+        Long userId = task.getUserId();
+        Long projectId = task.getProjectId();
+        boolean force = Boolean.TRUE.equals(task.getParams().get("force"));
+        int total = Math.max(1, Math.toIntExact(chapterMapper.selectCount(analyzableChapters(projectId))));
+
+        long start = System.currentTimeMillis();
+        log.info("批量剧情分析开始: taskId={}, projectId={}, chapters={}, force={}, parallelism={}",
+                taskId, projectId, total, force, parallelism);
+        taskService.updateProgress(taskId, 0, String.format("正在分析章节（0/%d）", total));
+
+        Semaphore inFlight = new Semaphore(parallelism);
+        AtomicInteger processed = new AtomicInteger();
+        AtomicInteger analyzed = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        int skipped = 0;
+        boolean cancelled = false;
+        int lastChapterNumber = 0;
+        int lastSubIndex = -1;
+
+        page:
+        while (true) {
+            // 按 (章节号, 子序号) 翻页，一对多展开的子章节章节号相同
+            int afterChapterNumber = lastChapterNumber;
+            int afterSubIndex = lastSubIndex;
+            List<NovelChapter> chapters = chapterMapper.selectList(analyzableChapters(projectId)
+                    .select(NovelChapter::getId, NovelChapter::getChapterNumber, NovelChapter::getSubIndex,
+                            NovelChapter::getContentRevision)
+                    .and(w -> w.gt(NovelChapter::getChapterNumber, afterChapterNumber)
+                            .or(o -> o.eq(NovelChapter::getChapterNumber, afterChapterNumber)
+                                    .gt(NovelChapter::getSubIndex, afterSubIndex)))
+                    .orderByAsc(NovelChapter::getChapterNumber)
+                    .orderByAsc(NovelChapter::getSubIndex)
+                    .last("LIMIT " + PAGE_SIZE));
+            if (chapters.isEmpty()) {
+                break;
+            }
+            Map<Long, Integer> analyzedVersions = force ? Map.of() : selectAnalyzedVersions(chapters);
+            for (NovelChapter chapter : chapters) {
+                int contentVersion = chapter.getContentRevision() == null ? 1 : chapter.getContentRevision();
+                if (Objects.equals(analyzedVersions.get(chapter.getId()), contentVersion)) {
+                    skipped++;
+                    processed.incrementAndGet();
+                    continue;
+                }
+
+                inFlight.acquire();
+                if (cancellationRegistry.isCancelled(taskId)) {
+                    inFlight.release();
+                    cancelled = true;
+                    break page;
+                }
+                analysisExecutor.execute(() -> {
+                    try {
+                        // 已有分析但基于旧内容时需要强制重新分析
+                        userAiRequestLimiter.execute(userId,
+                                () -> plotAnalysisService.analyzeChapter(userId, chapter.getId(), true));
+                        analyzed.incrementAndGet();
+                        taskService.reportChapter(taskId, null, chapter.getId(), true, null);
+                    } catch (Exception e) {
+                        failed.incrementAndGet();
+                        log.warn("章节剧情分析失败: taskId={}, chapterId={}, error={}",
+                                taskId, chapter.getId(), e.getMessage());
+                        taskService.reportChapter(taskId, null, chapter.getId(), false, e.getMessage());
+                    } finally {
+                        int done = processed.incrementAndGet();
+                        taskService.updateProgress(taskId, Math.min(99, done * 100 / total),
+                                String.format("正在分析章节（%d/%d）", done, total));
+                        inFlight.release();
+                    }
+                });
+            }
+            NovelChapter last = chapters.get(chapters.size() - 1);
+            lastChapterNumber = last.getChapterNumber();
+            lastSubIndex = last.getSubIndex() == null ? 0 : last.getSubIndex();
+        }
+
+        // 等待已提交的章节分析完
+        inFlight.acquire(parallelism);
+        if (cancelled) {
+            log.info("批量剧情分析已取消: taskId={}, processed={}/{}", taskId, processed.get(), total);
+            return;
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("projectId", projectId);
+        result.put("analyzed", analyzed.get());
+        result.put("skipped", skipped);
+        result.put("failed", failed.get());
+        taskService.completeTask(taskId, result);
+        log.info("批量剧情分析完成: taskId={}, analyzed={}, skipped={}, failed={}, cost={}ms",
+                taskId, analyzed.get(), skipped, failed.get(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * 有正文的章节
+     */
+    private LambdaQueryWrapper<NovelChapter> analyzableChapters(Long projectId) {
+        return new LambdaQueryWrapper<NovelChapter>()
+                .eq(NovelChapter::getProjectId, projectId)
+                .gt(NovelChapter::getWordCount, 0);
+    }
+
+    /**
+     * 查询本页章节已有分析所基于的正文修订号
+     */
+    private Map<Long, Integer> selectAnalyzedVersions(List<NovelChapter> chapters) {
+        List<NovelPlotAnalysis> analyses = plotAnalysisMapper.selectList(new LambdaQueryWrapper<NovelPlotAnalysis>()
+                .select(NovelPlotAnalysis::getChapterId, NovelPlotAnalysis::getContentVersion)
+                .in(NovelPlotAnalysis::getChapterId, chapters.stream().map(NovelChapter::getId).toList()));
+        Map<Long, Integer> versions = new HashMap<>();
+        for (NovelPlotAnalysis analysis : analyses) {
+            versions.put(analysis.getChapterId(), analysis.getContentVersion());
+        }
+        return versions;
+    }
+}
@@ -10,6 +10,7 @@ import com.dpbug.server.mapper.novel.GenerationTaskMapper;
 import com.dpbug.server.model.dto.novel.ExpandedChaptersGenerateRequest;
 import com.dpbug.server.model.dto.novel.OutlineExpandApplyRequest;
 import com.dpbug.server.model.dto.novel.OutlineExpandRequest;
+import com.dpbug.server.model.dto.novel.ProjectStatsDelta;
 import com.dpbug.server.model.entity.novel.NovelChapter;
 import com.dpbug.server.model.entity.novel.NovelGenerationTask;
 import com.dpbug.server.model.entity.novel.NovelProject;
@@ -22,6 +23,7 @@ import com.dpbug.server.service.novel.GenerationTaskService;
 import com.dpbug.server.service.novel.OutlineService;
 import com.dpbug.server.service.novel.PlotExpansionService;
 import com.dpbug.server.service.novel.ProjectService;
+import com.dpbug.server.service.novel.ProjectStatsService;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -53,6 +55,7 @@ public class PlotExpansionServiceImpl implements PlotExpansionService {
 
     private final ChapterMapper chapterMapper;
     private final ProjectService projectService;
+    private final ProjectStatsService projectStatsService;
     private final OutlineService outlineService;
     private final CharacterService characterService;
     private final ChatClientFactory chatClientFactory;
@@ -182,7 +185,7 @@ public class PlotExpansionServiceImpl implements PlotExpansionService {
         int startChapterNumber = calculateStartChapterNumber(project.getId(), outline.getOrderIndex());
 
         // 创建章节记录
-        List<ChapterVO> createdChapters = new ArrayList<>();
+        List<NovelChapter> chapters = new ArrayList<>();
         List<OutlineExpandApplyRequest.ChapterPlanDTO> plans = request.getChapterPlans();
 
         for (int i = 0; i < plans.size(); i++) {
@@ -202,9 +205,14 @@ public class PlotExpansionServiceImpl implements PlotExpansionService {
             // 构建 expansionPlan
             Map<String, Object> expansionPlan = buildExpansionPlanMap(plan);
             chapter.setExpansionPlan(expansionPlan);
+            chapters.add(chapter);
+        }
+        // 批量插入（JDBC 批处理，驱动改写为多行 INSERT），插入后章节已带有ID
+        chapterMapper.insert(chapters);
+        projectStatsService.apply(ProjectStatsDelta.of(project.getId()).chapters(chapters.size()));
 
-            chapterMapper.insert(chapter);
-
+        List<ChapterVO> createdChapters = new ArrayList<>();
+        for (NovelChapter chapter : chapters) {
             ChapterVO vo = new ChapterVO();
             BeanUtils.copyProperties(chapter, vo);
             createdChapters.add(vo);
@@ -288,12 +296,13 @@ public class PlotExpansionServiceImpl implements PlotExpansionService {
     @Transactional(rollbackFor = Exception.class)
     public void deleteExpandedChapters(Long userId, Long outlineId) {
         // 获取大纲并检查权限（权限检查会抛出异常）
-        outlineService.getById(userId, outlineId);
+        OutlineVO outline = outlineService.getById(userId, outlineId);
 
         // 删除该大纲下的所有章节
         LambdaQueryWrapper<NovelChapter> wrapper = new LambdaQueryWrapper<>();
         wrapper.eq(NovelChapter::getOutlineId, outlineId);
         chapterMapper.delete(wrapper);
+        projectStatsService.recount(outline.getProjectId());
 
         log.info("删除展开章节: userId={}, outlineId={}", userId, outlineId);
     }
@@ -0,0 +1,185 @@
+package com.dpbug.server.service.novel.impl;
+
+import com.dpbug.common.constant.NovelConstants;
+import com.dpbug.server.ai.ChromaVectorStoreFactory;
+import com.dpbug.server.mapper.novel.GenerationTaskMapper;
+import com.dpbug.server.mapper.novel.ProjectPurgeMapper;
+import com.dpbug.server.model.entity.novel.NovelGenerationTask;
+import com.dpbug.server.service.novel.GenerationTaskService;
+import com.dpbug.server.service.novel.MemoryVectorSyncService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 项目数据清理任务执行器
+ *
+ * <p>项目删除时只做逻辑删除并创建清理任务，子表数据由本执行器在后台分块物理删除：</p>
+ * <ol>
+ *   <li>删除待同步的向量 Outbox 记录，再删除项目的向量库 Collection（失败时交给 Outbox 重试）</li>
+ *   <li>按依赖顺序逐表删除记忆、摘要、剧情分析、章节、大纲、角色和其他生成任务</li>
+ * </ol>
+ * <p>每批最多删除 chunk-size 行并单独提交，批次之间暂停 chunk-pause，
+ * 清理期间不占用长事务、不持有大范围行锁。各步骤可重复执行，中断后在应用启动时从头继续。</p>
+ *
+ * @author dpbug
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ProjectPurgeTaskRunner {
+
+    /**
+     * 按顺序清理的子表（表名, 步骤说明）；记忆关联先于记忆、正文先于章节删除
+     */
+    private static final List<String[]> PURGE_TABLES = List.of(
+            new String[]{"novel_memory_character", "记忆角色关联"},
+            new String[]{"novel_memory_location", "记忆地点关联"},
+            new String[]{"novel_memory_source", "记忆来源章节"},
+            new String[]{"novel_story_memory", "故事记忆"},
+            new String[]{"novel_story_rollup", "层级摘要"},
+            new String[]{"novel_plot_analysis", "剧情分析"},
+            new String[]{"novel_chapter_content", "章节正文"},
+            new String[]{"novel_chapter", "章节"},
+            new String[]{"novel_outline", "大纲"},
+            new String[]{"novel_character", "角色"},
+            new String[]{"novel_generation_task_archive", "归档任务"}
+    );
+
+    /**
+     * 总步骤数：Outbox + Collection + 子表 + 生成任务
+     */
+    private static final int TOTAL_STEPS = PURGE_TABLES.size() + 3;
+
+    private final ProjectPurgeMapper purgeMapper;
+    private final GenerationTaskMapper taskMapper;
+    private final GenerationTaskService taskService;
+    private final MemoryVectorSyncService memoryVectorSyncService;
+    private final ChromaVectorStoreFactory chromaVectorStoreFactory;
+
+    /**
+     * 每批删除的最大行数
+     */
+    @Value("${novel.project.purge.chunk-size:500}")
+    private int chunkSize;
+
+    /**
+     * 批次之间的暂停时间
+     */
+    @Value("${novel.project.purge.chunk-pause:50ms}")
+    private Duration chunkPause;
+
+    /**
+     * 执行（或重新执行）项目清理任务
+     *
+     * @param taskId 任务ID
+     */
+    @Async("purgeExecutor")
+    public void run(Long taskId) {
+        try {
+            execute(taskId);
+        } catch (InterruptedException e) {
+            // 应用关闭，任务保持执行中状态，下次启动时继续
+            Thread.currentThread().interrupt();
+            log.info("项目清理被中断，等待下次启动继续: taskId={}", taskId);
+        } catch (Exception e) {
+            log.error("项目清理失败: taskId={}", taskId, e);
+            taskService.failTask(taskId, "项目清理失败: " + e.getMessage());
+        }
+    }
+
+    private void execute(Long taskId) throws InterruptedException {
+        NovelGenerationTask task = taskMapper.selectById(taskId);
+        if (task == null || !NovelConstants.TaskStatus.PENDING.equals(task.getStatus())
+                && !NovelConstants.TaskStatus.RUNNING.equals(task.getStatus())) {
+            return;
+        }
+        Long userId = task.getUserId();
+        Long projectId = task.getProjectId();
+        long start = System.currentTimeMillis();
+        log.info("项目清理开始: taskId={}, projectId={}", taskId, projectId);
+
+        Map<String, Object> deleted = new LinkedHashMap<>();
+        int step = 0;
+
+        // 先删除未处理的向量同步记录，避免之后的写入重新创建 Collection
+        taskService.updateProgress(taskId, progressOf(step), "正在清理向量同步记录");
+        deleted.put("novel_memory_vector_outbox", purgeTable(taskId, step, "novel_memory_vector_outbox", "向量同步记录", projectId));
+        step++;
+
+        taskService.updateProgress(taskId, progressOf(step), "正在删除向量库");
+        boolean collectionDropped = chromaVectorStoreFactory.deleteCollection(userId, projectId);
+        if (!collectionDropped) {
+            // Chroma 暂不可用时交给 Outbox 按退避策略重试，不阻塞数据库清理
+            Long outboxId = memoryVectorSyncService.enqueueDropCollection(userId, projectId);
+            log.warn("删除向量库 Collection 失败，已加入 Outbox 重试: projectId={}, outboxId={}", projectId, outboxId);
+        }
+        step++;
+
+        for (String[] table : PURGE_TABLES) {
+            deleted.put(table[0], purgeTable(taskId, step, table[0], table[1], projectId));
+            step++;
+        }
+
+        taskService.updateProgress(taskId, progressOf(step), "正在清理生成任务");
+        long taskCount = 0;
+        int affected;
+        do {
+            affected = purgeMapper.deleteTaskChunk(projectId, taskId, chunkLimit());
+            taskCount += affected;
+            pause(affected);
+        } while (affected >= chunkLimit());
+        deleted.put("novel_generation_task", taskCount);
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("projectId", projectId);
+        result.put("collectionDropped", collectionDropped);
+        result.put("deleted", deleted);
+        taskService.completeTask(taskId, result);
+        log.info("项目清理完成: taskId={}, projectId={}, deleted={}, cost={}ms",
+                taskId, projectId, deleted, System.currentTimeMillis() - start);
+    }
+
+    /**
+     * 分块删除一张表中的项目数据，每批完成后刷新进度
+     */
+    private long purgeTable(Long taskId, int step, String table, String label, Long projectId) throws InterruptedException {
+        long total = 0;
+        int affected;
+        do {
+            affected = purgeMapper.deleteChunk(table, projectId, chunkLimit());
+            total += affected;
+            if (affected > 0) {
+                taskService.updateProgress(taskId, progressOf(step),
+                        String.format("正在清理%s（已删除 %d 条）", label, total));
+            }
+            pause(affected);
+        } while (affected >= chunkLimit());
+        return total;
+    }
+
+    /**
+     * 批次之间让出数据库，只在本批删满（后面还有数据）时暂停
+     */
+    private void pause(int affected) throws InterruptedException {
+        if (affected >= chunkLimit() && !chunkPause.isZero()) {
+            Thread.sleep(chunkPause.toMillis());
+        }
+    }
+
+    private int chunkLimit() {
+        return Math.max(1, chunkSize);
+    }
+
+    private int progressOf(int step) {
+        // 完成前最多显示 99%
+        return Math.min(99, step * 100 / TOTAL_STEPS);
+    }
+}
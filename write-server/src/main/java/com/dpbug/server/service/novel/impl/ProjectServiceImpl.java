@@ -1,37 +1,42 @@
 package com.dpbug.server.service.novel.impl;
 
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
-import com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.dpbug.common.constant.NovelConstants;
 import com.dpbug.common.domain.PageResult;
 import com.dpbug.common.enums.ResultCode;
 import com.dpbug.common.exception.BusinessException;
-import com.dpbug.server.mapper.novel.CharacterMapper;
+import com.dpbug.common.utils.PageCursor;
+import com.dpbug.server.ai.VectorStoreWarmUp;
+import com.dpbug.server.config.datasource.ReadFromReplica;
 import com.dpbug.server.mapper.novel.ChapterMapper;
-import com.dpbug.server.mapper.novel.OutlineMapper;
+import com.dpbug.server.mapper.novel.GenerationTaskMapper;
 import com.dpbug.server.mapper.novel.ProjectMapper;
-import com.dpbug.server.mapper.novel.StoryMemoryMapper;
 import com.dpbug.server.model.dto.novel.ProjectCreateRequest;
 import com.dpbug.server.model.dto.novel.ProjectQueryRequest;
 import com.dpbug.server.model.dto.novel.ProjectUpdateRequest;
-import com.dpbug.server.model.entity.novel.NovelChapter;
-import com.dpbug.server.model.entity.novel.NovelCharacter;
-import com.dpbug.server.model.entity.novel.NovelOutline;
+import com.dpbug.server.model.entity.novel.NovelGenerationTask;
 import com.dpbug.server.model.entity.novel.NovelProject;
-import com.dpbug.server.model.entity.novel.NovelStoryMemory;
+import com.dpbug.server.model.entity.novel.NovelProjectStats;
 import com.dpbug.server.model.vo.novel.ProjectChapterCountVO;
 import com.dpbug.server.model.vo.novel.ProjectListVO;
 import com.dpbug.server.model.vo.novel.ProjectStatisticsVO;
 import com.dpbug.server.model.vo.novel.ProjectVO;
+import com.dpbug.server.service.novel.GenerationTaskService;
 import com.dpbug.server.service.novel.ProjectService;
+import com.dpbug.server.service.novel.ProjectStatsService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.BeanUtils;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.util.StringUtils;
 
+import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -47,10 +52,12 @@ import java.util.Map;
 public class ProjectServiceImpl implements ProjectService {
 
     private final ProjectMapper projectMapper;
-    private final CharacterMapper characterMapper;
-    private final OutlineMapper outlineMapper;
     private final ChapterMapper chapterMapper;
-    private final StoryMemoryMapper storyMemoryMapper;
+    private final VectorStoreWarmUp vectorStoreWarmUp;
+    private final ProjectStatsService projectStatsService;
+    private final GenerationTaskService taskService;
+    private final GenerationTaskMapper taskMapper;
+    private final ProjectPurgeTaskRunner purgeTaskRunner;
 
     @Override
     public Long create(Long userId, ProjectCreateRequest dto) {
@@ -70,6 +77,7 @@ public class ProjectServiceImpl implements ProjectService {
         }
 
         projectMapper.insert(project);
+        projectStatsService.init(project.getId());
 
         log.info("创建项目成功: userId={}, projectId={}, title={}",
                 userId, project.getId(), project.getTitle());
@@ -87,27 +95,21 @@ public class ProjectServiceImpl implements ProjectService {
         // 填充实际统计数据
         fillStatistics(vo, projectId);
 
+        // 项目被打开：后台预热向量库，避免首次生成时同步创建 Collection
+        vectorStoreWarmUp.recordOpen(userId, projectId);
+
         return vo;
     }
 
     /**
-     * 填充统计数据
+     * 填充统计数据（读取项目统计行）
      */
     private void fillStatistics(ProjectVO vo, Long projectId) {
-        // 查询角色数量
-        LambdaQueryWrapper<NovelCharacter> charWrapper = new LambdaQueryWrapper<>();
-        charWrapper.eq(NovelCharacter::getProjectId, projectId);
-        vo.setActualCharacterCount((int) (long) characterMapper.selectCount(charWrapper));
-
-        // 查询大纲数量
-        LambdaQueryWrapper<NovelOutline> outlineWrapper = new LambdaQueryWrapper<>();
-        outlineWrapper.eq(NovelOutline::getProjectId, projectId);
-        vo.setActualOutlineCount((int) (long) outlineMapper.selectCount(outlineWrapper));
-
-        // 查询章节数量
-        LambdaQueryWrapper<NovelChapter> chapterWrapper = new LambdaQueryWrapper<>();
-        chapterWrapper.eq(NovelChapter::getProjectId, projectId);
-        vo.setActualChapterCount((int) (long) chapterMapper.selectCount(chapterWrapper));
+        NovelProjectStats stats = projectStatsService.get(projectId);
+        // 角色数量包含组织
+        vo.setActualCharacterCount(stats.getCharacterCount() + stats.getOrganizationCount());
+        vo.setActualOutlineCount(stats.getOutlineCount());
+        vo.setActualChapterCount(stats.getChapterCount());
     }
 
     @Override
@@ -125,37 +127,75 @@ public class ProjectServiceImpl implements ProjectService {
 
     @Override
     @Transactional(rollbackFor = Exception.class)
-    public void delete(Long userId, Long projectId) {
+    public Long delete(Long userId, Long projectId) {
         // 检查权限
         checkOwnership(userId, projectId);
 
-        // 级联删除角色
-        LambdaUpdateWrapper<NovelCharacter> charWrapper = new LambdaUpdateWrapper<>();
-        charWrapper.eq(NovelCharacter::getProjectId, projectId);
-        characterMapper.delete(charWrapper);
-
-        // 级联删除大纲
-        LambdaUpdateWrapper<NovelOutline> outlineWrapper = new LambdaUpdateWrapper<>();
-        outlineWrapper.eq(NovelOutline::getProjectId, projectId);
-        outlineMapper.delete(outlineWrapper);
-
-        // 级联删除章节
-        LambdaUpdateWrapper<NovelChapter> chapterWrapper = new LambdaUpdateWrapper<>();
-        chapterWrapper.eq(NovelChapter::getProjectId, projectId);
-        chapterMapper.delete(chapterWrapper);
+        // 逻辑删除项目后立即对用户不可见，子表数据由后台任务分块清理
+        projectMapper.deleteById(projectId);
+        projectStatsService.remove(projectId);
+
+        Map<String, Object> params = new HashMap<>();
+        params.put("projectId", projectId);
+        NovelGenerationTask task = taskService.createTask(userId, projectId, NovelConstants.TaskType.PURGE, params);
+
+        // 事务提交后先停止项目中未完成的任务，再开始清理，回滚时不会误删数据
+        Long taskId = task.getId();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                cancelUnfinishedTasks(projectId);
+                purgeTaskRunner.run(taskId);
+            }
+        });
 
-        // 级联删除故事记忆-不需要逻辑删除
-        LambdaUpdateWrapper<NovelStoryMemory> memoryWrapper = new LambdaUpdateWrapper<>();
-        memoryWrapper.eq(NovelStoryMemory::getProjectId, projectId);
-        storyMemoryMapper.delete(memoryWrapper);
+        log.info("删除项目成功，已创建清理任务: userId={}, projectId={}, taskId={}", userId, projectId, taskId);
+        return taskId;
+    }
 
-        // 逻辑删除项目
-        projectMapper.deleteById(projectId);
+    /**
+     * 取消项目中待执行和执行中的任务
+     * <p>
+     * 执行中的任务在下一次检查时停止；没有收到通知的实例查询任务状态时，项目已删除同样视为已取消。
+     * </p>
+     */
+    private void cancelUnfinishedTasks(Long projectId) {
+        List<NovelGenerationTask> unfinished = taskMapper.selectList(new LambdaQueryWrapper<NovelGenerationTask>()
+                .eq(NovelGenerationTask::getProjectId, projectId)
+                .ne(NovelGenerationTask::getTaskType, NovelConstants.TaskType.PURGE)
+                .in(NovelGenerationTask::getStatus, NovelConstants.TaskStatus.PENDING, NovelConstants.TaskStatus.RUNNING));
+        for (NovelGenerationTask task : unfinished) {
+            try {
+                taskService.cancelTask(task.getUserId(), task.getId());
+            } catch (Exception e) {
+                // 任务可能已在查询后结束
+                log.warn("删除项目时取消任务失败: projectId={}, taskId={}, error={}",
+                        projectId, task.getId(), e.getMessage());
+            }
+        }
+        if (!unfinished.isEmpty()) {
+            log.info("删除项目时已取消未完成的任务: projectId={}, count={}", projectId, unfinished.size());
+        }
+    }
 
-        log.info("删除项目成功（含级联数据）: userId={}, projectId={}", userId, projectId);
+    /**
+     * 应用启动后继续未完成的项目清理任务
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumePurgeOnStartup() {
+        try {
+            List<NovelGenerationTask> unfinished = taskMapper.selectUnfinishedByType(NovelConstants.TaskType.PURGE);
+            for (NovelGenerationTask task : unfinished) {
+                log.info("继续未完成的项目清理任务: taskId={}, projectId={}", task.getId(), task.getProjectId());
+                purgeTaskRunner.run(task.getId());
+            }
+        } catch (Exception e) {
+            log.warn("检查未完成的项目清理任务失败: {}", e.getMessage());
+        }
     }
 
     @Override
+    @ReadFromReplica
     public PageResult<ProjectListVO> list(Long userId, ProjectQueryRequest query) {
         // 构建查询条件
         LambdaQueryWrapper<NovelProject> wrapper = new LambdaQueryWrapper<>();
@@ -183,6 +223,9 @@ public class ProjectServiceImpl implements ProjectService {
 
         // 排序（默认按更新时间倒序，最新的在前）
         String orderBy = StringUtils.hasText(query.getOrderBy()) ? query.getOrderBy() : "update_time";
+        if (query.isCursorMode()) {
+            return listByCursor(query, orderBy, wrapper);
+        }
         switch (orderBy) {
             case "title" -> wrapper.orderByAsc(NovelProject::getTitle);
             case "create_time" -> wrapper.orderByDesc(NovelProject::getCreateTime);
@@ -193,20 +236,8 @@ public class ProjectServiceImpl implements ProjectService {
         Page<NovelProject> page = new Page<>(query.getPageNum(), query.getPageSize());
         Page<NovelProject> result = projectMapper.selectPage(page, wrapper);
 
-        // 批量统计项目已生成章节数（避免 N+1）
-        Map<Long, Integer> actualChapterCountMap = new HashMap<>();
-        List<Long> projectIds = result.getRecords().stream().map(NovelProject::getId).toList();
-        if (!projectIds.isEmpty()) {
-            List<ProjectChapterCountVO> chapterCounts = chapterMapper.selectChapterCountsByProjectIds(projectIds);
-            for (ProjectChapterCountVO row : chapterCounts) {
-                if (row.getProjectId() == null) {
-                    continue;
-                }
-                actualChapterCountMap.put(row.getProjectId(), row.getChapterCount() != null ? row.getChapterCount() : 0);
-            }
-        }
-
         // 转换为VO
+        Map<Long, Integer> actualChapterCountMap = countChapters(result.getRecords());
         List<ProjectListVO> voList = result.getRecords().stream()
                 .map(project -> convertToListVO(project, actualChapterCountMap.getOrDefault(project.getId(), 0)))
                 .toList();
@@ -219,16 +250,105 @@ public class ProjectServiceImpl implements ProjectService {
         );
     }
 
+    /**
+     * 游标分页：按排序字段 + id 键集翻页，走 (user_id, 排序字段, id) 索引
+     */
+    private PageResult<ProjectListVO> listByCursor(ProjectQueryRequest query, String orderBy,
+                                                   LambdaQueryWrapper<NovelProject> wrapper) {
+        int pageSize = query.getPageSize();
+        Long total = Boolean.TRUE.equals(query.getWithTotal()) ? projectMapper.selectCount(wrapper) : null;
+
+        String sort = "title".equals(orderBy) || "create_time".equals(orderBy) ? orderBy : "update_time";
+        if (StringUtils.hasText(query.getCursor())) {
+            String[] values = PageCursor.decode(query.getCursor(), sort, 2);
+            Long id = PageCursor.toLong(values[1]);
+            switch (sort) {
+                case "title" -> wrapper.and(w -> w.gt(NovelProject::getTitle, values[0])
+                        .or(x -> x.eq(NovelProject::getTitle, values[0]).gt(NovelProject::getId, id)));
+                case "create_time" -> {
+                    LocalDateTime createTime = PageCursor.toDateTime(values[0]);
+                    wrapper.and(w -> w.lt(NovelProject::getCreateTime, createTime)
+                            .or(x -> x.eq(NovelProject::getCreateTime, createTime).lt(NovelProject::getId, id)));
+                }
+                default -> {
+                    LocalDateTime updateTime = PageCursor.toDateTime(values[0]);
+                    wrapper.and(w -> w.lt(NovelProject::getUpdateTime, updateTime)
+                            .or(x -> x.eq(NovelProject::getUpdateTime, updateTime).lt(NovelProject::getId, id)));
+                }
+            }
+        }
+        switch (sort) {
+            case "title" -> wrapper.orderByAsc(NovelProject::getTitle, NovelProject::getId);
+            case "create_time" -> wrapper.orderByDesc(NovelProject::getCreateTime, NovelProject::getId);
+            default -> wrapper.orderByDesc(NovelProject::getUpdateTime, NovelProject::getId);
+        }
+        wrapper.last("LIMIT " + (pageSize + 1));
+
+        List<NovelProject> rows = projectMapper.selectList(wrapper);
+        Map<Long, Integer> actualChapterCountMap = countChapters(rows);
+        return PageResult.ofCursor(rows, pageSize, total,
+                project -> PageCursor.encode(sort, switch (sort) {
+                    case "title" -> project.getTitle();
+                    case "create_time" -> project.getCreateTime();
+                    default -> project.getUpdateTime();
+                }, project.getId()),
+                project -> convertToListVO(project, actualChapterCountMap.getOrDefault(project.getId(), 0)));
+    }
+
+    /**
+     * 批量统计项目已生成章节数（避免 N+1）
+     */
+    private Map<Long, Integer> countChapters(List<NovelProject> projects) {
+        Map<Long, Integer> actualChapterCountMap = new HashMap<>();
+        List<Long> projectIds = projects.stream().map(NovelProject::getId).toList();
+        if (!projectIds.isEmpty()) {
+            List<ProjectChapterCountVO> chapterCounts = chapterMapper.selectChapterCountsByProjectIds(projectIds);
+            for (ProjectChapterCountVO row : chapterCounts) {
+                if (row.getProjectId() == null) {
+                    continue;
+                }
+                actualChapterCountMap.put(row.getProjectId(), row.getChapterCount() != null ? row.getChapterCount() : 0);
+            }
+        }
+        return actualChapterCountMap;
+    }
+
     @Override
+    @ReadFromReplica
     public ProjectStatisticsVO getStatistics(Long userId, Long projectId) {
         // 检查权限
-        checkOwnership(userId, projectId);
+        NovelProject project = checkOwnership(userId, projectId);
+        NovelProjectStats stats = projectStatsService.get(projectId);
+
+        ProjectStatisticsVO vo = new ProjectStatisticsVO();
+        vo.setProjectId(projectId);
+        vo.setTitle(project.getTitle());
+
+        vo.setTargetWords(project.getTargetWords());
+        vo.setCurrentWords(stats.getWordCount());
+        int targetWords = project.getTargetWords() != null ? project.getTargetWords() : 0;
+        vo.setProgressPercent(targetWords > 0 ? (int) Math.round(stats.getWordCount() * 100.0 / targetWords) : 0);
+
+        vo.setTotalChapters(stats.getChapterCount());
 
-        return projectMapper.selectStatistics(projectId, userId);
+        vo.setTotalCharacters(stats.getCharacterCount());
+        vo.setProtagonists(stats.getProtagonistCount());
+        vo.setSupportingRoles(stats.getSupportingCount());
+        vo.setAntagonists(stats.getAntagonistCount());
+        vo.setOrganizations(stats.getOrganizationCount());
+
+        vo.setTotalOutlines(stats.getOutlineCount());
+
+        vo.setTotalMemories(stats.getMemoryCount());
+        vo.setPlantedForeshadows(stats.getPlantedForeshadowCount());
+        vo.setResolvedForeshadows(stats.getResolvedForeshadowCount());
+        return vo;
     }
 
     @Override
     public void refreshStatistics(Long projectId) {
+        // 统计行缺失时先补齐，再同步到项目行
+        projectStatsService.get(projectId);
         projectMapper.updateStatistics(projectId);
         log.debug("刷新项目统计: projectId={}", projectId);
     }
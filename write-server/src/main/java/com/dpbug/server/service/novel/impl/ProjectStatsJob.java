@@ -0,0 +1,88 @@
+package com.dpbug.server.service.novel.impl;
+
+import com.dpbug.server.mapper.novel.ProjectMapper;
+import com.dpbug.server.model.entity.novel.NovelProject;
+import com.dpbug.server.service.novel.ProjectStatsService;
+import com.dpbug.server.util.RedisLockUtil;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * 项目统计对账定时任务
+ *
+ * <p>逐个项目从明细表重新汇总统计，修正增量更新遗漏（非事务写入失败、并发覆盖等）造成的漂移，
+ * 通过 Redis 锁保证单实例执行</p>
+ *
+ * @author dpbug
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ProjectStatsJob {
+
+    private static final String RECONCILE_LOCK_KEY = "project-stats:reconcile:lock";
+
+    /**
+     * 对账时每批读取的项目数
+     */
+    private static final int PROJECT_BATCH_SIZE = 100;
+
+    private final ProjectStatsService projectStatsService;
+    private final ProjectMapper projectMapper;
+    private final RedisLockUtil redisLockUtil;
+
+    @Value("${novel.project-stats.reconcile.enabled:true}")
+    private boolean reconcileEnabled;
+
+    @Value("${novel.project-stats.reconcile.lock-timeout:1h}")
+    private Duration reconcileLockTimeout;
+
+    /**
+     * 对账所有项目的统计
+     */
+    @Scheduled(cron = "${novel.project-stats.reconcile.cron:0 0 4 * * ?}")
+    public void reconcile() {
+        if (!reconcileEnabled) {
+            return;
+        }
+        if (!redisLockUtil.tryLock(RECONCILE_LOCK_KEY, reconcileLockTimeout)) {
+            log.debug("项目统计对账已在其他实例执行，跳过");
+            return;
+        }
+
+        long start = System.currentTimeMillis();
+        int projectCount = 0;
+        int drifted = 0;
+        try {
+            long lastId = 0L;
+            while (true) {
+                List<NovelProject> projects = projectMapper.selectIdsAfter(lastId, PROJECT_BATCH_SIZE);
+                if (projects.isEmpty()) {
+                    break;
+                }
+                for (NovelProject project : projects) {
+                    try {
+                        if (projectStatsService.reconcile(project.getId())) {
+                            drifted++;
+                        }
+                    } catch (Exception e) {
+                        log.warn("项目统计对账失败: projectId={}, error={}", project.getId(), e.getMessage());
+                    }
+                    projectCount++;
+                }
+                lastId = projects.get(projects.size() - 1).getId();
+            }
+        } finally {
+            redisLockUtil.unlock(RECONCILE_LOCK_KEY);
+        }
+
+        log.info("项目统计对账完成: projects={}, drifted={}, cost={}ms",
+                projectCount, drifted, System.currentTimeMillis() - start);
+    }
+}
@@ -0,0 +1,129 @@
+package com.dpbug.server.service.novel.impl;
+
+import com.dpbug.server.mapper.novel.ProjectStatsMapper;
+import com.dpbug.server.model.dto.novel.ProjectStatsDelta;
+import com.dpbug.server.model.entity.novel.NovelProjectStats;
+import com.dpbug.server.service.novel.ProjectStatsService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * 项目统计服务实现
+ * <p>
+ * 增量更新为单条 UPDATE（计数列自增），与写入方的业务写操作处于同一事务时一起提交或回滚；
+ * 非事务写入失败造成的漂移由每晚对账修正。
+ *
+ * @author dpbug
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ProjectStatsServiceImpl implements ProjectStatsService {
+
+    private final ProjectStatsMapper projectStatsMapper;
+
+    @Override
+    public NovelProjectStats get(Long projectId) {
+        NovelProjectStats stats = projectStatsMapper.selectById(projectId);
+        if (stats == null) {
+            projectStatsMapper.recount(projectId);
+            stats = projectStatsMapper.selectById(projectId);
+            log.info("项目统计缺失，已从明细表汇总: projectId={}", projectId);
+        }
+        return stats;
+    }
+
+    @Override
+    public Map<Long, NovelProjectStats> listByProjectIds(Collection<Long> projectIds) {
+        Map<Long, NovelProjectStats> result = new HashMap<>();
+        if (projectIds == null || projectIds.isEmpty()) {
+            return result;
+        }
+        for (NovelProjectStats stats : projectStatsMapper.selectBatchIds(projectIds)) {
+            result.put(stats.getProjectId(), stats);
+        }
+        for (Long projectId : projectIds) {
+            if (!result.containsKey(projectId)) {
+                result.put(projectId, get(projectId));
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public void init(Long projectId) {
+        NovelProjectStats stats = new NovelProjectStats();
+        stats.setProjectId(projectId);
+        projectStatsMapper.insert(stats);
+    }
+
+    @Override
+    public void apply(ProjectStatsDelta delta) {
+        if (delta == null || delta.isEmpty()) {
+            return;
+        }
+        projectStatsMapper.applyDelta(delta);
+    }
+
+    @Override
+    public void onChapterWordCount(Long chapterId, int wordCount) {
+        projectStatsMapper.applyChapterWordCount(chapterId, wordCount);
+    }
+
+    @Override
+    public void onChapterRemoved(Long chapterId) {
+        projectStatsMapper.applyChapterRemoved(chapterId);
+    }
+
+    @Override
+    public void recount(Long projectId) {
+        projectStatsMapper.recount(projectId);
+    }
+
+    @Override
+    public boolean reconcile(Long projectId) {
+        NovelProjectStats before = projectStatsMapper.selectById(projectId);
+        projectStatsMapper.recount(projectId);
+        if (before == null) {
+            return false;
+        }
+        NovelProjectStats after = projectStatsMapper.selectById(projectId);
+        if (sameCounts(before, after)) {
+            return false;
+        }
+        log.warn("项目统计漂移已修正: projectId={}, before={}, after={}", projectId, before, after);
+        return true;
+    }
+
+    @Override
+    public void remove(Long projectId) {
+        projectStatsMapper.deleteById(projectId);
+    }
+
+    private boolean sameCounts(NovelProjectStats a, NovelProjectStats b) {
+        return Objects.equals(a.getChapterCount(), b.getChapterCount())
+                && Objects.equals(a.getWordCount(), b.getWordCount())
+                && Objects.equals(a.getCharacterCount(), b.getCharacterCount())
+                && Objects.equals(a.getProtagonistCount(), b.getProtagonistCount())
+                && Objects.equals(a.getSupportingCount(), b.getSupportingCount())
+                && Objects.equals(a.getAntagonistCount(), b.getAntagonistCount())
+                && Objects.equals(a.getOrganizationCount(), b.getOrganizationCount())
+                && Objects.equals(a.getOutlineCount(), b.getOutlineCount())
+                && Objects.equals(a.getMemoryCount(), b.getMemoryCount())
+                && Objects.equals(a.getPlotPointCount(), b.getPlotPointCount())
+                && Objects.equals(a.getHookCount(), b.getHookCount())
+                && Objects.equals(a.getForeshadowCount(), b.getForeshadowCount())
+                && Objects.equals(a.getCharacterEventCount(), b.getCharacterEventCount())
+                && Objects.equals(a.getLocationEventCount(), b.getLocationEventCount())
+                && Objects.equals(a.getOtherMemoryCount(), b.getOtherMemoryCount())
+                && Objects.equals(a.getPlantedForeshadowCount(), b.getPlantedForeshadowCount())
+                && Objects.equals(a.getResolvedForeshadowCount(), b.getResolvedForeshadowCount())
+                && Objects.equals(a.getCoveredChapterCount(), b.getCoveredChapterCount());
+    }
+}
@@ -0,0 +1,146 @@
+package com.dpbug.server.service.novel.impl;
+
+import com.dpbug.server.model.vo.novel.GlobalSearchResultVO;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * 全局搜索缓存
+ *
+ * <p>缓存用户的项目ID列表与短期搜索结果（输入联想时同一前缀会在短时间内重复搜索）。
+ * 用户的项目及其章节、大纲、角色、记忆发生写入时（见 SearchCacheInvalidationInterceptor）递增该用户的缓存版本，
+ * 旧版本的结果不再命中、随过期时间淘汰；无法定位到用户的写入（如只带ID的局部更新）最多在结果过期后可见。</p>
+ *
+ * <p>不依赖 Mapper：拦截器注册在 SqlSessionFactory 上，依赖 Mapper 会形成循环依赖。</p>
+ *
+ * @author dpbug
+ */
+@Slf4j
+@Component
+public class SearchResultCache {
+
+    /**
+     * 缓存键：用户、缓存版本、关键词、数量
+     */
+    public record Key(Long userId, long version, String keyword, int limit) {
+    }
+
+    private final Cache<Key, GlobalSearchResultVO> results;
+
+    /**
+     * 用户ID -> 项目ID列表
+     */
+    private final Cache<Long, List<Long>> projectIds;
+
+    /**
+     * 项目ID -> 用户ID，用于按项目写入定位要失效的用户
+     */
+    private final Cache<Long, Long> projectOwners;
+
+    /**
+     * 用户ID -> 缓存版本；初始值取纳秒时间，条目淘汰后重建也不会与旧版本重复
+     */
+    private final Cache<Long, AtomicLong> userVersions;
+
+    public SearchResultCache(@Value("${novel.search.cache.ttl:30s}") Duration ttl,
+                             @Value("${novel.search.cache.max-size:10000}") long maxSize,
+                             @Value("${novel.search.cache.project-ids-ttl:5m}") Duration projectIdsTtl) {
+        this.results = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .build();
+        this.projectIds = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(projectIdsTtl)
+                .build();
+        this.projectOwners = Caffeine.newBuilder()
+                .maximumSize(maxSize * 10)
+                .expireAfterWrite(projectIdsTtl)
+                .build();
+        this.userVersions = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterAccess(projectIdsTtl)
+                .build();
+    }
+
+    /**
+     * 生成缓存键（在查询前生成，查询期间发生的写入会使本次结果写入旧版本而不被命中）
+     *
+     * @param userId  用户ID
+     * @param keyword 规范化后的关键词
+     * @param limit   每类返回数量
+     * @return 缓存键
+     */
+    public Key key(Long userId, String keyword, int limit) {
+        return new Key(userId, version(userId).get(), keyword, limit);
+    }
+
+    /**
+     * 获取缓存结果
+     *
+     * @param key 缓存键
+     * @return 搜索结果，未命中时为 null
+     */
+    public GlobalSearchResultVO get(Key key) {
+        return results.getIfPresent(key);
+    }
+
+    /**
+     * 写入缓存结果
+     *
+     * @param key    缓存键
+     * @param result 搜索结果
+     */
+    public void put(Key key, GlobalSearchResultVO result) {
+        results.put(key, result);
+    }
+
+    /**
+     * 获取用户的项目ID列表
+     *
+     * @param userId 用户ID
+     * @param loader 未命中时的加载函数
+     * @return 项目ID列表
+     */
+    public List<Long> projectIds(Long userId, Function<Long, List<Long>> loader) {
+        return projectIds.get(userId, id -> {
+            List<Long> loaded = List.copyOf(loader.apply(id));
+            loaded.forEach(projectId -> projectOwners.put(projectId, id));
+            return loaded;
+        });
+    }
+
+    /**
+     * 用户数据变化后失效其缓存
+     *
+     * @param userId 用户ID
+     */
+    public void invalidateUser(Long userId) {
+        version(userId).incrementAndGet();
+        projectIds.invalidate(userId);
+    }
+
+    /**
+     * 项目数据变化后失效项目所属用户的缓存；所属用户未知时说明该用户没有缓存的项目列表，无需处理
+     *
+     * @param projectId 项目ID
+     */
+    public void invalidateProject(Long projectId) {
+        Long userId = projectOwners.getIfPresent(projectId);
+        if (userId != null) {
+            invalidateUser(userId);
+        }
+    }
+
+    private AtomicLong version(Long userId) {
+        return userVersions.get(userId, id -> new AtomicLong(System.nanoTime()));
+    }
+}
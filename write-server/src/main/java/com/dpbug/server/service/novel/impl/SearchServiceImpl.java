@@ -1,39 +1,84 @@
 package com.dpbug.server.service.novel.impl;
 
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
-import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
-import com.dpbug.server.mapper.novel.CharacterMapper;
-import com.dpbug.server.mapper.novel.ChapterMapper;
-import com.dpbug.server.mapper.novel.OutlineMapper;
+import com.dpbug.server.config.datasource.ReadFromReplica;
 import com.dpbug.server.mapper.novel.ProjectMapper;
-import com.dpbug.server.mapper.novel.StoryMemoryMapper;
-import com.dpbug.server.model.entity.novel.NovelChapter;
-import com.dpbug.server.model.entity.novel.NovelCharacter;
-import com.dpbug.server.model.entity.novel.NovelOutline;
+import com.dpbug.server.mapper.novel.SearchMapper;
 import com.dpbug.server.model.entity.novel.NovelProject;
-import com.dpbug.server.model.entity.novel.NovelStoryMemory;
 import com.dpbug.server.model.vo.novel.GlobalSearchResultVO;
 import com.dpbug.server.service.novel.SearchService;
-import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
+import org.springframework.web.util.HtmlUtils;
 
+import java.time.Duration;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 /**
  * 系统级全局搜索实现：在“当前用户拥有的项目范围内”搜索项目、章节、大纲、角色、记忆。
+ * <p>
+ * 检索走各表的 ngram 全文索引（见 SearchMapper），结果按相关度排序并生成高亮片段。
+ * 全文索引由 MySQL 随写入自动维护，业务写入路径无需额外处理。
+ * 章节正文压缩存储，不参与全局搜索（标题与摘要可覆盖大部分定位需求）。
+ * <p>
+ * 五类搜索并发执行，整体有截止时间：超时或失败的类别返回空列表并标记 partial，其余结果照常返回。
+ * 完整结果按用户与关键词短期缓存（见 SearchResultCache）。
  */
+@Slf4j
 @Service
-@RequiredArgsConstructor
 public class SearchServiceImpl implements SearchService {
 
+    /**
+     * 高亮片段长度（字符数）
+     */
+    private static final int SNIPPET_LENGTH = 80;
+
+    /**
+     * 命中位置之前保留的上下文长度
+     */
+    private static final int SNIPPET_LEADING = 20;
+
+    private final SearchMapper searchMapper;
     private final ProjectMapper projectMapper;
-    private final ChapterMapper chapterMapper;
-    private final OutlineMapper outlineMapper;
-    private final CharacterMapper characterMapper;
-    private final StoryMemoryMapper storyMemoryMapper;
+    private final SearchResultCache searchResultCache;
+    private final Executor searchExecutor;
+
+    /**
+     * ngram 分词长度，需与 MySQL 的 ngram_token_size 一致；短于该长度的关键词无法命中全文索引，退回 LIKE
+     */
+    @Value("${novel.search.ngram-token-size:2}")
+    private int ngramTokenSize;
+
+    /**
+     * 单次搜索的截止时间
+     */
+    @Value("${novel.search.deadline:800ms}")
+    private Duration deadline;
+
+    public SearchServiceImpl(SearchMapper searchMapper,
+                             ProjectMapper projectMapper,
+                             SearchResultCache searchResultCache,
+                             @Qualifier("searchExecutor") Executor searchExecutor) {
+        this.searchMapper = searchMapper;
+        this.projectMapper = projectMapper;
+        this.searchResultCache = searchResultCache;
+        this.searchExecutor = searchExecutor;
+    }
 
     @Override
+    @ReadFromReplica
     public GlobalSearchResultVO search(Long userId, String keyword, Integer limit) {
         String normalized = keyword == null ? "" : keyword.trim();
         int normalizedLimit = limit == null ? 5 : Math.max(1, Math.min(20, limit));
@@ -45,119 +90,176 @@ public class SearchServiceImpl implements SearchService {
             empty.setOutlines(List.of());
             empty.setCharacters(List.of());
             empty.setMemories(List.of());
+            empty.setPartial(false);
             return empty;
         }
 
+        SearchResultCache.Key cacheKey = searchResultCache.key(userId, normalized, normalizedLimit);
+        GlobalSearchResultVO cached = searchResultCache.get(cacheKey);
+        if (cached != null) {
+            return cached;
+        }
+
+        // 空白分隔的多个词须同时出现；每个词按短语匹配，避免 ngram 拆分后命中不相邻的片段
+        String[] terms = Arrays.stream(normalized.replace("\"", " ").split("\\s+"))
+                .filter(StringUtils::hasText)
+                .toArray(String[]::new);
+        boolean fulltext = terms.length > 0
+                && Arrays.stream(terms).allMatch(term -> term.length() >= ngramTokenSize);
+        String query = Arrays.stream(terms)
+                .map(term -> "+\"" + term + "\"")
+                .collect(Collectors.joining(" "));
+
+        List<Long> projectIds = searchResultCache.projectIds(userId, this::loadProjectIds);
+        boolean noProjects = projectIds.isEmpty();
+
+        CompletableFuture<List<GlobalSearchResultVO.ProjectHitVO>> projects = supply(noProjects, () -> {
+            List<GlobalSearchResultVO.ProjectHitVO> hits =
+                    searchMapper.searchProjects(userId, normalized, query, fulltext, normalizedLimit);
+            hits.forEach(hit -> hit.setSnippet(highlight(
+                    StringUtils.hasText(hit.getDescription()) ? hit.getDescription() : hit.getTitle(), terms)));
+            return hits;
+        });
+        CompletableFuture<List<GlobalSearchResultVO.ChapterHitVO>> chapters = supply(noProjects, () -> {
+            List<GlobalSearchResultVO.ChapterHitVO> hits =
+                    searchMapper.searchChapters(projectIds, normalized, query, fulltext, normalizedLimit);
+            hits.forEach(hit -> hit.setSnippet(highlight(
+                    StringUtils.hasText(hit.getSummary()) ? hit.getSummary() : hit.getTitle(), terms)));
+            return hits;
+        });
+        CompletableFuture<List<GlobalSearchResultVO.OutlineHitVO>> outlines = supply(noProjects, () -> {
+            List<GlobalSearchResultVO.OutlineHitVO> hits =
+                    searchMapper.searchOutlines(projectIds, normalized, query, fulltext, normalizedLimit);
+            hits.forEach(hit -> hit.setSnippet(highlight(
+                    StringUtils.hasText(hit.getContent()) ? hit.getContent() : hit.getTitle(), terms)));
+            return hits;
+        });
+        // 角色片段取自背景故事（查询时以 snippet 列返回原文）
+        CompletableFuture<List<GlobalSearchResultVO.CharacterHitVO>> characters = supply(noProjects, () -> {
+            List<GlobalSearchResultVO.CharacterHitVO> hits =
+                    searchMapper.searchCharacters(projectIds, normalized, query, fulltext, normalizedLimit);
+            hits.forEach(hit -> hit.setSnippet(highlight(
+                    StringUtils.hasText(hit.getSnippet()) ? hit.getSnippet() : hit.getName(), terms)));
+            return hits;
+        });
+        CompletableFuture<List<GlobalSearchResultVO.MemoryHitVO>> memories = supply(noProjects, () -> {
+            List<GlobalSearchResultVO.MemoryHitVO> hits =
+                    searchMapper.searchMemories(projectIds, normalized, query, fulltext, normalizedLimit);
+            hits.forEach(hit -> hit.setSnippet(highlight(
+                    StringUtils.hasText(hit.getContent()) ? hit.getContent() : hit.getTitle(), terms)));
+            return hits;
+        });
+
+        try {
+            CompletableFuture.allOf(projects, chapters, outlines, characters, memories)
+                    .get(deadline.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            log.warn("全局搜索超时，返回部分结果: userId={}, keyword={}, deadline={}", userId, normalized, deadline);
+        } catch (ExecutionException e) {
+            log.warn("全局搜索部分失败: userId={}, keyword={}", userId, normalized, e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
         GlobalSearchResultVO result = new GlobalSearchResultVO();
-        result.setProjects(searchProjects(userId, normalized, normalizedLimit));
-        result.setChapters(searchChapters(userId, normalized, normalizedLimit));
-        result.setOutlines(searchOutlines(userId, normalized, normalizedLimit));
-        result.setCharacters(searchCharacters(userId, normalized, normalizedLimit));
-        result.setMemories(searchMemories(userId, normalized, normalizedLimit));
+        result.setPartial(false);
+        result.setProjects(collect(projects, result));
+        result.setChapters(collect(chapters, result));
+        result.setOutlines(collect(outlines, result));
+        result.setCharacters(collect(characters, result));
+        result.setMemories(collect(memories, result));
+
+        if (!result.getPartial()) {
+            searchResultCache.put(cacheKey, result);
+        }
         return result;
     }
 
-    private List<GlobalSearchResultVO.ProjectHitVO> searchProjects(Long userId, String keyword, int limit) {
-        LambdaQueryWrapper<NovelProject> wrapper = new LambdaQueryWrapper<>();
-        wrapper.eq(NovelProject::getUserId, userId)
-                .and(w -> w.like(NovelProject::getTitle, keyword)
-                        .or()
-                        .like(NovelProject::getDescription, keyword))
-                .orderByDesc(NovelProject::getUpdateTime);
-
-        Page<NovelProject> page = projectMapper.selectPage(new Page<>(1, limit), wrapper);
-        return page.getRecords().stream().map(p -> {
-            GlobalSearchResultVO.ProjectHitVO vo = new GlobalSearchResultVO.ProjectHitVO();
-            vo.setId(p.getId());
-            vo.setTitle(p.getTitle());
-            vo.setDescription(p.getDescription());
-            return vo;
-        }).toList();
+    /**
+     * 在搜索线程池中执行单类搜索；用户没有项目时直接返回空列表
+     */
+    private <T> CompletableFuture<List<T>> supply(boolean skip, Supplier<List<T>> search) {
+        if (skip) {
+            return CompletableFuture.completedFuture(List.of());
+        }
+        return CompletableFuture.supplyAsync(search, searchExecutor);
     }
 
-    private List<GlobalSearchResultVO.ChapterHitVO> searchChapters(Long userId, String keyword, int limit) {
-        LambdaQueryWrapper<NovelChapter> wrapper = new LambdaQueryWrapper<>();
-        wrapper.inSql(NovelChapter::getProjectId,
-                        "SELECT id FROM novel_project WHERE user_id = " + userId + " AND is_deleted = 0")
-                .and(w -> w.like(NovelChapter::getTitle, keyword)
-                        .or()
-                        .like(NovelChapter::getSummary, keyword))
-                .orderByDesc(NovelChapter::getUpdateTime);
-
-        Page<NovelChapter> page = chapterMapper.selectPage(new Page<>(1, limit), wrapper);
-        return page.getRecords().stream().map(c -> {
-            GlobalSearchResultVO.ChapterHitVO vo = new GlobalSearchResultVO.ChapterHitVO();
-            vo.setId(c.getId());
-            vo.setProjectId(c.getProjectId());
-            vo.setChapterNumber(c.getChapterNumber());
-            vo.setTitle(c.getTitle());
-            vo.setSummary(c.getSummary());
-            return vo;
-        }).toList();
+    /**
+     * 取出已完成的搜索结果；未完成或失败时取消并返回空列表，同时标记为部分结果
+     */
+    private <T> List<T> collect(CompletableFuture<List<T>> future, GlobalSearchResultVO result) {
+        if (future.isDone() && !future.isCompletedExceptionally()) {
+            return future.join();
+        }
+        future.cancel(false);
+        result.setPartial(true);
+        return List.of();
     }
 
-    private List<GlobalSearchResultVO.OutlineHitVO> searchOutlines(Long userId, String keyword, int limit) {
-        LambdaQueryWrapper<NovelOutline> wrapper = new LambdaQueryWrapper<>();
-        wrapper.inSql(NovelOutline::getProjectId,
-                        "SELECT id FROM novel_project WHERE user_id = " + userId + " AND is_deleted = 0")
-                .and(w -> w.like(NovelOutline::getTitle, keyword)
-                        .or()
-                        .like(NovelOutline::getContent, keyword))
-                .orderByAsc(NovelOutline::getOrderIndex);
-
-        Page<NovelOutline> page = outlineMapper.selectPage(new Page<>(1, limit), wrapper);
-        return page.getRecords().stream().map(o -> {
-            GlobalSearchResultVO.OutlineHitVO vo = new GlobalSearchResultVO.OutlineHitVO();
-            vo.setId(o.getId());
-            vo.setProjectId(o.getProjectId());
-            vo.setOrderIndex(o.getOrderIndex());
-            vo.setTitle(o.getTitle());
-            vo.setContent(o.getContent());
-            return vo;
-        }).toList();
+    /**
+     * 查询用户未删除的项目ID
+     */
+    private List<Long> loadProjectIds(Long userId) {
+        LambdaQueryWrapper<NovelProject> wrapper = new LambdaQueryWrapper<>();
+        wrapper.select(NovelProject::getId)
+                .eq(NovelProject::getUserId, userId);
+        return projectMapper.selectList(wrapper).stream()
+                .map(NovelProject::getId)
+                .toList();
     }
 
-    private List<GlobalSearchResultVO.CharacterHitVO> searchCharacters(Long userId, String keyword, int limit) {
-        LambdaQueryWrapper<NovelCharacter> wrapper = new LambdaQueryWrapper<>();
-        wrapper.inSql(NovelCharacter::getProjectId,
-                        "SELECT id FROM novel_project WHERE user_id = " + userId + " AND is_deleted = 0")
-                .and(w -> w.like(NovelCharacter::getName, keyword)
-                        .or()
-                        .like(NovelCharacter::getBackground, keyword))
-                .orderByDesc(NovelCharacter::getUpdateTime);
-
-        Page<NovelCharacter> page = characterMapper.selectPage(new Page<>(1, limit), wrapper);
-        return page.getRecords().stream().map(c -> {
-            GlobalSearchResultVO.CharacterHitVO vo = new GlobalSearchResultVO.CharacterHitVO();
-            vo.setId(c.getId());
-            vo.setProjectId(c.getProjectId());
-            vo.setName(c.getName());
-            vo.setRoleType(c.getRoleType());
-            vo.setIsOrganization(c.getIsOrganization());
-            return vo;
-        }).toList();
-    }
+    /**
+     * 截取首个命中位置附近的片段并高亮关键词
+     * <p>
+     * 片段先做 HTML 转义再插入 &lt;em&gt; 标记，前端可直接按 HTML 渲染
+     */
+    private String highlight(String text, String[] terms) {
+        if (!StringUtils.hasText(text)) {
+            return "";
+        }
+        String lower = text.toLowerCase(Locale.ROOT);
 
-    private List<GlobalSearchResultVO.MemoryHitVO> searchMemories(Long userId, String keyword, int limit) {
-        LambdaQueryWrapper<NovelStoryMemory> wrapper = new LambdaQueryWrapper<>();
-        wrapper.inSql(NovelStoryMemory::getProjectId,
-                        "SELECT id FROM novel_project WHERE user_id = " + userId + " AND is_deleted = 0")
-                .and(w -> w.like(NovelStoryMemory::getTitle, keyword)
-                        .or()
-                        .like(NovelStoryMemory::getContent, keyword))
-                .orderByDesc(NovelStoryMemory::getUpdateTime);
-
-        Page<NovelStoryMemory> page = storyMemoryMapper.selectPage(new Page<>(1, limit), wrapper);
-        return page.getRecords().stream().map(m -> {
-            GlobalSearchResultVO.MemoryHitVO vo = new GlobalSearchResultVO.MemoryHitVO();
-            vo.setId(m.getId());
-            vo.setProjectId(m.getProjectId());
-            vo.setChapterId(m.getChapterId());
-            vo.setMemoryType(m.getMemoryType());
-            vo.setTitle(m.getTitle());
-            vo.setContent(m.getContent());
-            return vo;
-        }).toList();
+        int first = -1;
+        for (String term : terms) {
+            int index = lower.indexOf(term.toLowerCase(Locale.ROOT));
+            if (index >= 0 && (first < 0 || index < first)) {
+                first = index;
+            }
+        }
+        int start = first <= SNIPPET_LEADING ? 0 : first - SNIPPET_LEADING;
+        int end = Math.min(text.length(), start + SNIPPET_LENGTH);
+
+        StringBuilder sb = new StringBuilder();
+        if (start > 0) {
+            sb.append("…");
+        }
+        int cursor = start;
+        while (cursor < end) {
+            // 找当前位置之后最近的关键词
+            int matchAt = -1;
+            int matchLength = 0;
+            for (String term : terms) {
+                int index = lower.indexOf(term.toLowerCase(Locale.ROOT), cursor);
+                if (index >= 0 && index < end && (matchAt < 0 || index < matchAt)) {
+                    matchAt = index;
+                    matchLength = term.length();
+                }
+            }
+            if (matchAt < 0) {
+                sb.append(HtmlUtils.htmlEscape(text.substring(cursor, end)));
+                break;
+            }
+            int matchEnd = Math.min(end, matchAt + matchLength);
+            sb.append(HtmlUtils.htmlEscape(text.substring(cursor, matchAt)))
+                    .append("<em>")
+                    .append(HtmlUtils.htmlEscape(text.substring(matchAt, matchEnd)))
+                    .append("</em>");
+            cursor = matchEnd;
+        }
+        if (end < text.length()) {
+            sb.append("…");
+        }
+        return sb.toString();
     }
 }
-
@@ -5,60 +5,142 @@ import com.alibaba.fastjson2.JSONArray;
 import com.alibaba.fastjson2.JSONObject;
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.dpbug.common.constant.CommonConstants;
 import com.dpbug.common.constant.NovelConstants;
 import com.dpbug.common.domain.PageResult;
+import com.dpbug.common.utils.PageCursor;
 import com.dpbug.server.ai.ChatClientFactory;
-import com.dpbug.server.ai.ChromaVectorStoreFactory;
+import com.dpbug.server.ai.MemoryReranker;
+import com.dpbug.server.ai.RetrievalSession;
+import com.dpbug.server.ai.RetrievalSessionManager;
+import com.dpbug.server.ai.UserAiRequestLimiter;
+import com.dpbug.server.config.datasource.ReadFromReplica;
 import com.dpbug.server.mapper.novel.CharacterMapper;
+import com.dpbug.server.mapper.novel.ChapterContentMapper;
 import com.dpbug.server.mapper.novel.ChapterMapper;
+import com.dpbug.server.mapper.novel.MemoryCharacterMapper;
 import com.dpbug.server.mapper.novel.StoryMemoryMapper;
+import com.dpbug.server.model.dto.novel.ProjectStatsDelta;
 import com.dpbug.server.model.dto.novel.StoryMemoryQueryRequest;
 import com.dpbug.server.model.entity.novel.NovelChapter;
 import com.dpbug.server.model.entity.novel.NovelCharacter;
+import com.dpbug.server.model.entity.novel.NovelMemoryCharacter;
+import com.dpbug.server.model.entity.novel.NovelProjectStats;
 import com.dpbug.server.model.entity.novel.NovelStoryMemory;
 import com.dpbug.server.model.vo.novel.MemoryStatisticsVO;
 import com.dpbug.server.model.vo.novel.StoryMemoryVO;
+import com.dpbug.server.service.novel.MemoryVectorSyncService;
+import com.dpbug.server.service.novel.ProjectStatsService;
 import com.dpbug.server.service.novel.StoryMemoryService;
-import lombok.RequiredArgsConstructor;
+import com.dpbug.server.util.TextWindowSplitter;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.ai.chat.client.ChatClient;
 import org.springframework.ai.document.Document;
-import org.springframework.ai.embedding.EmbeddingModel;
-import org.springframework.ai.vectorstore.SearchRequest;
-import org.springframework.ai.vectorstore.VectorStore;
+import org.springframework.ai.vectorstore.filter.Filter;
 import org.springframework.ai.vectorstore.filter.FilterExpressionBuilder;
 import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
-import java.util.UUID;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 /**
  * 故事记忆服务实现类
  *
- * <p>使用 ChromaDB 作为向量数据库，通过 ChromaVectorStoreFactory 实现用户-项目级别的数据隔离。</p>
+ * <p>使用 ChromaDB 作为向量数据库，通过项目专属 Collection 实现用户-项目级别的数据隔离。</p>
  * <p>每个用户的每个项目拥有独立的 ChromaDB Collection。</p>
  *
  * @author dpbug
  */
 @Slf4j
 @Service
-@RequiredArgsConstructor
 public class StoryMemoryServiceImpl implements StoryMemoryService {
 
     private final StoryMemoryMapper storyMemoryMapper;
     private final ChapterMapper chapterMapper;
+    private final ChapterContentMapper chapterContentMapper;
     private final CharacterMapper characterMapper;
     private final ChatClientFactory chatClientFactory;
-    private final ChromaVectorStoreFactory chromaVectorStoreFactory;
-    private final EmbeddingModel embeddingModel;
+    private final MemoryVectorSyncService memoryVectorSyncService;
+    private final MemoryCharacterMapper memoryCharacterMapper;
+    private final MemoryReranker memoryReranker;
+    private final RetrievalSessionManager retrievalSessionManager;
+    private final UserAiRequestLimiter userAiRequestLimiter;
+    private final ProjectStatsService projectStatsService;
+    private final Executor memoryExtractExecutor;
+
+    /**
+     * 分段提取的窗口大小（字符数），不超过该长度的章节整章一次提取
+     */
+    @Value("${novel.memory.extraction.window-size:3000}")
+    private int windowSize;
+
+    /**
+     * 相邻窗口的重叠字符数
+     */
+    @Value("${novel.memory.extraction.window-overlap:300}")
+    private int windowOverlap;
+
+    /**
+     * 单章最多窗口数，超出时放大窗口
+     */
+    @Value("${novel.memory.extraction.max-windows:8}")
+    private int maxWindows;
+
+    public StoryMemoryServiceImpl(StoryMemoryMapper storyMemoryMapper,
+                                  ChapterMapper chapterMapper,
+                                  ChapterContentMapper chapterContentMapper,
+                                  CharacterMapper characterMapper,
+                                  ChatClientFactory chatClientFactory,
+                                  MemoryVectorSyncService memoryVectorSyncService,
+                                  MemoryCharacterMapper memoryCharacterMapper,
+                                  MemoryReranker memoryReranker,
+                                  RetrievalSessionManager retrievalSessionManager,
+                                  UserAiRequestLimiter userAiRequestLimiter,
+                                  ProjectStatsService projectStatsService,
+                                  @Qualifier("memoryExtractExecutor") Executor memoryExtractExecutor) {
+        this.storyMemoryMapper = storyMemoryMapper;
+        this.chapterMapper = chapterMapper;
+        this.chapterContentMapper = chapterContentMapper;
+        this.characterMapper = characterMapper;
+        this.chatClientFactory = chatClientFactory;
+        this.memoryVectorSyncService = memoryVectorSyncService;
+        this.memoryCharacterMapper = memoryCharacterMapper;
+        this.memoryReranker = memoryReranker;
+        this.retrievalSessionManager = retrievalSessionManager;
+        this.userAiRequestLimiter = userAiRequestLimiter;
+        this.projectStatsService = projectStatsService;
+        this.memoryExtractExecutor = memoryExtractExecutor;
+    }
+
+    /**
+     * 伏笔自动回收的相似度阈值（较高，确保相关性）
+     */
+    private static final double FORESHADOW_RESOLVE_THRESHOLD = 0.7;
+
+    /**
+     * 记忆列表游标的排序方式标识
+     */
+    private static final String MEMORY_CURSOR_SORT = "memory";
+
+    /**
+     * 统计中未知记忆类型的归类键
+     */
+    private static final String OTHER_MEMORY_TYPE = "other";
 
     private static final String MEMORY_EXTRACTION_PROMPT = """
             分析以下章节内容,提取关键记忆点。请以JSON格式返回,包含以下类型:
@@ -77,31 +159,63 @@ public class StoryMemoryServiceImpl implements StoryMemoryService {
             - related_characters: 相关角色名称列表(数组,如["叶寒","魁怜"])
             - related_locations: 相关地点名称列表(数组,如["菊花荫","桃花岛"])
 
-            章节内容:
+            {segment}章节内容:
             {content}
 
             请返回JSON格式:
             {"memories": [...]}
             """;
 
-    /**
-     * 获取项目专属的 VectorStore
-     *
-     * @param userId    用户ID
-     * @param projectId 项目ID
-     * @return VectorStore 实例
-     */
-    private VectorStore getVectorStore(Long userId, Long projectId) {
-        return chromaVectorStoreFactory.getVectorStore(userId, projectId);
-    }
-
     @Override
     public List<NovelStoryMemory> extractMemories(Long userId, Long projectId, Long chapterId,
                                                    Integer chapterNumber, String content) {
         try {
-            // 构建提示词，截断过长内容
-            String truncatedContent = content.length() > 3000 ? content.substring(0, 3000) : content;
-            String prompt = MEMORY_EXTRACTION_PROMPT.replace("{content}", truncatedContent);
+            // 按段落切分为重叠窗口，保证整章都被覆盖；窗口数过多时放大窗口
+            int effectiveWindowSize = content == null ? windowSize
+                    : Math.max(windowSize, content.length() / Math.max(1, maxWindows) + windowOverlap);
+            List<String> windows = TextWindowSplitter.split(content, effectiveWindowSize, windowOverlap);
+            if (windows.isEmpty()) {
+                return Collections.emptyList();
+            }
+            if (windows.size() == 1) {
+                List<NovelStoryMemory> memories = userAiRequestLimiter.execute(userId,
+                        () -> extractWindow(userId, projectId, chapterId, chapterNumber, windows.get(0), ""));
+                log.info("章节记忆提取完成: chapterId={}, count={}", chapterId, memories.size());
+                return memories;
+            }
+
+            // 各窗口并发提取（受用户级限流约束），总耗时约为单个窗口的耗时
+            int total = windows.size();
+            List<CompletableFuture<List<NovelStoryMemory>>> futures = new ArrayList<>(total);
+            for (int i = 0; i < total; i++) {
+                String window = windows.get(i);
+                String segment = String.format("(以下为本章第%d/%d段,与相邻段落有少量重叠)%n", i + 1, total);
+                futures.add(CompletableFuture.supplyAsync(() -> userAiRequestLimiter.execute(userId,
+                        () -> extractWindow(userId, projectId, chapterId, chapterNumber, window, segment)),
+                        memoryExtractExecutor));
+            }
+
+            List<NovelStoryMemory> merged = mergeWindowMemories(futures.stream()
+                    .map(CompletableFuture::join)
+                    .toList());
+            log.info("章节记忆分段提取完成: chapterId={}, windows={}, count={}", chapterId, total, merged.size());
+            return merged;
+
+        } catch (Exception e) {
+            log.error("提取记忆失败: chapterId={}", chapterId, e);
+            return Collections.emptyList();
+        }
+    }
+
+    /**
+     * 提取单个窗口的记忆，失败时返回空列表（不影响其他窗口）
+     */
+    private List<NovelStoryMemory> extractWindow(Long userId, Long projectId, Long chapterId,
+                                                 Integer chapterNumber, String window, String segment) {
+        try {
+            String prompt = MEMORY_EXTRACTION_PROMPT
+                    .replace("{segment}", segment)
+                    .replace("{content}", window);
 
             // 调用AI提取记忆
             ChatClient chatClient = chatClientFactory.createForUser(userId);
@@ -111,16 +225,73 @@ public class StoryMemoryServiceImpl implements StoryMemoryService {
                     .content();
 
             // 解析AI返回的JSON
-            List<NovelStoryMemory> memories = parseMemories(response, projectId, chapterId, chapterNumber);
-            log.info("章节记忆提取完成: chapterId={}, count={}", chapterId, memories.size());
-            return memories;
-
+            return parseMemories(response, projectId, chapterId, chapterNumber);
         } catch (Exception e) {
-            log.error("提取记忆失败: chapterId={}", chapterId, e);
+            log.warn("窗口记忆提取失败: chapterId={}, error={}", chapterId, e.getMessage());
             return Collections.emptyList();
         }
     }
 
+    /**
+     * 合并各窗口的记忆，去除重叠段落产生的重复项
+     * <p>同类型且标题相同（或互相包含）视为重复，保留重要性更高的一条，并合并相关角色与地点</p>
+     */
+    private List<NovelStoryMemory> mergeWindowMemories(List<List<NovelStoryMemory>> windowResults) {
+        List<NovelStoryMemory> merged = new ArrayList<>();
+        for (List<NovelStoryMemory> memories : windowResults) {
+            for (NovelStoryMemory memory : memories) {
+                NovelStoryMemory duplicate = merged.stream()
+                        .filter(m -> isSameMemory(m, memory))
+                        .findFirst()
+                        .orElse(null);
+                if (duplicate == null) {
+                    merged.add(memory);
+                    continue;
+                }
+                BigDecimal existingScore = duplicate.getImportanceScore() == null ? BigDecimal.ZERO
+                        : duplicate.getImportanceScore();
+                if (memory.getImportanceScore() != null && memory.getImportanceScore().compareTo(existingScore) > 0) {
+                    duplicate.setTitle(memory.getTitle());
+                    duplicate.setContent(memory.getContent());
+                    duplicate.setImportanceScore(memory.getImportanceScore());
+                }
+                duplicate.setIsForeshadow(Math.max(duplicate.getIsForeshadow(), memory.getIsForeshadow()));
+                duplicate.setRelatedCharacters(union(duplicate.getRelatedCharacters(), memory.getRelatedCharacters()));
+                duplicate.setRelatedLocations(union(duplicate.getRelatedLocations(), memory.getRelatedLocations()));
+            }
+        }
+        return merged;
+    }
+
+    private boolean isSameMemory(NovelStoryMemory a, NovelStoryMemory b) {
+        if (!Objects.equals(a.getMemoryType(), b.getMemoryType()) || a.getTitle() == null || b.getTitle() == null) {
+            return false;
+        }
+        String titleA = normalizeTitle(a.getTitle());
+        String titleB = normalizeTitle(b.getTitle());
+        if (titleA.equals(titleB)) {
+            return true;
+        }
+        // 过短的标题互相包含容易误判
+        return titleA.length() >= 4 && titleB.length() >= 4 && (titleA.contains(titleB) || titleB.contains(titleA));
+    }
+
+    private String normalizeTitle(String title) {
+        return title.replaceAll("[\\p{P}\\p{S}\\s]", "");
+    }
+
+    private <T> List<T> union(List<T> a, List<T> b) {
+        if (a == null || a.isEmpty()) {
+            return b;
+        }
+        if (b == null || b.isEmpty()) {
+            return a;
+        }
+        Set<T> set = new LinkedHashSet<>(a);
+        set.addAll(b);
+        return new ArrayList<>(set);
+    }
+
     /**
      * 解析AI返回的记忆JSON
      * <p>AI可能返回被markdown代码块包裹的JSON，需要先清理</p>
@@ -237,26 +408,13 @@ public class StoryMemoryServiceImpl implements StoryMemoryService {
             return;
         }
 
-        // 获取项目专属的 VectorStore
-        VectorStore vectorStore = getVectorStore(userId, projectId);
-
         // 获取当前章节ID（用于伏笔回收标记）
         Long currentChapterId = memories.get(0).getChapterId();
 
-        for (NovelStoryMemory memory : memories) {
-            // 保存到MySQL
-            storyMemoryMapper.insert(memory);
-
-            // 向量化并存储到VectorStore
-            try {
-                String vectorId = storeToVectorStore(vectorStore, projectId, memory);
-                memory.setVectorId(vectorId);
-                memory.setEmbeddingModel(embeddingModel.getClass().getSimpleName());
-                storyMemoryMapper.updateById(memory);
-            } catch (Exception e) {
-                log.warn("向量存储失败: memoryId={}", memory.getId(), e);
-            }
-        }
+        // 记忆与向量同步 Outbox 在同一事务中写入MySQL，提交后立即同步到VectorStore
+        // 同步失败的记录由后台任务重试，不会出现记忆永久缺失向量的情况
+        List<Long> outboxIds = memoryVectorSyncService.saveMemories(userId, projectId, memories);
+        memoryVectorSyncService.syncAfterCommit(outboxIds);
 
         // 检测并自动回收伏笔
         tryAutoResolveForeshadows(userId, projectId, currentChapterId, memories);
@@ -282,38 +440,35 @@ public class StoryMemoryServiceImpl implements StoryMemoryService {
                 return;
             }
 
-            // 获取 VectorStore
-            VectorStore vectorStore = getVectorStore(userId, projectId);
-
-            // 对每个待回收伏笔，检查当前章节是否有相关内容
-            for (NovelStoryMemory foreshadow : pendingForeshadows) {
-                // 跳过当前章节自己埋下的伏笔
-                if (foreshadow.getChapterId().equals(currentChapterId)) {
-                    continue;
-                }
+            // 跳过当前章节自己埋下的伏笔
+            List<NovelStoryMemory> candidates = pendingForeshadows.stream()
+                    .filter(foreshadow -> !foreshadow.getChapterId().equals(currentChapterId))
+                    .toList();
+            if (candidates.isEmpty()) {
+                return;
+            }
 
-                // 使用伏笔内容进行语义检索
-                String query = foreshadow.getTitle() + " " + foreshadow.getContent();
-                FilterExpressionBuilder builder = new FilterExpressionBuilder();
-                var filterExpression = builder.and(
-                        builder.eq("project_id", projectId.toString()),
-                        builder.eq("chapter_id", currentChapterId.toString())
-                ).build();
-
-                List<Document> results = vectorStore.similaritySearch(
-                        SearchRequest.builder()
-                                .query(query)
-                                .topK(1)
-                                .similarityThreshold(0.7)  // 较高阈值，确保相关性
-                                .filterExpression(filterExpression)
-                                .build()
-                );
+            // 所有伏笔的查询合并为一次检索：只在当前章节的记忆中查找，使用较高阈值确保相关性
+            FilterExpressionBuilder builder = new FilterExpressionBuilder();
+            var filterExpression = builder.and(
+                    builder.eq("project_id", projectId.toString()),
+                    builder.eq("chapter_id", currentChapterId.toString())
+            ).build();
+            List<String> queries = candidates.stream()
+                    .map(foreshadow -> foreshadow.getTitle() + " " + foreshadow.getContent())
+                    .toList();
+            List<List<Document>> results = retrievalSessionManager.session(userId, projectId)
+                    .search(queries, 1, FORESHADOW_RESOLVE_THRESHOLD, filterExpression);
 
+            for (int i = 0; i < candidates.size(); i++) {
                 // 如果找到高相似度匹配，标记伏笔已回收
-                if (!results.isEmpty()) {
+                if (!results.get(i).isEmpty()) {
+                    NovelStoryMemory foreshadow = candidates.get(i);
                     foreshadow.setIsForeshadow(NovelConstants.ForeshadowStatus.RESOLVED);
                     foreshadow.setForeshadowResolvedAt(currentChapterId);
                     storyMemoryMapper.updateById(foreshadow);
+                    projectStatsService.apply(ProjectStatsDelta.of(projectId).foreshadow(
+                            NovelConstants.ForeshadowStatus.PLANTED, NovelConstants.ForeshadowStatus.RESOLVED));
                     log.info("自动回收伏笔: foreshadowId={}, title={}, resolvedAt={}",
                             foreshadow.getId(), foreshadow.getTitle(), currentChapterId);
                 }
@@ -323,62 +478,28 @@ public class StoryMemoryServiceImpl implements StoryMemoryService {
         }
     }
 
-    /**
-     * 存储记忆到向量数据库
-     *
-     * @param vectorStore 向量存储实例
-     * @param projectId   项目ID
-     * @param memory      记忆实体
-     * @return 向量ID
-     */
-    private String storeToVectorStore(VectorStore vectorStore, Long projectId, NovelStoryMemory memory) {
-        // 生成唯一向量ID
-        String vectorId = UUID.randomUUID().toString();
-
-        // 构建向量文档内容：标题 + 内容
-        String textContent = memory.getTitle() + "\n" + memory.getContent();
-
-        // 构建元数据，用于后续过滤检索
-        Map<String, Object> metadata = Map.of(
-                "project_id", projectId.toString(),
-                "memory_id", memory.getId().toString(),
-                "chapter_id", memory.getChapterId().toString(),
-                "chapter_number", memory.getStoryTimeline(),
-                "memory_type", memory.getMemoryType(),
-                "importance_score", memory.getImportanceScore().doubleValue(),
-                "is_foreshadow", memory.getIsForeshadow()
-        );
-
-        // 创建Document并存储
-        Document document = new Document(vectorId, textContent, metadata);
-        vectorStore.add(List.of(document));
-
-        return vectorId;
+    @Override
+    public List<StoryMemoryVO> searchRelatedMemories(Long userId, Long projectId, String query, int topK) {
+        return searchRelatedMemories(userId, projectId, query, topK, null);
     }
 
     @Override
-    public List<StoryMemoryVO> searchRelatedMemories(Long userId, Long projectId, String query, int topK) {
+    public List<StoryMemoryVO> searchRelatedMemories(Long userId, Long projectId, String query, int topK,
+                                                     Integer currentChapter) {
         if (query == null || query.isBlank()) {
             return Collections.emptyList();
         }
 
         try {
-            // 获取项目专属的 VectorStore
-            VectorStore vectorStore = getVectorStore(userId, projectId);
+            // 同一次生成内共享查询向量与检索结果
+            RetrievalSession session = retrievalSessionManager.session(userId, projectId);
 
             // 构建过滤表达式：只检索当前项目的记忆
             FilterExpressionBuilder builder = new FilterExpressionBuilder();
             var filterExpression = builder.eq("project_id", projectId.toString()).build();
 
-            // 执行向量相似度检索
-            List<Document> results = vectorStore.similaritySearch(
-                    SearchRequest.builder()
-                            .query(query)
-                            .topK(topK)
-                            .similarityThreshold(NovelConstants.ChapterConfig.SIMILARITY_THRESHOLD)
-                            .filterExpression(filterExpression)
-                            .build()
-            );
+            // 执行向量相似度检索并重排
+            List<StoryMemoryVO> results = searchAndRerank(session, query, topK, filterExpression, currentChapter);
 
             if (results.isEmpty()) {
                 // 降级方案：返回重要性高的记忆
@@ -390,15 +511,7 @@ public class StoryMemoryServiceImpl implements StoryMemoryService {
                         .toList();
             }
 
-            // 根据向量检索结果查询完整记忆
-            List<Long> memoryIds = results.stream()
-                    .map(doc -> Long.parseLong(doc.getMetadata().get("memory_id").toString()))
-                    .toList();
-
-            List<NovelStoryMemory> memories = storyMemoryMapper.selectByIds(memoryIds);
-            return memories.stream()
-                    .map(this::convertToVO)
-                    .toList();
+            return results;
 
         } catch (Exception e) {
             log.error("向量检索失败，使用降级方案: projectId={}", projectId, e);
@@ -411,6 +524,63 @@ public class StoryMemoryServiceImpl implements StoryMemoryService {
         }
     }
 
+    @Override
+    public List<StoryMemoryVO> searchRelatedMemories(Long userId, Long projectId, String query, int topK,
+                                                     Integer currentChapter, List<int[]> chapterRanges) {
+        if (query == null || query.isBlank() || chapterRanges == null || chapterRanges.isEmpty()) {
+            return searchRelatedMemories(userId, projectId, query, topK, currentChapter);
+        }
+
+        try {
+            RetrievalSession session = retrievalSessionManager.session(userId, projectId);
+
+            // 项目过滤 + 章节区间过滤（多个区间之间为 OR）
+            FilterExpressionBuilder builder = new FilterExpressionBuilder();
+            FilterExpressionBuilder.Op rangeOp = null;
+            for (int[] range : chapterRanges) {
+                FilterExpressionBuilder.Op op = builder.and(
+                        builder.gte("chapter_number", range[0]),
+                        builder.lte("chapter_number", range[1]));
+                rangeOp = rangeOp == null ? op : builder.or(rangeOp, op);
+            }
+            var filterExpression = builder.and(builder.eq("project_id", projectId.toString()), rangeOp).build();
+
+            List<StoryMemoryVO> results = searchAndRerank(session, query, topK, filterExpression, currentChapter);
+            if (results.isEmpty()) {
+                log.debug("章节区间内无相关记忆，退回全项目检索: projectId={}", projectId);
+                return searchRelatedMemories(userId, projectId, query, topK, currentChapter);
+            }
+            return results;
+
+        } catch (Exception e) {
+            log.warn("章节区间记忆检索失败，退回全项目检索: projectId={}, error={}", projectId, e.getMessage());
+            return searchRelatedMemories(userId, projectId, query, topK, currentChapter);
+        }
+    }
+
+    /**
+     * 放大召回后加载完整记忆并本地重排
+     *
+     * <p>按ID批量查询不保证顺序，最终顺序由重排结果决定</p>
+     */
+    private List<StoryMemoryVO> searchAndRerank(RetrievalSession session, String query, int topK,
+                                                Filter.Expression filterExpression, Integer currentChapter) {
+        List<Document> hits = session.search(query, memoryReranker.fetchSize(topK),
+                NovelConstants.ChapterConfig.SIMILARITY_THRESHOLD, filterExpression);
+        if (hits.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        List<Long> memoryIds = hits.stream()
+                .map(doc -> Long.parseLong(doc.getMetadata().get("memory_id").toString()))
+                .distinct()
+                .toList();
+        List<NovelStoryMemory> memories = storyMemoryMapper.selectByIds(memoryIds);
+        return memoryReranker.rerank(hits, memories, topK, currentChapter).stream()
+                .map(this::convertToVO)
+                .toList();
+    }
+
     @Override
     public List<StoryMemoryVO> getPendingForeshadows(Long projectId) {
         List<NovelStoryMemory> foreshadows = storyMemoryMapper.selectPendingForeshadows(projectId);
@@ -421,82 +591,82 @@ public class StoryMemoryServiceImpl implements StoryMemoryService {
 
     @Override
     public List<StoryMemoryVO> getCharacterStates(Long projectId, List<Long> characterIds) {
-        // 查询角色相关的最近事件
-        List<NovelStoryMemory> memories = storyMemoryMapper.selectByType(
-                projectId, NovelConstants.MemoryType.CHARACTER_EVENT, 20);
+        // 每个角色各取最近的角色事件，合并后按时间线倒序
+        Map<Long, List<StoryMemoryVO>> events = getLatestCharacterEvents(projectId, characterIds,
+                NovelConstants.ChapterConfig.CHARACTER_STATE_TOP_K, NovelConstants.MemoryType.CHARACTER_EVENT, null);
+        return flattenCharacterEvents(events);
+    }
 
-        return memories.stream()
-                .filter(m -> {
-                    if (m.getRelatedCharacters() == null) {
-                        return false;
-                    }
-                    return m.getRelatedCharacters().stream()
-                            .anyMatch(characterIds::contains);
-                })
-                .limit(10)
-                .map(this::convertToVO)
+    @Override
+    public Map<Long, List<StoryMemoryVO>> getLatestCharacterEvents(Long projectId, List<Long> characterIds, int limit,
+                                                                   String memoryType, Integer beforeChapter) {
+        if (characterIds == null || characterIds.isEmpty() || limit <= 0) {
+            return Collections.emptyMap();
+        }
+        List<NovelMemoryCharacter> relations = memoryCharacterMapper.selectLatestByCharacters(
+                projectId, characterIds.stream().distinct().toList(), limit, memoryType, beforeChapter);
+
+        Map<Long, List<StoryMemoryVO>> result = new LinkedHashMap<>();
+        for (NovelMemoryCharacter relation : relations) {
+            result.computeIfAbsent(relation.getCharacterId(), id -> new ArrayList<>())
+                    .add(convertToVO(relation.getMemory()));
+        }
+        return result;
+    }
+
+    /**
+     * 合并多个角色的记忆（同一记忆只保留一次），按时间线倒序
+     */
+    private List<StoryMemoryVO> flattenCharacterEvents(Map<Long, List<StoryMemoryVO>> events) {
+        Map<Long, StoryMemoryVO> unique = new LinkedHashMap<>();
+        events.values().forEach(list -> list.forEach(vo -> unique.putIfAbsent(vo.getId(), vo)));
+        return unique.values().stream()
+                .sorted(Comparator.comparing(StoryMemoryVO::getStoryTimeline,
+                        Comparator.nullsLast(Comparator.reverseOrder())))
                 .toList();
     }
 
     @Override
     public void resolveForeshadow(Long memoryId, Long resolvedAtChapterId) {
+        NovelStoryMemory existing = storyMemoryMapper.selectById(memoryId);
+        if (existing == null) {
+            log.warn("记忆不存在，跳过回收伏笔: memoryId={}", memoryId);
+            return;
+        }
+
         NovelStoryMemory memory = new NovelStoryMemory();
         memory.setId(memoryId);
         memory.setIsForeshadow(NovelConstants.ForeshadowStatus.RESOLVED);
         memory.setForeshadowResolvedAt(resolvedAtChapterId);
         storyMemoryMapper.updateById(memory);
+        projectStatsService.apply(ProjectStatsDelta.of(existing.getProjectId())
+                .foreshadow(existing.getIsForeshadow(), NovelConstants.ForeshadowStatus.RESOLVED));
 
         log.info("标记伏笔已回收: memoryId={}, resolvedAtChapterId={}", memoryId, resolvedAtChapterId);
     }
 
     @Override
     public void deleteByChapter(Long userId, Long projectId, Long chapterId) {
-        // 查询该章节的所有记忆
-        List<NovelStoryMemory> memories = storyMemoryMapper.selectByChapterId(chapterId);
-
-        // 从向量存储删除
-        List<String> vectorIds = memories.stream()
-                .map(NovelStoryMemory::getVectorId)
-                .filter(Objects::nonNull)
-                .toList();
-
-        if (!vectorIds.isEmpty()) {
-            try {
-                VectorStore vectorStore = getVectorStore(userId, projectId);
-                vectorStore.delete(vectorIds);
-                log.debug("向量存储删除成功: count={}", vectorIds.size());
-            } catch (Exception e) {
-                log.warn("向量存储删除失败: chapterId={}", chapterId, e);
-            }
-        }
-
-        // 从MySQL删除
-        LambdaQueryWrapper<NovelStoryMemory> wrapper = new LambdaQueryWrapper<>();
-        wrapper.eq(NovelStoryMemory::getChapterId, chapterId);
-        storyMemoryMapper.delete(wrapper);
+        // MySQL 删除与向量删除 Outbox 在同一事务中完成，向量库删除失败时由后台任务重试
+        List<Long> outboxIds = memoryVectorSyncService.deleteByChapter(userId, projectId, chapterId);
+        memoryVectorSyncService.syncAfterCommit(outboxIds);
 
-        log.info("删除章节记忆: chapterId={}, count={}", chapterId, memories.size());
+        log.info("删除章节记忆: chapterId={}, count={}", chapterId, outboxIds.size());
     }
 
     @Override
     public void deleteByProject(Long userId, Long projectId) {
         log.info("删除项目所有记忆: userId={}, projectId={}", userId, projectId);
 
-        // 1. 删除 ChromaDB Collection（包含所有向量数据）
-        boolean deleted = chromaVectorStoreFactory.deleteCollection(userId, projectId);
-        if (deleted) {
-            log.info("ChromaDB Collection 删除成功: userId={}, projectId={}", userId, projectId);
-        }
-
-        // 2. 从 MySQL 删除所有记忆
-        LambdaQueryWrapper<NovelStoryMemory> wrapper = new LambdaQueryWrapper<>();
-        wrapper.eq(NovelStoryMemory::getProjectId, projectId);
-        int count = storyMemoryMapper.delete(wrapper);
+        // 从 MySQL 删除所有记忆，并通过 Outbox 删除 ChromaDB Collection（包含所有向量数据）
+        List<Long> outboxIds = memoryVectorSyncService.deleteByProject(userId, projectId);
+        memoryVectorSyncService.syncAfterCommit(outboxIds);
 
-        log.info("项目记忆删除完成: projectId={}, mysqlCount={}", projectId, count);
+        log.info("项目记忆删除完成: projectId={}", projectId);
     }
 
     @Override
+    @ReadFromReplica
     public PageResult<StoryMemoryVO> listByProject(StoryMemoryQueryRequest request) {
 
         Page<NovelStoryMemory> page = new Page<>(request.getPageNum(), request.getPageSize());
@@ -519,6 +689,9 @@ public class StoryMemoryServiceImpl implements StoryMemoryService {
             wrapper.between(NovelStoryMemory::getStoryTimeline,
                     request.getStartTimeline(), request.getEndTimeline());
         }
+        if (request.getCursor() != null) {
+            return listByCursor(request, wrapper);
+        }
         wrapper.orderByDesc(NovelStoryMemory::getStoryTimeline)
                 .orderByDesc(NovelStoryMemory::getImportanceScore);
         Page<NovelStoryMemory> resultPage = storyMemoryMapper.selectPage(page, wrapper);
@@ -536,7 +709,40 @@ public class StoryMemoryServiceImpl implements StoryMemoryService {
         );
     }
 
+    /**
+     * 游标分页：按 (story_timeline, importance_score, id) 倒序键集翻页，走 idx_project_timeline_importance 索引
+     */
+    private PageResult<StoryMemoryVO> listByCursor(StoryMemoryQueryRequest request,
+                                                   LambdaQueryWrapper<NovelStoryMemory> wrapper) {
+        int pageSize = request.getPageSize() != null && request.getPageSize() > 0
+                ? Math.min(request.getPageSize(), CommonConstants.MAX_PAGE_SIZE)
+                : CommonConstants.DEFAULT_PAGE_SIZE;
+        Long total = Boolean.TRUE.equals(request.getWithTotal()) ? storyMemoryMapper.selectCount(wrapper) : null;
+
+        if (StringUtils.isNotEmpty(request.getCursor())) {
+            String[] values = PageCursor.decode(request.getCursor(), MEMORY_CURSOR_SORT, 3);
+            Integer timeline = PageCursor.toInteger(values[0]);
+            BigDecimal importance = PageCursor.toDecimal(values[1]);
+            Long id = PageCursor.toLong(values[2]);
+            wrapper.and(w -> w.lt(NovelStoryMemory::getStoryTimeline, timeline)
+                    .or(x -> x.eq(NovelStoryMemory::getStoryTimeline, timeline)
+                            .lt(NovelStoryMemory::getImportanceScore, importance))
+                    .or(x -> x.eq(NovelStoryMemory::getStoryTimeline, timeline)
+                            .eq(NovelStoryMemory::getImportanceScore, importance)
+                            .lt(NovelStoryMemory::getId, id)));
+        }
+        wrapper.orderByDesc(NovelStoryMemory::getStoryTimeline,
+                        NovelStoryMemory::getImportanceScore, NovelStoryMemory::getId)
+                .last("LIMIT " + (pageSize + 1));
+
+        return PageResult.ofCursor(storyMemoryMapper.selectList(wrapper), pageSize, total,
+                memory -> PageCursor.encode(MEMORY_CURSOR_SORT, memory.getStoryTimeline(),
+                        memory.getImportanceScore(), memory.getId()),
+                this::convertToVO);
+    }
+
     @Override
+    @ReadFromReplica
     public List<StoryMemoryVO> listByChapter(Long chapterId) {
         List<NovelStoryMemory> memories = storyMemoryMapper.selectByChapterId(chapterId);
         return memories.stream()
@@ -545,47 +751,40 @@ public class StoryMemoryServiceImpl implements StoryMemoryService {
     }
 
     @Override
+    @ReadFromReplica
     public MemoryStatisticsVO getStatistics(Long projectId) {
+        NovelProjectStats stats = projectStatsService.get(projectId);
+
         MemoryStatisticsVO vo = new MemoryStatisticsVO();
         vo.setProjectId(projectId);
-
-        // 按类型统计
-        List<Map<String, Object>> typeCounts = storyMemoryMapper.countByType(projectId);
-        Map<String, Integer> typeCountMap = new HashMap<>();
-        int total = 0;
-        for (Map<String, Object> tc : typeCounts) {
-            String type = (String) tc.get("memoryType");
-            int count = ((Number) tc.get("count")).intValue();
-            typeCountMap.put(type, count);
-            total += count;
-        }
+        vo.setTotalCount(stats.getMemoryCount());
+
+        // 按类型统计（只返回有记忆的类型）
+        Map<String, Integer> typeCountMap = new LinkedHashMap<>();
+        putIfPositive(typeCountMap, NovelConstants.MemoryType.PLOT_POINT, stats.getPlotPointCount());
+        putIfPositive(typeCountMap, NovelConstants.MemoryType.HOOK, stats.getHookCount());
+        putIfPositive(typeCountMap, NovelConstants.MemoryType.FORESHADOW, stats.getForeshadowCount());
+        putIfPositive(typeCountMap, NovelConstants.MemoryType.CHARACTER_EVENT, stats.getCharacterEventCount());
+        putIfPositive(typeCountMap, NovelConstants.MemoryType.LOCATION_EVENT, stats.getLocationEventCount());
+        putIfPositive(typeCountMap, OTHER_MEMORY_TYPE, stats.getOtherMemoryCount());
         vo.setTypeCount(typeCountMap);
-        vo.setTotalCount(total);
 
         // 伏笔统计
-        LambdaQueryWrapper<NovelStoryMemory> pendingWrapper = new LambdaQueryWrapper<>();
-        pendingWrapper.eq(NovelStoryMemory::getProjectId, projectId)
-                .eq(NovelStoryMemory::getIsForeshadow, NovelConstants.ForeshadowStatus.PLANTED);
-        Long pendingCount = storyMemoryMapper.selectCount(pendingWrapper);
-        vo.setPendingForeshadowCount(pendingCount == null ? 0 : Math.toIntExact(pendingCount));
-
-        LambdaQueryWrapper<NovelStoryMemory> resolvedWrapper = new LambdaQueryWrapper<>();
-        resolvedWrapper.eq(NovelStoryMemory::getProjectId, projectId)
-                .eq(NovelStoryMemory::getIsForeshadow, NovelConstants.ForeshadowStatus.RESOLVED);
-        Long resolvedCount = storyMemoryMapper.selectCount(resolvedWrapper);
-        vo.setResolvedForeshadowCount(resolvedCount == null ? 0 : Math.toIntExact(resolvedCount));
-
-        // 覆盖章节数 - 使用 selectList + groupBy 获取不重复的章节ID，再计算数量
-        LambdaQueryWrapper<NovelStoryMemory> chapterWrapper = new LambdaQueryWrapper<>();
-        chapterWrapper.eq(NovelStoryMemory::getProjectId, projectId)
-                .select(NovelStoryMemory::getChapterId)
-                .groupBy(NovelStoryMemory::getChapterId);
-        List<NovelStoryMemory> chapterList = storyMemoryMapper.selectList(chapterWrapper);
-        vo.setCoveredChapterCount(chapterList == null ? 0 : chapterList.size());
+        vo.setPendingForeshadowCount(stats.getPlantedForeshadowCount());
+        vo.setResolvedForeshadowCount(stats.getResolvedForeshadowCount());
+
+        // 覆盖章节数
+        vo.setCoveredChapterCount(stats.getCoveredChapterCount());
 
         return vo;
     }
 
+    private void putIfPositive(Map<String, Integer> map, String key, Integer value) {
+        if (value != null && value > 0) {
+            map.put(key, value);
+        }
+    }
+
     @Override
     public List<StoryMemoryVO> listByTimelineRange(Long projectId, Integer start, Integer end) {
         List<NovelStoryMemory> memories = storyMemoryMapper.selectByTimelineRange(projectId, start, end);
@@ -603,6 +802,12 @@ public class StoryMemoryServiceImpl implements StoryMemoryService {
             return;
         }
 
+        String content = chapterContentMapper.selectCurrentContent(chapterId);
+        if (content == null || content.isBlank()) {
+            log.warn("章节内容为空，跳过重新提取: chapterId={}", chapterId);
+            return;
+        }
+
         // 2. 删除旧记忆
         deleteByChapter(userId, chapter.getProjectId(), chapterId);
 
@@ -612,7 +817,7 @@ public class StoryMemoryServiceImpl implements StoryMemoryService {
                 chapter.getProjectId(),
                 chapterId,
                 chapter.getChapterNumber(),
-                chapter.getContent()
+                content
         );
 
         // 4. 保存新记忆
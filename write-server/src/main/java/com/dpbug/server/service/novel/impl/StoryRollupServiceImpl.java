@@ -0,0 +1,496 @@
+package com.dpbug.server.service.novel.impl;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.dpbug.common.constant.NovelConstants;
+import com.dpbug.server.ai.ChatClientFactory;
+import com.dpbug.server.ai.ChromaVectorStoreFactory;
+import com.dpbug.server.ai.RetrievalSessionManager;
+import com.dpbug.server.mapper.novel.ChapterMapper;
+import com.dpbug.server.mapper.novel.StoryMemoryMapper;
+import com.dpbug.server.mapper.novel.StoryRollupMapper;
+import com.dpbug.server.model.entity.novel.NovelChapter;
+import com.dpbug.server.model.entity.novel.NovelStoryMemory;
+import com.dpbug.server.model.entity.novel.NovelStoryRollup;
+import com.dpbug.server.model.vo.novel.StoryRollupVO;
+import com.dpbug.server.service.novel.StoryRollupService;
+import com.dpbug.server.util.RedisLockUtil;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.DigestUtils;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 故事层级摘要服务实现类
+ *
+ * <p>层级结构：每 arc-size 章生成一条情节弧摘要（输入为章节摘要 + 重要记忆），
+ * 每 volume-size 个情节弧生成一条卷摘要（输入为情节弧摘要）。只为已完结的区间生成，
+ * 输入内容的 MD5 记录在 source_hash 中，章节重写或记忆重提后才会重新生成。</p>
+ *
+ * <p>摘要条数很少（500 章约 55 条），向量直接存 MySQL，检索时在内存中计算相似度，
+ * 不占用项目 Collection，也不受记忆向量重建影响；嵌入模型切换后按需重新计算。</p>
+ *
+ * @author dpbug
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class StoryRollupServiceImpl implements StoryRollupService {
+
+    private static final String LOCK_KEY_PREFIX = "rollup:lock:";
+
+    private static final String ARC_ROLLUP_PROMPT = """
+            以下是一部小说第{start}章到第{end}章的章节摘要和关键记忆,请将这段情节压缩为一段情节弧摘要。
+            要求:
+            - 交代这段情节的起因、主要冲突、转折与结果
+            - 保留关键角色的状态变化和尚未解决的悬念、伏笔
+            - 不超过{max_length}字,只输出摘要正文,不要标题和解释
+
+            章节摘要:
+            {chapters}
+
+            关键记忆:
+            {memories}
+            """;
+
+    private static final String VOLUME_ROLLUP_PROMPT = """
+            以下是一部小说第{start}章到第{end}章按情节弧划分的摘要,请将其压缩为一段卷摘要。
+            要求:
+            - 概括本卷的主线走向、阶段性结局和主要角色的成长变化
+            - 保留对后续剧情有影响的设定、悬念和伏笔
+            - 不超过{max_length}字,只输出摘要正文,不要标题和解释
+
+            情节弧摘要:
+            {arcs}
+            """;
+
+    private final StoryRollupMapper storyRollupMapper;
+    private final ChapterMapper chapterMapper;
+    private final StoryMemoryMapper storyMemoryMapper;
+    private final ChatClientFactory chatClientFactory;
+    private final ChromaVectorStoreFactory chromaVectorStoreFactory;
+    private final RetrievalSessionManager retrievalSessionManager;
+    private final RedisLockUtil redisLockUtil;
+
+    @Value("${novel.memory.rollup.enabled:true}")
+    private boolean enabled;
+
+    /**
+     * 每个情节弧覆盖的章节数
+     */
+    @Value("${novel.memory.rollup.arc-size:10}")
+    private int arcSize;
+
+    /**
+     * 每卷包含的情节弧数
+     */
+    @Value("${novel.memory.rollup.volume-size:10}")
+    private int volumeSize;
+
+    @Value("${novel.memory.rollup.volume-top-k:2}")
+    private int volumeTopK;
+
+    @Value("${novel.memory.rollup.arc-top-k:3}")
+    private int arcTopK;
+
+    /**
+     * 生成情节弧摘要时最多参考的记忆数（按重要性）
+     */
+    @Value("${novel.memory.rollup.memories-per-arc:20}")
+    private int memoriesPerArc;
+
+    @Value("${novel.memory.rollup.arc-summary-length:300}")
+    private int arcSummaryLength;
+
+    @Value("${novel.memory.rollup.volume-summary-length:500}")
+    private int volumeSummaryLength;
+
+    /**
+     * 单次触发最多调用 AI 生成的摘要数（导入长篇时分多次补齐，避免集中占用模型配额）
+     */
+    @Value("${novel.memory.rollup.max-builds-per-run:5}")
+    private int maxBuildsPerRun;
+
+    @Value("${novel.memory.rollup.lock-timeout:10m}")
+    private Duration lockTimeout;
+
+    @Override
+    public void refreshRollups(Long userId, Long projectId, Integer chapterNumber) {
+        if (!enabled || chapterNumber == null || chapterNumber <= 0) {
+            return;
+        }
+        String lockKey = LOCK_KEY_PREFIX + projectId;
+        if (!redisLockUtil.tryLock(lockKey, lockTimeout)) {
+            log.debug("层级摘要正在其他线程生成，跳过: projectId={}", projectId);
+            return;
+        }
+
+        try {
+            int budget = maxBuildsPerRun;
+
+            // 1. 情节弧：触发章节所在的情节弧优先（输入可能已变化），其次补齐缺失的情节弧
+            Map<Integer, NovelStoryRollup> arcs = bySeq(
+                    storyRollupMapper.selectMetaByLevel(projectId, NovelConstants.RollupLevel.ARC));
+            Integer maxChapter = chapterMapper.selectMaxChapterNumber(projectId);
+            int arcCount = (maxChapter == null ? 0 : maxChapter) / arcSize;
+
+            Set<Integer> arcSeqs = new LinkedHashSet<>();
+            int currentArc = (chapterNumber - 1) / arcSize + 1;
+            if (currentArc <= arcCount) {
+                arcSeqs.add(currentArc);
+            }
+            for (int seq = 1; seq <= arcCount; seq++) {
+                if (!arcs.containsKey(seq)) {
+                    arcSeqs.add(seq);
+                }
+            }
+            for (Integer seq : arcSeqs) {
+                if (budget <= 0) {
+                    break;
+                }
+                NovelStoryRollup arc = buildArc(userId, projectId, seq, arcs.get(seq));
+                if (arc != null) {
+                    arcs.put(seq, arc);
+                    budget--;
+                }
+            }
+
+            // 2. 卷：所属情节弧全部生成后才生成，情节弧摘要变化时重新生成
+            Map<Integer, NovelStoryRollup> volumes = bySeq(
+                    storyRollupMapper.selectMetaByLevel(projectId, NovelConstants.RollupLevel.VOLUME));
+            int volumeCount = arcCount / volumeSize;
+            for (int seq = 1; seq <= volumeCount && budget > 0; seq++) {
+                if (buildVolume(userId, projectId, seq, arcs, volumes.get(seq)) != null) {
+                    budget--;
+                }
+            }
+        } catch (Exception e) {
+            log.warn("生成层级摘要失败: projectId={}, error={}", projectId, e.getMessage());
+        } finally {
+            redisLockUtil.unlock(lockKey);
+        }
+    }
+
+    /**
+     * 生成情节弧摘要
+     *
+     * @return 重新生成的摘要；区间未完结或输入未变化时返回 null
+     */
+    private NovelStoryRollup buildArc(Long userId, Long projectId, int seq, NovelStoryRollup existing) {
+        int start = (seq - 1) * arcSize + 1;
+        int end = seq * arcSize;
+
+        List<NovelChapter> chapters = chapterMapper.selectSummariesInRange(projectId, start, end);
+        long chapterCount = chapters.stream().map(NovelChapter::getChapterNumber).distinct().count();
+        if (chapterCount < arcSize) {
+            return null;
+        }
+
+        StringBuilder chapterText = new StringBuilder();
+        for (NovelChapter c : chapters) {
+            chapterText.append("第").append(c.getChapterNumber()).append("章 ")
+                    .append(Objects.toString(c.getTitle(), "")).append(":")
+                    .append(Objects.toString(c.getSummary(), "")).append("\n");
+        }
+
+        List<NovelStoryMemory> memories = storyMemoryMapper.selectByTimelineRange(projectId, start, end).stream()
+                .sorted(Comparator.comparing(NovelStoryMemory::getImportanceScore,
+                        Comparator.nullsLast(Comparator.<BigDecimal>reverseOrder())))
+                .limit(memoriesPerArc)
+                .sorted(Comparator.comparing(NovelStoryMemory::getStoryTimeline))
+                .toList();
+        StringBuilder memoryText = new StringBuilder();
+        for (NovelStoryMemory m : memories) {
+            memoryText.append("- [").append(m.getMemoryType()).append("] ")
+                    .append(m.getTitle()).append(":").append(m.getContent()).append("\n");
+        }
+
+        String sourceHash = md5(chapterText + "\n" + memoryText);
+        if (existing != null && sourceHash.equals(existing.getSourceHash())) {
+            return null;
+        }
+
+        String prompt = ARC_ROLLUP_PROMPT
+                .replace("{start}", String.valueOf(start))
+                .replace("{end}", String.valueOf(end))
+                .replace("{max_length}", String.valueOf(arcSummaryLength))
+                .replace("{chapters}", chapterText)
+                .replace("{memories}", memoryText.isEmpty() ? "无" : memoryText);
+        String summary = summarize(userId, prompt);
+
+        NovelStoryRollup arc = save(projectId, NovelConstants.RollupLevel.ARC, seq, start, end,
+                summary, sourceHash, existing);
+        log.info("情节弧摘要已生成: projectId={}, seq={}, chapters={}-{}", projectId, seq, start, end);
+        return arc;
+    }
+
+    /**
+     * 生成卷摘要
+     *
+     * @return 重新生成的摘要；所属情节弧不全或输入未变化时返回 null
+     */
+    private NovelStoryRollup buildVolume(Long userId, Long projectId, int seq,
+                                         Map<Integer, NovelStoryRollup> arcs, NovelStoryRollup existing) {
+        int firstArc = (seq - 1) * volumeSize + 1;
+        int lastArc = seq * volumeSize;
+
+        StringBuilder arcText = new StringBuilder();
+        for (int arcSeq = firstArc; arcSeq <= lastArc; arcSeq++) {
+            NovelStoryRollup arc = arcs.get(arcSeq);
+            if (arc == null) {
+                return null;
+            }
+            arcText.append("第").append(arc.getStartChapter()).append("-").append(arc.getEndChapter())
+                    .append("章:").append(arc.getSummary()).append("\n");
+        }
+
+        String sourceHash = md5(arcText.toString());
+        if (existing != null && sourceHash.equals(existing.getSourceHash())) {
+            return null;
+        }
+
+        int start = arcs.get(firstArc).getStartChapter();
+        int end = arcs.get(lastArc).getEndChapter();
+        String prompt = VOLUME_ROLLUP_PROMPT
+                .replace("{start}", String.valueOf(start))
+                .replace("{end}", String.valueOf(end))
+                .replace("{max_length}", String.valueOf(volumeSummaryLength))
+                .replace("{arcs}", arcText);
+        String summary = summarize(userId, prompt);
+
+        NovelStoryRollup volume = save(projectId, NovelConstants.RollupLevel.VOLUME, seq, start, end,
+                summary, sourceHash, existing);
+        log.info("卷摘要已生成: projectId={}, seq={}, chapters={}-{}", projectId, seq, start, end);
+        return volume;
+    }
+
+    private String summarize(Long userId, String prompt) {
+        String summary = chatClientFactory.createForUser(userId).prompt()
+                .user(prompt)
+                .call()
+                .content();
+        if (summary == null || summary.isBlank()) {
+            throw new IllegalStateException("AI 返回的摘要为空");
+        }
+        return summary.trim();
+    }
+
+    private NovelStoryRollup save(Long projectId, String level, int seq, int start, int end,
+                                  String summary, String sourceHash, NovelStoryRollup existing) {
+        NovelStoryRollup rollup = new NovelStoryRollup();
+        rollup.setProjectId(projectId);
+        rollup.setLevel(level);
+        rollup.setSeq(seq);
+        rollup.setStartChapter(start);
+        rollup.setEndChapter(end);
+        rollup.setSummary(summary);
+        rollup.setSourceHash(sourceHash);
+
+        // 向量计算失败不影响摘要保存，检索时会补算
+        try {
+            rollup.setEmbedding(chromaVectorStoreFactory.getEmbeddingModel().embed(summary));
+            rollup.setEmbeddingModel(chromaVectorStoreFactory.getEmbeddingModelName());
+        } catch (Exception e) {
+            log.warn("层级摘要向量计算失败，检索时补算: projectId={}, level={}, seq={}, error={}",
+                    projectId, level, seq, e.getMessage());
+        }
+
+        if (existing != null) {
+            rollup.setId(existing.getId());
+            storyRollupMapper.updateById(rollup);
+        } else {
+            storyRollupMapper.insert(rollup);
+        }
+        return rollup;
+    }
+
+    @Override
+    public List<StoryRollupVO> retrieve(Long userId, Long projectId, String query, Integer currentChapterNumber) {
+        if (!enabled || currentChapterNumber == null || currentChapterNumber <= 1) {
+            return Collections.emptyList();
+        }
+
+        try {
+            List<NovelStoryRollup> rollups = storyRollupMapper.selectCompletedBefore(projectId, currentChapterNumber);
+            List<NovelStoryRollup> volumes = filterLevel(rollups, NovelConstants.RollupLevel.VOLUME);
+            List<NovelStoryRollup> arcs = filterLevel(rollups, NovelConstants.RollupLevel.ARC);
+            if (arcs.isEmpty()) {
+                return Collections.emptyList();
+            }
+
+            float[] queryVector = embedQuery(userId, projectId, query);
+            if (queryVector != null) {
+                ensureEmbeddings(rollups);
+            }
+
+            // 1. 卷级：选出最相关的卷
+            List<NovelStoryRollup> selectedVolumes = topK(volumes, volumeTopK, queryVector);
+
+            // 2. 情节弧级：候选为选中卷内的情节弧 + 尚未归卷的情节弧
+            int lastVolumeEnd = volumes.isEmpty() ? 0 : volumes.get(volumes.size() - 1).getEndChapter();
+            NovelStoryRollup latestArc = arcs.get(arcs.size() - 1);
+            List<NovelStoryRollup> candidateArcs = arcs.stream()
+                    .filter(arc -> arc != latestArc)
+                    .filter(arc -> arc.getStartChapter() > lastVolumeEnd
+                            || selectedVolumes.stream().anyMatch(v -> covers(v, arc)))
+                    .toList();
+
+            // 最近的情节弧始终保留，衔接最近章节与更早的剧情
+            List<NovelStoryRollup> selectedArcs = new ArrayList<>(topK(candidateArcs, arcTopK - 1, queryVector));
+            selectedArcs.add(latestArc);
+
+            List<NovelStoryRollup> selected = new ArrayList<>(selectedVolumes);
+            selected.addAll(selectedArcs);
+            log.debug("层级摘要检索完成: projectId={}, volumes={}, arcs={}",
+                    projectId, selectedVolumes.size(), selectedArcs.size());
+            return toSortedVOs(selected);
+        } catch (Exception e) {
+            log.warn("层级摘要检索失败，退回普通检索: projectId={}, error={}", projectId, e.getMessage());
+            return Collections.emptyList();
+        }
+    }
+
+    @Override
+    public List<StoryRollupVO> listOverview(Long projectId, Integer currentChapterNumber) {
+        if (!enabled || currentChapterNumber == null || currentChapterNumber <= 1) {
+            return Collections.emptyList();
+        }
+        List<NovelStoryRollup> rollups = storyRollupMapper.selectCompletedBefore(projectId, currentChapterNumber);
+        List<NovelStoryRollup> volumes = filterLevel(rollups, NovelConstants.RollupLevel.VOLUME);
+        int lastVolumeEnd = volumes.isEmpty() ? 0 : volumes.get(volumes.size() - 1).getEndChapter();
+
+        List<NovelStoryRollup> overview = new ArrayList<>(volumes);
+        filterLevel(rollups, NovelConstants.RollupLevel.ARC).stream()
+                .filter(arc -> arc.getStartChapter() > lastVolumeEnd)
+                .forEach(overview::add);
+        return toSortedVOs(overview);
+    }
+
+    @Override
+    public void deleteByProject(Long projectId) {
+        LambdaQueryWrapper<NovelStoryRollup> wrapper = new LambdaQueryWrapper<>();
+        wrapper.eq(NovelStoryRollup::getProjectId, projectId);
+        storyRollupMapper.delete(wrapper);
+    }
+
+    /**
+     * 计算查询向量（与同一次生成的记忆检索共享），失败时返回 null（按时间选取）
+     */
+    private float[] embedQuery(Long userId, Long projectId, String query) {
+        if (query == null || query.isBlank()) {
+            return null;
+        }
+        try {
+            return retrievalSessionManager.session(userId, projectId).embed(query);
+        } catch (Exception e) {
+            log.warn("查询向量计算失败，按时间选取层级摘要: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 补算缺失或由旧嵌入模型生成的摘要向量
+     */
+    private void ensureEmbeddings(List<NovelStoryRollup> rollups) {
+        String modelName = chromaVectorStoreFactory.getEmbeddingModelName();
+        List<NovelStoryRollup> stale = rollups.stream()
+                .filter(r -> r.getEmbedding() == null || !Objects.equals(modelName, r.getEmbeddingModel()))
+                .toList();
+        if (stale.isEmpty()) {
+            return;
+        }
+        try {
+            EmbeddingModel embeddingModel = chromaVectorStoreFactory.getEmbeddingModel();
+            List<float[]> embeddings = embeddingModel.embed(stale.stream().map(NovelStoryRollup::getSummary).toList());
+            for (int i = 0; i < stale.size(); i++) {
+                NovelStoryRollup rollup = stale.get(i);
+                rollup.setEmbedding(embeddings.get(i));
+                rollup.setEmbeddingModel(modelName);
+                storyRollupMapper.updateEmbedding(rollup.getId(), embeddings.get(i), modelName);
+            }
+            log.info("层级摘要向量已补算: count={}, embeddingModel={}", stale.size(), modelName);
+        } catch (Exception e) {
+            log.warn("层级摘要向量补算失败: {}", e.getMessage());
+            stale.forEach(r -> r.setEmbedding(null));
+        }
+    }
+
+    /**
+     * 选取最相关的 K 条；无查询向量时选取最近的 K 条
+     */
+    private List<NovelStoryRollup> topK(List<NovelStoryRollup> rollups, int k, float[] queryVector) {
+        if (k <= 0 || rollups.isEmpty()) {
+            return Collections.emptyList();
+        }
+        if (queryVector == null) {
+            return rollups.subList(Math.max(0, rollups.size() - k), rollups.size());
+        }
+        return rollups.stream()
+                .sorted(Comparator.comparingDouble((NovelStoryRollup r) -> cosine(queryVector, r.getEmbedding()))
+                        .reversed())
+                .limit(k)
+                .toList();
+    }
+
+    private double cosine(float[] a, float[] b) {
+        if (b == null || a.length != b.length) {
+            return -1;
+        }
+        double dot = 0;
+        double normA = 0;
+        double normB = 0;
+        for (int i = 0; i < a.length; i++) {
+            dot += a[i] * b[i];
+            normA += a[i] * a[i];
+            normB += b[i] * b[i];
+        }
+        return normA == 0 || normB == 0 ? -1 : dot / (Math.sqrt(normA) * Math.sqrt(normB));
+    }
+
+    private boolean covers(NovelStoryRollup volume, NovelStoryRollup arc) {
+        return arc.getStartChapter() >= volume.getStartChapter() && arc.getEndChapter() <= volume.getEndChapter();
+    }
+
+    private List<NovelStoryRollup> filterLevel(List<NovelStoryRollup> rollups, String level) {
+        return rollups.stream().filter(r -> level.equals(r.getLevel())).toList();
+    }
+
+    private Map<Integer, NovelStoryRollup> bySeq(List<NovelStoryRollup> rollups) {
+        return rollups.stream().collect(Collectors.toMap(NovelStoryRollup::getSeq, Function.identity()));
+    }
+
+    /**
+     * 按章节顺序排序（同起点时卷在前）并转换为VO
+     */
+    private List<StoryRollupVO> toSortedVOs(List<NovelStoryRollup> rollups) {
+        return rollups.stream()
+                .sorted(Comparator.comparing(NovelStoryRollup::getStartChapter)
+                        .thenComparing(r -> NovelConstants.RollupLevel.VOLUME.equals(r.getLevel()) ? 0 : 1))
+                .map(r -> {
+                    StoryRollupVO vo = new StoryRollupVO();
+                    BeanUtils.copyProperties(r, vo);
+                    return vo;
+                })
+                .toList();
+    }
+
+    private String md5(String text) {
+        return DigestUtils.md5DigestAsHex(text.getBytes(StandardCharsets.UTF_8));
+    }
+}
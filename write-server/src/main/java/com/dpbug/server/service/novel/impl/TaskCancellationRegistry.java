@@ -0,0 +1,195 @@
+package com.dpbug.server.service.novel.impl;
+
+import com.dpbug.common.constant.NovelConstants;
+import com.dpbug.server.mapper.novel.GenerationTaskMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 任务取消登记
+ *
+ * <p>取消任务时除了写任务表，还在这里登记并通过 Redis 频道通知所有实例，执行任务的实例：</p>
+ * <ul>
+ *   <li>章节/批次之间用 {@link #isCancelled(Long)} 检查，只读内存，不再查询任务表</li>
+ *   <li>通过 {@link #bind(Long, Flux)} 绑定的 AI 流立即被取消订阅，停止继续消耗 Token</li>
+ * </ul>
+ * <p>任务表中的状态仍是最终依据：Redis 不可用、未启用或实例重启时会错过通知，
+ * 因此 {@link #isCancelled(Long)} 在内存中没有取消记录时，每个任务每隔 novel.task.events.cancel-check-interval
+ * 查询一次任务状态，任务已取消、任务记录已删除或所属项目已删除时按收到通知处理。</p>
+ *
+ * @author dpbug
+ */
+@Slf4j
+@Component
+public class TaskCancellationRegistry implements MessageListener {
+
+    /**
+     * 已取消任务的保留时间（足够覆盖任务从取消到执行线程检查的间隔）
+     */
+    private static final Duration CANCELLED_RETENTION = Duration.ofHours(1);
+
+    private final Cache<Long, Boolean> cancelledTasks = Caffeine.newBuilder()
+            .maximumSize(10000)
+            .expireAfterWrite(CANCELLED_RETENTION)
+            .build();
+
+    /**
+     * 任务ID -> 取消信号，由绑定的 AI 流订阅
+     */
+    private final Map<Long, Sinks.One<Boolean>> signals = new ConcurrentHashMap<>();
+
+    /**
+     * 最近查询过任务状态的任务，过期后下次检查再查询任务表
+     */
+    private final Cache<Long, Boolean> recentlyChecked;
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final GenerationTaskMapper taskMapper;
+    private final boolean redisEnabled;
+    private final String cancelChannel;
+
+    public TaskCancellationRegistry(StringRedisTemplate stringRedisTemplate,
+                                    GenerationTaskMapper taskMapper,
+                                    @Value("${novel.task.events.redis-enabled:true}") boolean redisEnabled,
+                                    @Value("${novel.task.events.cancel-channel:novel:task-cancel}") String cancelChannel,
+                                    @Value("${novel.task.events.cancel-check-interval:5s}") Duration cancelCheckInterval) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.taskMapper = taskMapper;
+        this.redisEnabled = redisEnabled;
+        this.cancelChannel = cancelChannel;
+        this.recentlyChecked = Caffeine.newBuilder()
+                .maximumSize(10000)
+                .expireAfterWrite(cancelCheckInterval)
+                .build();
+    }
+
+    /**
+     * 取消任务（本实例立即生效，并通知其他实例）
+     *
+     * @param taskId 任务ID
+     */
+    public void cancel(Long taskId) {
+        cancelLocally(taskId);
+        if (!redisEnabled) {
+            return;
+        }
+        try {
+            stringRedisTemplate.convertAndSend(cancelChannel, taskId.toString());
+        } catch (Exception e) {
+            log.warn("任务取消通知发送失败，仅本实例生效: taskId={}, error={}", taskId, e.getMessage());
+        }
+    }
+
+    /**
+     * 任务是否已取消（内存中没有取消记录时定期查询任务表兜底）
+     *
+     * @param taskId 任务ID
+     * @return 是否已取消
+     */
+    public boolean isCancelled(Long taskId) {
+        if (cancelledTasks.getIfPresent(taskId) != null) {
+            return true;
+        }
+        if (recentlyChecked.getIfPresent(taskId) != null) {
+            return false;
+        }
+        recentlyChecked.put(taskId, Boolean.TRUE);
+        if (!isCancelledInTable(taskId)) {
+            return false;
+        }
+        log.info("任务表中任务已取消，未收到取消通知: taskId={}", taskId);
+        cancelLocally(taskId);
+        return true;
+    }
+
+    /**
+     * 任务已取消时抛出 CancellationException
+     *
+     * @param taskId 任务ID
+     */
+    public void throwIfCancelled(Long taskId) {
+        if (isCancelled(taskId)) {
+            throw cancelled(taskId);
+        }
+    }
+
+    /**
+     * 将流绑定到任务：任务取消时取消上游订阅，并以 CancellationException 结束
+     *
+     * @param taskId 任务ID
+     * @param source 上游流（通常是 AI 流式输出）
+     * @return 绑定后的流
+     */
+    public <T> Flux<T> bind(Long taskId, Flux<T> source) {
+        return Flux.defer(() -> {
+            Sinks.One<Boolean> signal = signals.computeIfAbsent(taskId, id -> Sinks.one());
+            // 取消先登记再移除信号，这里在拿到信号后检查，不会错过绑定前发生的取消
+            if (isCancelled(taskId)) {
+                return Flux.error(cancelled(taskId));
+            }
+            return source.takeUntilOther(signal.asMono())
+                    .concatWith(Mono.defer(() -> isCancelled(taskId) ? Mono.error(cancelled(taskId)) : Mono.empty()));
+        });
+    }
+
+    /**
+     * 任务执行结束后释放取消信号
+     *
+     * @param taskId 任务ID
+     */
+    public void release(Long taskId) {
+        signals.remove(taskId);
+        recentlyChecked.invalidate(taskId);
+    }
+
+    /**
+     * 接收其他实例（包括本实例）发出的取消通知
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        try {
+            cancelLocally(Long.valueOf(new String(message.getBody(), StandardCharsets.UTF_8)));
+        } catch (NumberFormatException e) {
+            log.warn("解析任务取消通知失败: error={}", e.getMessage());
+        }
+    }
+
+    private void cancelLocally(Long taskId) {
+        cancelledTasks.put(taskId, Boolean.TRUE);
+        Sinks.One<Boolean> signal = signals.remove(taskId);
+        if (signal != null) {
+            signal.tryEmitValue(Boolean.TRUE);
+            log.info("已中断任务的 AI 流: taskId={}", taskId);
+        }
+    }
+
+    private boolean isCancelledInTable(Long taskId) {
+        try {
+            // 任务记录已被删除（项目清理）同样视为取消
+            String status = taskMapper.selectEffectiveStatus(taskId);
+            return status == null || NovelConstants.TaskStatus.CANCELLED.equals(status);
+        } catch (Exception e) {
+            log.warn("查询任务状态失败，跳过本次取消检查: taskId={}, error={}", taskId, e.getMessage());
+            return false;
+        }
+    }
+
+    private CancellationException cancelled(Long taskId) {
+        return new CancellationException("任务已取消: " + taskId);
+    }
+}
@@ -0,0 +1,132 @@
+package com.dpbug.server.service.novel.impl;
+
+import com.dpbug.server.model.vo.novel.TaskEventVO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.BufferOverflowStrategy;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 任务事件总线
+ *
+ * <p>每个有订阅者的用户在本实例内对应一个 Sink，SSE 连接全部断开后移除。
+ * 启用 Redis 时事件发布到 novel.task.events.channel 频道，所有实例（包括发布方自身）收到后
+ * 分发给本地订阅者，因此任务在哪个实例执行都能推送到用户连接的实例；Redis 不可用或未启用时只在本实例分发。</p>
+ *
+ * <p>事件只用于实时推送，不保证送达：订阅者处理过慢时丢弃最早的缓冲事件，断线期间的事件不补发，
+ * 客户端重连后以快照为准。</p>
+ *
+ * @author dpbug
+ */
+@Slf4j
+@Component
+public class TaskEventBus implements MessageListener {
+
+    /**
+     * 用户在本实例内的事件通道
+     */
+    private static final class UserChannel {
+        private final Sinks.Many<TaskEventVO> sink = Sinks.many().multicast().directBestEffort();
+        private int subscribers;
+    }
+
+    private final Map<Long, UserChannel> channels = new ConcurrentHashMap<>();
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final ObjectMapper objectMapper;
+    private final boolean redisEnabled;
+    private final String channel;
+    private final int bufferSize;
+
+    public TaskEventBus(StringRedisTemplate stringRedisTemplate,
+                        ObjectMapper objectMapper,
+                        @Value("${novel.task.events.redis-enabled:true}") boolean redisEnabled,
+                        @Value("${novel.task.events.channel:novel:task-events}") String channel,
+                        @Value("${novel.task.events.buffer-size:256}") int bufferSize) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.objectMapper = objectMapper;
+        this.redisEnabled = redisEnabled;
+        this.channel = channel;
+        this.bufferSize = bufferSize;
+    }
+
+    /**
+     * 发布事件，发布失败只记录日志，不影响任务执行
+     *
+     * @param event 任务事件
+     */
+    public void publish(TaskEventVO event) {
+        if (event.getUserId() == null) {
+            return;
+        }
+        event.setTimestamp(System.currentTimeMillis());
+        if (redisEnabled) {
+            try {
+                stringRedisTemplate.convertAndSend(channel, objectMapper.writeValueAsString(event));
+                return;
+            } catch (Exception e) {
+                log.warn("任务事件广播失败，仅推送本实例: taskId={}, type={}, error={}",
+                        event.getTaskId(), event.getType(), e.getMessage());
+            }
+        }
+        dispatch(event);
+    }
+
+    /**
+     * 订阅用户的任务事件
+     *
+     * @param userId 用户ID
+     * @return 事件流，取消订阅时释放通道
+     */
+    public Flux<TaskEventVO> subscribe(Long userId) {
+        return Flux.defer(() -> {
+            UserChannel userChannel = channels.compute(userId, (id, existing) -> {
+                UserChannel current = existing != null ? existing : new UserChannel();
+                current.subscribers++;
+                return current;
+            });
+            return userChannel.sink.asFlux()
+                    .onBackpressureBuffer(bufferSize, BufferOverflowStrategy.DROP_OLDEST)
+                    .doFinally(signal -> channels.computeIfPresent(userId,
+                            (id, current) -> --current.subscribers <= 0 ? null : current));
+        });
+    }
+
+    /**
+     * 接收 Redis 广播的事件
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        try {
+            TaskEventVO event = objectMapper.readValue(
+                    new String(message.getBody(), StandardCharsets.UTF_8), TaskEventVO.class);
+            dispatch(event);
+        } catch (Exception e) {
+            log.warn("解析任务事件失败: error={}", e.getMessage());
+        }
+    }
+
+    /**
+     * 分发给本实例内该用户的订阅者
+     */
+    private void dispatch(TaskEventVO event) {
+        UserChannel userChannel = channels.get(event.getUserId());
+        if (userChannel == null) {
+            return;
+        }
+        // Sink 不允许并发发射，多个工作线程可能同时发布同一用户的事件
+        synchronized (userChannel) {
+            userChannel.sink.tryEmitNext(event);
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.dpbug.server.service.novel.impl;
+
+import com.dpbug.server.mapper.novel.GenerationTaskMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 任务进度写回缓冲
+ *
+ * <p>实时进度通过 TaskEventBus 推送，任务表中的进度只用于轮询和断线重连后的快照，
+ * 因此同一任务的进度最多每 novel.task.progress.flush-interval 写一次库：
+ * 任务的第一次进度更新立即写入（待执行 -> 执行中的状态变化），之后的更新只保留最新值，
+ * 由定时任务写入。任务完成、失败、取消时丢弃缓冲中的进度，由最终状态的更新一起写入。</p>
+ *
+ * <p>缓冲只在本实例内，实例重启会丢失最后一个间隔内的进度，任务状态本身不受影响。</p>
+ *
+ * @author dpbug
+ */
+@Slf4j
+@Component
+public class TaskProgressBuffer {
+
+    /**
+     * 超过该时间没有进度更新的条目被清理（执行线程异常退出、没有走到完成/失败的任务）
+     */
+    private static final long IDLE_EVICT_MILLIS = Duration.ofMinutes(30).toMillis();
+
+    /**
+     * 任务的待写入进度
+     */
+    private static final class PendingProgress {
+        private Integer progress;
+        private String currentStep;
+        private boolean dirty;
+        private long lastWriteAt;
+        private long lastUpdateAt;
+    }
+
+    private final Map<Long, PendingProgress> pending = new ConcurrentHashMap<>();
+
+    private final GenerationTaskMapper taskMapper;
+    private final long flushIntervalMillis;
+
+    public TaskProgressBuffer(GenerationTaskMapper taskMapper,
+                              @Value("${novel.task.progress.flush-interval:2s}") Duration flushInterval) {
+        this.taskMapper = taskMapper;
+        this.flushIntervalMillis = flushInterval.toMillis();
+    }
+
+    /**
+     * 记录进度，距上次写库超过间隔时立即写入
+     *
+     * @param taskId      任务ID
+     * @param progress    进度
+     * @param currentStep 当前步骤
+     */
+    public void update(Long taskId, Integer progress, String currentStep) {
+        PendingProgress entry = pending.computeIfAbsent(taskId, id -> new PendingProgress());
+        long now = System.currentTimeMillis();
+        // 同一任务的并发更新在这里串行，避免旧进度在新进度之后落库
+        synchronized (entry) {
+            entry.progress = progress;
+            entry.currentStep = currentStep;
+            entry.dirty = true;
+            entry.lastUpdateAt = now;
+            if (now - entry.lastWriteAt >= flushIntervalMillis) {
+                write(taskId, entry, now);
+            }
+        }
+    }
+
+    /**
+     * 丢弃任务的待写入进度（任务即将写入最终状态）
+     *
+     * @param taskId 任务ID
+     */
+    public void discard(Long taskId) {
+        PendingProgress entry = pending.remove(taskId);
+        if (entry != null) {
+            synchronized (entry) {
+                entry.dirty = false;
+            }
+        }
+    }
+
+    /**
+     * 写入到期的进度
+     */
+    @Scheduled(fixedDelayString = "${novel.task.progress.flush-check-interval-ms:1000}")
+    public void flushDue() {
+        flush(false);
+    }
+
+    /**
+     * 停机前写入所有缓冲的进度
+     */
+    @PreDestroy
+    public void flushAll() {
+        flush(true);
+    }
+
+    /**
+     * 缓冲中的任务数
+     */
+    public int size() {
+        return pending.size();
+    }
+
+    private void flush(boolean force) {
+        long now = System.currentTimeMillis();
+        pending.forEach((taskId, entry) -> {
+            synchronized (entry) {
+                if (entry.dirty && (force || now - entry.lastWriteAt >= flushIntervalMillis)) {
+                    write(taskId, entry, now);
+                } else if (!entry.dirty && now - entry.lastUpdateAt >= IDLE_EVICT_MILLIS) {
+                    pending.remove(taskId, entry);
+                }
+            }
+        });
+    }
+
+    private void write(Long taskId, PendingProgress entry, long now) {
+        entry.dirty = false;
+        entry.lastWriteAt = now;
+        try {
+            // 只更新待执行/执行中的任务，已结束的任务不再需要缓冲
+            if (taskMapper.updateProgress(taskId, entry.progress, entry.currentStep) == 0) {
+                pending.remove(taskId, entry);
+            }
+        } catch (Exception e) {
+            log.warn("写入任务进度失败: taskId={}, error={}", taskId, e.getMessage());
+        }
+    }
+}
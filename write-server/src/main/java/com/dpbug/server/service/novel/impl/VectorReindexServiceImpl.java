@@ -0,0 +1,159 @@
+package com.dpbug.server.service.novel.impl;
+
+import com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper;
+import com.dpbug.common.constant.NovelConstants;
+import com.dpbug.common.enums.ResultCode;
+import com.dpbug.common.exception.BusinessException;
+import com.dpbug.server.ai.ChromaVectorStoreFactory;
+import com.dpbug.server.ai.EmbeddingModelProvider;
+import com.dpbug.server.mapper.novel.GenerationTaskMapper;
+import com.dpbug.server.model.entity.novel.NovelGenerationTask;
+import com.dpbug.server.model.entity.user.UserApiConfig;
+import com.dpbug.server.model.vo.novel.GenerationTaskVO;
+import com.dpbug.server.service.novel.GenerationTaskService;
+import com.dpbug.server.service.novel.VectorReindexService;
+import com.dpbug.server.service.user.UserApiConfigService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.BeanUtils;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 向量库全量重建服务实现类
+ *
+ * <p>重建任务复用 novel_generation_task 记录进度与断点（系统任务，project_id 为 0）；
+ * 应用启动时自动继续未结束的任务，其他实例通过定期检查已完成的任务跟进切换。</p>
+ *
+ * @author dpbug
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class VectorReindexServiceImpl implements VectorReindexService {
+
+    /**
+     * 系统任务的项目ID
+     */
+    private static final Long SYSTEM_PROJECT_ID = 0L;
+
+    private final GenerationTaskService taskService;
+    private final GenerationTaskMapper taskMapper;
+    private final VectorReindexTaskRunner reindexTaskRunner;
+    private final ChromaVectorStoreFactory chromaVectorStoreFactory;
+    private final EmbeddingModelProvider embeddingModelProvider;
+    private final UserApiConfigService userApiConfigService;
+
+    @Override
+    public GenerationTaskVO startReindex(Long userId) {
+        List<NovelGenerationTask> unfinished = taskMapper.selectUnfinishedByType(NovelConstants.TaskType.REINDEX);
+        if (!unfinished.isEmpty()) {
+            NovelGenerationTask task = unfinished.get(0);
+            log.info("已有未结束的向量库重建任务，继续执行: taskId={}", task.getId());
+            reindexTaskRunner.run(task.getId());
+            return convertToVO(task);
+        }
+
+        UserApiConfig config = userApiConfigService.getSystemConfig();
+        Map<String, Object> params = new HashMap<>();
+        params.put("generation", chromaVectorStoreFactory.getActiveGeneration() + 1);
+        params.put("embeddingModel", embeddingModelProvider.describe(config));
+        params.put("previousEmbeddingModel", chromaVectorStoreFactory.getEmbeddingModelName());
+
+        NovelGenerationTask task = taskService.createTask(userId, SYSTEM_PROJECT_ID,
+                NovelConstants.TaskType.REINDEX, params);
+        reindexTaskRunner.run(task.getId());
+        return convertToVO(task);
+    }
+
+    @Override
+    public GenerationTaskVO resumeReindex(Long taskId) {
+        NovelGenerationTask task = getTaskOrThrow(taskId);
+        if (NovelConstants.TaskStatus.COMPLETED.equals(task.getStatus())) {
+            throw new BusinessException(ResultCode.BUSINESS_ERROR, "任务已完成");
+        }
+        int generation = ((Number) task.getParams().get("generation")).intValue();
+        if (generation <= chromaVectorStoreFactory.getActiveGeneration()) {
+            throw new BusinessException(ResultCode.BUSINESS_ERROR, "已有更新的重建结果，请重新发起重建");
+        }
+
+        // 失败/取消的任务恢复为待执行，断点保留在 result 中
+        LambdaUpdateWrapper<NovelGenerationTask> updateWrapper = new LambdaUpdateWrapper<>();
+        updateWrapper.eq(NovelGenerationTask::getId, taskId)
+                .set(NovelGenerationTask::getStatus, NovelConstants.TaskStatus.PENDING)
+                .set(NovelGenerationTask::getErrorMessage, null)
+                .set(NovelGenerationTask::getCompletedAt, null);
+        taskMapper.update(null, updateWrapper);
+
+        reindexTaskRunner.run(taskId);
+        return convertToVO(taskMapper.selectById(taskId));
+    }
+
+    @Override
+    public GenerationTaskVO getReindexTask(Long taskId) {
+        return convertToVO(getTaskOrThrow(taskId));
+    }
+
+    /**
+     * 应用启动后继续未结束的重建任务
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeOnStartup() {
+        try {
+            List<NovelGenerationTask> unfinished = taskMapper.selectUnfinishedByType(NovelConstants.TaskType.REINDEX);
+            for (NovelGenerationTask task : unfinished) {
+                log.info("继续未完成的向量库重建任务: taskId={}", task.getId());
+                reindexTaskRunner.run(task.getId());
+            }
+        } catch (Exception e) {
+            log.warn("检查未完成的向量库重建任务失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 跟进其他实例完成的切换
+     */
+    @Scheduled(initialDelayString = "${novel.vector-store.reindex.generation-check-interval-ms:60000}",
+            fixedDelayString = "${novel.vector-store.reindex.generation-check-interval-ms:60000}")
+    public void followGeneration() {
+        try {
+            NovelGenerationTask latest = taskMapper.selectLatestCompletedByType(NovelConstants.TaskType.REINDEX);
+            if (latest == null || latest.getResult() == null
+                    || !(latest.getResult().get("generation") instanceof Number number)
+                    || number.intValue() <= chromaVectorStoreFactory.getActiveGeneration()) {
+                return;
+            }
+            UserApiConfig config = userApiConfigService.getSystemConfig();
+            String modelName = embeddingModelProvider.describe(config);
+            if (!modelName.equals(latest.getResult().get("embeddingModel"))) {
+                log.warn("系统嵌入模型配置与最新重建结果不一致，暂不切换: config={}, reindexed={}",
+                        modelName, latest.getResult().get("embeddingModel"));
+                return;
+            }
+            chromaVectorStoreFactory.swapGeneration(number.intValue(),
+                    embeddingModelProvider.createEmbeddingModel(config), modelName);
+        } catch (Exception e) {
+            log.warn("检查向量库代数失败: {}", e.getMessage());
+        }
+    }
+
+    private NovelGenerationTask getTaskOrThrow(Long taskId) {
+        NovelGenerationTask task = taskMapper.selectById(taskId);
+        if (task == null || !NovelConstants.TaskType.REINDEX.equals(task.getTaskType())) {
+            throw new BusinessException(ResultCode.DATA_NOT_EXIST, "重建任务不存在");
+        }
+        return task;
+    }
+
+    private GenerationTaskVO convertToVO(NovelGenerationTask task) {
+        GenerationTaskVO vo = new GenerationTaskVO();
+        BeanUtils.copyProperties(task, vo);
+        return vo;
+    }
+}
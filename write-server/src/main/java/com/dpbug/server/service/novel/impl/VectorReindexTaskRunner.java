@@ -0,0 +1,336 @@
+package com.dpbug.server.service.novel.impl;
+
+import com.dpbug.common.constant.NovelConstants;
+import com.dpbug.server.ai.ChromaVectorStoreFactory;
+import com.dpbug.server.ai.EmbeddingModelProvider;
+import com.dpbug.server.ai.MemoryVectorDocuments;
+import com.dpbug.server.mapper.novel.GenerationTaskMapper;
+import com.dpbug.server.mapper.novel.ProjectMapper;
+import com.dpbug.server.mapper.novel.StoryMemoryMapper;
+import com.dpbug.server.model.entity.novel.NovelGenerationTask;
+import com.dpbug.server.model.entity.novel.NovelProject;
+import com.dpbug.server.model.entity.novel.NovelStoryMemory;
+import com.dpbug.server.model.entity.user.UserApiConfig;
+import com.dpbug.server.service.novel.GenerationTaskService;
+import com.dpbug.server.service.novel.MemoryVectorSyncService;
+import com.dpbug.server.service.user.UserApiConfigService;
+import com.dpbug.server.util.RedisLockUtil;
+import com.dpbug.server.util.SimpleRateLimiter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+/**
+ * 向量库全量重建任务执行器
+ *
+ * <p>执行流程：</p>
+ * <ol>
+ *   <li>按最新的系统嵌入配置创建目标 EmbeddingModel</li>
+ *   <li>按项目 ID、记忆 ID 双层游标分页读取 MySQL 记忆，每页拆成多个批次并行计算向量（全局限流）</li>
+ *   <li>写入第 N+1 代影子 Collection，每页完成后把游标写入任务结果，崩溃后从游标处继续</li>
+ *   <li>全部完成后先落库任务结果，再在工厂中原子切换代数与模型</li>
+ *   <li>切换后逐项目对账，补齐重建期间新增/删除的记忆，并清理上一代 Collection</li>
+ * </ol>
+ *
+ * @author dpbug
+ */
+@Slf4j
+@Service
+public class VectorReindexTaskRunner {
+
+    /**
+     * 全量重建互斥锁（多实例下只允许一个执行）
+     */
+    public static final String REINDEX_LOCK_KEY = "vector:reindex:lock";
+
+    /**
+     * 锁的过期时间，每页处理完后续期
+     */
+    private static final Duration LOCK_DURATION = Duration.ofMinutes(10);
+
+    /**
+     * 对账时每批读取的项目数
+     */
+    private static final int PROJECT_BATCH_SIZE = 100;
+
+    /**
+     * 单个批次的最大尝试次数
+     */
+    private static final int MAX_BATCH_ATTEMPTS = 3;
+
+    private final StoryMemoryMapper storyMemoryMapper;
+    private final ProjectMapper projectMapper;
+    private final GenerationTaskMapper taskMapper;
+    private final GenerationTaskService taskService;
+    private final TaskCancellationRegistry cancellationRegistry;
+    private final MemoryVectorSyncService memoryVectorSyncService;
+    private final ChromaVectorStoreFactory chromaVectorStoreFactory;
+    private final EmbeddingModelProvider embeddingModelProvider;
+    private final UserApiConfigService userApiConfigService;
+    private final RedisLockUtil redisLockUtil;
+    private final Executor reindexExecutor;
+
+    /**
+     * 每批计算向量的记忆数
+     */
+    @Value("${novel.vector-store.reindex.batch-size:32}")
+    private int batchSize;
+
+    /**
+     * 并行批次数
+     */
+    @Value("${novel.vector-store.reindex.parallelism:4}")
+    private int parallelism;
+
+    /**
+     * 嵌入接口每秒最多请求数（每批一次请求），小于等于 0 表示不限流
+     */
+    @Value("${novel.vector-store.reindex.requests-per-second:5}")
+    private double requestsPerSecond;
+
+    /**
+     * 切换完成后是否删除上一代 Collection
+     */
+    @Value("${novel.vector-store.reindex.drop-previous:true}")
+    private boolean dropPrevious;
+
+    public VectorReindexTaskRunner(StoryMemoryMapper storyMemoryMapper,
+                                   ProjectMapper projectMapper,
+                                   GenerationTaskMapper taskMapper,
+                                   GenerationTaskService taskService,
+                                   TaskCancellationRegistry cancellationRegistry,
+                                   MemoryVectorSyncService memoryVectorSyncService,
+                                   ChromaVectorStoreFactory chromaVectorStoreFactory,
+                                   EmbeddingModelProvider embeddingModelProvider,
+                                   UserApiConfigService userApiConfigService,
+                                   RedisLockUtil redisLockUtil,
+                                   @Qualifier("reindexExecutor") Executor reindexExecutor) {
+        this.storyMemoryMapper = storyMemoryMapper;
+        this.projectMapper = projectMapper;
+        this.taskMapper = taskMapper;
+        this.taskService = taskService;
+        this.cancellationRegistry = cancellationRegistry;
+        this.memoryVectorSyncService = memoryVectorSyncService;
+        this.chromaVectorStoreFactory = chromaVectorStoreFactory;
+        this.embeddingModelProvider = embeddingModelProvider;
+        this.userApiConfigService = userApiConfigService;
+        this.redisLockUtil = redisLockUtil;
+        this.reindexExecutor = reindexExecutor;
+    }
+
+    /**
+     * 执行（或从游标处继续执行）全量重建任务
+     *
+     * @param taskId 任务ID
+     */
+    @Async("reindexExecutor")
+    public void run(Long taskId) {
+        if (!redisLockUtil.tryLock(REINDEX_LOCK_KEY, LOCK_DURATION)) {
+            log.info("向量库重建已在执行，跳过: taskId={}", taskId);
+            return;
+        }
+        try {
+            execute(taskId);
+        } catch (Exception e) {
+            log.error("向量库重建失败: taskId={}", taskId, e);
+            taskService.failTask(taskId, "向量库重建失败: " + e.getMessage());
+        } finally {
+            redisLockUtil.unlock(REINDEX_LOCK_KEY);
+        }
+    }
+
+    private void execute(Long taskId) {
+        NovelGenerationTask task = taskMapper.selectById(taskId);
+        if (task == null || isFinished(task.getStatus())) {
+            return;
+        }
+
+        int generation = ((Number) task.getParams().get("generation")).intValue();
+        String expectedModel = String.valueOf(task.getParams().get("embeddingModel"));
+
+        // 目标模型必须与任务创建时一致，避免中途改配置导致同一 Collection 混入不同模型的向量
+        UserApiConfig config = userApiConfigService.getSystemConfig();
+        String modelName = embeddingModelProvider.describe(config);
+        if (!modelName.equals(expectedModel)) {
+            taskService.failTask(taskId, "系统嵌入模型配置已变更，请重新发起重建: expected="
+                    + expectedModel + ", actual=" + modelName);
+            return;
+        }
+        EmbeddingModel targetModel = embeddingModelProvider.createEmbeddingModel(config);
+        SimpleRateLimiter rateLimiter = new SimpleRateLimiter(requestsPerSecond);
+
+        // 从游标恢复
+        Map<String, Object> checkpoint = task.getResult() != null ? new HashMap<>(task.getResult()) : new HashMap<>();
+        long cursorProjectId = toLong(checkpoint.get("projectId"));
+        long cursorMemoryId = toLong(checkpoint.get("memoryId"));
+        long processed = toLong(checkpoint.get("processed"));
+        long total = Math.max(1L, storyMemoryMapper.selectCount(null));
+
+        taskService.updateProgress(taskId, progressOf(processed, total),
+                cursorProjectId > 0 ? "从断点继续重建向量库" : "开始重建向量库");
+        log.info("向量库重建开始: taskId={}, generation={}, model={}, resumeFrom=({}, {})",
+                taskId, generation, modelName, cursorProjectId, cursorMemoryId);
+
+        int pageSize = Math.max(1, batchSize) * Math.max(1, parallelism);
+        long lastProjectId = cursorProjectId > 0 ? cursorProjectId - 1 : 0L;
+        while (true) {
+            List<NovelProject> projects = projectMapper.selectIdsAfter(lastProjectId, PROJECT_BATCH_SIZE);
+            if (projects.isEmpty()) {
+                break;
+            }
+            for (NovelProject project : projects) {
+                long lastMemoryId = project.getId() == cursorProjectId ? cursorMemoryId : 0L;
+                String collectionId = null;
+
+                while (true) {
+                    List<NovelStoryMemory> page = storyMemoryMapper.selectForReindex(project.getId(), lastMemoryId, pageSize);
+                    if (page.isEmpty()) {
+                        break;
+                    }
+                    if (collectionId == null) {
+                        collectionId = chromaVectorStoreFactory.prepareShadowCollection(
+                                project.getUserId(), project.getId(), generation);
+                    }
+
+                    embedPage(project.getId(), collectionId, page, targetModel, rateLimiter);
+
+                    lastMemoryId = page.get(page.size() - 1).getId();
+                    processed += page.size();
+                    checkpoint.put("projectId", project.getId());
+                    checkpoint.put("memoryId", lastMemoryId);
+                    checkpoint.put("processed", processed);
+                    saveCheckpoint(taskId, checkpoint, progressOf(processed, total),
+                            String.format("正在重建向量库 %d/%d", processed, total));
+
+                    if (cancellationRegistry.isCancelled(taskId)) {
+                        log.info("向量库重建已取消: taskId={}, processed={}", taskId, processed);
+                        return;
+                    }
+                    redisLockUtil.renew(REINDEX_LOCK_KEY, LOCK_DURATION);
+                }
+            }
+            lastProjectId = projects.get(projects.size() - 1).getId();
+        }
+
+        // 先落库再切换：切换后崩溃，重启时会从已完成的任务恢复新代数
+        int previousGeneration = chromaVectorStoreFactory.getActiveGeneration();
+        Map<String, Object> result = new HashMap<>();
+        result.put("generation", generation);
+        result.put("previousGeneration", previousGeneration);
+        result.put("embeddingModel", modelName);
+        result.put("processed", processed);
+        taskService.completeTask(taskId, result);
+        chromaVectorStoreFactory.swapGeneration(generation, targetModel, modelName);
+
+        afterSwap(previousGeneration, modelName);
+        log.info("向量库重建完成: taskId={}, generation={}, processed={}", taskId, generation, processed);
+    }
+
+    /**
+     * 将一页记忆拆分为多个批次并行计算向量并写入影子 Collection
+     */
+    private void embedPage(Long projectId, String collectionId, List<NovelStoryMemory> page,
+                           EmbeddingModel targetModel, SimpleRateLimiter rateLimiter) {
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (int from = 0; from < page.size(); from += batchSize) {
+            List<NovelStoryMemory> batch = page.subList(from, Math.min(from + batchSize, page.size()));
+            futures.add(CompletableFuture.runAsync(
+                    () -> embedBatch(projectId, collectionId, batch, targetModel, rateLimiter), reindexExecutor));
+        }
+        try {
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            throw new IllegalStateException("批次向量计算失败: " + cause.getMessage(), cause);
+        }
+    }
+
+    private void embedBatch(Long projectId, String collectionId, List<NovelStoryMemory> batch,
+                            EmbeddingModel targetModel, SimpleRateLimiter rateLimiter) {
+        List<String> ids = new ArrayList<>(batch.size());
+        List<String> documents = new ArrayList<>(batch.size());
+        List<Map<String, Object>> metadata = new ArrayList<>(batch.size());
+        for (NovelStoryMemory memory : batch) {
+            ids.add(MemoryVectorDocuments.vectorId(memory));
+            documents.add(MemoryVectorDocuments.text(memory));
+            metadata.add(MemoryVectorDocuments.metadata(projectId, memory));
+        }
+
+        for (int attempt = 1; ; attempt++) {
+            try {
+                rateLimiter.acquire();
+                List<float[]> embeddings = targetModel.embed(documents);
+                chromaVectorStoreFactory.upsertEmbeddings(collectionId, ids, embeddings, metadata, documents);
+                return;
+            } catch (RuntimeException e) {
+                if (attempt >= MAX_BATCH_ATTEMPTS) {
+                    throw e;
+                }
+                log.warn("批次向量计算失败，准备重试: projectId={}, attempt={}, error={}",
+                        projectId, attempt, e.getMessage());
+                rateLimiter.acquire();
+            }
+        }
+    }
+
+    /**
+     * 切换后：逐项目对账、更新嵌入模型字段、清理上一代 Collection
+     */
+    private void afterSwap(int previousGeneration, String modelName) {
+        long lastProjectId = 0L;
+        while (true) {
+            List<NovelProject> projects = projectMapper.selectIdsAfter(lastProjectId, PROJECT_BATCH_SIZE);
+            if (projects.isEmpty()) {
+                break;
+            }
+            for (NovelProject project : projects) {
+                try {
+                    storyMemoryMapper.updateEmbeddingModelByProject(project.getId(), modelName);
+                    memoryVectorSyncService.reconcileProject(project.getUserId(), project.getId());
+                    if (dropPrevious) {
+                        chromaVectorStoreFactory.deleteCollection(project.getUserId(), project.getId(), previousGeneration);
+                    }
+                } catch (Exception e) {
+                    log.warn("重建后处理失败: projectId={}, error={}", project.getId(), e.getMessage());
+                }
+            }
+            lastProjectId = projects.get(projects.size() - 1).getId();
+        }
+    }
+
+    private void saveCheckpoint(Long taskId, Map<String, Object> checkpoint, int progress, String currentStep) {
+        NovelGenerationTask update = new NovelGenerationTask();
+        update.setId(taskId);
+        update.setProgress(progress);
+        update.setCurrentStep(currentStep);
+        update.setResult(new HashMap<>(checkpoint));
+        taskMapper.updateById(update);
+    }
+
+    private boolean isFinished(String status) {
+        return NovelConstants.TaskStatus.COMPLETED.equals(status)
+                || NovelConstants.TaskStatus.FAILED.equals(status)
+                || NovelConstants.TaskStatus.CANCELLED.equals(status);
+    }
+
+    private int progressOf(long processed, long total) {
+        // 切换和对账完成前最多显示 99%
+        return (int) Math.min(99L, processed * 100 / total);
+    }
+
+    private long toLong(Object value) {
+        return value instanceof Number number ? number.longValue() : 0L;
+    }
+}
@@ -33,6 +33,7 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CancellationException;
 
 /**
  * 向导异步服务实现类
@@ -52,18 +53,22 @@ public class WizardAsyncServiceImpl implements WizardAsyncService {
     private final ChatClientFactory chatClientFactory;
     private final GenerationTaskService taskService;
     private final RedisLockUtil redisLockUtil;
+    private final TaskCancellationRegistry cancellationRegistry;
 
     /**
      * 异步任务调用 AI 的超时时间：避免任务线程无限阻塞。
      */
     private static final Duration ASYNC_AI_TIMEOUT = Duration.ofMinutes(10);
 
-    private String callAiByStreaming(ChatClient chatClient, String systemPrompt, String userPrompt) {
-        Mono<String> responseMono = chatClient.prompt()
-                .system(systemPrompt)
-                .user(userPrompt)
-                .stream()
-                .content()
+    /**
+     * 流式调用 AI 并等待完整结果，任务取消时中断流并抛出 CancellationException
+     */
+    private String callAiByStreaming(Long taskId, ChatClient chatClient, String systemPrompt, String userPrompt) {
+        Mono<String> responseMono = cancellationRegistry.bind(taskId, chatClient.prompt()
+                        .system(systemPrompt)
+                        .user(userPrompt)
+                        .stream()
+                        .content())
                 .collectList()
                 .map(list -> String.join("", list))
                 .timeout(ASYNC_AI_TIMEOUT);
@@ -104,7 +109,7 @@ public class WizardAsyncServiceImpl implements WizardAsyncService {
             log.info("调用AI生成角色: taskId={}, count={}", taskId, totalCount);
 
             // 调用AI生成：异步任务同样使用流式请求，降低网关超时(504)概率
-            String response = callAiByStreaming(chatClient, systemPrompt, userPrompt);
+            String response = callAiByStreaming(taskId, chatClient, systemPrompt, userPrompt);
 
             // 更新进度
             taskService.updateProgress(taskId, 70, "正在解析角色数据...");
@@ -112,6 +117,9 @@ public class WizardAsyncServiceImpl implements WizardAsyncService {
             // 解析JSON
             List<NovelCharacter> characters = parseCharacters(response, projectId);
 
+            // 保存前确认任务没有被取消，取消后不再覆盖已有数据
+            cancellationRegistry.throwIfCancelled(taskId);
+
             // 更新进度
             taskService.updateProgress(taskId, 85, "正在保存角色...");
 
@@ -134,10 +142,14 @@ public class WizardAsyncServiceImpl implements WizardAsyncService {
 
             log.info("异步角色生成完成: taskId={}, count={}", taskId, characters.size());
 
+        } catch (CancellationException e) {
+            // 任务表中已是取消状态，不再标记失败；此时还没有写入角色
+            log.info("异步角色生成已取消: taskId={}", taskId);
         } catch (Exception e) {
             log.error("异步角色生成失败: taskId={}, error={}", taskId, e.getMessage(), e);
             taskService.failTask(taskId, e.getMessage());
         } finally {
+            cancellationRegistry.release(taskId);
             // 无论成功还是失败都要释放锁
             if (lockKey != null) {
                 redisLockUtil.unlock(lockKey);
@@ -283,7 +295,7 @@ public class WizardAsyncServiceImpl implements WizardAsyncService {
             log.info("调用AI生成大纲: taskId={}, count={}", taskId, request.getOutlineCount());
 
             // 调用AI生成：异步任务同样使用流式请求，降低网关超时(504)概率
-            String response = callAiByStreaming(chatClient, systemPrompt, userPrompt);
+            String response = callAiByStreaming(taskId, chatClient, systemPrompt, userPrompt);
 
             // 更新进度
             taskService.updateProgress(taskId, 70, "正在解析大纲数据...");
@@ -291,6 +303,9 @@ public class WizardAsyncServiceImpl implements WizardAsyncService {
             // 解析JSON
             List<NovelOutline> outlines = parseOutlines(response, projectId);
 
+            // 保存前确认任务没有被取消，取消后不再覆盖已有数据
+            cancellationRegistry.throwIfCancelled(taskId);
+
             // 更新进度
             taskService.updateProgress(taskId, 85, "正在保存大纲...");
 
@@ -313,10 +328,14 @@ public class WizardAsyncServiceImpl implements WizardAsyncService {
 
             log.info("异步大纲生成完成: taskId={}, count={}", taskId, outlines.size());
 
+        } catch (CancellationException e) {
+            // 任务表中已是取消状态，不再标记失败；此时还没有写入大纲
+            log.info("异步大纲生成已取消: taskId={}", taskId);
         } catch (Exception e) {
             log.error("异步大纲生成失败: taskId={}, error={}", taskId, e.getMessage(), e);
             taskService.failTask(taskId, e.getMessage());
         } finally {
+            cancellationRegistry.release(taskId);
             // 无论成功还是失败都要释放锁
             if (lockKey != null) {
                 redisLockUtil.unlock(lockKey);
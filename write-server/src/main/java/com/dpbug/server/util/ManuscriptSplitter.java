@@ -0,0 +1,121 @@
+package com.dpbug.server.util;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * 书稿章节切分器
+ * <p>
+ * 逐行读取书稿，匹配任一标题模式的行作为新章节的开始，标题与下一个标题之间的文本为正文。
+ * 每次只在内存中保留当前一章，整本书稿不会一次性读入。
+ * 第一个标题之前的非空文本作为“序章”；只有标题没有正文的章节（如卷名、书名）被跳过。
+ * </p>
+ *
+ * @author dpbug
+ */
+public class ManuscriptSplitter {
+
+    /**
+     * 首个标题之前内容的章节名
+     */
+    public static final String PROLOGUE_TITLE = "序章";
+
+    /**
+     * 标题行最大长度，更长的行即使匹配也视为正文
+     */
+    private static final int MAX_TITLE_LENGTH = 100;
+
+    private final BufferedReader reader;
+    private final List<Pattern> headingPatterns;
+    private final int maxChapterChars;
+
+    private String pendingTitle = PROLOGUE_TITLE;
+    private boolean firstLine = true;
+    private boolean eof;
+
+    /**
+     * 切分出的章节
+     *
+     * @param title   标题（已去掉 Markdown 标题符号）
+     * @param content 正文（段落以换行分隔，去掉首尾空行）
+     */
+    public record Chapter(String title, String content) {
+    }
+
+    /**
+     * @param reader          书稿输入
+     * @param headingPatterns 章节标题模式（匹配整行，忽略首尾空白）
+     * @param maxChapterChars 单章最大字数，超过时抛出异常（通常说明标题模式没有匹配到）
+     */
+    public ManuscriptSplitter(Reader reader, List<Pattern> headingPatterns, int maxChapterChars) {
+        this.reader = reader instanceof BufferedReader buffered ? buffered : new BufferedReader(reader);
+        this.headingPatterns = headingPatterns;
+        this.maxChapterChars = maxChapterChars;
+    }
+
+    /**
+     * 读取下一章
+     *
+     * @return 下一章，书稿读完时返回 null
+     * @throws IOException           读取失败
+     * @throws IllegalStateException 单章超过最大字数
+     */
+    public Chapter next() throws IOException {
+        while (!eof) {
+            String title = pendingTitle;
+            StringBuilder content = new StringBuilder();
+            String line;
+            pendingTitle = null;
+            while ((line = reader.readLine()) != null) {
+                if (firstLine) {
+                    // 去掉 UTF-8 BOM
+                    firstLine = false;
+                    if (!line.isEmpty() && line.charAt(0) == '\uFEFF') {
+                        line = line.substring(1);
+                    }
+                }
+                String heading = matchHeading(line);
+                if (heading != null) {
+                    pendingTitle = heading;
+                    break;
+                }
+                String paragraph = line.strip();
+                if (paragraph.isEmpty()) {
+                    continue;
+                }
+                if (content.length() + paragraph.length() > maxChapterChars) {
+                    throw new IllegalStateException("章节「" + title + "」超过 " + maxChapterChars
+                            + " 字，请检查章节标题格式");
+                }
+                if (!content.isEmpty()) {
+                    content.append('\n');
+                }
+                content.append(paragraph);
+            }
+            if (line == null) {
+                eof = true;
+            }
+            if (!content.isEmpty()) {
+                return new Chapter(title, content.toString());
+            }
+        }
+        return null;
+    }
+
+    private String matchHeading(String line) {
+        String trimmed = line.strip();
+        if (trimmed.isEmpty() || trimmed.length() > MAX_TITLE_LENGTH) {
+            return null;
+        }
+        for (Pattern pattern : headingPatterns) {
+            if (pattern.matcher(trimmed).matches()) {
+                String title = trimmed.replaceFirst("^#+\\s*", "").strip();
+                return title.isEmpty() ? null : title;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,384 @@
+package com.dpbug.server.util;
+
+import com.dpbug.common.enums.ResultCode;
+import com.dpbug.common.exception.BusinessException;
+import lombok.Getter;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * 整本小说导出写入器
+ * <p>
+ * 按章节顺序逐章写入输出流，写完一章即刷新，不在内存中拼接整本书：
+ * TXT / Markdown 直接写出文本；EPUB 边写边压缩为 zip，每章一个 XHTML 文件，
+ * 目录（nav / ncx）和 OPF 清单在最后写入，只需保留各章标题。
+ * 写入器不关闭底层输出流，由调用方（HTTP 响应）负责。
+ * </p>
+ *
+ * @author dpbug
+ */
+public abstract class NovelExportWriter {
+
+    /**
+     * 导出格式
+     */
+    @Getter
+    public enum Format {
+        TXT("txt", "text/plain;charset=UTF-8"),
+        MARKDOWN("md", "text/markdown;charset=UTF-8"),
+        EPUB("epub", "application/epub+zip");
+
+        /**
+         * 文件扩展名
+         */
+        private final String extension;
+
+        /**
+         * 响应 Content-Type
+         */
+        private final String contentType;
+
+        Format(String extension, String contentType) {
+            this.extension = extension;
+            this.contentType = contentType;
+        }
+
+        /**
+         * 按名称或扩展名解析格式（忽略大小写）
+         */
+        public static Format of(String value) {
+            for (Format format : values()) {
+                if (format.name().equalsIgnoreCase(value) || format.extension.equalsIgnoreCase(value)) {
+                    return format;
+                }
+            }
+            throw new BusinessException(ResultCode.PARAM_ERROR, "不支持的导出格式: " + value);
+        }
+    }
+
+    /**
+     * 创建指定格式的写入器
+     */
+    public static NovelExportWriter create(Format format, OutputStream out) {
+        return switch (format) {
+            case TXT -> new TxtWriter(out);
+            case MARKDOWN -> new MarkdownWriter(out);
+            case EPUB -> new EpubWriter(out);
+        };
+    }
+
+    /**
+     * 写入书名与简介
+     */
+    public abstract void begin(String title, String description) throws IOException;
+
+    /**
+     * 写入一章
+     *
+     * @param title   章节标题
+     * @param content 正文（段落以换行分隔）
+     */
+    public abstract void chapter(String title, String content) throws IOException;
+
+    /**
+     * 写入收尾内容并刷新（不关闭底层输出流）
+     */
+    public abstract void finish() throws IOException;
+
+    /**
+     * 按换行切分出非空段落（去掉首尾空白）
+     */
+    static List<String> paragraphs(String content) {
+        List<String> result = new ArrayList<>();
+        if (content == null) {
+            return result;
+        }
+        for (String line : content.split("\n")) {
+            String paragraph = line.strip();
+            if (!paragraph.isEmpty()) {
+                result.add(paragraph);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 纯文本
+     */
+    private static class TxtWriter extends NovelExportWriter {
+
+        protected final Writer writer;
+
+        TxtWriter(OutputStream out) {
+            this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public void begin(String title, String description) throws IOException {
+            writer.write(title);
+            writer.write("\n\n");
+            if (description != null && !description.isBlank()) {
+                writer.write(description.strip());
+                writer.write("\n\n");
+            }
+        }
+
+        @Override
+        public void chapter(String title, String content) throws IOException {
+            writer.write("\n");
+            writer.write(title);
+            writer.write("\n\n");
+            for (String paragraph : paragraphs(content)) {
+                writer.write("　　");
+                writer.write(paragraph);
+                writer.write("\n");
+            }
+            writer.flush();
+        }
+
+        @Override
+        public void finish() throws IOException {
+            writer.flush();
+        }
+    }
+
+    /**
+     * Markdown：书名为一级标题，章节为二级标题
+     */
+    private static class MarkdownWriter extends TxtWriter {
+
+        MarkdownWriter(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void begin(String title, String description) throws IOException {
+            writer.write("# ");
+            writer.write(title);
+            writer.write("\n\n");
+            if (description != null && !description.isBlank()) {
+                writer.write("> ");
+                writer.write(description.strip().replace("\n", "\n> "));
+                writer.write("\n\n");
+            }
+        }
+
+        @Override
+        public void chapter(String title, String content) throws IOException {
+            writer.write("## ");
+            writer.write(title);
+            writer.write("\n\n");
+            for (String paragraph : paragraphs(content)) {
+                writer.write(paragraph);
+                writer.write("\n\n");
+            }
+            writer.flush();
+        }
+    }
+
+    /**
+     * EPUB 3（附带 NCX 目录以兼容旧阅读器）
+     */
+    private static class EpubWriter extends NovelExportWriter {
+
+        private static final String MIMETYPE = "application/epub+zip";
+
+        private static final String CONTAINER_XML = """
+                <?xml version="1.0" encoding="UTF-8"?>
+                <container version="1.0" xmlns="urn:oasis:names:tc:opendocument:xmlns:container">
+                  <rootfiles>
+                    <rootfile full-path="OEBPS/content.opf" media-type="application/oebps-package+xml"/>
+                  </rootfiles>
+                </container>
+                """;
+
+        private static final String STYLE_CSS = """
+                body { margin: 0 5%; line-height: 1.8; }
+                h1, h2 { text-align: center; }
+                p { text-indent: 2em; margin: 0.4em 0; }
+                """;
+
+        private static final String XHTML_TAIL = "</body>\n</html>\n";
+
+        private final ZipOutputStream zip;
+        private final Writer writer;
+        private final String identifier = "urn:uuid:" + UUID.randomUUID();
+        private final List<String> chapterTitles = new ArrayList<>();
+        private String bookTitle;
+
+        EpubWriter(OutputStream out) {
+            this.zip = new ZipOutputStream(out, StandardCharsets.UTF_8);
+            this.writer = new OutputStreamWriter(zip, StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public void begin(String title, String description) throws IOException {
+            this.bookTitle = title;
+
+            // mimetype 必须是第一个条目且不压缩
+            byte[] mimetype = MIMETYPE.getBytes(StandardCharsets.US_ASCII);
+            ZipEntry entry = new ZipEntry("mimetype");
+            entry.setMethod(ZipEntry.STORED);
+            entry.setSize(mimetype.length);
+            CRC32 crc = new CRC32();
+            crc.update(mimetype);
+            entry.setCrc(crc.getValue());
+            zip.putNextEntry(entry);
+            zip.write(mimetype);
+            zip.closeEntry();
+
+            writeEntry("META-INF/container.xml", CONTAINER_XML);
+            writeEntry("OEBPS/style.css", STYLE_CSS);
+
+            StringBuilder body = new StringBuilder();
+            body.append("<h1>").append(escape(title)).append("</h1>\n");
+            for (String paragraph : paragraphs(description)) {
+                body.append("<p>").append(escape(paragraph)).append("</p>\n");
+            }
+            writeEntry("OEBPS/title.xhtml", xhtml(title, body.toString()));
+        }
+
+        @Override
+        public void chapter(String title, String content) throws IOException {
+            chapterTitles.add(title);
+            zip.putNextEntry(new ZipEntry("OEBPS/" + chapterFile(chapterTitles.size())));
+            writer.write(xhtmlHead(title));
+            writer.write("<h2>");
+            writer.write(escape(title));
+            writer.write("</h2>\n");
+            for (String paragraph : paragraphs(content)) {
+                writer.write("<p>");
+                writer.write(escape(paragraph));
+                writer.write("</p>\n");
+            }
+            writer.write(XHTML_TAIL);
+            writer.flush();
+            zip.closeEntry();
+            zip.flush();
+        }
+
+        @Override
+        public void finish() throws IOException {
+            writeEntry("OEBPS/nav.xhtml", buildNav());
+            writeEntry("OEBPS/toc.ncx", buildNcx());
+            writeEntry("OEBPS/content.opf", buildOpf());
+            zip.finish();
+            zip.flush();
+        }
+
+        private void writeEntry(String name, String content) throws IOException {
+            zip.putNextEntry(new ZipEntry(name));
+            writer.write(content);
+            writer.flush();
+            zip.closeEntry();
+        }
+
+        private String buildNav() {
+            StringBuilder body = new StringBuilder();
+            body.append("<nav epub:type=\"toc\" id=\"toc\">\n<h1>目录</h1>\n<ol>\n");
+            for (int i = 0; i < chapterTitles.size(); i++) {
+                body.append("<li><a href=\"").append(chapterFile(i + 1)).append("\">")
+                        .append(escape(chapterTitles.get(i))).append("</a></li>\n");
+            }
+            body.append("</ol>\n</nav>\n");
+            return xhtml("目录", body.toString());
+        }
+
+        private String buildNcx() {
+            StringBuilder ncx = new StringBuilder();
+            ncx.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n")
+                    .append("<ncx xmlns=\"http://www.daisy.org/z3986/2005/ncx/\" version=\"2005-1\">\n")
+                    .append("<head><meta name=\"dtb:uid\" content=\"").append(identifier).append("\"/></head>\n")
+                    .append("<docTitle><text>").append(escape(bookTitle)).append("</text></docTitle>\n")
+                    .append("<navMap>\n");
+            for (int i = 0; i < chapterTitles.size(); i++) {
+                ncx.append("<navPoint id=\"np").append(i + 1).append("\" playOrder=\"").append(i + 1).append("\">")
+                        .append("<navLabel><text>").append(escape(chapterTitles.get(i))).append("</text></navLabel>")
+                        .append("<content src=\"").append(chapterFile(i + 1)).append("\"/></navPoint>\n");
+            }
+            ncx.append("</navMap>\n</ncx>\n");
+            return ncx.toString();
+        }
+
+        private String buildOpf() {
+            StringBuilder manifest = new StringBuilder();
+            StringBuilder spine = new StringBuilder();
+            manifest.append("<item id=\"nav\" href=\"nav.xhtml\" media-type=\"application/xhtml+xml\" properties=\"nav\"/>\n")
+                    .append("<item id=\"ncx\" href=\"toc.ncx\" media-type=\"application/x-dtbncx+xml\"/>\n")
+                    .append("<item id=\"css\" href=\"style.css\" media-type=\"text/css\"/>\n")
+                    .append("<item id=\"title\" href=\"title.xhtml\" media-type=\"application/xhtml+xml\"/>\n");
+            spine.append("<itemref idref=\"title\"/>\n");
+            for (int i = 1; i <= chapterTitles.size(); i++) {
+                manifest.append("<item id=\"c").append(i).append("\" href=\"").append(chapterFile(i))
+                        .append("\" media-type=\"application/xhtml+xml\"/>\n");
+                spine.append("<itemref idref=\"c").append(i).append("\"/>\n");
+            }
+            return "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+                    + "<package xmlns=\"http://www.idpf.org/2007/opf\" version=\"3.0\" unique-identifier=\"book-id\">\n"
+                    + "<metadata xmlns:dc=\"http://purl.org/dc/elements/1.1/\">\n"
+                    + "<dc:identifier id=\"book-id\">" + identifier + "</dc:identifier>\n"
+                    + "<dc:title>" + escape(bookTitle) + "</dc:title>\n"
+                    + "<dc:language>zh-CN</dc:language>\n"
+                    + "<meta property=\"dcterms:modified\">"
+                    + Instant.now().truncatedTo(ChronoUnit.SECONDS) + "</meta>\n"
+                    + "</metadata>\n"
+                    + "<manifest>\n" + manifest + "</manifest>\n"
+                    + "<spine toc=\"ncx\">\n" + spine + "</spine>\n"
+                    + "</package>\n";
+        }
+
+        private static String chapterFile(int index) {
+            return String.format("chapter-%05d.xhtml", index);
+        }
+
+        private static String xhtmlHead(String title) {
+            return "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+                    + "<!DOCTYPE html>\n"
+                    + "<html xmlns=\"http://www.w3.org/1999/xhtml\" xmlns:epub=\"http://www.idpf.org/2007/ops\" "
+                    + "xml:lang=\"zh-CN\" lang=\"zh-CN\">\n"
+                    + "<head><meta charset=\"UTF-8\"/><title>" + escape(title) + "</title>"
+                    + "<link rel=\"stylesheet\" type=\"text/css\" href=\"style.css\"/></head>\n"
+                    + "<body>\n";
+        }
+
+        private static String xhtml(String title, String body) {
+            return xhtmlHead(title) + body + XHTML_TAIL;
+        }
+
+        private static String escape(String text) {
+            if (text == null) {
+                return "";
+            }
+            StringBuilder sb = new StringBuilder(text.length());
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                switch (c) {
+                    case '&' -> sb.append("&amp;");
+                    case '<' -> sb.append("&lt;");
+                    case '>' -> sb.append("&gt;");
+                    case '"' -> sb.append("&quot;");
+                    default -> {
+                        // XML 1.0 不允许的控制字符直接丢弃
+                        if (c >= 0x20 || c == '\t' || c == '\n' || c == '\r') {
+                            sb.append(c);
+                        }
+                    }
+                }
+            }
+            return sb.toString();
+        }
+    }
+}
@@ -0,0 +1,246 @@
+package com.dpbug.server.util;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 段落级文本差异工具
+ * <p>
+ * 以换行切分段落，先去掉首尾相同的段落，再对中间部分按段落做最长公共子序列，
+ * 得到把基准文本变为目标文本的编辑脚本。润色、去味通常只改动部分段落，脚本远小于全文。
+ * </p>
+ *
+ * @author dpbug
+ */
+public final class ParagraphDiff {
+
+    /**
+     * 相同
+     */
+    public static final String EQUAL = "=";
+
+    /**
+     * 删除基准段落
+     */
+    public static final String DELETE = "-";
+
+    /**
+     * 插入目标段落
+     */
+    public static final String INSERT = "+";
+
+    /**
+     * 中间差异区域的 LCS 矩阵上限（段落数乘积），超过时整体按替换处理
+     */
+    private static final long MAX_LCS_CELLS = 4_000_000L;
+
+    private ParagraphDiff() {
+    }
+
+    /**
+     * 编辑操作
+     *
+     * @param type       操作类型（= / - / +）
+     * @param count      相同或删除的段落数
+     * @param paragraphs 插入的段落
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public record Op(
+            @JsonProperty("t") String type,
+            @JsonProperty("n") Integer count,
+            @JsonProperty("p") List<String> paragraphs
+    ) {
+        static Op equal(int count) {
+            return new Op(EQUAL, count, null);
+        }
+
+        static Op delete(int count) {
+            return new Op(DELETE, count, null);
+        }
+
+        static Op insert(List<String> paragraphs) {
+            return new Op(INSERT, null, paragraphs);
+        }
+
+        /**
+         * 操作覆盖的段落数
+         */
+        public int size() {
+            return INSERT.equals(type) ? paragraphs.size() : count;
+        }
+    }
+
+    /**
+     * 切分段落（保留空段落，保证 join 后与原文一致）
+     *
+     * @param text 文本
+     * @return 段落列表；null 视为空文本
+     */
+    public static List<String> split(String text) {
+        if (text == null || text.isEmpty()) {
+            return List.of();
+        }
+        return Arrays.asList(text.split("\n", -1));
+    }
+
+    /**
+     * 拼接段落
+     *
+     * @param paragraphs 段落列表
+     * @return 文本
+     */
+    public static String join(List<String> paragraphs) {
+        return String.join("\n", paragraphs);
+    }
+
+    /**
+     * 计算把 base 变为 target 的编辑脚本
+     *
+     * @param base   基准段落
+     * @param target 目标段落
+     * @return 编辑脚本
+     */
+    public static List<Op> diff(List<String> base, List<String> target) {
+        int prefix = 0;
+        int maxPrefix = Math.min(base.size(), target.size());
+        while (prefix < maxPrefix && base.get(prefix).equals(target.get(prefix))) {
+            prefix++;
+        }
+        int suffix = 0;
+        int maxSuffix = maxPrefix - prefix;
+        while (suffix < maxSuffix
+                && base.get(base.size() - 1 - suffix).equals(target.get(target.size() - 1 - suffix))) {
+            suffix++;
+        }
+
+        Builder builder = new Builder();
+        builder.equal(prefix);
+        diffMiddle(base.subList(prefix, base.size() - suffix),
+                target.subList(prefix, target.size() - suffix), builder);
+        builder.equal(suffix);
+        return builder.ops;
+    }
+
+    /**
+     * 在 base 上应用编辑脚本
+     *
+     * @param base 基准段落
+     * @param ops  编辑脚本
+     * @return 目标段落
+     */
+    public static List<String> apply(List<String> base, List<Op> ops) {
+        List<String> result = new ArrayList<>(base.size());
+        int cursor = 0;
+        for (Op op : ops) {
+            switch (op.type()) {
+                case EQUAL -> {
+                    result.addAll(base.subList(cursor, cursor + op.count()));
+                    cursor += op.count();
+                }
+                case DELETE -> cursor += op.count();
+                case INSERT -> result.addAll(op.paragraphs());
+                default -> throw new IllegalArgumentException("未知的差异操作: " + op.type());
+            }
+        }
+        if (cursor != base.size()) {
+            throw new IllegalStateException("差异脚本与基准文本不匹配: 消耗 " + cursor + " 段，基准 " + base.size() + " 段");
+        }
+        return result;
+    }
+
+    /**
+     * 对首尾之外的差异区域做段落级 LCS
+     */
+    private static void diffMiddle(List<String> base, List<String> target, Builder builder) {
+        int n = base.size();
+        int m = target.size();
+        if (n == 0 || m == 0 || (long) n * m > MAX_LCS_CELLS) {
+            builder.delete(n);
+            builder.insert(target);
+            return;
+        }
+
+        // 先比较哈希，相等时再比较原文
+        int[] baseHash = new int[n];
+        int[] targetHash = new int[m];
+        for (int i = 0; i < n; i++) {
+            baseHash[i] = base.get(i).hashCode();
+        }
+        for (int j = 0; j < m; j++) {
+            targetHash[j] = target.get(j).hashCode();
+        }
+
+        // lcs[i][j]：base[i..] 与 target[j..] 的最长公共子序列长度
+        int[][] lcs = new int[n + 1][m + 1];
+        for (int i = n - 1; i >= 0; i--) {
+            for (int j = m - 1; j >= 0; j--) {
+                lcs[i][j] = baseHash[i] == targetHash[j] && base.get(i).equals(target.get(j))
+                        ? lcs[i + 1][j + 1] + 1
+                        : Math.max(lcs[i + 1][j], lcs[i][j + 1]);
+            }
+        }
+
+        int i = 0;
+        int j = 0;
+        while (i < n && j < m) {
+            if (baseHash[i] == targetHash[j] && base.get(i).equals(target.get(j))) {
+                builder.equal(1);
+                i++;
+                j++;
+            } else if (lcs[i + 1][j] >= lcs[i][j + 1]) {
+                builder.delete(1);
+                i++;
+            } else {
+                builder.insert(List.of(target.get(j)));
+                j++;
+            }
+        }
+        builder.delete(n - i);
+        builder.insert(target.subList(j, m));
+    }
+
+    /**
+     * 合并相邻同类操作
+     */
+    private static final class Builder {
+
+        private final List<Op> ops = new ArrayList<>();
+
+        void equal(int count) {
+            if (count > 0) {
+                merge(Op.equal(count));
+            }
+        }
+
+        void delete(int count) {
+            if (count > 0) {
+                merge(Op.delete(count));
+            }
+        }
+
+        void insert(List<String> paragraphs) {
+            if (!paragraphs.isEmpty()) {
+                merge(Op.insert(new ArrayList<>(paragraphs)));
+            }
+        }
+
+        private void merge(Op op) {
+            if (!ops.isEmpty()) {
+                Op last = ops.get(ops.size() - 1);
+                if (last.type().equals(op.type())) {
+                    if (INSERT.equals(op.type())) {
+                        last.paragraphs().addAll(op.paragraphs());
+                    } else {
+                        ops.set(ops.size() - 1, new Op(op.type(), last.count() + op.count(), null));
+                    }
+                    return;
+                }
+            }
+            ops.add(op);
+        }
+    }
+}
@@ -76,6 +76,22 @@ public class RedisLockUtil {
         }
     }
 
+    /**
+     * 续期锁（用于长时间运行的任务）
+     *
+     * @param lockKey  锁的key
+     * @param duration 新的过期时间
+     * @return true 如果锁仍存在且续期成功
+     */
+    public boolean renew(String lockKey, Duration duration) {
+        try {
+            return Boolean.TRUE.equals(stringRedisTemplate.expire(lockKey, duration));
+        } catch (Exception e) {
+            log.error("续期锁异常: key={}, error={}", lockKey, e.getMessage());
+            return false;
+        }
+    }
+
     /**
      * 检查锁是否存在
      *
@@ -0,0 +1,127 @@
+package com.dpbug.server.util;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * SimHash 文本指纹工具
+ * <p>
+ * 以字符 n-gram 为特征计算 64 位指纹，内容相近的文本指纹的汉明距离也小，
+ * 用于在写入前发现近似重复的记忆。计算前去除空白与标点，避免格式差异影响结果。
+ * </p>
+ * <p>
+ * 短文本的指纹区分度有限，人物、类型相同的不同事件也可能落在阈值内，
+ * 候选记忆再用 {@link #similarity(String, String)} 按字符集合复核。
+ * </p>
+ *
+ * @author dpbug
+ */
+public final class SimHash {
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private SimHash() {
+    }
+
+    /**
+     * 计算文本指纹
+     *
+     * @param text  文本
+     * @param ngram n-gram 长度（短文本建议 1，长文本建议 2）
+     * @return 64 位指纹；文本为空时返回 0
+     */
+    public static long fingerprint(String text, int ngram) {
+        if (text == null) {
+            return 0L;
+        }
+        String normalized = normalize(text);
+        if (normalized.isEmpty()) {
+            return 0L;
+        }
+
+        // 统计 n-gram 频次作为权重
+        int n = Math.max(1, Math.min(ngram, normalized.length()));
+        Map<String, Integer> features = new HashMap<>();
+        for (int i = 0; i + n <= normalized.length(); i++) {
+            features.merge(normalized.substring(i, i + n), 1, Integer::sum);
+        }
+
+        int[] weights = new int[64];
+        for (Map.Entry<String, Integer> feature : features.entrySet()) {
+            long hash = hash64(feature.getKey());
+            for (int bit = 0; bit < 64; bit++) {
+                weights[bit] += ((hash >>> bit) & 1L) == 1L ? feature.getValue() : -feature.getValue();
+            }
+        }
+
+        long fingerprint = 0L;
+        for (int bit = 0; bit < 64; bit++) {
+            if (weights[bit] > 0) {
+                fingerprint |= 1L << bit;
+            }
+        }
+        return fingerprint;
+    }
+
+    /**
+     * 计算两个指纹的汉明距离
+     *
+     * @param a 指纹A
+     * @param b 指纹B
+     * @return 不同的位数（0-64）
+     */
+    public static int distance(long a, long b) {
+        return Long.bitCount(a ^ b);
+    }
+
+    /**
+     * 计算两段文本的字符 Jaccard 相似度（去除空白与标点后的字符集合）
+     *
+     * @param a 文本A
+     * @param b 文本B
+     * @return 0-1，任一文本为空时返回 0
+     */
+    public static double similarity(String a, String b) {
+        Set<Integer> charsA = chars(a);
+        Set<Integer> charsB = chars(b);
+        if (charsA.isEmpty() || charsB.isEmpty()) {
+            return 0;
+        }
+        int intersection = 0;
+        for (Integer ch : charsA) {
+            if (charsB.contains(ch)) {
+                intersection++;
+            }
+        }
+        return (double) intersection / (charsA.size() + charsB.size() - intersection);
+    }
+
+    private static Set<Integer> chars(String text) {
+        Set<Integer> chars = new HashSet<>();
+        if (text != null) {
+            normalize(text).codePoints().forEach(chars::add);
+        }
+        return chars;
+    }
+
+    private static String normalize(String text) {
+        return text.replaceAll("[\\p{P}\\p{S}\\s]", "").toLowerCase();
+    }
+
+    /**
+     * FNV-1a 64 位哈希，再经 splitmix64 混合使各位分布均匀
+     */
+    private static long hash64(String feature) {
+        long hash = FNV_OFFSET_BASIS;
+        for (int i = 0; i < feature.length(); i++) {
+            hash ^= feature.charAt(i);
+            hash *= FNV_PRIME;
+        }
+        hash = (hash ^ (hash >>> 30)) * 0xbf58476d1ce4e5b9L;
+        hash = (hash ^ (hash >>> 27)) * 0x94d049bb133111ebL;
+        return hash ^ (hash >>> 31);
+    }
+}
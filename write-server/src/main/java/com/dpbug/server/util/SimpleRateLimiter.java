@@ -0,0 +1,52 @@
+package com.dpbug.server.util;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 简单的平滑限流器
+ * <p>
+ * 按固定间隔发放许可，调用方在许可不足时阻塞等待；用于限制批量任务对外部 API 的调用速率。
+ * </p>
+ *
+ * @author dpbug
+ */
+public class SimpleRateLimiter {
+
+    /**
+     * 两次许可之间的最小间隔（纳秒）
+     */
+    private final long intervalNanos;
+
+    /**
+     * 下一个许可可用的时间点（纳秒）
+     */
+    private long nextFreeNanos;
+
+    /**
+     * @param permitsPerSecond 每秒许可数，小于等于 0 表示不限流
+     */
+    public SimpleRateLimiter(double permitsPerSecond) {
+        this.intervalNanos = permitsPerSecond > 0 ? (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond) : 0L;
+        this.nextFreeNanos = System.nanoTime();
+    }
+
+    /**
+     * 获取一个许可，必要时阻塞等待
+     */
+    public void acquire() {
+        if (intervalNanos == 0L) {
+            return;
+        }
+        long waitNanos;
+        synchronized (this) {
+            long now = System.nanoTime();
+            long grantAt = Math.max(now, nextFreeNanos);
+            nextFreeNanos = grantAt + intervalNanos;
+            waitNanos = grantAt - now;
+        }
+        if (waitNanos > 0) {
+            LockSupport.parkNanos(waitNanos);
+        }
+    }
+}
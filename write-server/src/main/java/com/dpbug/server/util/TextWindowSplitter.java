@@ -0,0 +1,72 @@
+package com.dpbug.server.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 长文本分段工具
+ * <p>
+ * 按段落边界把文本切成长度不超过窗口大小的片段，相邻片段保留少量重叠段落，
+ * 避免跨段落的情节在切分处丢失上下文；单个段落超过窗口大小时按字符硬切。
+ * </p>
+ *
+ * @author dpbug
+ */
+public final class TextWindowSplitter {
+
+    private TextWindowSplitter() {
+    }
+
+    /**
+     * 按段落切分重叠窗口
+     *
+     * @param text       原文
+     * @param windowSize 窗口最大字符数
+     * @param overlap    相邻窗口重叠的最大字符数（取前一窗口末尾的完整段落）
+     * @return 窗口列表；原文为空时返回空列表
+     */
+    public static List<String> split(String text, int windowSize, int overlap) {
+        if (text == null || text.isBlank()) {
+            return Collections.emptyList();
+        }
+        if (text.length() <= windowSize) {
+            return List.of(text);
+        }
+
+        List<String> paragraphs = new ArrayList<>();
+        for (String paragraph : text.split("\\n+")) {
+            String trimmed = paragraph.strip();
+            for (int i = 0; i < trimmed.length(); i += windowSize) {
+                paragraphs.add(trimmed.substring(i, Math.min(trimmed.length(), i + windowSize)));
+            }
+        }
+
+        List<String> windows = new ArrayList<>();
+        List<String> current = new ArrayList<>();
+        int currentLength = 0;
+        for (String paragraph : paragraphs) {
+            if (currentLength + paragraph.length() > windowSize && !current.isEmpty()) {
+                windows.add(String.join("\n", current));
+
+                // 从当前窗口末尾取不超过 overlap 的完整段落作为下一窗口的开头
+                List<String> tail = new ArrayList<>();
+                int tailLength = 0;
+                for (int i = current.size() - 1; i >= 0; i--) {
+                    int length = current.get(i).length();
+                    if (tailLength + length > overlap || tailLength + length + paragraph.length() > windowSize) {
+                        break;
+                    }
+                    tail.add(0, current.get(i));
+                    tailLength += length;
+                }
+                current = tail;
+                currentLength = tailLength;
+            }
+            current.add(paragraph);
+            currentLength += paragraph.length();
+        }
+        windows.add(String.join("\n", current));
+        return windows;
+    }
+}
@@ -0,0 +1,153 @@
+package com.dpbug.server.config.datasource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.ConnectionProxy;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * ReadWriteRoutingDataSource 测试类
+ *
+ * <p>主库和副本用返回固定连接的数据源代替，通过拿到的连接判断路由结果</p>
+ *
+ * @author dpbug
+ */
+class ReadWriteRoutingDataSourceTest {
+
+    private static final Long USER_ID = 1L;
+
+    private final Connection primaryConnection = mock(Connection.class);
+    private final Connection replica1Connection = mock(Connection.class);
+    private final Connection replica2Connection = mock(Connection.class);
+    private final ReadYourWritesTracker tracker = new ReadYourWritesTracker(Duration.ofSeconds(5));
+    private ReadWriteRoutingDataSource routing;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        replicas.put("replica-1", dataSource(replica1Connection));
+        replicas.put("replica-2", dataSource(replica2Connection));
+        routing = new ReadWriteRoutingDataSource(dataSource(primaryConnection), replicas, tracker);
+        routing.afterPropertiesSet();
+        routing.updateHealthyReplicas(Set.of("replica-1", "replica-2"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReadRouteContext.restore(null);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clear();
+        }
+    }
+
+    @Test
+    void testWritesAndUnmarkedReadsUsePrimary() throws SQLException {
+        assertSame(primaryConnection, routing.getConnection());
+
+        // 读写事务内即使在 @ReadFromReplica 范围内也走主库
+        inTransaction(false);
+        ReadRouteContext.enter(USER_ID);
+        assertSame(primaryConnection, routing.getConnection());
+    }
+
+    @Test
+    void testReplicaReadsRoundRobin() throws SQLException {
+        ReadRouteContext.enter(USER_ID);
+        Connection first = routing.getConnection();
+        Connection second = routing.getConnection();
+        assertEquals(Set.of(replica1Connection, replica2Connection), Set.of(first, second));
+        assertSame(first, routing.getConnection());
+    }
+
+    @Test
+    void testReadOnlyTransactionUsesReplica() throws SQLException {
+        inTransaction(true);
+        Connection connection = routing.getConnection();
+        assertTrue(connection == replica1Connection || connection == replica2Connection);
+    }
+
+    @Test
+    void testWriteInScopePinsPrimaryAndStartsStickiness() throws SQLException {
+        ReadRouteContext.Scope previous = ReadRouteContext.enter(USER_ID);
+        ReadRouteContext.markWrite();
+        tracker.markWrite(ReadRouteContext.currentUserId());
+        assertSame(primaryConnection, routing.getConnection());
+        ReadRouteContext.restore(previous);
+
+        // 新的调用仍在粘滞时间内，继续读主库
+        ReadRouteContext.enter(USER_ID);
+        assertSame(primaryConnection, routing.getConnection());
+        ReadRouteContext.restore(null);
+
+        // 其他用户不受影响
+        ReadRouteContext.enter(2L);
+        assertNotSame(primaryConnection, routing.getConnection());
+    }
+
+    @Test
+    void testLaggingReplicasFallBackToPrimary() throws SQLException {
+        ReadRouteContext.enter(USER_ID);
+        routing.updateHealthyReplicas(Set.of("replica-2"));
+        assertSame(replica2Connection, routing.getConnection());
+        assertSame(replica2Connection, routing.getConnection());
+
+        routing.updateHealthyReplicas(Set.of());
+        assertSame(primaryConnection, routing.getConnection());
+    }
+
+    @Test
+    void testScopePropagatesToWorkerThread() throws Exception {
+        ReadRouteContext.enter(USER_ID);
+        Connection[] result = new Connection[1];
+        Thread worker = new Thread(ReadRouteContext.propagate(() -> {
+            try {
+                result[0] = routing.getConnection();
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        }));
+        worker.start();
+        worker.join();
+        assertNotSame(primaryConnection, result[0]);
+    }
+
+    @Test
+    void testLazyProxyRoutesAtFirstStatement() throws SQLException {
+        // 事务开始时先拿到代理连接，设置只读标记后执行语句才路由到副本
+        DataSource lazy = new LazyConnectionDataSourceProxy(routing);
+        Connection connection = lazy.getConnection();
+        inTransaction(true);
+        connection.createStatement();
+        Connection target = ((ConnectionProxy) connection).getTargetConnection();
+        assertTrue(target == replica1Connection || target == replica2Connection);
+    }
+
+    private void inTransaction(boolean readOnly) {
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(readOnly);
+    }
+
+    private DataSource dataSource(Connection connection) throws SQLException {
+        DataSource dataSource = mock(DataSource.class);
+        when(dataSource.getConnection()).thenReturn(connection);
+        return dataSource;
+    }
+}
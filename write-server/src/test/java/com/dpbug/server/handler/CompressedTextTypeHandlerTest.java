@@ -0,0 +1,158 @@
+package com.dpbug.server.handler;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * CompressedTextTypeHandler 测试类
+ *
+ * @author dpbug
+ */
+@Slf4j
+class CompressedTextTypeHandlerTest {
+
+    private static final String[] PHRASES = {
+            "林远", "苏晴", "老者", "少年", "师父", "掌门", "长老", "青云宗", "天剑峰", "藏经阁",
+            "缓缓说道", "皱起眉头", "冷笑一声", "沉默片刻", "目光一凝", "心中一动", "深吸一口气", "点了点头",
+            "剑光", "灵气", "丹药", "阵法", "秘境", "妖兽", "修为", "筑基", "金丹", "元婴",
+            "夜色渐深", "山风呼啸", "月光洒落", "远处传来", "一道身影", "众人哗然", "却见", "只听",
+            "的", "了", "在", "是", "他", "她", "这", "那", "不", "也", "就", "都", "着", "过",
+            "，", "，", "，", "。", "。", "！", "？", "“", "”", "……", "\n\n"
+    };
+
+    @Test
+    void testRoundTrip() {
+        String text = generateChapter(new Random(1), 3000);
+        byte[] compressed = CompressedTextTypeHandler.compress(text);
+
+        assertEquals(text, CompressedTextTypeHandler.decompress(compressed));
+        assertEquals(text, CompressedTextTypeHandler.decompress(new ByteArrayInputStream(compressed)));
+        assertTrue(compressed.length < text.getBytes(StandardCharsets.UTF_8).length);
+    }
+
+    @Test
+    void testMysqlCompressFormat() {
+        String text = "第一章 风起";
+        byte[] compressed = CompressedTextTypeHandler.compress(text);
+        int length = (compressed[0] & 0xFF) | (compressed[1] & 0xFF) << 8
+                | (compressed[2] & 0xFF) << 16 | (compressed[3] & 0xFF) << 24;
+
+        // 4 字节小端序原文长度 + zlib 头
+        assertEquals(text.getBytes(StandardCharsets.UTF_8).length, length);
+        assertEquals(0x78, compressed[4] & 0xFF);
+        assertEquals(0, CompressedTextTypeHandler.compress("").length);
+        assertEquals("", CompressedTextTypeHandler.decompress(new byte[0]));
+    }
+
+    @Test
+    void testReadLegacyPlainText() {
+        String chinese = "夜色渐深，山风呼啸。";
+        String ascii = "xyz plain text";
+
+        assertEquals(chinese, CompressedTextTypeHandler.decompress(chinese.getBytes(StandardCharsets.UTF_8)));
+        assertEquals(ascii, CompressedTextTypeHandler.decompress(ascii.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    void testRejectCorruptData() {
+        byte[] compressed = CompressedTextTypeHandler.compress(generateChapter(new Random(2), 3000));
+
+        // 长度前缀超过上限：不按前缀分配内存
+        byte[] oversized = compressed.clone();
+        oversized[3] = 0x7F;
+        assertThrows(IllegalStateException.class, () -> CompressedTextTypeHandler.decompress(oversized));
+
+        // 长度前缀小于实际解压长度
+        byte[] shorterPrefix = compressed.clone();
+        int length = (compressed[0] & 0xFF) | (compressed[1] & 0xFF) << 8
+                | (compressed[2] & 0xFF) << 16 | (compressed[3] & 0xFF) << 24;
+        for (int i = 0; i < 4; i++) {
+            shorterPrefix[i] = (byte) ((length - 1) >>> (8 * i));
+        }
+        assertThrows(IllegalStateException.class, () -> CompressedTextTypeHandler.decompress(shorterPrefix));
+
+        // 数据被截断
+        byte[] truncated = Arrays.copyOf(compressed, compressed.length / 2);
+        assertThrows(IllegalStateException.class, () -> CompressedTextTypeHandler.decompress(truncated));
+    }
+
+    /**
+     * 压缩率与读取耗时基准：200 章 × 约 3000 字
+     * <p>
+     * 默认跳过，通过 -Dbenchmark 开启
+     */
+    @Test
+    void benchmarkCompression() {
+        assumeTrue(System.getProperty("benchmark") != null);
+        Random random = new Random(42);
+        List<String> chapters = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            chapters.add(generateChapter(random, 3000));
+        }
+
+        long rawBytes = 0;
+        long compressedBytes = 0;
+        List<byte[]> raw = new ArrayList<>();
+        List<byte[]> compressed = new ArrayList<>();
+        long compressStart = System.nanoTime();
+        for (String chapter : chapters) {
+            byte[] plain = chapter.getBytes(StandardCharsets.UTF_8);
+            byte[] packed = CompressedTextTypeHandler.compress(chapter);
+            raw.add(plain);
+            compressed.add(packed);
+            rawBytes += plain.length;
+            compressedBytes += packed.length;
+        }
+        long compressNanos = System.nanoTime() - compressStart;
+
+        // 预热后计时
+        for (int round = 0; round < 3; round++) {
+            readAll(raw, false);
+            readAll(compressed, true);
+        }
+        long plainNanos = readAll(raw, false);
+        long inflateNanos = readAll(compressed, true);
+
+        log.info("章节正文压缩基准: chapters={}, raw={}KB, compressed={}KB, ratio={}",
+                chapters.size(), rawBytes / 1024, compressedBytes / 1024,
+                String.format("%.2f", (double) rawBytes / compressedBytes));
+        log.info("压缩耗时: {}us/章; 读取耗时: 明文 {}us/章, 解压 {}us/章",
+                compressNanos / 1000 / chapters.size(),
+                plainNanos / 1000 / chapters.size(), inflateNanos / 1000 / chapters.size());
+
+        assertTrue(rawBytes > compressedBytes);
+    }
+
+    private long readAll(List<byte[]> data, boolean compressed) {
+        long start = System.nanoTime();
+        int total = 0;
+        for (byte[] bytes : data) {
+            String text = compressed
+                    ? CompressedTextTypeHandler.decompress(new ByteArrayInputStream(bytes))
+                    : new String(bytes, StandardCharsets.UTF_8);
+            total += text.length();
+        }
+        assertTrue(total > 0);
+        return System.nanoTime() - start;
+    }
+
+    private String generateChapter(Random random, int length) {
+        StringBuilder sb = new StringBuilder(length + 16);
+        while (sb.length() < length) {
+            sb.append(PHRASES[random.nextInt(PHRASES.length)]);
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,159 @@
+package com.dpbug.server.mapper.novel;
+
+import com.baomidou.mybatisplus.core.MybatisConfiguration;
+import com.baomidou.mybatisplus.core.MybatisSqlSessionFactoryBuilder;
+import com.baomidou.mybatisplus.core.config.GlobalConfig;
+import com.baomidou.mybatisplus.core.toolkit.GlobalConfigUtils;
+import com.baomidou.mybatisplus.core.toolkit.IdWorker;
+import com.dpbug.server.handler.MybatisPlusMetaObjectHandler;
+import com.dpbug.server.model.entity.novel.NovelOutline;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.ibatis.datasource.pooled.PooledDataSource;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+/**
+ * 大纲批量插入基准测试
+ *
+ * <p>需要可用的 MySQL（已执行 init.sql），默认跳过，运行方式：</p>
+ * <pre>
+ * mvn -pl write-server test -Dtest=OutlineBatchInsertBenchmarkTest \
+ *     -Dbenchmark.mysql.url="jdbc:mysql://localhost:3306/do_write?rewriteBatchedStatements=true" \
+ *     -Dbenchmark.mysql.username=root -Dbenchmark.mysql.password=root
+ * </pre>
+ * <p>分别逐条插入和批量插入 500 条大纲并输出耗时，测试数据写入随机项目ID，结束后删除。</p>
+ *
+ * @author dpbug
+ */
+@Slf4j
+@EnabledIfSystemProperty(named = "benchmark.mysql.url", matches = ".+")
+class OutlineBatchInsertBenchmarkTest {
+
+    private static final int OUTLINE_COUNT = 500;
+
+    private static PooledDataSource dataSource;
+    private static SqlSessionFactory sqlSessionFactory;
+    private static final List<Long> projectIds = new ArrayList<>();
+
+    @BeforeAll
+    static void setUp() {
+        dataSource = new PooledDataSource("com.mysql.cj.jdbc.Driver",
+                System.getProperty("benchmark.mysql.url"),
+                System.getProperty("benchmark.mysql.username", "root"),
+                System.getProperty("benchmark.mysql.password", "root"));
+
+        MybatisConfiguration configuration = new MybatisConfiguration(
+                new Environment("benchmark", new JdbcTransactionFactory(), dataSource));
+        configuration.setMapUnderscoreToCamelCase(true);
+        GlobalConfig globalConfig = GlobalConfigUtils.defaults();
+        globalConfig.setMetaObjectHandler(new MybatisPlusMetaObjectHandler());
+        GlobalConfigUtils.setGlobalConfig(configuration, globalConfig);
+        configuration.addMapper(OutlineMapper.class);
+        sqlSessionFactory = new MybatisSqlSessionFactoryBuilder().build(configuration);
+    }
+
+    @AfterAll
+    static void tearDown() throws Exception {
+        if (dataSource == null) {
+            return;
+        }
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement("DELETE FROM novel_outline WHERE project_id = ?")) {
+            for (Long projectId : projectIds) {
+                statement.setLong(1, projectId);
+                statement.executeUpdate();
+            }
+        }
+        dataSource.forceCloseAll();
+    }
+
+    @Test
+    void benchmarkInsertOutlines() throws Exception {
+        // 预热连接与语句
+        insertOneByOne(buildOutlines(10));
+        insertBatch(buildOutlines(10));
+
+        List<NovelOutline> single = buildOutlines(OUTLINE_COUNT);
+        long singleStart = System.nanoTime();
+        insertOneByOne(single);
+        long singleMillis = (System.nanoTime() - singleStart) / 1_000_000;
+
+        List<NovelOutline> batch = buildOutlines(OUTLINE_COUNT);
+        long batchStart = System.nanoTime();
+        insertBatch(batch);
+        long batchMillis = (System.nanoTime() - batchStart) / 1_000_000;
+
+        log.info("插入 {} 条大纲: 逐条 {}ms, 批量 {}ms", OUTLINE_COUNT, singleMillis, batchMillis);
+
+        // 批量插入前已分配ID，JSON 字段经类型处理器写入
+        Set<Long> ids = new HashSet<>();
+        batch.forEach(outline -> ids.add(outline.getId()));
+        assertEquals(OUTLINE_COUNT, ids.size());
+        assertEquals(OUTLINE_COUNT, countWithStructure(batch.get(0).getProjectId()));
+        assertEquals(OUTLINE_COUNT, countWithStructure(single.get(0).getProjectId()));
+    }
+
+    private void insertOneByOne(List<NovelOutline> outlines) {
+        try (SqlSession session = sqlSessionFactory.openSession(false)) {
+            OutlineMapper mapper = session.getMapper(OutlineMapper.class);
+            outlines.forEach(mapper::insert);
+            session.commit();
+        }
+    }
+
+    private void insertBatch(List<NovelOutline> outlines) {
+        try (SqlSession session = sqlSessionFactory.openSession(false)) {
+            OutlineMapper mapper = session.getMapper(OutlineMapper.class);
+            mapper.insert(outlines);
+            session.commit();
+        }
+        outlines.forEach(outline -> assertNotNull(outline.getId()));
+    }
+
+    private List<NovelOutline> buildOutlines(int count) {
+        long projectId = IdWorker.getId();
+        projectIds.add(projectId);
+        List<NovelOutline> outlines = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            NovelOutline outline = new NovelOutline();
+            outline.setProjectId(projectId);
+            outline.setOrderIndex(i + 1);
+            outline.setTitle("第" + (i + 1) + "卷 风起");
+            outline.setContent("少年离开山村，踏入宗门，在外门试炼中崭露头角。".repeat(10));
+            outline.setStructure(Map.of("plotPoints", List.of("离开山村", "拜入宗门", "外门试炼"),
+                    "conflict", "外门弟子的排挤"));
+            outlines.add(outline);
+        }
+        return outlines;
+    }
+
+    private long countWithStructure(Long projectId) throws Exception {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(
+                     "SELECT COUNT(*) FROM novel_outline WHERE project_id = ? AND structure IS NOT NULL")) {
+            statement.setLong(1, projectId);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                resultSet.next();
+                return resultSet.getLong(1);
+            }
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package com.dpbug.server.service.novel.impl;
+
+import com.dpbug.server.ai.ChatClientFactory;
+import com.dpbug.server.mapper.novel.ChapterContentMapper;
+import com.dpbug.server.mapper.novel.ChapterMapper;
+import com.dpbug.server.mapper.novel.PlotAnalysisMapper;
+import com.dpbug.server.model.entity.novel.NovelChapter;
+import com.dpbug.server.model.entity.novel.NovelPlotAnalysis;
+import com.dpbug.server.model.entity.novel.NovelProject;
+import com.dpbug.server.model.vo.novel.PlotAnalysisVO;
+import com.dpbug.server.service.novel.PlotAnalysisService;
+import com.dpbug.server.service.novel.ProjectService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.EnableTransactionManagement;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 剧情分析连接池占用回归测试
+ *
+ * <p>用只有 {@value #POOL_SIZE} 个连接的数据源代替连接池，模型调用阻塞到所有分析都进入 AI 阶段后才返回：
+ * 如果分析在事务内调用模型，只有 {@value #POOL_SIZE} 个请求能拿到连接，其余请求等待连接超时，测试失败</p>
+ *
+ * @author dpbug
+ */
+class PlotAnalysisPoolSaturationTest {
+
+    private static final int POOL_SIZE = 2;
+    private static final int CONCURRENT_ANALYSES = 10;
+    private static final Long USER_ID = 1L;
+    private static final Long PROJECT_ID = 100L;
+    private static final int CONTENT_VERSION = 3;
+
+    private static final String ANALYSIS_JSON = """
+            {"plotStage": "发展", "conflict": {"level": 6, "types": ["人物冲突"]}, "analysisReport": "报告"}
+            """;
+
+    private final Semaphore pool = new Semaphore(POOL_SIZE);
+    private final AtomicInteger connectionsInUse = new AtomicInteger();
+    private final AtomicInteger maxConnectionsDuringAi = new AtomicInteger();
+    private final CountDownLatch allInAiPhase = new CountDownLatch(CONCURRENT_ANALYSES);
+
+    private AnnotationConfigApplicationContext context;
+    private ExecutorService callers;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        ChapterMapper chapterMapper = mock(ChapterMapper.class);
+        when(chapterMapper.selectById(any())).thenAnswer(invocation -> chapter(invocation.getArgument(0)));
+        when(chapterMapper.selectContentRevisionForShare(anyLong())).thenReturn(CONTENT_VERSION);
+
+        ChapterContentMapper chapterContentMapper = mock(ChapterContentMapper.class);
+        when(chapterContentMapper.selectCurrentContent(anyLong())).thenReturn("章节正文");
+
+        PlotAnalysisMapper plotAnalysisMapper = mock(PlotAnalysisMapper.class);
+        doAnswer(invocation -> {
+            invocation.<NovelPlotAnalysis>getArgument(0).setId(System.nanoTime());
+            return 1;
+        }).when(plotAnalysisMapper).insert(any(NovelPlotAnalysis.class));
+        when(plotAnalysisMapper.selectById(any())).thenAnswer(invocation -> {
+            NovelPlotAnalysis saved = new NovelPlotAnalysis();
+            saved.setId(invocation.getArgument(0));
+            saved.setContentVersion(CONTENT_VERSION);
+            return saved;
+        });
+
+        ProjectService projectService = mock(ProjectService.class);
+        NovelProject project = new NovelProject();
+        project.setId(PROJECT_ID);
+        when(projectService.checkOwnership(anyLong(), anyLong())).thenReturn(project);
+
+        ChatClient chatClient = mock(ChatClient.class, RETURNS_DEEP_STUBS);
+        when(chatClient.prompt().user(anyString()).call().content()).thenAnswer(invocation -> {
+            maxConnectionsDuringAi.accumulateAndGet(connectionsInUse.get(), Math::max);
+            allInAiPhase.countDown();
+            // 所有分析都进入 AI 阶段后才返回，模拟耗时的模型调用
+            assertTrue(allInAiPhase.await(5, TimeUnit.SECONDS), "并发分析没有全部进入 AI 阶段");
+            return ANALYSIS_JSON;
+        });
+        ChatClientFactory chatClientFactory = mock(ChatClientFactory.class);
+        when(chatClientFactory.createForUserWithMinTokens(anyLong(), anyInt())).thenReturn(chatClient);
+        when(chatClientFactory.getCurrentModelName(anyLong())).thenReturn("test-model");
+
+        context = new AnnotationConfigApplicationContext();
+        context.register(TransactionConfig.class);
+        context.registerBean(PlatformTransactionManager.class, () -> new DataSourceTransactionManager(boundedDataSource()));
+        context.registerBean(ChapterMapper.class, () -> chapterMapper);
+        context.registerBean(ChapterContentMapper.class, () -> chapterContentMapper);
+        context.registerBean(PlotAnalysisMapper.class, () -> plotAnalysisMapper);
+        context.registerBean(ProjectService.class, () -> projectService);
+        context.registerBean(ChatClientFactory.class, () -> chatClientFactory);
+        context.registerBean(PlotAnalysisStore.class);
+        context.registerBean(PlotAnalysisServiceImpl.class);
+        context.refresh();
+
+        callers = Executors.newFixedThreadPool(CONCURRENT_ANALYSES);
+    }
+
+    @AfterEach
+    void tearDown() {
+        callers.shutdownNow();
+        context.close();
+    }
+
+    @Test
+    void testAiPhaseDoesNotHoldConnections() throws Exception {
+        PlotAnalysisService service = context.getBean(PlotAnalysisService.class);
+
+        List<Future<PlotAnalysisVO>> results = new ArrayList<>();
+        for (int i = 0; i < CONCURRENT_ANALYSES; i++) {
+            long chapterId = i + 1;
+            results.add(callers.submit(() -> service.analyzeChapter(USER_ID, chapterId, true)));
+        }
+        for (Future<PlotAnalysisVO> result : results) {
+            assertEquals(CONTENT_VERSION, result.get(10, TimeUnit.SECONDS).getContentVersion());
+        }
+
+        assertEquals(0, maxConnectionsDuringAi.get());
+        assertEquals(0, connectionsInUse.get());
+        assertEquals(POOL_SIZE, pool.availablePermits());
+    }
+
+    /**
+     * 最多 {@value #POOL_SIZE} 个连接，取不到连接时等待 1 秒后失败（对应 Druid 的 max-wait）
+     */
+    private DataSource boundedDataSource() {
+        DataSource dataSource = mock(DataSource.class);
+        try {
+            when(dataSource.getConnection()).thenAnswer(invocation -> {
+                if (!pool.tryAcquire(1, TimeUnit.SECONDS)) {
+                    throw new SQLException("连接池已耗尽");
+                }
+                connectionsInUse.incrementAndGet();
+                Connection connection = mock(Connection.class);
+                doAnswer(close -> {
+                    connectionsInUse.decrementAndGet();
+                    pool.release();
+                    return null;
+                }).when(connection).close();
+                return connection;
+            });
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+        return dataSource;
+    }
+
+    private NovelChapter chapter(Long chapterId) {
+        NovelChapter chapter = new NovelChapter();
+        chapter.setId(chapterId);
+        chapter.setProjectId(PROJECT_ID);
+        chapter.setChapterNumber(chapterId.intValue());
+        chapter.setTitle("第" + chapterId + "章");
+        chapter.setContentRevision(CONTENT_VERSION);
+        return chapter;
+    }
+
+    @Configuration
+    @EnableTransactionManagement
+    static class TransactionConfig {
+    }
+}
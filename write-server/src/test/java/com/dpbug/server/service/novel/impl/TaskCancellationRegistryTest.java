@@ -0,0 +1,108 @@
+package com.dpbug.server.service.novel.impl;
+
+import com.dpbug.common.constant.NovelConstants;
+import com.dpbug.server.mapper.novel.GenerationTaskMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * TaskCancellationRegistry 测试类
+ *
+ * @author dpbug
+ */
+class TaskCancellationRegistryTest {
+
+    private static final Long TASK_ID = 1L;
+
+    private final GenerationTaskMapper taskMapper = mock(GenerationTaskMapper.class);
+    private final TaskCancellationRegistry registry = new TaskCancellationRegistry(
+            null, taskMapper, false, "novel:task-cancel", Duration.ofMinutes(1));
+
+    @BeforeEach
+    void setUp() {
+        when(taskMapper.selectEffectiveStatus(anyLong())).thenReturn(NovelConstants.TaskStatus.RUNNING);
+    }
+
+    @Test
+    void testCancelDisposesBoundStream() {
+        // 模拟持续输出的 AI 流
+        Sinks.Many<String> tokens = Sinks.many().unicast().onBackpressureBuffer();
+        AtomicBoolean upstreamCancelled = new AtomicBoolean();
+        Flux<String> bound = registry.bind(TASK_ID, tokens.asFlux().doOnCancel(() -> upstreamCancelled.set(true)));
+
+        List<String> received = new ArrayList<>();
+        AtomicReference<Throwable> error = new AtomicReference<>();
+        Disposable subscription = bound.subscribe(received::add, error::set);
+
+        tokens.tryEmitNext("第一段");
+        registry.cancel(TASK_ID);
+        tokens.tryEmitNext("第二段");
+
+        assertEquals(List.of("第一段"), received);
+        assertInstanceOf(CancellationException.class, error.get());
+        assertTrue(subscription.isDisposed());
+        assertTrue(upstreamCancelled.get());
+        assertTrue(registry.isCancelled(TASK_ID));
+        assertThrows(CancellationException.class, () -> registry.throwIfCancelled(TASK_ID));
+
+        // 取消后再绑定的流不会被订阅
+        assertThrows(CancellationException.class, () -> registry.bind(TASK_ID, Flux.just("x")).blockLast());
+    }
+
+    @Test
+    void testOtherTasksUnaffected() {
+        registry.cancel(TASK_ID);
+
+        assertFalse(registry.isCancelled(2L));
+        assertEquals(List.of("a", "b"), registry.bind(2L, Flux.just("a", "b")).collectList().block());
+        registry.release(2L);
+    }
+
+    @Test
+    void testFallsBackToTaskTableWhenNotificationMissed() {
+        when(taskMapper.selectEffectiveStatus(TASK_ID))
+                .thenReturn(NovelConstants.TaskStatus.RUNNING, NovelConstants.TaskStatus.CANCELLED);
+
+        assertFalse(registry.isCancelled(TASK_ID));
+        // 检查间隔内不重复查询任务表
+        assertFalse(registry.isCancelled(TASK_ID));
+        verify(taskMapper, times(1)).selectEffectiveStatus(TASK_ID);
+
+        // 其他实例取消了任务但本实例没有收到通知
+        registry.release(TASK_ID);
+        assertTrue(registry.isCancelled(TASK_ID));
+        assertThrows(CancellationException.class, () -> registry.bind(TASK_ID, Flux.just("x")).blockLast());
+        verify(taskMapper, times(2)).selectEffectiveStatus(TASK_ID);
+    }
+
+    @Test
+    void testMissingTaskTreatedAsCancelled() {
+        // 项目清理已删除任务记录，或所属项目已删除（查询返回 cancelled）
+        when(taskMapper.selectEffectiveStatus(2L)).thenReturn(null);
+        when(taskMapper.selectEffectiveStatus(3L)).thenReturn(NovelConstants.TaskStatus.CANCELLED);
+
+        assertTrue(registry.isCancelled(2L));
+        assertTrue(registry.isCancelled(3L));
+    }
+}
@@ -0,0 +1,81 @@
+package com.dpbug.server.service.novel.impl;
+
+import com.dpbug.server.mapper.novel.GenerationTaskMapper;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * TaskProgressBuffer 测试类
+ *
+ * @author dpbug
+ */
+class TaskProgressBufferTest {
+
+    private static final Long TASK_ID = 1L;
+
+    private final GenerationTaskMapper taskMapper = mock(GenerationTaskMapper.class);
+
+    @Test
+    void testCoalescesUpdatesWithinInterval() {
+        when(taskMapper.updateProgress(any(), anyInt(), anyString())).thenReturn(1);
+        TaskProgressBuffer buffer = new TaskProgressBuffer(taskMapper, Duration.ofHours(1));
+
+        // 第一次立即写入（待执行 -> 执行中），间隔内的后续更新只保留最新值
+        buffer.update(TASK_ID, 0, "开始");
+        for (int i = 1; i <= 50; i++) {
+            buffer.update(TASK_ID, i, "第 " + i + " 章");
+        }
+        buffer.flushDue();
+        verify(taskMapper).updateProgress(TASK_ID, 0, "开始");
+        verifyNoMoreInteractions(taskMapper);
+
+        // 停机时写入最新进度
+        buffer.flushAll();
+        verify(taskMapper).updateProgress(TASK_ID, 50, "第 50 章");
+        verifyNoMoreInteractions(taskMapper);
+    }
+
+    @Test
+    void testWritesAgainAfterInterval() {
+        when(taskMapper.updateProgress(any(), anyInt(), anyString())).thenReturn(1);
+        TaskProgressBuffer buffer = new TaskProgressBuffer(taskMapper, Duration.ZERO);
+
+        buffer.update(TASK_ID, 10, "a");
+        buffer.update(TASK_ID, 20, "b");
+        verify(taskMapper, times(2)).updateProgress(any(), anyInt(), anyString());
+
+        // 没有新的进度时定时写入不重复更新
+        buffer.flushDue();
+        verify(taskMapper, times(2)).updateProgress(any(), anyInt(), anyString());
+    }
+
+    @Test
+    void testDiscardAndFinishedTasks() {
+        when(taskMapper.updateProgress(any(), anyInt(), anyString())).thenReturn(1);
+        TaskProgressBuffer buffer = new TaskProgressBuffer(taskMapper, Duration.ofHours(1));
+
+        buffer.update(TASK_ID, 0, "开始");
+        buffer.update(TASK_ID, 60, "处理中");
+        buffer.discard(TASK_ID);
+        buffer.flushAll();
+        verify(taskMapper, never()).updateProgress(TASK_ID, 60, "处理中");
+        assertEquals(0, buffer.size());
+
+        // 任务已结束（更新 0 行）时不再保留缓冲
+        when(taskMapper.updateProgress(any(), anyInt(), anyString())).thenReturn(0);
+        buffer.update(2L, 0, "开始");
+        assertEquals(0, buffer.size());
+    }
+}
@@ -0,0 +1,149 @@
+package com.dpbug.server.util;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * ManuscriptSplitter 测试类
+ *
+ * @author dpbug
+ */
+@Slf4j
+class ManuscriptSplitterTest {
+
+    private static final List<Pattern> PATTERNS = List.of(
+            Pattern.compile("第[0-9零一二三四五六七八九十百千万两〇]+[章回节卷].*"),
+            Pattern.compile("(Chapter|CHAPTER)\\s+\\d+.*"),
+            Pattern.compile("#{1,3}\\s+.+")
+    );
+
+    @Test
+    void testSplitTxt() throws IOException {
+        String text = "\uFEFF风起青云\n作者：某人\n\n第一卷 出山\n\n第一章 下山\n  少年下山。  \n\n风起了。\n"
+                + "第二章 入门\r\n拜入宗门。\r\n";
+        List<ManuscriptSplitter.Chapter> chapters = splitAll(text, 1000);
+
+        assertEquals(3, chapters.size());
+        // 首个标题之前的内容作为序章，只有标题的卷名被跳过
+        assertEquals(ManuscriptSplitter.PROLOGUE_TITLE, chapters.get(0).title());
+        assertEquals("风起青云\n作者：某人", chapters.get(0).content());
+        assertEquals("第一章 下山", chapters.get(1).title());
+        assertEquals("少年下山。\n风起了。", chapters.get(1).content());
+        assertEquals("第二章 入门", chapters.get(2).title());
+        assertEquals("拜入宗门。", chapters.get(2).content());
+    }
+
+    @Test
+    void testSplitMarkdown() throws IOException {
+        String text = "# 风起青云\n\n## Chapter 1 The Road\n\nHe left.\n\n## 第二章\n\n他回来了。\n";
+        List<ManuscriptSplitter.Chapter> chapters = splitAll(text, 1000);
+
+        assertEquals(2, chapters.size());
+        assertEquals("Chapter 1 The Road", chapters.get(0).title());
+        assertEquals("He left.", chapters.get(0).content());
+        assertEquals("第二章", chapters.get(1).title());
+    }
+
+    @Test
+    void testCustomPatternAndLimit() throws IOException {
+        ManuscriptSplitter splitter = new ManuscriptSplitter(new StringReader("【1】\n甲\n【2】\n乙\n"),
+                List.of(Pattern.compile("【\\d+】")), 1000);
+        assertEquals("甲", splitter.next().content());
+        assertEquals("【2】", splitter.next().title());
+        assertNull(splitter.next());
+        assertNull(splitter.next());
+
+        // 没有匹配到标题时整本书稿落在一章里，超过上限即失败
+        assertThrows(IllegalStateException.class, () -> splitAll("一二三四五\n六七八九十\n", 8));
+    }
+
+    /**
+     * 逐章读取合成的 200 万字书稿，书稿由 Reader 边读边生成，不占用整本内存
+     */
+    @Test
+    void benchmarkTwoMillionCharacters() throws IOException {
+        int chapters = 700;
+        int paragraphsPerChapter = 40;
+        String paragraph = "林远缓缓说道，夜色渐深，山风呼啸，青云宗的剑光划破天际，他皱起眉头，沉默片刻。".repeat(2);
+        Reader reader = new SyntheticManuscriptReader(chapters, paragraphsPerChapter, paragraph);
+
+        long start = System.nanoTime();
+        ManuscriptSplitter splitter = new ManuscriptSplitter(reader, PATTERNS, 200_000);
+        int count = 0;
+        long characters = 0;
+        ManuscriptSplitter.Chapter chapter;
+        while ((chapter = splitter.next()) != null) {
+            count++;
+            characters += chapter.content().length();
+        }
+        long millis = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+        log.info("切分书稿: {} 章, {} 字, 耗时 {}ms", count, characters, millis);
+
+        assertEquals(chapters, count);
+        assertTrue(characters >= 2_000_000);
+    }
+
+    private List<ManuscriptSplitter.Chapter> splitAll(String text, int maxChapterChars) throws IOException {
+        ManuscriptSplitter splitter = new ManuscriptSplitter(new StringReader(text), PATTERNS, maxChapterChars);
+        List<ManuscriptSplitter.Chapter> chapters = new ArrayList<>();
+        ManuscriptSplitter.Chapter chapter;
+        while ((chapter = splitter.next()) != null) {
+            chapters.add(chapter);
+        }
+        return chapters;
+    }
+
+    /**
+     * 按需生成书稿文本的 Reader
+     */
+    private static class SyntheticManuscriptReader extends Reader {
+
+        private final int chapters;
+        private final int paragraphsPerChapter;
+        private final String paragraph;
+        private int line;
+        private String current = "";
+        private int position;
+
+        SyntheticManuscriptReader(int chapters, int paragraphsPerChapter, String paragraph) {
+            this.chapters = chapters;
+            this.paragraphsPerChapter = paragraphsPerChapter;
+            this.paragraph = paragraph;
+        }
+
+        @Override
+        public int read(char[] buffer, int offset, int length) {
+            if (position >= current.length()) {
+                int linesPerChapter = paragraphsPerChapter + 1;
+                if (line >= chapters * linesPerChapter) {
+                    return -1;
+                }
+                current = line % linesPerChapter == 0
+                        ? "第" + (line / linesPerChapter + 1) + "章 标题\n"
+                        : paragraph + "\n\n";
+                position = 0;
+                line++;
+            }
+            int n = Math.min(length, current.length() - position);
+            current.getChars(position, position + n, buffer, offset);
+            position += n;
+            return n;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
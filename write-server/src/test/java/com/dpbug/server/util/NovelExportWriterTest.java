@@ -0,0 +1,141 @@
+package com.dpbug.server.util;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * NovelExportWriter 测试类
+ *
+ * @author dpbug
+ */
+@Slf4j
+class NovelExportWriterTest {
+
+    private static final String[] PHRASES = {
+            "林远", "苏晴", "青云宗", "天剑峰", "缓缓说道", "皱起眉头", "冷笑一声", "沉默片刻",
+            "剑光", "灵气", "夜色渐深", "山风呼啸", "的", "了", "在", "他", "她", "，", "，", "。", "。", "\n"
+    };
+
+    @Test
+    void testTxtAndMarkdown() throws IOException {
+        String txt = write(NovelExportWriter.Format.TXT);
+        assertTrue(txt.startsWith("风起青云\n\n一个少年的故事\n\n"));
+        assertTrue(txt.contains("第一章 <出山>\n\n　　少年下山。\n　　风起了。\n"));
+
+        String markdown = write(NovelExportWriter.Format.MARKDOWN);
+        assertTrue(markdown.startsWith("# 风起青云\n\n> 一个少年的故事\n\n"));
+        assertTrue(markdown.contains("## 第二章 & 入门\n\n拜入宗门。\n\n"));
+    }
+
+    @Test
+    void testEpubStructure() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writeBook(NovelExportWriter.create(NovelExportWriter.Format.EPUB, out));
+
+        Map<String, String> entries = new LinkedHashMap<>();
+        try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(out.toByteArray()), StandardCharsets.UTF_8)) {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                if (entries.isEmpty()) {
+                    // mimetype 必须是第一个且未压缩的条目
+                    assertEquals("mimetype", entry.getName());
+                    assertEquals(ZipEntry.STORED, entry.getMethod());
+                }
+                entries.put(entry.getName(), new String(zip.readAllBytes(), StandardCharsets.UTF_8));
+            }
+        }
+
+        assertEquals("application/epub+zip", entries.get("mimetype"));
+        assertTrue(entries.get("META-INF/container.xml").contains("OEBPS/content.opf"));
+        assertTrue(entries.get("OEBPS/chapter-00001.xhtml").contains("<h2>第一章 &lt;出山&gt;</h2>"));
+        assertTrue(entries.get("OEBPS/chapter-00002.xhtml").contains("<p>拜入宗门。</p>"));
+        assertTrue(entries.get("OEBPS/nav.xhtml").contains("<a href=\"chapter-00002.xhtml\">第二章 &amp; 入门</a>"));
+        String opf = entries.get("OEBPS/content.opf");
+        assertTrue(opf.contains("<dc:title>风起青云</dc:title>"));
+        assertTrue(opf.contains("<itemref idref=\"c2\"/>"));
+        assertTrue(entries.containsKey("OEBPS/toc.ncx"));
+    }
+
+    /**
+     * 合成 200 万字的小说逐章写出，章节边生成边写入，模拟游标读取
+     */
+    @Test
+    void benchmarkTwoMillionCharacters() throws IOException {
+        int chapters = 700;
+        int charsPerChapter = 2_000_000 / chapters + 1;
+        for (NovelExportWriter.Format format : NovelExportWriter.Format.values()) {
+            CountingOutputStream out = new CountingOutputStream();
+            Random random = new Random(1);
+            long start = System.nanoTime();
+
+            NovelExportWriter writer = NovelExportWriter.create(format, out);
+            writer.begin("基准测试", "合成正文");
+            long characters = 0;
+            for (int i = 1; i <= chapters; i++) {
+                String content = generateChapter(random, charsPerChapter);
+                characters += content.length();
+                writer.chapter("第" + i + "章", content);
+            }
+            writer.finish();
+
+            long millis = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+            log.info("导出 {}: {} 字, 输出 {} KB, 耗时 {}ms, {} 万字/秒",
+                    format, characters, out.count / 1024, millis, characters * 1000 / millis / 10_000);
+            assertTrue(characters >= 2_000_000);
+            assertTrue(out.count > 0);
+        }
+    }
+
+    private String write(NovelExportWriter.Format format) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writeBook(NovelExportWriter.create(format, out));
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    private void writeBook(NovelExportWriter writer) throws IOException {
+        writer.begin("风起青云", "一个少年的故事");
+        writer.chapter("第一章 <出山>", "少年下山。\n\n  风起了。  \n");
+        writer.chapter("第二章 & 入门", "拜入宗门。");
+        writer.finish();
+    }
+
+    private String generateChapter(Random random, int length) {
+        StringBuilder sb = new StringBuilder(length + 8);
+        while (sb.length() < length) {
+            sb.append(PHRASES[random.nextInt(PHRASES.length)]);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 只计数不保存的输出流
+     */
+    private static class CountingOutputStream extends OutputStream {
+
+        private long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.dpbug.server.util;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * ParagraphDiff 测试类
+ *
+ * @author dpbug
+ */
+class ParagraphDiffTest {
+
+    @Test
+    void testDiffAndApply() {
+        List<String> base = ParagraphDiff.split("第一段\n第二段\n\n第三段\n第四段");
+        List<String> target = ParagraphDiff.split("第一段\n第二段（润色）\n\n第三段\n新增段落\n第四段");
+
+        List<ParagraphDiff.Op> ops = ParagraphDiff.diff(base, target);
+
+        assertEquals(target, ParagraphDiff.apply(base, ops));
+        assertEquals("第一段\n第二段（润色）\n\n第三段\n新增段落\n第四段", ParagraphDiff.join(target));
+    }
+
+    @Test
+    void testEdgeCases() {
+        List<String> text = ParagraphDiff.split("甲\n乙");
+
+        assertEquals(List.of(), ParagraphDiff.apply(text, ParagraphDiff.diff(text, List.of())));
+        assertEquals(text, ParagraphDiff.apply(List.of(), ParagraphDiff.diff(List.of(), text)));
+        assertEquals(1, ParagraphDiff.diff(text, text).size());
+    }
+
+    @Test
+    void testPolishDeltaIsSmall() throws Exception {
+        Random random = new Random(7);
+        List<String> original = new ArrayList<>();
+        for (int i = 0; i < 80; i++) {
+            original.add("第" + i + "段" + "夜色渐深，山风呼啸，林远握紧了手中的剑。".repeat(1 + random.nextInt(4)));
+        }
+        // 模拟润色：改写约 10% 的段落
+        List<String> polished = new ArrayList<>(original);
+        for (int i = 0; i < polished.size(); i += 10) {
+            polished.set(i, polished.get(i) + "（润色）");
+        }
+
+        // 版本库存反向差异：旧版本 = 在新版本上应用差异
+        ObjectMapper objectMapper = new ObjectMapper();
+        String json = objectMapper.writeValueAsString(ParagraphDiff.diff(polished, original));
+        List<ParagraphDiff.Op> ops = objectMapper.readValue(json, new TypeReference<>() {
+        });
+
+        assertEquals(original, ParagraphDiff.apply(polished, ops));
+        assertTrue(json.length() < ParagraphDiff.join(original).length() / 4,
+                "差异大小 " + json.length() + " 应明显小于全文 " + ParagraphDiff.join(original).length());
+    }
+}
@@ -0,0 +1,143 @@
+package com.dpbug.server.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * SimHash 测试类
+ *
+ * <p>用与记忆相近的短文本（标题 + 约 30 字内容）固定 novel.memory.dedup 的默认值：
+ * 同一事件的改写应同时满足指纹距离与字符相似度，不同事件（包括人物、地点、伤情相同的事件）至少有一项不满足</p>
+ *
+ * @author dpbug
+ */
+class SimHashTest {
+
+    /**
+     * 与 novel.memory.dedup.max-hamming-distance 默认值一致
+     */
+    private static final int MAX_DISTANCE = 18;
+
+    /**
+     * 与 novel.memory.dedup.ngram 默认值一致
+     */
+    private static final int NGRAM = 1;
+
+    /**
+     * 与 novel.memory.dedup.min-similarity 默认值一致
+     */
+    private static final double MIN_SIMILARITY = 0.45;
+
+    /**
+     * 同一事件的两种表述
+     */
+    private static final List<List<String>> DUPLICATES = List.of(
+            List.of("林风突破筑基林风在后山闭关三日，终于突破筑基期，体内灵气暴涨，引来天地异象。",
+                    "林风筑基成功林风闭关三天后成功突破到筑基期，灵气暴涨，天地出现异象。"),
+            List.of("天剑峰比试宗门大比在天剑峰举行，林风一剑击败内门弟子赵天，震惊全场。",
+                    "宗门大比天剑峰宗门大比上，林风仅用一剑便击败了内门弟子赵天，众人震惊。"),
+            List.of("藏经阁失窃藏经阁的镇阁秘典失窃，执法长老怀疑是外门弟子所为，开始彻查。",
+                    "秘典失窃藏经阁镇阁秘典被盗，执法长老认为外门弟子嫌疑最大，下令彻查。"),
+            List.of("老者赠丹神秘老者在破庙赠给林风一枚丹药，叮嘱他十年之内不可踏入北境。",
+                    "破庙老者破庙中的神秘老者送给林风一枚丹药，嘱咐他十年内不要进入北境。"),
+            List.of("师父陨落师父为掩护林风撤离，独自拦住元婴魔修，最终力竭陨落于天剑峰下。",
+                    "师父之死为了掩护林风撤走，师父独自挡住元婴魔修，力竭而亡，陨落在天剑峰下。"),
+            List.of("赵天复仇赵天败后怀恨在心，勾结魔修在林风下山途中设伏，欲夺其性命。",
+                    "赵天设伏赵天落败后心怀怨恨，与魔修勾结，在林风下山路上埋伏，想要杀他。"),
+            List.of("秘境开启万妖秘境百年一开，各宗派遣精英弟子入内争夺灵草，苏晴也在名单中。",
+                    "万妖秘境百年一开的万妖秘境开启，各宗派出精英弟子进入争夺灵草，苏晴名列其中。"),
+            List.of("林风受伤林风在秘境中被妖兽偷袭，左臂被利爪撕开，苏晴为他包扎伤口。",
+                    "林风左臂受伤秘境里林风遭妖兽偷袭，左臂被妖兽利爪撕裂，苏晴替他包扎。")
+    );
+
+    /**
+     * 互不相同的事件
+     */
+    private static final List<String> DISTINCT = List.of(
+            "林风突破筑基林风在后山闭关三日，终于突破筑基期，体内灵气暴涨，引来天地异象。",
+            "林风结识苏晴林风在坊市救下被妖兽追杀的苏晴，两人结伴前往青云宗参加入门考核。",
+            "天剑峰比试宗门大比在天剑峰举行，林风一剑击败内门弟子赵天，震惊全场。",
+            "藏经阁失窃藏经阁的镇阁秘典失窃，执法长老怀疑是外门弟子所为，开始彻查。",
+            "老者赠丹神秘老者在破庙赠给林风一枚丹药，叮嘱他十年之内不可踏入北境。",
+            "秘境开启万妖秘境百年一开，各宗派遣精英弟子入内争夺灵草，苏晴也在名单中。",
+            "赵天复仇赵天败后怀恨在心，勾结魔修在林风下山途中设伏，欲夺其性命。",
+            "师父陨落师父为掩护林风撤离，独自拦住元婴魔修，最终力竭陨落于天剑峰下。",
+            "林风炼丹林风在丹房第一次尝试炼制筑基丹，连续炸炉三次后终于成丹一枚。",
+            "苏晴受伤苏晴在秘境中被妖兽所伤，林风背着她躲进山洞，用灵气为她疗伤。",
+            "北境异动北境魔气翻涌，镇守的长老传讯宗门，称封印出现了裂痕。",
+            "林风拜师林风通过入门考核后被天剑峰峰主收为亲传弟子，赐下一柄古剑。",
+            "古玉发光苏晴身上的古玉在靠近北境时发出微光，似乎与封印有所感应。",
+            "掌门闭关掌门宣布闭关冲击化神，宗门事务暂由大长老代理，内部暗流涌动。",
+            "林风夺魁林风在宗门大比中连胜七场夺得魁首，获得进入藏经阁三层的资格。",
+            "赵天被逐赵天勾结魔修之事败露，被执法长老废去修为，逐出青云宗。",
+            "林风受伤林风在秘境中被妖兽偷袭，左臂被利爪撕开，苏晴为他包扎伤口。",
+            "林风受伤林风在宗门大比中被赵天一掌击中，右腿受伤，被抬下擂台。",
+            "林风受伤林风在秘境中遭魔修埋伏，右腿受伤，苏晴背他逃走。",
+            "林风受伤林风下山途中遭赵天埋伏，右腿中箭，躲进山洞养伤。",
+            "苏晴中毒苏晴在秘境中被毒蛛咬伤，昏迷不醒，林风四处寻找解药。",
+            "苏晴中毒苏晴误食魔修下毒的灵果，毒发昏迷，大长老出手为她逼毒。",
+            "林风闭关林风回到洞府闭关，参悟师父留下的剑诀，七日后剑意大成。",
+            "林风闭关林风在后山闭关冲击金丹，三月未出，外界传言他已走火入魔。",
+            "赵天挑衅赵天在膳堂当众挑衅林风，被林风一招击退。",
+            "赵天挑衅赵天在演武场向林风下战书，约他三日后生死台一战。"
+    );
+
+    @Test
+    void testParaphrasesMerged() {
+        for (List<String> pair : DUPLICATES) {
+            int distance = distance(pair.get(0), pair.get(1));
+            double similarity = SimHash.similarity(pair.get(0), pair.get(1));
+            assertTrue(distance <= MAX_DISTANCE && similarity >= MIN_SIMILARITY,
+                    "改写距离 " + distance + "，相似度 " + similarity + ": " + pair.get(0));
+        }
+    }
+
+    @Test
+    void testDistinctEventsNotMerged() {
+        for (int i = 0; i < DISTINCT.size(); i++) {
+            for (int j = i + 1; j < DISTINCT.size(); j++) {
+                int distance = distance(DISTINCT.get(i), DISTINCT.get(j));
+                double similarity = SimHash.similarity(DISTINCT.get(i), DISTINCT.get(j));
+                assertTrue(distance > MAX_DISTANCE || similarity < MIN_SIMILARITY,
+                        "不同事件距离 " + distance + "，相似度 " + similarity + ": "
+                                + DISTINCT.get(i) + " / " + DISTINCT.get(j));
+            }
+        }
+    }
+
+    @Test
+    void testSameCharacterInjuriesRejectedBySimilarity() {
+        String leftArm = "林风受伤林风在秘境中被妖兽偷袭，左臂被利爪撕开，苏晴为他包扎伤口。";
+        String rightLeg = "林风受伤林风在秘境中遭魔修埋伏，右腿受伤，苏晴背他逃走。";
+
+        // 人物、地点、伤情相同的不同事件，指纹距离落在阈值内，只能靠字符相似度区分
+        assertTrue(distance(leftArm, rightLeg) <= MAX_DISTANCE);
+        assertTrue(SimHash.similarity(leftArm, rightLeg) < MIN_SIMILARITY);
+    }
+
+    @Test
+    void testSimilarity() {
+        assertEquals(1.0, SimHash.similarity("林风，受伤！", "林风受伤"));
+        assertEquals(0.0, SimHash.similarity(null, "林风受伤"));
+        assertEquals(0.0, SimHash.similarity("，。", "林风受伤"));
+        assertEquals(1.0 / 3, SimHash.similarity("林风", "林峰"), 1e-9);
+    }
+
+    @Test
+    void testNormalization() {
+        String text = "林风突破筑基：林风在后山闭关三日，终于突破筑基期！";
+
+        assertEquals(0, distance(text, "林风突破筑基 林风在后山闭关三日 终于突破筑基期"));
+        assertEquals(0L, SimHash.fingerprint(null, NGRAM));
+        assertEquals(0L, SimHash.fingerprint("，。！ \n", NGRAM));
+        assertEquals(SimHash.fingerprint("abc", NGRAM), SimHash.fingerprint("ABC", NGRAM));
+    }
+
+    private int distance(String a, String b) {
+        return SimHash.distance(SimHash.fingerprint(a, NGRAM), SimHash.fingerprint(b, NGRAM));
+    }
+}
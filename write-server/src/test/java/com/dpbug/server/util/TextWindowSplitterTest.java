@@ -0,0 +1,52 @@
+package com.dpbug.server.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * TextWindowSplitter 测试类
+ *
+ * @author dpbug
+ */
+class TextWindowSplitterTest {
+
+    private static final String TEXT = "甲甲甲\n乙乙乙\n\n丙丙丙";
+
+    @Test
+    void testSplitAtParagraphBoundaries() {
+        assertEquals(List.of("甲甲甲\n乙乙乙", "丙丙丙"), TextWindowSplitter.split(TEXT, 7, 0));
+
+        assertEquals(List.of(), TextWindowSplitter.split("  \n ", 7, 0));
+        assertEquals(List.of(TEXT), TextWindowSplitter.split(TEXT, TEXT.length(), 0));
+    }
+
+    @Test
+    void testOverlapCarriesTrailingParagraphs() {
+        assertEquals(List.of("甲甲甲\n乙乙乙", "乙乙乙\n丙丙丙"), TextWindowSplitter.split(TEXT, 7, 3));
+
+        // 末尾段落超过 overlap 时不重叠
+        assertEquals(List.of("甲甲甲\n乙乙乙", "丙丙丙"), TextWindowSplitter.split(TEXT, 7, 2));
+    }
+
+    @Test
+    void testHardSplitLongParagraph() {
+        List<String> windows = TextWindowSplitter.split("一二三四五六七八九十\n短", 4, 0);
+
+        assertEquals(List.of("一二三四", "五六七八", "九十\n短"), windows);
+    }
+
+    @Test
+    void testOverlapNotLessThanWindowSize() {
+        List<String> windows = TextWindowSplitter.split(TEXT, 6, 10);
+
+        // 重叠部分与新段落合计不超过窗口大小，窗口仍能向前推进
+        assertEquals(List.of("甲甲甲\n乙乙乙", "乙乙乙\n丙丙丙"), windows);
+        for (String window : windows) {
+            assertTrue(window.replace("\n", "").length() <= 6);
+        }
+    }
+}